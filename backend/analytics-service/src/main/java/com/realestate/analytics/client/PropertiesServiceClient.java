@@ -4,6 +4,7 @@ import com.realestate.analytics.config.RestTemplateConfig;
 import com.realestate.analytics.dto.PropertyDTO;
 import com.realestate.analytics.dto.PropertySearchCriteria;
 import com.realestate.analytics.dto.PropertySearchResponse;
+import com.realestate.analytics.exception.ApiException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,16 +12,19 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
@@ -32,6 +36,84 @@ public class PropertiesServiceClient {
     @Value("${services.property.url}")
     private String propertyServiceUrl;
 
+    // Ask for CBOR on bulk page fetches; property-service falls back to JSON if it cannot
+    @Value("${services.property.binary-transfer:true}")
+    private boolean binaryTransfer;
+
+    @Value("${services.property.catalogue.page-size:500}")
+    private int cataloguePageSize;
+
+    @Value("${services.property.catalogue.retries:2}")
+    private int catalogueRetries;
+
+    @Value("${services.property.catalogue.retry-backoff-ms:250}")
+    private long catalogueRetryBackoffMs;
+
+    /**
+     * Hand every listing of the catalogue to the consumer, a page at a time and in id order, so
+     * callers can aggregate it without holding all of it. Each page is asked for by the last id
+     * of the one before, which property-service reads straight off the id index: every page costs
+     * the same however far into the catalogue it is, and listings added during the walk land on
+     * later pages instead of shifting earlier ones. The consumer always runs on the calling thread.
+     * <p>
+     * A page that still fails after its retries fails the whole call with a 503
+     * {@link ApiException}: a report over part of the catalogue would look like a real one.
+     */
+    public void forEachCataloguePage(Consumer<List<PropertyDTO>> consumer) {
+        long afterId = 0;
+        while (true) {
+            List<PropertyDTO> page = fetchCataloguePage(afterId);
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+            }
+            if (page.size() < cataloguePageSize) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * The listings following the given id. Retried with a growing pause on failure.
+     */
+    private List<PropertyDTO> fetchCataloguePage(long afterId) {
+        String url = UriComponentsBuilder.fromUriString(propertyServiceUrl + "/api/properties/catalogue")
+                .queryParam("afterId", afterId)
+                .queryParam("limit", cataloguePageSize)
+                .toUriString();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                ResponseEntity<List<PropertyDTO>> response = restTemplate.exchange(
+                        url,
+                        HttpMethod.GET,
+                        new HttpEntity<>(createBulkHeaders()),
+                        new ParameterizedTypeReference<List<PropertyDTO>>() {}
+                );
+                if (response.getBody() != null) {
+                    return response.getBody();
+                }
+                throw new RestClientException("Empty catalogue page after id " + afterId);
+            } catch (RestClientException e) {
+                if (attempt >= catalogueRetries) {
+                    throw catalogueUnavailable(e);
+                }
+                log.warn("Fetching catalogue page after id {} failed, retrying: {}", afterId, e.getMessage());
+                try {
+                    Thread.sleep(catalogueRetryBackoffMs * (attempt + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw catalogueUnavailable(interrupted);
+                }
+            }
+        }
+    }
+
+    private ApiException catalogueUnavailable(Throwable cause) {
+        log.error("Could not fetch the property catalogue", cause);
+        return new ApiException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Property catalogue unavailable: " + cause.getMessage());
+    }
+
     /**
      * Fetch all properties with pagination
      */
@@ -45,7 +127,7 @@ public class PropertiesServiceClient {
             ResponseEntity<PropertySearchResponse> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
-                    new HttpEntity<>(createHeaders()),
+                    new HttpEntity<>(createBulkHeaders()),
                     PropertySearchResponse.class
             );
 
@@ -75,7 +157,7 @@ public class PropertiesServiceClient {
             ResponseEntity<PropertySearchResponse> response = restTemplate.exchange(
                     url,
                     HttpMethod.GET,
-                    new HttpEntity<>(createHeaders()),
+                    new HttpEntity<>(createBulkHeaders()),
                     PropertySearchResponse.class
             );
 
@@ -122,12 +204,7 @@ public class PropertiesServiceClient {
             if (response == null || response.getContent() == null || response.getContent().isEmpty()) {
                 log.debug("No properties found using criteria search for type: {}. Trying alternative approach.", propertyType);
 
-                PropertySearchResponse allResponse = getAllProperties(0, 1000);
-                if (allResponse != null && allResponse.getContent() != null) {
-                    return allResponse.getContent().stream()
-                            .filter(p -> propertyType.equalsIgnoreCase(p.getType()))
-                            .collect(Collectors.toList());
-                }
+                return filterCatalogueByType(propertyType);
             }
 
             return response.getContent();
@@ -136,12 +213,7 @@ public class PropertiesServiceClient {
 
             // Fallback - get all properties and filter manually
             try {
-                PropertySearchResponse response = getAllProperties(0, 1000);
-                if (response != null && response.getContent() != null) {
-                    return response.getContent().stream()
-                            .filter(p -> propertyType.equalsIgnoreCase(p.getType()))
-                            .collect(Collectors.toList());
-                }
+                return filterCatalogueByType(propertyType);
             } catch (Exception ex) {
                 log.error("Fallback failed for fetching properties by type", ex);
             }
@@ -150,6 +222,14 @@ public class PropertiesServiceClient {
         }
     }
 
+    private List<PropertyDTO> filterCatalogueByType(String propertyType) {
+        List<PropertyDTO> properties = new ArrayList<>();
+        forEachCataloguePage(page -> page.stream()
+                .filter(p -> propertyType.equalsIgnoreCase(p.getType()))
+                .forEach(properties::add));
+        return properties;
+    }
+
     /**
      * Get properties by date range (created or updated)
      */
@@ -192,6 +272,15 @@ public class PropertiesServiceClient {
         }
     }
 
+    private HttpHeaders createBulkHeaders() {
+        HttpHeaders headers = createHeaders();
+        if (binaryTransfer) {
+            // Pages are decoded field by field from binary, with no text to parse
+            headers.setAccept(List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON));
+        }
+        return headers;
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Content-Type", "application/json");
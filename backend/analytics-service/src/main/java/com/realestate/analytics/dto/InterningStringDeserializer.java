@@ -0,0 +1,41 @@
+package com.realestate.analytics.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deserializes low-cardinality string fields (type, status, city, state) to one shared instance
+ * per distinct value, so large {@link PropertyDTO} lists don't hold a copy per listing.
+ * The pool is bounded; once full, values are returned as parsed.
+ */
+public class InterningStringDeserializer extends StdScalarDeserializer<String> {
+
+    private static final int MAX_POOL_SIZE = 10_000;
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    public InterningStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String value = parser.getValueAsString();
+        if (value == null) {
+            return null;
+        }
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_POOL_SIZE) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
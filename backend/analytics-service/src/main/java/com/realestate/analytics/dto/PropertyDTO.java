@@ -1,31 +1,38 @@
 package com.realestate.analytics.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
+/**
+ * Listing fields the reports read. The description and images sent by property-service are left
+ * unmapped: unknown properties are skipped without being decoded, which in CBOR means jumping
+ * over their length-prefixed bytes.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PropertyDTO {
     private Long id;
     private String title;
-    private String description;
+    @JsonDeserialize(using = InterningStringDeserializer.class)
     private String type;
+    @JsonDeserialize(using = InterningStringDeserializer.class)
     private String status;
     private BigDecimal price;
     private Integer bedrooms;
     private Integer bathrooms;
     private Double area;
     private String address;
+    @JsonDeserialize(using = InterningStringDeserializer.class)
     private String city;
+    @JsonDeserialize(using = InterningStringDeserializer.class)
     private String state;
     private String zipCode;
-    private List<ImageDTO> images;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package com.realestate.analytics.scheduler;
 
 import com.realestate.analytics.client.PropertiesServiceClient;
 import com.realestate.analytics.dto.PropertyDTO;
-import com.realestate.analytics.dto.PropertySearchResponse;
 import com.realestate.analytics.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +12,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -86,16 +84,11 @@ public class AnalyticsScheduler {
         try {
             Set<String> cities = new HashSet<>();
 
-            // Fetch properties (with a large page size to get all/most properties)
-            PropertySearchResponse response = propertiesClient.getAllProperties(0, 1000);
-
-            if (response != null && response.getContent() != null) {
-                // Extract unique city names
-                cities = response.getContent().stream()
-                        .map(PropertyDTO::getCity)
-                        .filter(city -> city != null && !city.isEmpty())
-                        .collect(Collectors.toSet());
-            }
+            // Extract unique city names from the whole catalogue
+            propertiesClient.forEachCataloguePage(page -> page.stream()
+                    .map(PropertyDTO::getCity)
+                    .filter(city -> city != null && !city.isEmpty())
+                    .forEach(cities::add));
 
             return cities;
         } catch (Exception e) {
@@ -111,16 +104,11 @@ public class AnalyticsScheduler {
         try {
             Set<String> types = new HashSet<>();
 
-            // Fetch properties
-            PropertySearchResponse response = propertiesClient.getAllProperties(0, 1000);
-
-            if (response != null && response.getContent() != null) {
-                // Extract unique property types
-                types = response.getContent().stream()
-                        .map(PropertyDTO::getType)
-                        .filter(type -> type != null && !type.isEmpty())
-                        .collect(Collectors.toSet());
-            }
+            // Extract unique property types from the whole catalogue
+            propertiesClient.forEachCataloguePage(page -> page.stream()
+                    .map(PropertyDTO::getType)
+                    .filter(type -> type != null && !type.isEmpty())
+                    .forEach(types::add));
 
             return types;
         } catch (Exception e) {
@@ -3,7 +3,6 @@ package com.realestate.analytics.service;
 import com.realestate.analytics.client.PropertiesServiceClient;
 import com.realestate.analytics.dto.AnalyticsDTO;
 import com.realestate.analytics.dto.PropertyDTO;
-import com.realestate.analytics.dto.PropertySearchResponse;
 import com.realestate.analytics.dto.PropertyTrendDTO;
 import com.realestate.analytics.model.Analytics;
 import com.realestate.analytics.model.PropertyTrend;
@@ -44,9 +43,9 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         Analytics previousAnalytics = historicalData.isEmpty() ? null :
                 historicalData.get(historicalData.size() - 1);
 
-        // Fetch real property data
-        List<PropertyDTO> properties = fetchProperties(city, propertyType);
-        log.info("Fetched {} properties for analytics", properties.size());
+        // Aggregate real property data
+        CatalogueStats properties = aggregateProperties(city, propertyType);
+        log.info("Aggregated {} properties for analytics", properties.getTotal());
 
         // Create new analytics
         Analytics analytics = new Analytics();
@@ -55,26 +54,16 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         analytics.setReportDate(LocalDateTime.now());
 
         // Calculate analytics from real property data
-        int totalProperties = properties.size();
-        int availableProperties = (int) properties.stream()
-                .filter(p -> "AVAILABLE".equals(p.getStatus()))
-                .count();
-        int soldProperties = (int) properties.stream()
-                .filter(p -> "SOLD".equals(p.getStatus()))
-                .count();
-
-        BigDecimal totalRevenue = properties.stream()
-                .filter(p -> "SOLD".equals(p.getStatus()))
-                .map(PropertyDTO::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int totalProperties = properties.getTotal();
+        int availableProperties = properties.getAvailable();
+        int soldProperties = properties.getSold();
+        BigDecimal totalRevenue = properties.getSoldRevenue();
 
         BigDecimal averagePrice;
         if (soldProperties > 0) {
             averagePrice = totalRevenue.divide(BigDecimal.valueOf(soldProperties), 2, RoundingMode.HALF_UP);
         } else {
-            averagePrice = properties.stream()
-                    .map(PropertyDTO::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+            averagePrice = properties.getTotalPrice()
                     .divide(BigDecimal.valueOf(Math.max(1, totalProperties)), 2, RoundingMode.HALF_UP);
         }
 
@@ -90,33 +79,22 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return convertToDTO(savedAnalytics);
     }
 
-    private List<PropertyDTO> fetchProperties(String city, String propertyType) {
+    private CatalogueStats aggregateProperties(String city, String propertyType) {
         log.debug("Fetching properties for city: {} and type: {}", city, propertyType);
 
-        try {
-            // Get all properties (we'll filter client-side)
-            PropertySearchResponse allProperties = propertiesClient.getAllProperties(0, 1000);
-            List<PropertyDTO> properties = allProperties.getContent();
-
-            if (properties.isEmpty()) {
-                log.warn("No properties found in the properties service");
-                return properties;
-            }
-
-            // Filter properties by city and type
-            return properties.stream()
-                    .filter(p -> (city == null || city.isEmpty() || city.equalsIgnoreCase(p.getCity())))
-                    .filter(p -> (propertyType == null || propertyType.isEmpty() || propertyType.equalsIgnoreCase(p.getType())))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error fetching properties for city: {} and type: {}", city, propertyType, e);
-            return Collections.emptyList();
-        }
+        // Go through the whole catalogue, aggregating the properties of the city and type. Failures
+        // propagate: analytics saved from a partial catalogue would look like a real drop
+        CatalogueStats stats = new CatalogueStats();
+        propertiesClient.forEachCataloguePage(page -> page.stream()
+                .filter(p -> (city == null || city.isEmpty() || city.equalsIgnoreCase(p.getCity())))
+                .filter(p -> (propertyType == null || propertyType.isEmpty() || propertyType.equalsIgnoreCase(p.getType())))
+                .forEach(stats::add));
+        return stats;
     }
 
     private void generatePropertyTrend(String city, String propertyType,
                                        Analytics currentAnalytics, Analytics previousAnalytics,
-                                       List<PropertyDTO> properties) {
+                                       CatalogueStats properties) {
         if (city == null || city.isEmpty()) {
             log.warn("Cannot generate property trend with null city. Skipping trend generation.");
             return;
@@ -161,14 +139,12 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                 .doubleValue();
     }
 
-    private int calculateDemandScore(List<PropertyDTO> properties) {
-        if (properties.isEmpty()) return 0;
+    private int calculateDemandScore(CatalogueStats properties) {
+        if (properties.getTotal() == 0) return 0;
 
         // Calculate the ratio of sold to available properties
-        long totalProperties = properties.size();
-        long soldProperties = properties.stream()
-                .filter(p -> "SOLD".equals(p.getStatus()))
-                .count();
+        long totalProperties = properties.getTotal();
+        long soldProperties = properties.getSold();
 
         // Calculate days on market (if we had that data)
         // For now, use a simple ratio as demand indicator
@@ -272,95 +248,35 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         log.debug("Generating dashboard statistics");
         Map<String, Object> stats = new HashMap<>();
 
-        // Fetch property data for dashboard
-        PropertySearchResponse allProperties = propertiesClient.getAllProperties(0, 1000);
-        List<PropertyDTO> properties = allProperties.getContent();
-
-        // Calculate key metrics
-        int totalProperties = properties.size();
-        int availableProperties = (int) properties.stream()
-                .filter(p -> "AVAILABLE".equals(p.getStatus()))
-                .count();
-        int soldProperties = (int) properties.stream()
-                .filter(p -> "SOLD".equals(p.getStatus()))
-                .count();
-        int rentedProperties = (int) properties.stream()
-                .filter(p -> "RENTED".equals(p.getStatus()))
-                .count();
-
-        BigDecimal totalRevenue = properties.stream()
-                .filter(p -> "SOLD".equals(p.getStatus()))
-                .map(PropertyDTO::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate property type distribution
-        Map<String, Long> propertyTypeDistribution = properties.stream()
-                .collect(Collectors.groupingBy(PropertyDTO::getType, Collectors.counting()));
-
-        // Calculate city distribution
-        Map<String, Long> cityDistribution = properties.stream()
-                .collect(Collectors.groupingBy(PropertyDTO::getCity, Collectors.counting()));
-
-        // Calculate price ranges
-        Map<String, Long> priceRanges = calculatePriceRanges(properties);
+        // Every metric in one pass over the catalogue, each page aggregated as it arrives
+        CatalogueStats properties = new CatalogueStats();
+        propertiesClient.forEachCataloguePage(page -> properties.merge(CatalogueStats.of(page)));
+
+        int totalProperties = properties.getTotal();
+        int availableProperties = properties.getAvailable();
 
         // Calculate monthly trends
-        Map<String, Integer> monthlyListings = calculateMonthlyListings(properties);
+        Map<String, Integer> monthlyListings = calculateMonthlyListings();
 
         // Add stats to the response
         stats.put("totalProperties", totalProperties);
         stats.put("availableProperties", availableProperties);
-        stats.put("soldProperties", soldProperties);
-        stats.put("rentedProperties", rentedProperties);
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("propertyTypeDistribution", propertyTypeDistribution);
-        stats.put("cityDistribution", cityDistribution);
-        stats.put("priceRanges", priceRanges);
+        stats.put("soldProperties", properties.getSold());
+        stats.put("rentedProperties", properties.getRented());
+        stats.put("totalRevenue", properties.getSoldRevenue());
+        stats.put("propertyTypeDistribution", properties.getTypeDistribution());
+        stats.put("cityDistribution", properties.getCityDistribution());
+        stats.put("priceRanges", properties.getPriceRanges());
         stats.put("monthlyListings", monthlyListings);
         stats.put("occupancyRate", calculateOccupancyRate(totalProperties, availableProperties));
-        stats.put("averagePrice", calculateAveragePrice(properties));
-        stats.put("averagePriceByType", calculateAveragePriceByType(properties));
+        stats.put("averagePrice", properties.getAveragePrice());
+        stats.put("averagePriceByType", properties.getAveragePriceByType());
         stats.put("recentTrends", getRecentTrends());
 
         return stats;
     }
 
-    private Map<String, Long> calculatePriceRanges(List<PropertyDTO> properties) {
-        Map<String, Long> priceRanges = new LinkedHashMap<>();
-
-        long under250k = properties.stream()
-                .filter(p -> p.getPrice().compareTo(BigDecimal.valueOf(250000)) < 0)
-                .count();
-
-        long from250kTo500k = properties.stream()
-                .filter(p -> p.getPrice().compareTo(BigDecimal.valueOf(250000)) >= 0 &&
-                        p.getPrice().compareTo(BigDecimal.valueOf(500000)) < 0)
-                .count();
-
-        long from500kTo750k = properties.stream()
-                .filter(p -> p.getPrice().compareTo(BigDecimal.valueOf(500000)) >= 0 &&
-                        p.getPrice().compareTo(BigDecimal.valueOf(750000)) < 0)
-                .count();
-
-        long from750kTo1M = properties.stream()
-                .filter(p -> p.getPrice().compareTo(BigDecimal.valueOf(750000)) >= 0 &&
-                        p.getPrice().compareTo(BigDecimal.valueOf(1000000)) < 0)
-                .count();
-
-        long over1M = properties.stream()
-                .filter(p -> p.getPrice().compareTo(BigDecimal.valueOf(1000000)) >= 0)
-                .count();
-
-        priceRanges.put("Under $250k", under250k);
-        priceRanges.put("$250k-$500k", from250kTo500k);
-        priceRanges.put("$500k-$750k", from500kTo750k);
-        priceRanges.put("$750k-$1M", from750kTo1M);
-        priceRanges.put("Over $1M", over1M);
-
-        return priceRanges;
-    }
-
-    private Map<String, Integer> calculateMonthlyListings(List<PropertyDTO> properties) {
+    private Map<String, Integer> calculateMonthlyListings() {
         // This would be more accurate if we had the created date
         // For now, just create sample data
         Map<String, Integer> monthlyListings = new LinkedHashMap<>();
@@ -385,46 +301,6 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return ((double)(totalProperties - availableProperties) / totalProperties) * 100;
     }
 
-    private BigDecimal calculateAveragePrice(List<PropertyDTO> properties) {
-        if (properties.isEmpty()) return BigDecimal.ZERO;
-
-        BigDecimal totalPrice = properties.stream()
-                .map(PropertyDTO::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return totalPrice.divide(BigDecimal.valueOf(properties.size()), 2, RoundingMode.HALF_UP);
-    }
-
-    private Map<String, BigDecimal> calculateAveragePriceByType(List<PropertyDTO> properties) {
-        return properties.stream()
-                .collect(Collectors.groupingBy(
-                        PropertyDTO::getType,
-                        Collectors.mapping(
-                                PropertyDTO::getPrice,
-                                Collectors.reducing(
-                                        BigDecimal.ZERO,
-                                        BigDecimal::add
-                                )
-                        )
-                ))
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> {
-                            long count = properties.stream()
-                                    .filter(p -> entry.getKey().equals(p.getType()))
-                                    .count();
-
-                            return entry.getValue().divide(
-                                    BigDecimal.valueOf(Math.max(1, count)),
-                                    2,
-                                    RoundingMode.HALF_UP
-                            );
-                        }
-                ));
-    }
-
     private List<Map<String, Object>> getRecentTrends() {
         // Get the most recent property trends
         List<PropertyTrend> recentTrends = propertyTrendRepository.findAllByOrderByTrendDateDesc();
@@ -462,48 +338,24 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public List<String> getAvailableCities() {
-        try {
-            // Fetch properties
-            PropertySearchResponse response = propertiesClient.getAllProperties(0, 1000);
-
-            if (response != null && response.getContent() != null) {
-                // Extract unique city names and sort them
-                return response.getContent().stream()
-                        .map(PropertyDTO::getCity)
-                        .filter(city -> city != null && !city.isEmpty())
-                        .distinct()
-                        .sorted()
-                        .collect(Collectors.toList());
-            }
-
-            return Collections.emptyList();
-        } catch (Exception e) {
-            log.error("Error fetching available cities", e);
-            return Collections.emptyList();
-        }
+        // Unique city names of the whole catalogue, sorted
+        Set<String> cities = new TreeSet<>();
+        propertiesClient.forEachCataloguePage(page -> page.stream()
+                .map(PropertyDTO::getCity)
+                .filter(city -> city != null && !city.isEmpty())
+                .forEach(cities::add));
+        return new ArrayList<>(cities);
     }
 
     @Override
     public List<String> getAvailablePropertyTypes() {
-        try {
-            // Fetch properties
-            PropertySearchResponse response = propertiesClient.getAllProperties(0, 1000);
-
-            if (response != null && response.getContent() != null) {
-                // Extract unique property types and sort them
-                return response.getContent().stream()
-                        .map(PropertyDTO::getType)
-                        .filter(type -> type != null && !type.isEmpty())
-                        .distinct()
-                        .sorted()
-                        .collect(Collectors.toList());
-            }
-
-            return Collections.emptyList();
-        } catch (Exception e) {
-            log.error("Error fetching available property types", e);
-            return Collections.emptyList();
-        }
+        // Unique property types of the whole catalogue, sorted
+        Set<String> types = new TreeSet<>();
+        propertiesClient.forEachCataloguePage(page -> page.stream()
+                .map(PropertyDTO::getType)
+                .filter(type -> type != null && !type.isEmpty())
+                .forEach(types::add));
+        return new ArrayList<>(types);
     }
 
     @CacheEvict(value = {
@@ -523,31 +375,30 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         log.info("Starting scheduled daily analytics generation");
 
         try {
-            // Get all properties
-            PropertySearchResponse response = propertiesClient.getAllProperties(0, 1000);
-            List<PropertyDTO> properties = response.getContent();
+            // Get distinct cities and property types of the whole catalogue
+            Set<String> cities = new HashSet<>();
+            Set<String> propertyTypes = new HashSet<>();
+            int[] propertyCount = {0};
+            propertiesClient.forEachCataloguePage(page -> {
+                propertyCount[0] += page.size();
+                for (PropertyDTO property : page) {
+                    if (property.getCity() != null && !property.getCity().isEmpty()) {
+                        cities.add(property.getCity());
+                    }
+                    if (property.getType() != null && !property.getType().isEmpty()) {
+                        propertyTypes.add(property.getType());
+                    }
+                }
+            });
 
-            if (properties.isEmpty()) {
+            if (propertyCount[0] == 0) {
                 log.warn("No properties found. Skipping analytics generation.");
                 return;
             }
 
-            log.info("Found {} properties for analysis", properties.size());
-
-            // Get distinct cities
-            Set<String> cities = properties.stream()
-                    .map(PropertyDTO::getCity)
-                    .filter(city -> city != null && !city.isEmpty())
-                    .collect(Collectors.toSet());
-
+            log.info("Found {} properties for analysis", propertyCount[0]);
             log.info("Found cities: {}", cities);
 
-            // Get distinct property types
-            Set<String> propertyTypes = properties.stream()
-                    .map(PropertyDTO::getType)
-                    .filter(type -> type != null && !type.isEmpty())
-                    .collect(Collectors.toSet());
-
             log.info("Found property types: {}", propertyTypes);
 
             // Generate analytics for each city and property type combination
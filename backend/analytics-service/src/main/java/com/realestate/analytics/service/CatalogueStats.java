@@ -0,0 +1,373 @@
+package com.realestate.analytics.service;
+
+import com.realestate.analytics.dto.PropertyDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Every figure the dashboard and the per city and type analytics derive from listings, gathered
+ * in one pass: status counters, price sums kept as whole cents in a {@code long}, five price
+ * bands, and counts per type and per city, with price sums per type, in open-addressing tables.
+ * <p>
+ * Stats of separate chunks {@link #merge merge} into the stats of the whole, so large lists are
+ * split over the fork/join pool by {@link #of}. Results are the same, scale included, as summing
+ * the {@link BigDecimal} prices one by one; a price with fractions of a cent or too large for
+ * cents in a {@code long} switches its sum to {@link BigDecimal}.
+ */
+public final class CatalogueStats {
+
+    static final String[] PRICE_RANGES = {"Under $250k", "$250k-$500k", "$500k-$750k", "$750k-$1M", "Over $1M"};
+
+    // Lower bounds of the price ranges after the first, in cents and as prices
+    private static final long[] RANGE_FLOORS_CENTS = {25_000_000L, 50_000_000L, 75_000_000L, 100_000_000L};
+    private static final BigDecimal[] RANGE_FLOORS = {BigDecimal.valueOf(250000), BigDecimal.valueOf(500000),
+            BigDecimal.valueOf(750000), BigDecimal.valueOf(1000000)};
+
+    // Lists shorter than this are not worth forking
+    private static final int FORK_THRESHOLD = 4_096;
+
+    private int total;
+    private int available;
+    private int sold;
+    private int rented;
+    private final PriceSum totalPrice = new PriceSum();
+    private final PriceSum soldRevenue = new PriceSum();
+    private final long[] priceRanges = new long[PRICE_RANGES.length];
+    private final GroupTally byType = new GroupTally(true);
+    private final GroupTally byCity = new GroupTally(false);
+
+    /**
+     * Stats of the listings, computed on the common fork/join pool when there are many.
+     */
+    public static CatalogueStats of(List<PropertyDTO> properties) {
+        if (properties.size() < FORK_THRESHOLD) {
+            return new CatalogueStats().addAll(properties);
+        }
+        return ForkJoinPool.commonPool().invoke(new ChunkTask(properties));
+    }
+
+    public CatalogueStats addAll(List<PropertyDTO> properties) {
+        for (PropertyDTO property : properties) {
+            add(property);
+        }
+        return this;
+    }
+
+    public void add(PropertyDTO property) {
+        BigDecimal price = Objects.requireNonNull(property.getPrice(), "price");
+
+        total++;
+        String status = property.getStatus();
+        if ("AVAILABLE".equals(status)) {
+            available++;
+        } else if ("SOLD".equals(status)) {
+            sold++;
+            soldRevenue.add(price);
+        } else if ("RENTED".equals(status)) {
+            rented++;
+        }
+
+        long cents = PriceSum.centsOf(price);
+        totalPrice.add(price, cents);
+        priceRanges[rangeOf(price, cents)]++;
+        // Listings without a type or city are counted everywhere but in those groups
+        if (property.getType() != null) {
+            byType.add(property.getType(), price, cents);
+        }
+        if (property.getCity() != null) {
+            byCity.add(property.getCity(), null, cents);
+        }
+    }
+
+    /**
+     * Adds the stats of another chunk of listings to these.
+     */
+    public CatalogueStats merge(CatalogueStats other) {
+        total += other.total;
+        available += other.available;
+        sold += other.sold;
+        rented += other.rented;
+        totalPrice.merge(other.totalPrice);
+        soldRevenue.merge(other.soldRevenue);
+        for (int i = 0; i < priceRanges.length; i++) {
+            priceRanges[i] += other.priceRanges[i];
+        }
+        byType.merge(other.byType);
+        byCity.merge(other.byCity);
+        return this;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getSold() {
+        return sold;
+    }
+
+    public int getRented() {
+        return rented;
+    }
+
+    /**
+     * Sum of the prices of sold listings.
+     */
+    public BigDecimal getSoldRevenue() {
+        return soldRevenue.value();
+    }
+
+    /**
+     * Sum of the prices of all listings.
+     */
+    public BigDecimal getTotalPrice() {
+        return totalPrice.value();
+    }
+
+    /**
+     * Mean price to the cent, zero without listings.
+     */
+    public BigDecimal getAveragePrice() {
+        if (total == 0) {
+            return BigDecimal.ZERO;
+        }
+        return getTotalPrice().divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+
+    public Map<String, Long> getPriceRanges() {
+        Map<String, Long> ranges = new LinkedHashMap<>();
+        for (int i = 0; i < PRICE_RANGES.length; i++) {
+            ranges.put(PRICE_RANGES[i], priceRanges[i]);
+        }
+        return ranges;
+    }
+
+    public Map<String, Long> getTypeDistribution() {
+        return byType.counts();
+    }
+
+    public Map<String, Long> getCityDistribution() {
+        return byCity.counts();
+    }
+
+    /**
+     * Mean price to the cent of each type.
+     */
+    public Map<String, BigDecimal> getAveragePriceByType() {
+        return byType.averages();
+    }
+
+    private static int rangeOf(BigDecimal price, long cents) {
+        int range = 0;
+        if (cents != PriceSum.NOT_CENTS) {
+            while (range < RANGE_FLOORS_CENTS.length && cents >= RANGE_FLOORS_CENTS[range]) {
+                range++;
+            }
+        } else {
+            while (range < RANGE_FLOORS.length && price.compareTo(RANGE_FLOORS[range]) >= 0) {
+                range++;
+            }
+        }
+        return range;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<CatalogueStats> {
+        private final List<PropertyDTO> properties;
+
+        private ChunkTask(List<PropertyDTO> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        protected CatalogueStats compute() {
+            if (properties.size() < FORK_THRESHOLD) {
+                return new CatalogueStats().addAll(properties);
+            }
+            int middle = properties.size() / 2;
+            ChunkTask left = new ChunkTask(properties.subList(0, middle));
+            left.fork();
+            CatalogueStats right = new ChunkTask(properties.subList(middle, properties.size())).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Exact sum of prices. Kept in cents while every price is a whole number of cents and the sum
+     * fits, along with the largest scale seen so the result has the scale {@link BigDecimal#add}
+     * would have given it.
+     */
+    static final class PriceSum {
+        static final long NOT_CENTS = Long.MIN_VALUE;
+
+        private long cents;
+        private int scale;
+        private BigDecimal overflow;
+
+        static long centsOf(BigDecimal price) {
+            try {
+                return price.movePointRight(2).longValueExact();
+            } catch (ArithmeticException e) {
+                return NOT_CENTS;
+            }
+        }
+
+        void add(BigDecimal price) {
+            add(price, centsOf(price));
+        }
+
+        void add(BigDecimal price, long priceCents) {
+            scale = Math.max(scale, price.scale());
+            if (overflow == null && priceCents != NOT_CENTS) {
+                try {
+                    cents = Math.addExact(cents, priceCents);
+                    return;
+                } catch (ArithmeticException e) {
+                    // Falls through to the exact sum
+                }
+            }
+            overflow = (overflow != null ? overflow : centsValue()).add(price);
+        }
+
+        void merge(PriceSum other) {
+            scale = Math.max(scale, other.scale);
+            if (overflow == null && other.overflow == null) {
+                try {
+                    cents = Math.addExact(cents, other.cents);
+                    return;
+                } catch (ArithmeticException e) {
+                    // Falls through to the exact sum
+                }
+            }
+            overflow = (overflow != null ? overflow : centsValue())
+                    .add(other.overflow != null ? other.overflow : other.centsValue());
+        }
+
+        BigDecimal value() {
+            BigDecimal sum = overflow != null ? overflow : centsValue();
+            return sum.scale() < scale ? sum.setScale(scale, RoundingMode.UNNECESSARY) : sum;
+        }
+
+        private BigDecimal centsValue() {
+            // Prices with at most one decimal sum to at most one decimal, as BigDecimal.add keeps them
+            BigDecimal sum = BigDecimal.valueOf(cents, 2);
+            return scale < 2 ? sum.setScale(scale, RoundingMode.UNNECESSARY) : sum;
+        }
+    }
+
+    /**
+     * Listing count, and optionally price sum, per key, in an open-addressing table with linear
+     * probing. Keys are the few distinct types or cities, interned by the DTO decoder.
+     */
+    static final class GroupTally {
+        private final boolean withPrices;
+        private String[] keys = new String[16];
+        private long[] counts = new long[16];
+        private PriceSum[] prices;
+        private int size;
+
+        GroupTally(boolean withPrices) {
+            this.withPrices = withPrices;
+            this.prices = withPrices ? new PriceSum[16] : null;
+        }
+
+        void add(String key, BigDecimal price, long priceCents) {
+            int slot = slotOf(key);
+            counts[slot]++;
+            if (withPrices) {
+                prices[slot].add(price, priceCents);
+            }
+        }
+
+        void merge(GroupTally other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.keys[i] != null) {
+                    int slot = slotOf(other.keys[i]);
+                    counts[slot] += other.counts[i];
+                    if (withPrices) {
+                        prices[slot].merge(other.prices[i]);
+                    }
+                }
+            }
+        }
+
+        Map<String, Long> counts() {
+            Map<String, Long> result = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    result.put(keys[i], counts[i]);
+                }
+            }
+            return result;
+        }
+
+        Map<String, BigDecimal> averages() {
+            Map<String, BigDecimal> result = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    result.put(keys[i], prices[i].value().divide(BigDecimal.valueOf(counts[i]), 2, RoundingMode.HALF_UP));
+                }
+            }
+            return result;
+        }
+
+        private int slotOf(String key) {
+            int mask = keys.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot] == key || keys[slot].equals(key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Kept at most half full so probes stay short
+            if (size + 1 > keys.length / 2) {
+                grow();
+                return slotOf(key);
+            }
+            keys[slot] = key;
+            if (withPrices) {
+                prices[slot] = new PriceSum();
+            }
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            String[] oldKeys = keys;
+            long[] oldCounts = counts;
+            PriceSum[] oldPrices = prices;
+            keys = new String[oldKeys.length * 2];
+            counts = new long[keys.length];
+            prices = withPrices ? new PriceSum[keys.length] : null;
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = spread(oldKeys[i].hashCode()) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                    if (withPrices) {
+                        prices[slot] = oldPrices[i];
+                    }
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.realestate.analytics.client;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A catalogue page as property-service sends it, including the fields analytics does not map.
+ * Shared with {@code CatalogueTransferBenchmark} through this module's test jar.
+ */
+public final class CataloguePageFixture {
+
+    private static final String[] CITIES = {"Toronto", "Montreal", "Vancouver", "Calgary", "Ottawa"};
+    // Every PropertyType and PropertyStatus property-service accepts
+    private static final String[] TYPES = {"APARTMENT", "HOUSE", "COMMERCIAL", "CONDO"};
+    private static final String[] STATUSES = {"AVAILABLE", "SOLD", "RENTED"};
+
+    public record Image(Long id, String name, String type, String url, Long propertyId, Boolean isMain,
+                        Integer displayOrder, Long fileSize, LocalDateTime createdAt) {
+    }
+
+    public record Listing(Long id, String title, String description, String type, String status, BigDecimal price,
+                          Integer bedrooms, Integer bathrooms, Double area, String address, String city,
+                          String state, String zipCode, List<Image> images, boolean favorite, long favoriteCount,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    private CataloguePageFixture() {
+    }
+
+    /**
+     * A page of the given number of listings, each with two images.
+     */
+    public static List<Listing> page(int listings) {
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 9, 30);
+        List<Listing> content = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            long id = 1_000_000L + i;
+            List<Image> images = List.of(
+                    new Image(id * 10, "front.jpg", "image/jpeg", "https://cdn.example.com/images/" + id + "/front.jpg",
+                            id, true, 0, 412_345L, created),
+                    new Image(id * 10 + 1, "kitchen.jpg", "image/jpeg", "https://cdn.example.com/images/" + id + "/kitchen.jpg",
+                            id, false, 1, 298_765L, created));
+            content.add(new Listing(id, "Bright " + (i % 5 + 1) + "-bedroom home near the park",
+                    "Spacious and bright home with an open kitchen, hardwood floors, a private balcony and a "
+                            + "reserved parking space. Close to schools, shops and public transit. Listing " + i + ".",
+                    TYPES[i % TYPES.length], STATUSES[i % STATUSES.length],
+                    new BigDecimal("450000.00").add(BigDecimal.valueOf(i * 250L)), i % 5 + 1, i % 3 + 1,
+                    85.5 + i % 120, i + " Main Street", CITIES[i % CITIES.length], "ON", "M5V 2T6",
+                    images, false, i % 7, created.plusMinutes(i), created.plusDays(1).plusMinutes(i)));
+        }
+        return content;
+    }
+}
@@ -0,0 +1,84 @@
+package com.realestate.analytics.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.realestate.analytics.config.RestTemplateConfig;
+import com.realestate.analytics.dto.PropertyDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * A catalogue page encoded the way property-service does must reach {@link PropertiesServiceClient},
+ * through the RestTemplate and converters of {@link RestTemplateConfig}, as the same listings in
+ * CBOR as in JSON, in fewer bytes. Decode times are measured by {@code CatalogueTransferBenchmark}
+ * in the benchmarks module.
+ */
+@RestClientTest(value = PropertiesServiceClient.class, properties = "services.property.url=http://property-service")
+@Import(RestTemplateConfig.class)
+class CborTransferTest {
+
+    // Under the client's page size, so the walk ends after one page
+    private static final int LISTINGS = 400;
+
+    @Autowired
+    private PropertiesServiceClient client;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    // Spring Boot's, which property-service writes JSON with as well
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+
+    @Test
+    void cborPagesDecodeToTheSameListingsInFewerBytes() throws Exception {
+        // As in property-service's CborConfig
+        ObjectMapper cbor = builder.factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<CataloguePageFixture.Listing> page = CataloguePageFixture.page(LISTINGS);
+        byte[] jsonBytes = json.writeValueAsBytes(page);
+        byte[] cborBytes = cbor.writeValueAsBytes(page);
+
+        List<PropertyDTO> fromJson = fetchCatalogue(false, MediaType.APPLICATION_JSON, jsonBytes);
+        List<PropertyDTO> fromCbor = fetchCatalogue(true, MediaType.APPLICATION_CBOR, cborBytes);
+
+        assertEquals(LISTINGS, fromCbor.size());
+        assertEquals("COMMERCIAL", fromCbor.get(2).getType());
+        assertEquals(fromJson, fromCbor);
+        assertTrue(cborBytes.length < jsonBytes.length);
+    }
+
+    private List<PropertyDTO> fetchCatalogue(boolean binaryTransfer, MediaType type, byte[] body) {
+        ReflectionTestUtils.setField(client, "binaryTransfer", binaryTransfer);
+        server.reset();
+        server.expect(requestTo(startsWith("http://property-service/api/properties/catalogue?afterId=0&")))
+                .andExpect(header(HttpHeaders.ACCEPT, startsWith(type.toString())))
+                .andRespond(withSuccess(body, type));
+        List<PropertyDTO> listings = new ArrayList<>();
+        client.forEachCataloguePage(listings::addAll);
+        server.verify();
+        return listings;
+    }
+}
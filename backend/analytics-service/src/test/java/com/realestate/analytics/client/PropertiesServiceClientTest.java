@@ -0,0 +1,127 @@
+package com.realestate.analytics.client;
+
+import com.realestate.analytics.dto.PropertyDTO;
+import com.realestate.analytics.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PropertiesServiceClientTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int LISTINGS = 95;
+    // Ids with gaps, as deletes and other shards' ranges leave them
+    private static final long ID_STEP = 3;
+
+    @Test
+    void walksTheCatalogueInIdOrderAndRetriesFailedPages() {
+        CatalogueRestTemplate restTemplate = new CatalogueRestTemplate(Set.of(30L, 210L), 1);
+        List<Long> ids = new ArrayList<>();
+
+        client(restTemplate).forEachCataloguePage(page -> page.forEach(property -> ids.add(property.getId())));
+
+        assertEquals(LongStream.rangeClosed(1, LISTINGS).map(i -> i * ID_STEP).boxed().toList(), ids);
+        // Each page asked for once, after the last id of the one before; the short tenth page ends the walk
+        assertEquals(List.of(0L, 30L, 60L, 90L, 120L, 150L, 180L, 210L, 240L, 270L), restTemplate.afterIds);
+        assertEquals(2, restTemplate.calls.get(30L).get());
+        assertEquals(1, restTemplate.calls.get(60L).get());
+    }
+
+    @Test
+    void endsOnAnEmptyPageAfterAFullOne() {
+        CatalogueRestTemplate restTemplate = new CatalogueRestTemplate(Set.of(), 0, 20);
+        List<Long> ids = new ArrayList<>();
+
+        client(restTemplate).forEachCataloguePage(page -> page.forEach(property -> ids.add(property.getId())));
+
+        assertEquals(20, ids.size());
+        assertEquals(List.of(0L, 30L, 60L), restTemplate.afterIds);
+    }
+
+    @Test
+    void failsWhenAPageKeepsFailing() {
+        CatalogueRestTemplate restTemplate = new CatalogueRestTemplate(Set.of(120L), Integer.MAX_VALUE);
+
+        ApiException e = assertThrows(ApiException.class,
+                () -> client(restTemplate).forEachCataloguePage(page -> { }));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(3, restTemplate.calls.get(120L).get());
+    }
+
+    private static PropertiesServiceClient client(RestTemplate restTemplate) {
+        PropertiesServiceClient client = new PropertiesServiceClient(restTemplate);
+        ReflectionTestUtils.setField(client, "propertyServiceUrl", "http://property-service");
+        ReflectionTestUtils.setField(client, "cataloguePageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(client, "catalogueRetries", 2);
+        ReflectionTestUtils.setField(client, "catalogueRetryBackoffMs", 1L);
+        return client;
+    }
+
+    /**
+     * Serves a catalogue of listings with ids {@link #ID_STEP} apart; the pages after the given
+     * ids fail their first attempts.
+     */
+    private static class CatalogueRestTemplate extends RestTemplate {
+        private final Set<Long> failingAfterIds;
+        private final int failures;
+        private final int listings;
+        private final Map<Long, AtomicInteger> calls = new HashMap<>();
+        private final List<Long> afterIds = new ArrayList<>();
+
+        CatalogueRestTemplate(Set<Long> failingAfterIds, int failures) {
+            this(failingAfterIds, failures, LISTINGS);
+        }
+
+        CatalogueRestTemplate(Set<Long> failingAfterIds, int failures, int listings) {
+            this.failingAfterIds = failingAfterIds;
+            this.failures = failures;
+            this.listings = listings;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                              ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+            MultiValueMap<String, String> params = UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+            long afterId = Long.parseLong(params.getFirst("afterId"));
+            int limit = Integer.parseInt(params.getFirst("limit"));
+            int call = calls.computeIfAbsent(afterId, id -> new AtomicInteger()).incrementAndGet();
+            if (failingAfterIds.contains(afterId) && call <= failures) {
+                throw new ResourceAccessException("Connection reset");
+            }
+            afterIds.add(afterId);
+
+            List<PropertyDTO> page = LongStream.rangeClosed(1, listings)
+                    .map(i -> i * ID_STEP)
+                    .filter(id -> id > afterId)
+                    .limit(limit)
+                    .mapToObj(id -> {
+                        PropertyDTO property = new PropertyDTO();
+                        property.setId(id);
+                        return property;
+                    })
+                    .toList();
+            return (ResponseEntity<T>) ResponseEntity.ok(page);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.realestate.analytics.service;
+
+import com.realestate.analytics.dto.PropertyDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogueStatsTest {
+
+    private static final String[] TYPES = {"HOUSE", "APARTMENT", "CONDO", "TOWNHOUSE", "LAND", "COMMERCIAL"};
+    private static final String[] STATUSES = {"AVAILABLE", "SOLD", "RENTED", "PENDING"};
+
+    @Test
+    void matchesTheBigDecimalStreamsItReplaces() {
+        for (int listings : new int[]{0, 1, 37, 10_000}) {
+            List<PropertyDTO> properties = listings(new Random(listings), listings, false);
+            assertMatches(properties, CatalogueStats.of(properties));
+        }
+    }
+
+    @Test
+    void keepsFractionsOfCentsAndScales() {
+        List<PropertyDTO> properties = listings(new Random(7), 5_000, true);
+        properties.get(0).setPrice(new BigDecimal("1E+20"));
+        properties.get(1).setPrice(new BigDecimal("249999.995"));
+        properties.get(2).setPrice(new BigDecimal("250000.000"));
+
+        assertMatches(properties, CatalogueStats.of(properties));
+    }
+
+    @Test
+    void chunksMergeIntoTheStatsOfTheWhole() {
+        List<PropertyDTO> properties = listings(new Random(3), 2_000, true);
+        CatalogueStats merged = new CatalogueStats();
+        for (int start = 0; start < properties.size(); start += 300) {
+            merged.merge(CatalogueStats.of(properties.subList(start, Math.min(properties.size(), start + 300))));
+        }
+
+        assertMatches(properties, merged);
+    }
+
+    private static void assertMatches(List<PropertyDTO> properties, CatalogueStats stats) {
+        assertEquals(properties.size(), stats.getTotal());
+        assertEquals(countStatus(properties, "AVAILABLE"), stats.getAvailable());
+        assertEquals(countStatus(properties, "SOLD"), stats.getSold());
+        assertEquals(countStatus(properties, "RENTED"), stats.getRented());
+
+        BigDecimal revenue = properties.stream()
+                .filter(p -> "SOLD".equals(p.getStatus()))
+                .map(PropertyDTO::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // equals, not compareTo: the scale must be the same too
+        assertEquals(revenue, stats.getSoldRevenue());
+        assertEquals(properties.stream().map(PropertyDTO::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add),
+                stats.getTotalPrice());
+        assertEquals(averagePrice(properties), stats.getAveragePrice());
+
+        assertEquals(properties.stream().collect(Collectors.groupingBy(PropertyDTO::getType, Collectors.counting())),
+                stats.getTypeDistribution());
+        assertEquals(properties.stream().collect(Collectors.groupingBy(PropertyDTO::getCity, Collectors.counting())),
+                stats.getCityDistribution());
+        assertEquals(averagePriceByType(properties), stats.getAveragePriceByType());
+
+        List<Long> ranges = List.of(
+                countBetween(properties, null, 250000),
+                countBetween(properties, 250000, 500000),
+                countBetween(properties, 500000, 750000),
+                countBetween(properties, 750000, 1000000),
+                countBetween(properties, 1000000, null));
+        assertEquals(ranges, new ArrayList<>(stats.getPriceRanges().values()));
+    }
+
+    private static int countStatus(List<PropertyDTO> properties, String status) {
+        return (int) properties.stream().filter(p -> status.equals(p.getStatus())).count();
+    }
+
+    private static long countBetween(List<PropertyDTO> properties, Integer from, Integer to) {
+        return properties.stream()
+                .filter(p -> from == null || p.getPrice().compareTo(BigDecimal.valueOf(from)) >= 0)
+                .filter(p -> to == null || p.getPrice().compareTo(BigDecimal.valueOf(to)) < 0)
+                .count();
+    }
+
+    private static BigDecimal averagePrice(List<PropertyDTO> properties) {
+        if (properties.isEmpty()) return BigDecimal.ZERO;
+        return properties.stream()
+                .map(PropertyDTO::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .divide(BigDecimal.valueOf(properties.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    private static Map<String, BigDecimal> averagePriceByType(List<PropertyDTO> properties) {
+        return properties.stream()
+                .collect(Collectors.groupingBy(PropertyDTO::getType, Collectors.collectingAndThen(
+                        Collectors.toList(), group -> group.stream()
+                                .map(PropertyDTO::getPrice)
+                                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                                .divide(BigDecimal.valueOf(group.size()), 2, RoundingMode.HALF_UP))));
+    }
+
+    private static List<PropertyDTO> listings(Random random, int count, boolean mixedScales) {
+        List<PropertyDTO> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PropertyDTO property = new PropertyDTO();
+            property.setId((long) i);
+            property.setType(TYPES[random.nextInt(TYPES.length)]);
+            property.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            property.setCity("City " + random.nextInt(40));
+            // Whole dollars on the boundaries, as most prices are, and cents around them
+            long cents = 100_000_00L + random.nextInt(150) * 1_000_000L + (random.nextBoolean() ? 0 : random.nextInt(100));
+            BigDecimal price = BigDecimal.valueOf(cents, 2);
+            if (mixedScales && random.nextInt(4) == 0) {
+                price = random.nextBoolean() ? price.setScale(3) : BigDecimal.valueOf(cents / 100);
+            }
+            property.setPrice(price);
+            properties.add(property);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,56 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.PropertyServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+/**
+ * Starts property-service without a web server on a private in-memory H2 database in PostgreSQL
+ * mode. Background jobs that would compete with the measured code for CPU are switched off, as is
+ * the SQL instrumentation, so the numbers describe the service rather than its monitoring.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        String imageRoot;
+        try {
+            imageRoot = Files.createTempDirectory("benchmark-images").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Passed as arguments so they win over the prod profile activated in application.yml
+        return new SpringApplicationBuilder(PropertyServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID()
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.sql.init.mode=never",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.discovery.enabled=false",
+                        "--app.storage.type=local",
+                        "--app.storage.local.root=" + imageRoot,
+                        "--app.storage.local.signing-secret=benchmark",
+                        "--app.feed.enabled=false",
+                        "--app.duplicates.enabled=false",
+                        "--app.views.enabled=false",
+                        "--app.images.variants.enabled=false",
+                        "--app.images.reconciler.enabled=false",
+                        "--app.images.disk-cache.enabled=false",
+                        "--app.sql-instrumentation.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,75 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.model.FavoriteProperty;
+import com.realestate.property.model.Property;
+import com.realestate.property.repository.FavoritePropertyRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.service.LocationDictionary;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a generated catalogue: listings spread over the cities of {@link Listings#LOCATIONS},
+ * a {@link #FAVORITING_USER} with {@link #USER_FAVORITES} saved homes and a few favorites from
+ * other users on a third of the listings. The same seed always yields the same catalogue.
+ */
+final class Catalogue {
+
+    static final String FAVORITING_USER = "benchmark.user@example.com";
+    static final int USER_FAVORITES = 300;
+
+    private static final int BATCH_SIZE = 500;
+    private static final long SEED = 42;
+
+    private Catalogue() {
+    }
+
+    /**
+     * Number of listings to generate, {@code -Dbenchmark.listings} or 10,000.
+     */
+    static int size() {
+        return Integer.getInteger("benchmark.listings", 10_000);
+    }
+
+    static void seed(ApplicationContext context, int listings) {
+        PropertyRepository propertyRepository = context.getBean(PropertyRepository.class);
+        FavoritePropertyRepository favoriteRepository = context.getBean(FavoritePropertyRepository.class);
+        LocationDictionary locationDictionary = context.getBean(LocationDictionary.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<LocationDictionary.Entry> locations = Listings.LOCATIONS.stream()
+                .map(location -> locationDictionary.resolve(location[0], location[1]))
+                .toList();
+        Random random = new Random(SEED);
+        for (int start = 0; start < listings; start += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, listings - start);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Property> batch = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    LocationDictionary.Entry location = locations.get(random.nextInt(locations.size()));
+                    batch.add(Listings.property(random, location.id(), location.city()));
+                }
+                List<Property> saved = propertyRepository.saveAll(batch);
+
+                List<FavoriteProperty> favorites = new ArrayList<>();
+                for (Property property : saved) {
+                    if (random.nextInt(listings) < USER_FAVORITES) {
+                        favorites.add(new FavoriteProperty(property, FAVORITING_USER));
+                    }
+                    if (random.nextInt(3) == 0) {
+                        int others = 1 + random.nextInt(4);
+                        for (int user = 0; user < others; user++) {
+                            favorites.add(new FavoriteProperty(property, "user" + user + "@example.com"));
+                        }
+                    }
+                }
+                favoriteRepository.saveAll(favorites);
+            });
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.realestate.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The service on an embedded database seeded with a generated catalogue of
+ * {@code -Dbenchmark.listings} listings, shared by all threads of a trial.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+    ConfigurableApplicationContext context;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        Catalogue.seed(context, Catalogue.size());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,71 @@
+package com.realestate.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.realestate.analytics.client.CataloguePageFixture;
+import com.realestate.analytics.config.RestTemplateConfig;
+import com.realestate.analytics.dto.PropertyDTO;
+import com.realestate.property.config.CborConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a catalogue page in analytics-service, as JSON and as CBOR. The CBOR page is written
+ * by the mapper of property-service's {@link CborConfig} and read by that of analytics-service's
+ * {@link RestTemplateConfig}; the page is the one {@code CborTransferTest} checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogueTransferBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    // The page size analytics-service walks the catalogue with
+    @Param({"500"})
+    private int listings;
+
+    private ObjectMapper reader;
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("cbor".equals(format)) {
+            ObjectMapper writer = new CborConfig().cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())
+                    .getObjectMapper();
+            reader = new RestTemplateConfig().cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())
+                    .getObjectMapper();
+            page = writer.writeValueAsBytes(CataloguePageFixture.page(listings));
+        } else {
+            // Spring Boot writes JSON dates as ISO strings
+            reader = Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+            page = reader.writeValueAsBytes(CataloguePageFixture.page(listings));
+        }
+    }
+
+    @Benchmark
+    public List<PropertyDTO> decode() throws IOException {
+        return reader.readValue(page, new TypeReference<List<PropertyDTO>>() {});
+    }
+}
@@ -0,0 +1,67 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.service.PropertyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 50-listing page with its favorite info: counts only for anonymous visitors, counts and
+ * favorite flags for a user with hundreds of saved homes. Comparing the two shows what looking
+ * up the user's favorites adds on top of the per-listing counts both pay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FavoriteEnrichmentBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(2, 50, Sort.by(Sort.Direction.DESC, "id"));
+
+    private PropertyService propertyService;
+    private Authentication user;
+
+    @Setup
+    public void setUp(CatalogueState catalogue) {
+        propertyService = catalogue.getBean(PropertyService.class);
+        user = new UsernamePasswordAuthenticationToken(Catalogue.FAVORITING_USER, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Benchmark
+    public Page<PropertyDTO> anonymous() {
+        return propertyService.getAllProperties(PAGE);
+    }
+
+    @Benchmark
+    public Page<PropertyDTO> favoritingUser() {
+        // Set per call: the security context is bound to the thread, and JMH owns the threads
+        SecurityContextHolder.getContext().setAuthentication(user);
+        try {
+            return propertyService.getAllProperties(PAGE);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.service.LocationDictionary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held by one million listings' type, status, city and state: as per-row strings, the way
+ * Jackson or a JDBC driver decode VARCHAR columns, against enums decoded from their codes plus a
+ * location id into a shared dictionary. The {@code bytesPerRow} counter is the retained size of
+ * the rows, measured with JOL and including the dictionary; the score is the time to decode a row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+// JMH sums the footprint counter over measurement iterations, so there is just one
+@Measurement(iterations = 1, time = 5)
+// Unsafe refuses field offsets of records, which JOL then works out by itself
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djol.magicFieldOffset=true"})
+public class ListingFootprintBenchmark {
+
+    private static final int LISTINGS = 1_000_000;
+    private static final int CITIES = 2_000;
+    private static final String[] STATES = {"ON", "QC", "BC", "AB", "MB", "SK", "NS", "NB", "NL", "PE"};
+
+    record StringRow(String type, String status, String city, String state) {
+    }
+
+    record CodedRow(PropertyType type, PropertyStatus status, int locationId) {
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        private long retainedBytesPerRow;
+
+        // Measured before each iteration, outside the timed decode
+        @Setup(Level.Iteration)
+        public void measure(ListingFootprintBenchmark benchmark) {
+            GraphLayout graph = "strings".equals(benchmark.layout)
+                    ? GraphLayout.parseInstance(benchmark.decodeStrings())
+                    : GraphLayout.parseInstance(benchmark.decodeCoded(), benchmark.dictionary);
+            retainedBytesPerRow = graph.totalSize() / LISTINGS;
+        }
+
+        // A method rather than a field, which JMH would reset after the setup above
+        public long bytesPerRow() {
+            return retainedBytesPerRow;
+        }
+    }
+
+    @Param({"strings", "coded"})
+    private String layout;
+
+    // The columns as they arrive, one entry per listing
+    private byte[][] types;
+    private byte[][] statuses;
+    private byte[][] cities;
+    private byte[][] states;
+    private short[] typeCodes;
+    private short[] statusCodes;
+    private int[] locationIds;
+    private LocationDictionary.Entry[] dictionary;
+
+    @Setup
+    public void setUp() {
+        dictionary = new LocationDictionary.Entry[CITIES + 1];
+        for (int id = 1; id <= CITIES; id++) {
+            dictionary[id] = new LocationDictionary.Entry(id, "City " + id, STATES[id % STATES.length]);
+        }
+        types = new byte[LISTINGS][];
+        statuses = new byte[LISTINGS][];
+        cities = new byte[LISTINGS][];
+        states = new byte[LISTINGS][];
+        typeCodes = new short[LISTINGS];
+        statusCodes = new short[LISTINGS];
+        locationIds = new int[LISTINGS];
+        for (int i = 0; i < LISTINGS; i++) {
+            PropertyType type = PropertyType.values()[i % PropertyType.values().length];
+            PropertyStatus status = PropertyStatus.values()[(i / 7) % PropertyStatus.values().length];
+            LocationDictionary.Entry location = dictionary[1 + i % CITIES];
+            types[i] = type.name().getBytes(StandardCharsets.UTF_8);
+            statuses[i] = status.name().getBytes(StandardCharsets.UTF_8);
+            cities[i] = location.city().getBytes(StandardCharsets.UTF_8);
+            states[i] = location.state().getBytes(StandardCharsets.UTF_8);
+            typeCodes[i] = type.getCode();
+            statusCodes[i] = status.getCode();
+            locationIds[i] = location.id();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public List<?> decode(Footprint footprint) {
+        return "strings".equals(layout) ? decodeStrings() : decodeCoded();
+    }
+
+    private List<StringRow> decodeStrings() {
+        List<StringRow> rows = new ArrayList<>(LISTINGS);
+        for (int i = 0; i < LISTINGS; i++) {
+            rows.add(new StringRow(new String(types[i], StandardCharsets.UTF_8),
+                    new String(statuses[i], StandardCharsets.UTF_8),
+                    new String(cities[i], StandardCharsets.UTF_8),
+                    new String(states[i], StandardCharsets.UTF_8)));
+        }
+        return rows;
+    }
+
+    private List<CodedRow> decodeCoded() {
+        List<CodedRow> rows = new ArrayList<>(LISTINGS);
+        for (int i = 0; i < LISTINGS; i++) {
+            rows.add(new CodedRow(PropertyType.fromCode(typeCodes[i]), PropertyStatus.fromCode(statusCodes[i]),
+                    locationIds[i]));
+        }
+        return rows;
+    }
+}
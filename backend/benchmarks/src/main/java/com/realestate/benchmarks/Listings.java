@@ -0,0 +1,113 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariant;
+import com.realestate.property.model.ImageVariantInfo;
+import com.realestate.property.model.ImageVariantStatus;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates listings shaped like production ones: descriptions filling most of their column,
+ * two to six images with all variants, prices and sizes spread as on the live site.
+ */
+final class Listings {
+
+    static final List<String[]> LOCATIONS = List.of(
+            new String[]{"Toronto", "ON"}, new String[]{"Ottawa", "ON"}, new String[]{"Mississauga", "ON"},
+            new String[]{"Hamilton", "ON"}, new String[]{"London", "ON"}, new String[]{"Kitchener", "ON"},
+            new String[]{"Montreal", "QC"}, new String[]{"Quebec City", "QC"}, new String[]{"Laval", "QC"},
+            new String[]{"Gatineau", "QC"}, new String[]{"Vancouver", "BC"}, new String[]{"Victoria", "BC"},
+            new String[]{"Surrey", "BC"}, new String[]{"Burnaby", "BC"}, new String[]{"Kelowna", "BC"},
+            new String[]{"Calgary", "AB"}, new String[]{"Edmonton", "AB"}, new String[]{"Red Deer", "AB"},
+            new String[]{"Winnipeg", "MB"}, new String[]{"Regina", "SK"}, new String[]{"Saskatoon", "SK"},
+            new String[]{"Halifax", "NS"}, new String[]{"Moncton", "NB"}, new String[]{"St. John's", "NL"});
+
+    // properties.description is a plain VARCHAR(255)
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private static final String[] STREETS = {"Maple", "King", "Queen", "Elm", "Lakeshore", "Oak", "Pine",
+            "Victoria", "Main", "Church", "Park", "Highland", "Riverside", "College", "Dundas", "Bloor"};
+    private static final String[] SUFFIXES = {"Street", "Avenue", "Road", "Boulevard", "Drive", "Crescent"};
+    private static final String[] WORDS = ("bright spacious renovated kitchen open concept hardwood floors "
+            + "quartz counters stainless appliances ensuite walk-in closet finished basement backyard deck "
+            + "close to transit schools parks shopping quiet street family neighbourhood natural light "
+            + "updated bathroom parking garage balcony view move-in ready heated floors fireplace")
+            .split(" ");
+
+    private Listings() {
+    }
+
+    /**
+     * A new listing, not yet persisted; its images point back to it.
+     */
+    static Property property(Random random, int locationId, String city) {
+        PropertyType type = PropertyType.values()[random.nextInt(PropertyType.values().length)];
+        int bedrooms = type == PropertyType.COMMERCIAL ? 0 : 1 + random.nextInt(5);
+
+        Property property = new Property();
+        property.setTitle(bedrooms + "-bedroom " + type.name().toLowerCase(Locale.ROOT) + " in " + city);
+        property.setDescription(description(random));
+        property.setType(type);
+        // Most of the catalogue is on the market, as in production
+        property.setStatus(random.nextInt(10) < 8 ? PropertyStatus.AVAILABLE
+                : random.nextBoolean() ? PropertyStatus.SOLD : PropertyStatus.RENTED);
+        property.setPrice(BigDecimal.valueOf(150_000 + random.nextInt(2_350) * 1_000L));
+        property.setBedrooms(bedrooms);
+        property.setBathrooms(1 + random.nextInt(4));
+        property.setArea(400.0 + random.nextInt(3_600));
+        property.setAddress((1 + random.nextInt(9_999)) + " " + STREETS[random.nextInt(STREETS.length)] + " "
+                + SUFFIXES[random.nextInt(SUFFIXES.length)]);
+        property.setLocationId(locationId);
+        property.setZipCode(String.format("%c%d%c %d%c%d", 'A' + random.nextInt(26), random.nextInt(10),
+                'A' + random.nextInt(26), random.nextInt(10), 'A' + random.nextInt(26), random.nextInt(10)));
+
+        int images = 2 + random.nextInt(5);
+        for (int i = 0; i < images; i++) {
+            property.getImages().add(image(random, property, i));
+        }
+        return property;
+    }
+
+    private static Image image(Random random, Property property, int order) {
+        String key = "properties/" + Long.toHexString(random.nextLong()) + "/" + order;
+        Image image = new Image();
+        image.setName("photo-" + order + ".jpg");
+        image.setType("image/jpeg");
+        image.setStorageKey(key + ".jpg");
+        image.setUrl("https://cdn.example.com/" + key + ".jpg");
+        image.setContentHash(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        image.setIsMain(order == 0);
+        image.setDisplayOrder(order);
+        image.setFileSize(200_000L + random.nextInt(3_000_000));
+        image.setVariantStatus(ImageVariantStatus.READY);
+        for (ImageVariant variant : ImageVariant.values()) {
+            String variantKey = key + "-" + variant.key() + ".jpg";
+            image.getVariants().add(new ImageVariantInfo(variant, variantKey, "https://cdn.example.com/" + variantKey,
+                    variant.getMaxDimension(), variant.getMaxDimension() * 3 / 4, 10_000L + random.nextInt(300_000)));
+        }
+        image.setProperty(property);
+        return image;
+    }
+
+    private static String description(Random random) {
+        StringBuilder text = new StringBuilder(MAX_DESCRIPTION_LENGTH);
+        int length = 150 + random.nextInt(MAX_DESCRIPTION_LENGTH - 150);
+        while (true) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (text.length() + word.length() + 2 > length) {
+                return text.append('.').toString();
+            }
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(word);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.mapper.PropertyMapper;
+import com.realestate.property.model.Property;
+import com.realestate.property.service.LocationDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a listing with its images and their variants, and back, through the
+ * MapStruct mapper and the location dictionary exactly as the service wires them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyMapperBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PropertyMapper propertyMapper;
+    private Property property;
+    private PropertyDTO propertyDTO;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        propertyMapper = context.getBean(PropertyMapper.class);
+
+        String[] toronto = Listings.LOCATIONS.get(0);
+        LocationDictionary.Entry location = context.getBean(LocationDictionary.class).resolve(toronto[0], toronto[1]);
+        Random random = new Random(7);
+        property = Listings.property(random, location.id(), location.city());
+        // A persisted listing has ids and timestamps, which the mapper copies too
+        property.setId(1L);
+        property.setCreatedAt(LocalDateTime.now());
+        property.setUpdatedAt(LocalDateTime.now());
+        long imageId = 1;
+        for (var image : property.getImages()) {
+            image.setId(imageId++);
+            image.setCreatedAt(LocalDateTime.now());
+            image.setUpdatedAt(LocalDateTime.now());
+        }
+        propertyDTO = propertyMapper.toDTO(property);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PropertyDTO toDTO() {
+        return propertyMapper.toDTO(property);
+    }
+
+    @Benchmark
+    public Property toEntity() {
+        return propertyMapper.toEntity(propertyDTO);
+    }
+}
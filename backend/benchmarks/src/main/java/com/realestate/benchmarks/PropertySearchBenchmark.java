@@ -0,0 +1,54 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.service.PropertyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code searchProperties} end to end, from criteria validation to favorite counts, for a page of
+ * 20 results as the search page requests it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PropertySearchBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "id"));
+
+    @Param
+    private Searches search;
+
+    private PropertySearchCriteria criteria;
+    private PropertyService propertyService;
+
+    @Setup
+    public void setUp(CatalogueState catalogue) {
+        criteria = search.criteria();
+        propertyService = catalogue.getBean(PropertyService.class);
+    }
+
+    @Benchmark
+    public Page<PropertyDTO> searchProperties() {
+        return propertyService.searchProperties(criteria, PAGE);
+    }
+}
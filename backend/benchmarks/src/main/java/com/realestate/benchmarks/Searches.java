@@ -0,0 +1,64 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+
+import java.math.BigDecimal;
+
+/**
+ * Typical searches from the site's filter panel, from the most common to the rarest.
+ */
+public enum Searches {
+
+    CITY_AND_PRICE {
+        @Override
+        PropertySearchCriteria criteria() {
+            PropertySearchCriteria criteria = new PropertySearchCriteria();
+            criteria.setCity("toronto");
+            criteria.setMinPrice(BigDecimal.valueOf(400_000));
+            criteria.setMaxPrice(BigDecimal.valueOf(900_000));
+            return criteria;
+        }
+    },
+
+    TYPE_AND_BEDROOMS {
+        @Override
+        PropertySearchCriteria criteria() {
+            PropertySearchCriteria criteria = new PropertySearchCriteria();
+            criteria.setStatus(PropertyStatus.AVAILABLE);
+            criteria.setType(PropertyType.CONDO);
+            criteria.setMinBedrooms(2);
+            criteria.setMaxBathrooms(2);
+            return criteria;
+        }
+    },
+
+    KEYWORD {
+        @Override
+        PropertySearchCriteria criteria() {
+            PropertySearchCriteria criteria = new PropertySearchCriteria();
+            criteria.setKeyword("fireplace");
+            return criteria;
+        }
+    },
+
+    FULL {
+        @Override
+        PropertySearchCriteria criteria() {
+            PropertySearchCriteria criteria = CITY_AND_PRICE.criteria();
+            criteria.setState("ON");
+            criteria.setStatus(PropertyStatus.AVAILABLE);
+            criteria.setType(PropertyType.HOUSE);
+            criteria.setMinBedrooms(3);
+            criteria.setMinBathrooms(2);
+            criteria.setMinArea(1_200.0);
+            criteria.setMaxArea(3_000.0);
+            criteria.setKeyword("backyard");
+            criteria.setMaxPricePerSqFt(BigDecimal.valueOf(700));
+            return criteria;
+        }
+    };
+
+    abstract PropertySearchCriteria criteria();
+}
@@ -0,0 +1,45 @@
+package com.realestate.benchmarks;
+
+import com.realestate.property.util.SortUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the {@code sort} parameters of the list and search endpoints, in the forms clients
+ * send: Spring's split single order, one order and several orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortParsingBenchmark {
+
+    @Param({"id|desc", "price,asc", "price,asc|createdAt,desc|bedrooms,desc"})
+    private String sort;
+
+    private String[] parameters;
+
+    @Setup
+    public void setUp() {
+        parameters = sort.split("\\|");
+    }
+
+    @Benchmark
+    public Sort parseSort() {
+        return SortUtils.parseSort(parameters);
+    }
+}
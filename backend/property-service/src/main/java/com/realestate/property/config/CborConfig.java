@@ -0,0 +1,39 @@
+package com.realestate.property.config;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves every JSON endpoint as CBOR as well when the client sends {@code Accept: application/cbor}.
+ * Services pulling whole catalogue pages use it: numbers and prices are binary, strings are
+ * length-prefixed so fields a client does not map are skipped without decoding them, and dates
+ * are written as numeric arrays instead of ISO text.
+ * <p>
+ * CBOR string references would shrink repeated names further, but Jackson cannot skip unmapped
+ * fields of a stream that uses them, so they stay off.
+ */
+@Configuration
+public class CborConfig {
+
+    /**
+     * CBOR sequence (RFC 8742): CBOR items back to back, the binary counterpart of NDJSON.
+     */
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    // Registered with the MVC converters by Spring Boot; otherwise the mapper gets the same
+    // spring.jackson settings and modules as the JSON one
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+    }
+}
@@ -0,0 +1,119 @@
+package com.realestate.property.config;
+
+import com.realestate.property.datasource.ReadReplicaRoutingDataSource;
+import com.realestate.property.datasource.ReadYourWritesTracker;
+import com.realestate.property.datasource.ReplicaHealthMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits database traffic between the primary and a set of read replicas.
+ * Enabled with {@code app.datasource.read-routing.enabled=true}; otherwise the
+ * regular Spring Boot single data source is used. Left out when sharding is enabled, whose
+ * configuration then refuses to start, see {@link ShardingDataSourceConfig}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("${app.datasource.read-routing.enabled:false} and !${app.sharding.enabled:false}")
+public class ReadReplicaDataSourceConfig {
+
+    @Value("${app.datasource.read-routing.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.read-routing.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.read-routing.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.read-routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.read-routing.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.read-routing.read-your-writes-window-ms:5000}")
+    private long readYourWritesWindowMs;
+
+    @Value("${app.datasource.read-routing.lag-query:}")
+    private String lagQuery;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(Duration.ofMillis(readYourWritesWindowMs));
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String url = replicaUrls.get(i).trim();
+            if (StringUtils.hasText(url)) {
+                String name = "replica-" + (i + 1);
+                replicas.put(name, createReplicaDataSource(name, url));
+            }
+        }
+        log.info("Read/write routing enabled with {} read replica(s)", replicas.size());
+
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, lagQuery, Duration.ofMillis(maxLagMs), 2);
+        monitor.checkReplicas();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaHealthMonitor replicaHealthMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaHealthMonitor.getReplicas(), replicaHealthMonitor, readYourWritesTracker);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-routing.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        replicaHealthMonitor().checkReplicas();
+    }
+
+    private HikariDataSource createReplicaDataSource(String name, String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setMaximumPoolSize(replicaPoolSize);
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(2000);
+        // Don't block startup on a replica that is down; the health monitor keeps it out of rotation
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -26,7 +26,8 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints
-                        .requestMatchers("/api/properties", "/api/properties/search", "/api/properties/*/status").permitAll()
+                        .requestMatchers("/api/properties", "/api/properties/search", "/api/properties/catalogue",
+                                "/api/properties/*/status").permitAll()
                         // All other endpoints require authentication (which is handled by Gateway)
                         // but we'll also trust Gateway's authentication information
                         .anyRequest().permitAll()
@@ -0,0 +1,142 @@
+package com.realestate.property.config;
+
+import com.realestate.property.sharding.ShardContext;
+import com.realestate.property.sharding.ShardIdRangeAligner;
+import com.realestate.property.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads listings over several databases. Shard 0 is the regular {@code spring.datasource};
+ * additional shards are listed in {@code app.sharding.shard-urls}. Enabled with
+ * {@code app.sharding.enabled=true}. Both provide the primary {@code dataSource}, so startup
+ * fails when read replica routing is enabled as well.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfig implements SmartInitializingSingleton, DisposableBean {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Value("${app.sharding.shard-urls}")
+    private List<String> shardUrls;
+
+    @Value("${app.sharding.shard-username:${spring.datasource.username:}}")
+    private String shardUsername;
+
+    @Value("${app.sharding.shard-password:${spring.datasource.password:}}")
+    private String shardPassword;
+
+    @Value("${app.sharding.shard-pool-size:10}")
+    private int shardPoolSize;
+
+    private final List<HikariDataSource> extraShards = new ArrayList<>();
+    private List<DataSource> shards;
+
+    public ShardingDataSourceConfig(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                    @Value("${app.datasource.read-routing.enabled:false}") boolean readRouting) {
+        if (readRouting) {
+            throw new IllegalStateException("app.sharding.enabled and app.datasource.read-routing.enabled "
+                    + "cannot both be true: each shard would need its own replicas");
+        }
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource shardZeroDataSource) {
+        shards = new ArrayList<>();
+        shards.add(shardZeroDataSource);
+        for (String url : shardUrls) {
+            if (StringUtils.hasText(url)) {
+                HikariDataSource shard = new HikariDataSource();
+                shard.setPoolName("shard-" + shards.size());
+                shard.setJdbcUrl(url.trim());
+                shard.setUsername(shardUsername);
+                shard.setPassword(shardPassword);
+                shard.setMaximumPoolSize(shardPoolSize);
+                extraShards.add(shard);
+                shards.add(shard);
+            }
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Hibernate only manages the schema of shard 0 at startup. Create the mapped tables on
+     * empty shards and move every shard's identity sequences into its id range.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        SessionFactory sessionFactory = entityManagerFactory.getObject().unwrap(SessionFactory.class);
+        ShardIdRangeAligner aligner = new ShardIdRangeAligner();
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (!hasTable(shards.get(shard), "properties")) {
+                log.info("Creating schema on empty shard {}", shard);
+                ShardContext.set(shard);
+                try {
+                    sessionFactory.getSchemaManager().exportMappedObjects(true);
+                } finally {
+                    ShardContext.set(null);
+                }
+            }
+            aligner.align(shards.get(shard), shard, ShardIdRangeAligner.SHARDED_ID_TABLES);
+        }
+    }
+
+    private static boolean hasTable(DataSource dataSource, String table) {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = connection.getMetaData().getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot inspect shard schema", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        extraShards.forEach(HikariDataSource::close);
+    }
+}
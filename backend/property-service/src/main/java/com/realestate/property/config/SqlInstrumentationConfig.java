@@ -0,0 +1,57 @@
+package com.realestate.property.config;
+
+import com.realestate.property.datasource.InstrumentedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements of every request. The data source everything else uses, whether
+ * Boot's pool or the read-replica or shard routing proxy, is wrapped in an
+ * {@link InstrumentedDataSource}; the pools behind it are left alone so nothing is counted twice.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig implements WebMvcConfigurer {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlInstrumentationConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+            @Value("${app.sql-instrumentation.slow-threshold-ms:500}") long slowThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, Duration.ofMillis(slowThresholdMs));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlInstrumentationInterceptor sqlInstrumentationInterceptor() {
+        return new SqlInstrumentationInterceptor(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlInstrumentationInterceptor());
+    }
+}
@@ -0,0 +1,143 @@
+package com.realestate.property.config;
+
+import com.realestate.property.datasource.QueryBudget;
+import com.realestate.property.datasource.RequestSqlStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the SQL statements of each request to a controller and, when it completes, records
+ * them per endpoint and warns about statement shapes repeated often enough to suggest an N+1.
+ * <p>
+ * Endpoints are tagged by method and URL pattern, e.g. {@code GET /api/properties/{id}}, and
+ * {@code property.sql.statements} publishes histogram buckets so per-endpoint percentiles can be
+ * charted. Statements run on other threads, like async request bodies, are not counted.
+ */
+@Slf4j
+public class SqlInstrumentationInterceptor implements AsyncHandlerInterceptor {
+
+    private static final int MAX_REPORTED_SHAPES = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    @Value("${app.sql-instrumentation.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Value("${app.sql-instrumentation.default-budget:0}")
+    private int defaultBudget;
+
+    @Value("${app.sql-instrumentation.enforce-budgets:false}")
+    private boolean enforceBudgets;
+
+    public SqlInstrumentationInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async and error dispatches belong to a request that was already counted
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+            RequestSqlStats.begin(endpoint, budgetOf(handler), enforceBudgets);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        complete();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        complete();
+    }
+
+    private int budgetOf(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private void complete() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats == null) {
+            return;
+        }
+        RequestSqlStats.end();
+
+        EndpointMeters endpointMeters = meters.computeIfAbsent(stats.getEndpoint(),
+                endpoint -> new EndpointMeters(meterRegistry, endpoint));
+        endpointMeters.statements.record(stats.getStatementCount());
+        endpointMeters.rows.record(stats.getRowCount());
+        if (stats.getSlowStatementCount() > 0) {
+            endpointMeters.slow.increment(stats.getSlowStatementCount());
+        }
+        if (stats.getStatementCount() >= nPlusOneThreshold) {
+            stats.repeatedShapes(nPlusOneThreshold).forEach((shape, count) -> {
+                endpointMeters.suspectedNPlusOne.increment();
+                // Once per shape, the counter tracks how often it keeps happening
+                if (endpointMeters.reportedShapes.size() < MAX_REPORTED_SHAPES
+                        && endpointMeters.reportedShapes.add(shape)) {
+                    log.warn("Suspected N+1 in {}: {} of {} statements were {}", stats.getEndpoint(), count,
+                            stats.getStatementCount(), shape);
+                }
+            });
+        }
+        if (stats.getBudget() > 0 && stats.getStatementCount() > stats.getBudget()) {
+            log.debug("{} ran {} SQL statements, over its budget of {}", stats.getEndpoint(),
+                    stats.getStatementCount(), stats.getBudget());
+        }
+        log.debug("{} ran {} SQL statements returning or changing {} rows", stats.getEndpoint(),
+                stats.getStatementCount(), stats.getRowCount());
+    }
+
+    private static final class EndpointMeters {
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final Counter slow;
+        private final Counter suspectedNPlusOne;
+        private final Set<String> reportedShapes = ConcurrentHashMap.newKeySet();
+
+        private EndpointMeters(MeterRegistry meterRegistry, String endpoint) {
+            this.statements = DistributionSummary.builder("property.sql.statements")
+                    .description("SQL statements per request")
+                    .tag("endpoint", endpoint)
+                    .serviceLevelObjectives(1, 2, 3, 5, 8, 13, 21, 34, 55, 89)
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("property.sql.rows")
+                    .description("Rows read or written per request")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.slow = Counter.builder("property.sql.slow").tag("endpoint", endpoint).register(meterRegistry);
+            this.suspectedNPlusOne = Counter.builder("property.sql.suspected_n_plus_one")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.realestate.property.controller;
+
+import com.realestate.property.config.PropertyApiResponses.StandardResponses;
+import com.realestate.property.dto.DuplicateListingDTO;
+import com.realestate.property.dto.DuplicateReportDTO;
+import com.realestate.property.service.DuplicateListingDetector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/properties")
+@RequiredArgsConstructor
+@Tag(name = "Duplicate Listings", description = "Near-duplicate listing detection APIs")
+@SecurityRequirement(name = "bearer-jwt")
+public class DuplicateListingController {
+    private final DuplicateListingDetector duplicateListingDetector;
+
+    @Operation(
+            summary = "Find likely duplicates of a property",
+            description = "Returns listings whose title, description and address closely match the property's, " +
+                    "most similar first"
+    )
+    @StandardResponses
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<List<DuplicateListingDTO>> getDuplicates(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long id) {
+        log.debug("REST request to get duplicates of Property : {}", id);
+        return ResponseEntity.ok(duplicateListingDetector.findDuplicates(id));
+    }
+
+    @Operation(
+            summary = "Get the duplicate listing report",
+            description = "Returns the clusters of near-duplicate listings found by the last full catalogue scan"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Latest report"),
+            @ApiResponse(responseCode = "204", description = "No scan has completed on this instance yet")
+    })
+    @GetMapping("/duplicates")
+    public ResponseEntity<DuplicateReportDTO> getDuplicateReport() {
+        return duplicateListingDetector.getLatestReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
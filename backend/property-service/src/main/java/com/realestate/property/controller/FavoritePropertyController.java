@@ -1,5 +1,7 @@
 package com.realestate.property.controller;
 
+import com.realestate.property.datasource.QueryBudget;
+import com.realestate.property.dto.FavoriteCardPageDTO;
 import com.realestate.property.dto.FavoritePropertyDTO;
 import com.realestate.property.dto.PropertyDTO;
 import com.realestate.property.service.FavoritePropertyService;
@@ -94,6 +96,9 @@ public class FavoritePropertyController {
             @ApiResponse(responseCode = "200", description = "Favorite properties retrieved successfully"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
+    // A page of 20 favorites with 6 photos each: page, count, photos, three batches of variants and a
+    // dictionary preload
+    @QueryBudget(7)
     @GetMapping({"", "/"})
     public ResponseEntity<Page<PropertyDTO>> getFavoriteProperties(
             @Parameter(description = "Page number (0-based)")
@@ -115,6 +120,30 @@ public class FavoritePropertyController {
         return ResponseEntity.ok(favoriteService.getFavoriteProperties(userEmail, pageable));
     }
 
+    @Operation(
+            summary = "Get favorite property cards",
+            description = "Retrieves the current user's favorites as cards, most recently saved first. "
+                    + "Pass the nextCursor of a page to get the following one; it is null on the last page"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Favorite cards retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @QueryBudget(2)
+    @GetMapping("/cards")
+    public ResponseEntity<FavoriteCardPageDTO> getFavoriteCards(
+            @Parameter(description = "Cursor returned with the previous page, omitted for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of cards per page (1-100)")
+            @RequestParam(defaultValue = "20") int size) {
+
+        String userEmail = getCurrentUserEmail();
+        log.info("REST request to get favorite cards for user: {}", userEmail);
+
+        return ResponseEntity.ok(favoriteService.getFavoriteCards(userEmail, cursor, size));
+    }
+
     @Operation(
             summary = "Check if property is favorited",
             description = "Checks if a property is in the current user's favorites"
@@ -1,8 +1,16 @@
 package com.realestate.property.controller;
 
 import com.realestate.property.config.PropertyApiResponses.StandardResponses;
+import com.realestate.property.dto.CompleteUploadRequest;
+import com.realestate.property.dto.GalleryLayoutDTO;
 import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.ImageObjectInfo;
+import com.realestate.property.dto.ImageUploadResultDTO;
+import com.realestate.property.dto.PresignedUploadDTO;
+import com.realestate.property.dto.PresignedUploadRequest;
+import com.realestate.property.dto.PresignedUrlDTO;
 import com.realestate.property.service.ImageService;
+import com.realestate.property.util.StreamingMultipartParser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -11,14 +19,26 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -27,6 +47,8 @@ import java.util.List;
 @Tag(name = "Property Images", description = "Property image management APIs")
 @SecurityRequirement(name = "bearer-jwt")
 public class ImageController {
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final ImageService imageService;
 
     @Operation(
@@ -52,6 +74,44 @@ public class ImageController {
         return ResponseEntity.ok(imageService.uploadImage(propertyId, file));
     }
 
+    @Operation(
+            summary = "Stream a single image",
+            description = "Uploads an image without buffering it. The multipart body must carry a size field " +
+                    "with the exact file length before the file part; the type is checked against the file's " +
+                    "leading bytes"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Image uploaded successfully",
+            content = @Content(schema = @Schema(implementation = ImageDTO.class))
+    )
+    @StandardResponses
+    @PostMapping(value = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageDTO> uploadImageStream(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long propertyId,
+            HttpServletRequest request) throws IOException {
+        StreamingMultipartParser parser = new StreamingMultipartParser(request.getInputStream(),
+                StreamingMultipartParser.boundaryOf(request.getContentType()), STREAM_BUFFER_SIZE);
+        Long size = null;
+        StreamingMultipartParser.Part part;
+        while ((part = parser.nextPart()) != null) {
+            if ("size".equals(part.name()) && part.fileName() == null) {
+                size = parseSize(new String(part.body().readNBytes(20), StandardCharsets.US_ASCII));
+            } else if ("file".equals(part.name())) {
+                String partLength = part.headers().get(HttpHeaders.CONTENT_LENGTH);
+                if (size == null && partLength != null) {
+                    size = parseSize(partLength);
+                }
+                if (size == null) {
+                    throw new IllegalArgumentException("The size field must precede the file part");
+                }
+                return ResponseEntity.ok(imageService.uploadImageStream(propertyId, part.contentType(), size, part.body()));
+            }
+        }
+        throw new IllegalArgumentException("Missing file part");
+    }
+
     @Operation(
             summary = "Get all property images",
             description = "Retrieve all images associated with a specific property"
@@ -84,16 +144,17 @@ public class ImageController {
     }
     @Operation(
             summary = "Upload multiple images",
-            description = "Upload multiple images for a specific property"
+            description = "Upload multiple images for a specific property. Files are transferred concurrently " +
+                    "and each one reports its own success or failure"
     )
     @ApiResponse(
             responseCode = "200",
-            description = "Images uploaded successfully",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ImageDTO.class)))
+            description = "Per-file upload results, in request order",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ImageUploadResultDTO.class)))
     )
     @StandardResponses
     @PostMapping("/multiple")
-    public ResponseEntity<List<ImageDTO>> uploadMultipleImages(
+    public ResponseEntity<List<ImageUploadResultDTO>> uploadMultipleImages(
             @Parameter(description = "Property ID", required = true)
             @PathVariable Long propertyId,
             @Parameter(
@@ -185,26 +246,204 @@ public class ImageController {
         return ResponseEntity.ok(imageService.reorderImages(propertyId, imageIds));
     }
 
+    @Operation(
+            summary = "Update gallery layout",
+            description = "Sets the display order of every image of the property, and optionally the main image, " +
+                    "in one request. The layout must list each image exactly once"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Layout updated successfully",
+            content = @Content(schema = @Schema(implementation = GalleryLayoutDTO.class))
+    )
+    @StandardResponses
+    @PutMapping("/layout")
+    public ResponseEntity<GalleryLayoutDTO> updateGalleryLayout(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long propertyId,
+            @Valid @RequestBody GalleryLayoutDTO layout) {
+        return ResponseEntity.ok(imageService.updateGalleryLayout(propertyId, layout));
+    }
+
+    @Operation(
+            summary = "Request a direct upload URL",
+            description = "Issues a short-lived presigned PUT URL so the client uploads the image straight to storage. " +
+                    "The URL only accepts a body of exactly the declared content length. Call the completion endpoint with the returned storage key once the upload has finished"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Upload URL issued",
+            content = @Content(schema = @Schema(implementation = PresignedUploadDTO.class))
+    )
+    @StandardResponses
+    @PostMapping("/upload-url")
+    public ResponseEntity<PresignedUploadDTO> createUploadUrl(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long propertyId,
+            @Valid @RequestBody PresignedUploadRequest request) {
+        return ResponseEntity.ok(imageService.createUploadUrl(propertyId, request));
+    }
+
+    @Operation(
+            summary = "Complete a direct upload",
+            description = "Records the image a client uploaded through a presigned URL"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Image recorded successfully",
+            content = @Content(schema = @Schema(implementation = ImageDTO.class))
+    )
+    @StandardResponses
+    @PostMapping("/upload-complete")
+    public ResponseEntity<ImageDTO> completeUpload(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long propertyId,
+            @Valid @RequestBody CompleteUploadRequest request) {
+        return ResponseEntity.ok(imageService.completeUpload(propertyId, request));
+    }
+
+    @Operation(
+            summary = "Get a download URL",
+            description = "Returns a short-lived presigned GET URL for the image or one of its variants " +
+                    "(thumbnail, card, detail). Until a variant is generated the original is returned"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Download URL issued",
+            content = @Content(schema = @Schema(implementation = PresignedUrlDTO.class))
+    )
+    @StandardResponses
+    @GetMapping("/{imageId}/url")
+    public ResponseEntity<PresignedUrlDTO> getDownloadUrl(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long propertyId,
+            @Parameter(description = "Image ID", required = true)
+            @PathVariable Long imageId,
+            @Parameter(description = "Variant name")
+            @RequestParam(required = false) String variant) {
+        return ResponseEntity.ok(imageService.getDownloadUrl(propertyId, imageId, variant));
+    }
+
     @Operation(
             summary = "Download image",
-            description = "Download a specific image file"
+            description = "Streams a specific image file. Supports single byte ranges (Range/If-Range) and conditional requests (If-None-Match)"
     )
     @ApiResponse(
             responseCode = "200",
             description = "Image downloaded successfully",
             content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     )
+    @ApiResponse(responseCode = "206", description = "Requested byte range of the image")
+    @ApiResponse(responseCode = "304", description = "Image not modified")
+    @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
     @StandardResponses
     @GetMapping("/{imageId}/download")
-    public ResponseEntity<byte[]> downloadImage(
+    public ResponseEntity<StreamingResponseBody> downloadImage(
             @Parameter(description = "Property ID", required = true)
             @PathVariable Long propertyId,
             @Parameter(description = "Image ID to download", required = true)
-            @PathVariable Long imageId) {
-        byte[] imageData = imageService.downloadImage(imageId);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"image\"")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(imageData);
+            @PathVariable Long imageId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ImageObjectInfo image = imageService.getImageObjectInfo(imageId);
+        long length = image.getContentLength();
+        String eTag = image.getETag() != null ? "\"" + image.getETag() + "\"" : null;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        if (image.getLastModified() != null) {
+            headers.setLastModified(image.getLastModified());
+        }
+
+        if (eTag != null && ifNoneMatch != null
+                && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(eTag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentDisposition(ContentDisposition.attachment().filename(image.getFileName()).build());
+        headers.setContentType(image.getContentType() != null
+                ? MediaType.parseMediaType(image.getContentType()) : MediaType.APPLICATION_OCTET_STREAM);
+
+        // Only a single range is served; multi-range requests get the full body, which RFC 9110 allows
+        HttpRange range = null;
+        if (rangeHeader != null && length > 0 && rangeStillValid(ifRange, eTag, image.getLastModified())) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                range = ranges.get(0);
+            }
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            if (start >= length) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+        headers.setContentLength(length == 0 ? 0 : end - start + 1);
+
+        long rangeStart = start;
+        long rangeEnd = end;
+        StreamingResponseBody body = outputStream -> {
+            if (length > 0) {
+                imageService.streamImage(image, rangeStart, rangeEnd, outputStream);
+            }
+        };
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    /**
+     * A range only applies if the client's If-Range validator still matches: a strong ETag, or
+     * the exact Last-Modified date.
+     */
+    private static boolean rangeStillValid(String ifRange, String eTag, Instant lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String validator = ifRange.trim();
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            return validator.equals(eTag);
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return since.getEpochSecond() == lastModified.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static long parseSize(String value) {
+        try {
+            long size = Long.parseLong(value.trim());
+            if (size > 0) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid file size: " + value.trim());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,15 @@
 package com.realestate.property.controller;
 
 import com.realestate.property.config.PropertyApiResponses.StandardResponses;
+import com.realestate.property.datasource.QueryBudget;
 import com.realestate.property.dto.PropertyDTO;
 import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.dto.TrendingPropertyDTO;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.service.PropertyDetailPrefetcher;
 import com.realestate.property.service.PropertyService;
+import com.realestate.property.service.PropertyViewTracker;
+import com.realestate.property.util.SortUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,11 +24,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -34,6 +38,8 @@ import java.util.List;
 @SecurityRequirement(name = "bearer-jwt")
 public class PropertyController {
     private final PropertyService propertyService;
+    private final PropertyViewTracker propertyViewTracker;
+    private final PropertyDetailPrefetcher propertyDetailPrefetcher;
 
     @Operation(
             summary = "Create a new property",
@@ -76,12 +82,34 @@ public class PropertyController {
             description = "Retrieves the details of a specific property"
     )
     @StandardResponses
+    // Listing, photos, their variants, the caller's favorite, the favorite count and a dictionary preload
+    @QueryBudget(6)
     @GetMapping("/{id}")
     public ResponseEntity<PropertyDTO> getProperty(
             @Parameter(description = "Property ID", required = true)
             @PathVariable Long id) {
         log.debug("REST request to get Property : {}", id);
-        return ResponseEntity.ok(propertyService.getProperty(id));
+        propertyDetailPrefetcher.recordDetailRequest(id);
+        PropertyDTO property = propertyService.getProperty(id);
+        propertyViewTracker.recordView(property);
+        return ResponseEntity.ok(property);
+    }
+
+    @Operation(
+            summary = "Get trending properties",
+            description = "Returns the most viewed listings of the last hours, optionally for one city and/or type. " +
+                    "Recent views weigh more than older ones"
+    )
+    @StandardResponses
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPropertyDTO>> getTrendingProperties(
+            @Parameter(description = "City to restrict the list to")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Property type to restrict the list to")
+            @RequestParam(required = false) PropertyType type,
+            @Parameter(description = "Maximum number of properties to return")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(propertyViewTracker.getTrending(city, type, Math.max(limit, 0)));
     }
 
     @Operation(
@@ -89,6 +117,9 @@ public class PropertyController {
             description = "Retrieves a paginated list of properties with sorting options"
     )
     @StandardResponses
+    // A page of 20 listings with 6 photos each: page, count, photos, three batches of variants,
+    // favorite counts, the caller's favorites and a dictionary preload
+    @QueryBudget(9)
     @GetMapping({"", "/"})
     public ResponseEntity<Page<PropertyDTO>> getAllProperties(
             @Parameter(description = "Page number (0-based)")
@@ -99,20 +130,31 @@ public class PropertyController {
             @RequestParam(defaultValue = "id,desc") String[] sort) {
 
         log.debug("REST request to get all Properties");
-        List<Sort.Order> orders = new ArrayList<>();
 
-        if (sort[0].contains(",")) {
-            for (String sortOrder : sort) {
-                String[] _sort = sortOrder.split(",");
-                orders.add(new Sort.Order(getSortDirection(_sort[1]), _sort[0]));
-            }
-        } else {
-            orders.add(new Sort.Order(getSortDirection(sort[1]), sort[0]));
-        }
+        Pageable pageable = PageRequest.of(page, size, SortUtils.parseSort(sort));
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
+        Page<PropertyDTO> properties = propertyService.getAllProperties(pageable);
+        propertyDetailPrefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.LIST, properties.getContent());
+        return ResponseEntity.ok(properties);
+    }
 
-        return ResponseEntity.ok(propertyService.getAllProperties(pageable));
+    @Operation(
+            summary = "Walk the whole catalogue",
+            description = "Retrieves up to limit listings with an id above afterId, in id order. Pass the last id " +
+                    "received as afterId for the next page; a page shorter than limit is the last"
+    )
+    @StandardResponses
+    // A page of 20 listings with 6 photos each: listings, photos, three batches of variants,
+    // favorite counts, the caller's favorites and a dictionary preload
+    @QueryBudget(8)
+    @GetMapping("/catalogue")
+    public ResponseEntity<List<PropertyDTO>> getCataloguePage(
+            @Parameter(description = "Id of the last listing of the previous page, 0 for the first page")
+            @RequestParam(defaultValue = "0") long afterId,
+            @Parameter(description = "Maximum number of listings to return, at most 1000")
+            @RequestParam(defaultValue = "500") int limit) {
+        log.debug("REST request to get the catalogue after Property : {}", afterId);
+        return ResponseEntity.ok(propertyService.getCataloguePage(afterId, limit));
     }
 
     @Operation(
@@ -149,6 +191,9 @@ public class PropertyController {
             description = "Searches for properties based on various criteria with pagination and sorting options"
     )
     @StandardResponses
+    // A page of 20 listings with 6 photos each: page, count, photos, three batches of variants,
+    // favorite counts, the caller's favorites and a dictionary preload
+    @QueryBudget(9)
     @GetMapping("/search")
     public ResponseEntity<Page<PropertyDTO>> searchProperties(
             @Parameter(description = "Search criteria")
@@ -161,23 +206,11 @@ public class PropertyController {
             @RequestParam(defaultValue = "id,desc") String[] sort) {
 
         log.debug("REST request to search Properties with criteria: {}", criteria);
-        List<Sort.Order> orders = new ArrayList<>();
 
-        if (sort[0].contains(",")) {
-            for (String sortOrder : sort) {
-                String[] _sort = sortOrder.split(",");
-                orders.add(new Sort.Order(getSortDirection(_sort[1]), _sort[0]));
-            }
-        } else {
-            orders.add(new Sort.Order(getSortDirection(sort[1]), sort[0]));
-        }
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
-
-        return ResponseEntity.ok(propertyService.searchProperties(criteria, pageable));
-    }
+        Pageable pageable = PageRequest.of(page, size, SortUtils.parseSort(sort));
 
-    private Sort.Direction getSortDirection(String direction) {
-        return direction.equals("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Page<PropertyDTO> properties = propertyService.searchProperties(criteria, pageable);
+        propertyDetailPrefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.SEARCH, properties.getContent());
+        return ResponseEntity.ok(properties);
     }
 }
\ No newline at end of file
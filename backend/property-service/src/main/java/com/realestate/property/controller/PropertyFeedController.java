@@ -0,0 +1,54 @@
+package com.realestate.property.controller;
+
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.service.ListingFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/properties")
+@RequiredArgsConstructor
+@Tag(name = "Property Feed", description = "Live listing updates")
+@SecurityRequirement(name = "bearer-jwt")
+public class PropertyFeedController {
+    private final ListingFeed listingFeed;
+
+    @Operation(
+            summary = "Subscribe to listing changes",
+            description = "Streams server-sent 'change' events for created, updated and deleted listings matching " +
+                    "the filter. A listing leaving the filtered status is reported too. Reconnect with Last-Event-ID " +
+                    "to resume; a 'reset' event means changes were missed and the listings should be reloaded"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "503", description = "No capacity for more subscribers; retry later")
+    })
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @Parameter(description = "City to restrict the feed to")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Property type to restrict the feed to")
+            @RequestParam(required = false) PropertyType type,
+            @Parameter(description = "Status to restrict the feed to")
+            @RequestParam(required = false) PropertyStatus status,
+            @Parameter(description = "Id of the last event received, sent by browsers on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("REST request to subscribe to listing feed : {}, {}, {}", city, type, status);
+        return listingFeed.subscribe(city, type, status, lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -0,0 +1,128 @@
+package com.realestate.property.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.property.config.CborConfig;
+import com.realestate.property.config.PropertyApiResponses.StandardResponses;
+import com.realestate.property.dto.PropertyHistoryDTO;
+import com.realestate.property.service.PropertyHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/properties")
+@RequiredArgsConstructor
+@Tag(name = "Property History", description = "Price and status history APIs")
+@SecurityRequirement(name = "bearer-jwt")
+public class PropertyHistoryController {
+    private final PropertyHistoryService historyService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Operation(
+            summary = "Get price and status history of a property",
+            description = "Retrieves the recorded price and status transitions of a property, newest first"
+    )
+    @StandardResponses
+    @GetMapping("/{id}/history")
+    public ResponseEntity<Page<PropertyHistoryDTO>> getPropertyHistory(
+            @Parameter(description = "Property ID", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of items per page")
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("REST request to get history of Property : {}", id);
+        return ResponseEntity.ok(historyService.getPropertyHistory(id, PageRequest.of(page, size)));
+    }
+
+    @Operation(
+            summary = "Stream price and status history for a time range",
+            description = "Streams all history entries in [from, to) as newline-delimited JSON, ordered by property and time. " +
+                    "Send Accept: application/cbor-seq for a sequence of CBOR items instead"
+    )
+    @StandardResponses
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @Parameter(description = "Inclusive start of the time range", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end of the time range", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Lowest property ID to include")
+            @RequestParam(required = false) Long fromPropertyId,
+            @Parameter(description = "Highest property ID to include")
+            @RequestParam(required = false) Long toPropertyId) {
+        validateRange(from, to);
+        log.debug("REST request to stream property history from {} to {}", from, to);
+
+        StreamingResponseBody body = outputStream -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            historyService.streamHistory(from, to, fromPropertyId, toPropertyId, entry -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(entry));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(hidden = true)
+    @GetMapping(value = "/history", produces = CborConfig.APPLICATION_CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHistoryCbor(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long fromPropertyId,
+            @RequestParam(required = false) Long toPropertyId) {
+        validateRange(from, to);
+        log.debug("REST request to stream property history as CBOR from {} to {}", from, to);
+
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream output = new BufferedOutputStream(outputStream);
+            historyService.streamHistory(from, to, fromPropertyId, toPropertyId, entry -> {
+                try {
+                    // One self-contained item per entry, so readers can stop anywhere
+                    output.write(cborMapper.writeValueAsBytes(entry));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            output.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(CborConfig.APPLICATION_CBOR_SEQ)
+                .body(body);
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+}
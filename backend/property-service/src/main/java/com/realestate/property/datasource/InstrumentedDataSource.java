@@ -0,0 +1,193 @@
+package com.realestate.property.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps connections, statements and result sets in JDK proxies that count statements and rows
+ * into the current {@link RequestSqlStats}, and log statements slower than the threshold with
+ * their bind values whether or not a request is being collected.
+ * <p>
+ * Execution time covers the execute call only, not fetching the rows afterwards.
+ */
+@Slf4j
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final int MAX_BIND_LENGTH = 100;
+
+    private final long slowThresholdNanos;
+
+    public InstrumentedDataSource(DataSource targetDataSource, Duration slowThreshold) {
+        super(targetDataSource);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" -> wrap(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> wrap(CallableStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        // Parameter index to value; only touched by the thread using the statement
+        private final Map<Integer, Object> binds = new TreeMap<>();
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                binds.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (name.equals("getResultSet") && result != null) {
+                return countingRows((ResultSet) result, RequestSqlStats.current());
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats != null) {
+                stats.beforeStatement(statementSql);
+            }
+
+            long start = System.nanoTime();
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            if (elapsed > slowThresholdNanos) {
+                if (stats != null) {
+                    stats.recordSlowStatement();
+                }
+                log.warn("Slow SQL statement ({} ms){}: {} binds {}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        stats != null ? " in " + stats.getEndpoint() : "", statementSql, formatBinds());
+            }
+            if (stats == null) {
+                return result;
+            }
+            if (result instanceof ResultSet resultSet) {
+                return countingRows(resultSet, stats);
+            }
+            stats.addRows(affectedRows(result));
+            return result;
+        }
+
+        private String formatBinds() {
+            StringBuilder formatted = new StringBuilder("[");
+            binds.forEach((index, value) -> {
+                if (formatted.length() > 1) {
+                    formatted.append(", ");
+                }
+                formatted.append(index).append('=');
+                if (value instanceof byte[] bytes) {
+                    formatted.append('<').append(bytes.length).append(" bytes>");
+                } else {
+                    String text = String.valueOf(value);
+                    formatted.append(text.length() > MAX_BIND_LENGTH ? text.substring(0, MAX_BIND_LENGTH) + "..." : text);
+                }
+            });
+            return formatted.append(']').toString();
+        }
+    }
+
+    private static long affectedRows(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(0, count.longValue());
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(0, count);
+            }
+        }
+        return total;
+    }
+
+    private static ResultSet countingRows(ResultSet target, RequestSqlStats stats) {
+        if (stats == null) {
+            return target;
+        }
+        return wrap(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.addRows(1);
+            }
+            return result;
+        });
+    }
+}
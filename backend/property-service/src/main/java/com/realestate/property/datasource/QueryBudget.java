@@ -0,0 +1,21 @@
+package com.realestate.property.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements one request to a controller method may run, on an unsharded
+ * database. Only enforced with {@code app.sql-instrumentation.enforce-budgets=true}, which tests
+ * set so a new N+1 fails the build instead of reaching production.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * Maximum statements per request.
+     */
+    int value();
+}
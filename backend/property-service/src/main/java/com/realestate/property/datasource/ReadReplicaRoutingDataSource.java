@@ -0,0 +1,76 @@
+package com.realestate.property.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to a healthy read replica and everything else to the primary.
+ * <p>
+ * The routing decision relies on {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()},
+ * so this data source must be wrapped in a {@code LazyConnectionDataSourceProxy} to make sure the
+ * connection is only fetched after the transaction attributes are bound.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaHealthMonitor healthMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                        ReplicaHealthMonitor healthMonitor,
+                                        ReadYourWritesTracker readYourWritesTracker) {
+        this.healthMonitor = healthMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWrite();
+            return PRIMARY;
+        }
+
+        if (readYourWritesTracker.isCurrentUserSticky()) {
+            log.debug("Routing read to primary for read-your-writes consistency");
+            return PRIMARY;
+        }
+
+        String replica = healthMonitor.nextHealthyReplica();
+        if (replica == null) {
+            log.debug("No healthy read replica available, routing read to primary");
+            return PRIMARY;
+        }
+        return replica;
+    }
+
+    private void registerWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String user = ReadYourWritesTracker.currentUser();
+        if (user == null) {
+            return;
+        }
+        // Start the stickiness window when the write is visible on the primary, not when it begins
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite(user);
+            }
+        });
+    }
+}
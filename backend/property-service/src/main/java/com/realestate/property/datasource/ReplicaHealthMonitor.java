@@ -0,0 +1,116 @@
+package com.realestate.property.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically probes every read replica and keeps the set of replicas that are
+ * reachable and within the configured replication lag. Replicas start out unhealthy
+ * and only receive reads after their first successful check.
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements DisposableBean {
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final int validationTimeoutSeconds;
+
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile List<String> healthyReplicas = Collections.emptyList();
+
+    public ReplicaHealthMonitor(Map<String, DataSource> replicas, String lagQuery,
+                                Duration maxLag, int validationTimeoutSeconds) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Checks every replica once and publishes the new healthy set.
+     */
+    public void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            String name = entry.getKey();
+            try (Connection connection = entry.getValue().getConnection()) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    log.warn("Read replica {} failed connection validation", name);
+                    continue;
+                }
+                double lag = measureLag(connection);
+                lagSeconds.put(name, lag);
+                if (lag * 1000 > maxLag.toMillis()) {
+                    log.warn("Read replica {} is lagging by {}s, routing reads to primary", name, lag);
+                    continue;
+                }
+                healthy.add(name);
+            } catch (Exception e) {
+                log.warn("Read replica {} health check failed: {}", name, e.getMessage());
+            }
+        }
+
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("Healthy read replicas changed: {} -> {}", healthyReplicas, healthy);
+        }
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    private double measureLag(Connection connection) throws Exception {
+        if (!StringUtils.hasText(lagQuery)) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    /**
+     * Picks the next healthy replica in round-robin order, or {@code null} if none is usable.
+     */
+    public String nextHealthyReplica() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(roundRobin.getAndIncrement(), healthy.size()));
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return Collections.unmodifiableMap(replicas);
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    public Map<String, Double> getLagSeconds() {
+        return Collections.unmodifiableMap(lagSeconds);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.realestate.property.datasource;
+
+import com.realestate.property.exception.QueryBudgetExceededException;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements and rows of one HTTP request, collected by {@link InstrumentedDataSource} for
+ * whichever request is bound to the executing thread.
+ * <p>
+ * Statements are counted by their raw SQL and only folded into shapes (literals replaced by
+ * {@code ?}) when the request ends, so counting costs one map lookup per statement. Thread-safe,
+ * so work fanned out to other threads can {@link #attach} the request's stats.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    // Statements built by concatenating values could otherwise grow the map without bound
+    private static final int MAX_DISTINCT_STATEMENTS = 256;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String endpoint;
+    private final int budget;
+    private final boolean enforceBudget;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicInteger slowStatements = new AtomicInteger();
+    private final ConcurrentHashMap<String, AtomicInteger> bySql = new ConcurrentHashMap<>();
+
+    private RequestSqlStats(String endpoint, int budget, boolean enforceBudget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.enforceBudget = enforceBudget;
+    }
+
+    /**
+     * Starts collecting for the current thread. A budget of 0 means none; when enforced, the
+     * statement that exceeds it fails with {@link QueryBudgetExceededException} instead of running.
+     */
+    public static RequestSqlStats begin(String endpoint, int budget, boolean enforceBudget) {
+        RequestSqlStats stats = new RequestSqlStats(endpoint, budget, enforceBudget);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the stats (possibly null) to the current thread and returns what was bound before.
+     */
+    public static RequestSqlStats attach(RequestSqlStats stats) {
+        RequestSqlStats previous = CURRENT.get();
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+        return previous;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void beforeStatement(String sql) {
+        int count = statements.incrementAndGet();
+        if (sql != null) {
+            AtomicInteger sqlCount = bySql.get(sql);
+            if (sqlCount == null && bySql.size() < MAX_DISTINCT_STATEMENTS) {
+                sqlCount = bySql.computeIfAbsent(sql, key -> new AtomicInteger());
+            }
+            if (sqlCount != null) {
+                sqlCount.incrementAndGet();
+            }
+        }
+        if (enforceBudget && budget > 0 && count > budget) {
+            throw new QueryBudgetExceededException(endpoint, budget, sql);
+        }
+    }
+
+    void addRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    void recordSlowStatement() {
+        slowStatements.incrementAndGet();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getStatementCount() {
+        return statements.get();
+    }
+
+    public long getRowCount() {
+        return rows.get();
+    }
+
+    public int getSlowStatementCount() {
+        return slowStatements.get();
+    }
+
+    /**
+     * Statement shapes run at least {@code threshold} times, most repeated first.
+     */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> byShape = new HashMap<>();
+        bySql.forEach((sql, count) -> byShape.merge(shapeOf(sql), count.get(), Integer::sum));
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        byShape.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    /**
+     * The statement with literals and {@code IN} lists replaced by placeholders, so statements
+     * that differ only in their values compare equal.
+     */
+    public static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?, ...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,10 @@
+package com.realestate.property.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CompleteUploadRequest {
+    @NotBlank(message = "Storage key is required")
+    private String storageKey;
+}
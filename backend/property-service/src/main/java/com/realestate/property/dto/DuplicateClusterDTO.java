@@ -0,0 +1,16 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateClusterDTO {
+    private List<Long> propertyIds;
+    // Lowest similarity among the pairs that link the cluster together
+    private double minSimilarity;
+}
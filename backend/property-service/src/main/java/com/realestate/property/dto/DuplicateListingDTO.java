@@ -0,0 +1,14 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateListingDTO {
+    private Long propertyId;
+    // Estimated share of title, description and address shingles the listings have in common
+    private double similarity;
+}
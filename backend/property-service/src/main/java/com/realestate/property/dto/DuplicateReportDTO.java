@@ -0,0 +1,18 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateReportDTO {
+    private LocalDateTime generatedAt;
+    private long listingsScanned;
+    // Largest clusters first
+    private List<DuplicateClusterDTO> clusters;
+}
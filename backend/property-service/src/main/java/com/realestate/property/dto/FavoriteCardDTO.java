@@ -0,0 +1,34 @@
+package com.realestate.property.dto;
+
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What a favorites card shows of a saved listing; the detail page has the rest.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteCardDTO {
+    private Long propertyId;
+    private String title;
+    private PropertyType type;
+    private PropertyStatus status;
+    private BigDecimal price;
+    private Integer bedrooms;
+    private Integer bathrooms;
+    private Double area;
+    private String city;
+    private String state;
+    // Card rendition of the main image, or the original for images without variants
+    private String thumbnailUrl;
+    private LocalDateTime favoritedAt;
+}
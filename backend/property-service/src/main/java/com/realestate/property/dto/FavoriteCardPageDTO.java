@@ -0,0 +1,17 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteCardPageDTO {
+    // Most recently saved first
+    private List<FavoriteCardDTO> content;
+    // Pass back as cursor for the next page; null on the last page
+    private String nextCursor;
+}
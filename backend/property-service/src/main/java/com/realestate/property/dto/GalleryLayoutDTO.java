@@ -0,0 +1,19 @@
+package com.realestate.property.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The whole gallery of a property: every image ID in display order, and optionally the main image.
+ */
+@Data
+public class GalleryLayoutDTO {
+    @NotEmpty(message = "Image IDs are required")
+    private List<@NotNull Long> imageIds;
+
+    // Null keeps the current main image
+    private Long mainImageId;
+}
@@ -2,6 +2,7 @@ package com.realestate.property.dto;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 public class ImageDTO {
@@ -13,6 +14,8 @@ public class ImageDTO {
     private Boolean isMain;
     private Integer displayOrder;
     private Long fileSize;
+    // Variant name (thumbnail, card, detail) to URL; empty until the variants have been generated
+    private Map<String, String> variants;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
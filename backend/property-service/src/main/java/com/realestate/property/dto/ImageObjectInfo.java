@@ -0,0 +1,21 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Storage metadata of an image object, used to answer downloads without fetching the bytes.
+ */
+@Data
+@AllArgsConstructor
+public class ImageObjectInfo {
+    private String storageKey;
+    private String fileName;
+    private String contentType;
+    private long contentLength;
+    // Strong entity tag as stored by the object store, without quotes
+    private String eTag;
+    private Instant lastModified;
+}
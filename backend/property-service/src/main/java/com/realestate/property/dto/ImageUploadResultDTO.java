@@ -0,0 +1,27 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one file in a multi-image upload. Exactly one of {@code image} and {@code error}
+ * is set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResultDTO {
+    private String fileName;
+    private boolean success;
+    private ImageDTO image;
+    private String error;
+
+    public static ImageUploadResultDTO succeeded(String fileName, ImageDTO image) {
+        return new ImageUploadResultDTO(fileName, true, image, null);
+    }
+
+    public static ImageUploadResultDTO failed(String fileName, String error) {
+        return new ImageUploadResultDTO(fileName, false, null, error);
+    }
+}
@@ -0,0 +1,29 @@
+package com.realestate.property.dto;
+
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payload of a listing feed event. Carries just enough for a client to patch a result list;
+ * clients fetch the listing for anything else.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingChangeDTO {
+    private Long propertyId;
+    // CREATED, UPDATED, STATUS_CHANGED_<status> or DELETED
+    private String action;
+    private String city;
+    private PropertyType type;
+    // Null once deleted
+    private PropertyStatus status;
+    private BigDecimal price;
+    private LocalDateTime timestamp;
+}
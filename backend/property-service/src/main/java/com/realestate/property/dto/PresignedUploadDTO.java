@@ -0,0 +1,23 @@
+package com.realestate.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Where and how a client uploads an image directly to storage. After the PUT succeeds the client
+ * passes {@code storageKey} to the completion endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUploadDTO {
+    private String storageKey;
+    private String uploadUrl;
+    private String method;
+    // Must be sent as the Content-Type of the PUT
+    private String contentType;
+    private Instant expiresAt;
+}
@@ -1,8 +1,12 @@
 package com.realestate.property.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -17,13 +21,11 @@ public class PropertyDTO {
     @Size(min = 20, max = 1000, message = "Description must be between 20 and 1000 characters")
     private String description;
 
-    @NotBlank(message = "Type is required")
-    @Pattern(regexp = "^(APARTMENT|HOUSE|COMMERCIAL|CONDO)$", message = "Invalid property type")
-    private String type;
+    @NotNull(message = "Type is required")
+    private PropertyType type;
 
-    @NotBlank(message = "Status is required")
-    @Pattern(regexp = "^(AVAILABLE|SOLD|RENTED)$", message = "Invalid property status")
-    private String status;
+    @NotNull(message = "Status is required")
+    private PropertyStatus status;
 
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", message = "Price must be greater than 0")
@@ -53,6 +55,15 @@ public class PropertyDTO {
 
     private List<ImageDTO> images;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime createdAt;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime updatedAt;
+
     private boolean favorite;
     private long favoriteCount;
+
+    // True when the listing is served from the archive (cold) tier
+    private boolean archived;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.realestate.property.dto;
+
+import com.realestate.property.model.PropertyStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyHistoryDTO {
+    private Long propertyId;
+    private LocalDateTime ts;
+    private BigDecimal price;
+    private PropertyStatus status;
+    private String eventType;
+}
@@ -1,13 +1,15 @@
 package com.realestate.property.dto;
 
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 public class PropertySearchCriteria {
-    private String status;
-    private String type;
+    private PropertyStatus status;
+    private PropertyType type;
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private Integer minBedrooms;
@@ -24,4 +26,6 @@ public class PropertySearchCriteria {
     private LocalDateTime createdBefore;
     private BigDecimal minPricePerSqFt;
     private BigDecimal maxPricePerSqFt;
+    // Archived SOLD/RENTED listings are only scanned when explicitly requested
+    private Boolean includeArchived;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.realestate.property.dto;
+
+import com.realestate.property.model.PropertyType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingPropertyDTO {
+    private Long propertyId;
+    private String city;
+    private PropertyType type;
+    // Views with exponential decay: a view loses half its weight every half-life
+    private double score;
+}
@@ -0,0 +1,8 @@
+package com.realestate.property.event;
+
+/**
+ * Published by {@code ImageServiceImpl} when an original image has been written to storage,
+ * on upload and on replacement.
+ */
+public record ImageStoredEvent(Long imageId, Long propertyId, String storageKey) {
+}
@@ -0,0 +1,16 @@
+package com.realestate.property.event;
+
+import java.util.List;
+
+/**
+ * Published by {@code ImageServiceImpl} when image rows are deleted or replaced. After commit
+ * each original loses one reference, and the objects are removed once nothing references them.
+ */
+public record ImagesReleasedEvent(List<ReleasedImage> images) {
+
+    /**
+     * @param variantKeys variant objects recorded on the row
+     */
+    public record ReleasedImage(String storageKey, List<String> variantKeys) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.realestate.property.event;
+
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@code PropertyServiceImpl} whenever a listing is created, updated or deleted.
+ * Listeners that need committed data should use {@code @TransactionalEventListener}.
+ *
+ * @param action     CREATED, UPDATED, STATUS_CHANGED_&lt;status&gt; or DELETED
+ * @param type       type of the listing after the change (before it, for DELETED)
+ * @param locationId dictionary-encoded city and state, as stored on the listing
+ */
+public record PropertyChangedEvent(
+        Long propertyId,
+        String action,
+        BigDecimal oldPrice,
+        BigDecimal newPrice,
+        PropertyStatus oldStatus,
+        PropertyStatus newStatus,
+        LocalDateTime timestamp,
+        PropertyType type,
+        Integer locationId) {
+
+    public boolean priceChanged() {
+        if (oldPrice == null || newPrice == null) {
+            return oldPrice != newPrice;
+        }
+        return oldPrice.compareTo(newPrice) != 0;
+    }
+
+    public boolean statusChanged() {
+        return oldStatus != newStatus;
+    }
+}
@@ -0,0 +1,7 @@
+package com.realestate.property.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String endpoint, int budget, String sql) {
+        super(endpoint + " exceeded its budget of " + budget + " SQL statements at: " + sql);
+    }
+}
@@ -0,0 +1,39 @@
+package com.realestate.property.mapper;
+
+import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.model.ArchivedImage;
+import com.realestate.property.model.ArchivedProperty;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.Property;
+import com.realestate.property.service.LocationDictionary;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring", uses = {LocationDictionary.class})
+public interface ArchivedPropertyMapper {
+
+    @Mapping(target = "archived", constant = "true")
+    @Mapping(target = "favorite", ignore = true)
+    @Mapping(target = "city", source = "locationId", qualifiedByName = "cityOf")
+    @Mapping(target = "state", source = "locationId", qualifiedByName = "stateOf")
+    PropertyDTO toDTO(ArchivedProperty archivedProperty);
+
+    @Mapping(target = "propertyId", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "variants", ignore = true)
+    ImageDTO toImageDTO(ArchivedImage image);
+
+    @Mapping(target = "favoriteCount", ignore = true)
+    @Mapping(target = "archivedAt", ignore = true)
+    @Mapping(target = "location", ignore = true)
+    ArchivedProperty toArchive(Property property);
+
+    ArchivedImage toArchivedImage(Image image);
+
+    @AfterMapping
+    default void setImagePropertyIds(ArchivedProperty source, @MappingTarget PropertyDTO dto) {
+        if (dto.getImages() != null) {
+            dto.getImages().forEach(image -> image.setPropertyId(source.getId()));
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.realestate.property.mapper;
 
 import com.realestate.property.dto.ImageDTO;
 import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariantInfo;
 import org.mapstruct.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Mapper(componentModel = "spring", uses = {PropertyMapper.class})
 public interface ImageMapper {
 
@@ -13,6 +18,12 @@ public interface ImageMapper {
     @Mapping(target = "property", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "variants", ignore = true)
+    @Mapping(target = "variantStatus", ignore = true)
+    @Mapping(target = "variantAttempts", ignore = true)
+    @Mapping(target = "variantRetryAt", ignore = true)
+    @Mapping(target = "storageKey", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
     Image toEntity(ImageDTO imageDTO);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -20,5 +31,19 @@ public interface ImageMapper {
     @Mapping(target = "property", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "variants", ignore = true)
+    @Mapping(target = "variantStatus", ignore = true)
+    @Mapping(target = "variantAttempts", ignore = true)
+    @Mapping(target = "variantRetryAt", ignore = true)
+    @Mapping(target = "storageKey", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
     void updateImageFromDTO(ImageDTO dto, @MappingTarget Image image);
+
+    default Map<String, String> toVariantUrls(List<ImageVariantInfo> variants) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        if (variants != null) {
+            variants.forEach(variant -> urls.put(variant.getVariant().key(), variant.getUrl()));
+        }
+        return urls;
+    }
 }
\ No newline at end of file
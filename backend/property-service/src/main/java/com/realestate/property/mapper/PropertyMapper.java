@@ -2,21 +2,34 @@ package com.realestate.property.mapper;
 
 import com.realestate.property.dto.PropertyDTO;
 import com.realestate.property.model.Property;
+import com.realestate.property.service.LocationDictionary;
 import org.mapstruct.*;
 
-@Mapper(componentModel = "spring", uses = {ImageMapper.class})
+@Mapper(componentModel = "spring", uses = {ImageMapper.class, LocationDictionary.class})
 public interface PropertyMapper {
 
     @Mapping(target = "images", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "viewCount", ignore = true)
+    // Resolved by the service, mappers never touch the database
+    @Mapping(target = "locationId", ignore = true)
+    @Mapping(target = "location", ignore = true)
     Property toEntity(PropertyDTO propertyDTO);
 
     @Mapping(target = "images", source = "images")
+    @Mapping(target = "city", source = "locationId", qualifiedByName = "cityOf")
+    @Mapping(target = "state", source = "locationId", qualifiedByName = "stateOf")
     PropertyDTO toDTO(Property property);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "images", ignore = true)
+    @Mapping(target = "viewCount", ignore = true)
+    @Mapping(target = "locationId", ignore = true)
+    @Mapping(target = "location", ignore = true)
     void updatePropertyFromDTO(PropertyDTO dto, @MappingTarget Property property);
 
     /**
@@ -0,0 +1,34 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Embeddable
+public class ArchivedImage {
+    @Column(name = "image_id")
+    private Long id;
+
+    private String name;
+    private String type;
+    private String url;
+
+    // Null for images archived before storage keys were copied; their url still identifies the object
+    @Column(name = "storage_key", length = 512)
+    private String storageKey;
+
+    @Column(name = "is_main")
+    private Boolean isMain;
+
+    @Column(name = "display_order")
+    private Integer displayOrder;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,63 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold-tier copy of a listing that has been SOLD or RENTED for longer than the
+ * configured retention period. Keeps the original property id so existing links keep working.
+ */
+@Data
+@Entity
+@Table(name = "archived_properties")
+public class ArchivedProperty {
+    @Id
+    private Long id;
+
+    private String title;
+    private String description;
+    private PropertyType type;
+    private PropertyStatus status;
+    private BigDecimal price;
+    private Integer bedrooms;
+    private Integer bathrooms;
+    private Double area;
+    private String address;
+
+    @Column(name = "location_id")
+    private Integer locationId;
+
+    // Read-only view of the same column, only there to sort by city or state
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Location location;
+
+    private String zipCode;
+
+    @ElementCollection
+    @CollectionTable(name = "archived_property_images", joinColumns = @JoinColumn(name = "property_id"))
+    @OrderBy("displayOrder")
+    private List<ArchivedImage> images = new ArrayList<>();
+
+    @Column(name = "favorite_count")
+    private long favoriteCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "favorite_properties",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"property_id", "user_email"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"property_id", "user_email"}),
+        indexes = @Index(name = "idx_favorite_properties_user_created_property",
+                columnList = "user_email, created_at, property_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
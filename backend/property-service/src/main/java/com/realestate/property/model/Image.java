@@ -2,14 +2,19 @@ package com.realestate.property.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Entity
-@Table(name = "property_images")
+@Table(name = "property_images", indexes = {
+        @Index(name = "idx_property_images_storage_key", columnList = "storage_key")
+})
 public class Image {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +29,14 @@ public class Image {
     @Column(nullable = false)
     private String url;
 
+    // Null only for rows written before keys were stored, see ImageServiceUtils.storageKeyOf
+    @Column(name = "storage_key", length = 512)
+    private String storageKey;
+
+    // SHA-256 of the original; null for images stored before uploads were content-addressed
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "is_main")
     private Boolean isMain = false;
 
@@ -33,6 +46,24 @@ public class Image {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // Null for images stored before variants were generated
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_status", length = 10)
+    private ImageVariantStatus variantStatus;
+
+    // Failed generations so far; reset once variants are stored
+    @Column(name = "variant_attempts")
+    private Integer variantAttempts = 0;
+
+    // When a FAILED image is next picked up by the backfill; null once retries are used up
+    @Column(name = "variant_retry_at")
+    private LocalDateTime variantRetryAt;
+
+    @ElementCollection
+    @CollectionTable(name = "property_image_variants", joinColumns = @JoinColumn(name = "image_id"))
+    @BatchSize(size = 50)
+    private List<ImageVariantInfo> variants = new ArrayList<>();
+
     @Column(name = "created_at")
     @CreationTimestamp
     private LocalDateTime createdAt;
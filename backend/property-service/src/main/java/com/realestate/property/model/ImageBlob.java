@@ -0,0 +1,48 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One content-addressed original in storage and the number of {@link Image} rows, on any shard,
+ * that point at it. Owned by shard 0; {@code ImageBlobRegistry} maintains it.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "image_blobs", indexes = {
+        @Index(name = "idx_image_blobs_content_hash", columnList = "content_hash")
+})
+public class ImageBlob {
+    @Id
+    @Column(name = "storage_key", length = 512)
+    private String storageKey;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public ImageBlob(String storageKey, String contentHash, Long fileSize) {
+        this.storageKey = storageKey;
+        this.contentHash = contentHash;
+        this.fileSize = fileSize;
+    }
+}
@@ -0,0 +1,45 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A storage object waiting to be deleted by {@code ImageReconciler}. Owned by shard 0 next to
+ * {@link ImageBlob}. Objects of a content-addressed original carry its hash, so a new upload of
+ * the same bytes can take them back before they are deleted.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "image_tombstones", indexes = {
+        @Index(name = "idx_image_tombstones_storage_key", columnList = "storage_key"),
+        @Index(name = "idx_image_tombstones_content_hash", columnList = "content_hash")
+})
+public class ImageTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 512)
+    private String storageKey;
+
+    // Null for objects that are not content-addressed
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    public ImageTombstone(String storageKey, String contentHash) {
+        this.storageKey = storageKey;
+        this.contentHash = contentHash;
+    }
+}
@@ -0,0 +1,28 @@
+package com.realestate.property.model;
+
+/**
+ * Resized renditions generated for every uploaded image. Each variant is bounded by
+ * {@code maxDimension} on its longest side and re-encoded as JPEG.
+ */
+public enum ImageVariant {
+    THUMBNAIL(160),
+    CARD(480),
+    DETAIL(1280);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Name used in storage keys and in {@code ImageDTO.variants}.
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
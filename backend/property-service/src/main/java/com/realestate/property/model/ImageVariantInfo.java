@@ -0,0 +1,28 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class ImageVariantInfo {
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImageVariant variant;
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private String url;
+
+    private Integer width;
+    private Integer height;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+}
@@ -0,0 +1,7 @@
+package com.realestate.property.model;
+
+public enum ImageVariantStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,29 @@
+package com.realestate.property.model;
+
+import com.realestate.property.util.MinHash;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * MinHash signature of a listing's title, description and address, maintained by
+ * {@code DuplicateListingDetector}. Owned by shard 0 so listings on every shard can be compared.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "listing_signatures")
+public class ListingSignature {
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    // MinHash.SIGNATURE_SIZE big-endian ints
+    @Column(nullable = false, length = 4 * MinHash.SIGNATURE_SIZE)
+    private byte[] signature;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One locality-sensitive hashing bucket of a {@link ListingSignature}. Listings sharing a bucket
+ * are candidate duplicates. Owned by shard 0; written with JDBC by {@code DuplicateListingDetector}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@IdClass(ListingSignatureBucket.Key.class)
+@Table(name = "listing_signature_buckets", indexes = {
+        @Index(name = "idx_listing_signature_buckets_property_id", columnList = "property_id")
+})
+public class ListingSignatureBucket {
+    @Id
+    private Long bucket;
+
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long bucket;
+        private Long propertyId;
+    }
+}
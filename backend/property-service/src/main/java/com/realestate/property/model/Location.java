@@ -0,0 +1,32 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dictionary of distinct city/state pairs. Listings reference a row by {@code location_id}
+ * instead of repeating both strings; {@code LocationDictionary} keeps the table cached in memory.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "locations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_locations_city_state", columnNames = {"city", "state"})
+})
+public class Location {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 100)
+    private String city;
+
+    @Column(nullable = false, length = 50)
+    private String state;
+
+    public Location(String city, String state) {
+        this.city = city;
+        this.state = state;
+    }
+}
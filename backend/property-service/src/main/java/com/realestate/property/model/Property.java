@@ -2,6 +2,10 @@ package com.realestate.property.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -9,7 +13,10 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "properties")
+@Table(name = "properties", indexes = {
+        @Index(name = "idx_properties_status_updated_at", columnList = "status, updated_at"),
+        @Index(name = "idx_properties_location_id", columnList = "location_id")
+})
 public class Property {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,18 +24,36 @@ public class Property {
 
     private String title;
     private String description;
-    private String type; // APARTMENT, HOUSE, COMMERCIAL
-    private String status; // AVAILABLE, SOLD, RENTED
+    private PropertyType type;
+    private PropertyStatus status;
     private BigDecimal price;
     private Integer bedrooms;
     private Integer bathrooms;
     private Double area;
     private String address;
-    private String city;
-    private String state;
+
+    // City and state are dictionary-encoded, see Location
+    @Column(name = "location_id")
+    private Integer locationId;
+
+    // Read-only view of the same column, only there to sort by city or state
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Location location;
+
     private String zipCode;
 
+    // Only ever incremented in batches by PropertyViewTracker
+    @Column(name = "view_count", insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private Long viewCount;
+
+    // Pages of listings load the images of up to 50 listings per query instead of one each
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<Image> images = new ArrayList<>();
 
     @Column(name = "created_at")
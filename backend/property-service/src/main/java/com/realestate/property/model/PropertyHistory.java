@@ -0,0 +1,36 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a listing's price and status over time. Rows are inserted in
+ * batches by {@code PropertyHistoryRecorder} and never updated.
+ */
+@Data
+@Entity
+@Table(name = "property_history", indexes = {
+        @Index(name = "idx_property_history_property_ts", columnList = "property_id, ts")
+})
+public class PropertyHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+
+    @Column(nullable = false)
+    private LocalDateTime ts;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal price;
+
+    private PropertyStatus status;
+
+    @Column(name = "event_type", length = 40, nullable = false)
+    private String eventType;
+}
@@ -0,0 +1,37 @@
+package com.realestate.property.model;
+
+/**
+ * Lifecycle status of a listing. Stored as a stable small-integer code (see
+ * {@link PropertyStatusConverter}) and exposed by name in the JSON API. Codes must never be
+ * reused or renumbered.
+ */
+public enum PropertyStatus {
+    AVAILABLE(1),
+    SOLD(2),
+    RENTED(3);
+
+    private static final PropertyStatus[] BY_CODE = new PropertyStatus[4];
+
+    static {
+        for (PropertyStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final short code;
+
+    PropertyStatus(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static PropertyStatus fromCode(short code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown property status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,18 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PropertyStatusConverter implements AttributeConverter<PropertyStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(PropertyStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public PropertyStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : PropertyStatus.fromCode(code);
+    }
+}
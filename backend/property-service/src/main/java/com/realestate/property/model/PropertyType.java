@@ -0,0 +1,37 @@
+package com.realestate.property.model;
+
+/**
+ * Kind of listing. Stored as a stable small-integer code (see {@link PropertyTypeConverter}) and
+ * exposed by name in the JSON API. Codes must never be reused or renumbered.
+ */
+public enum PropertyType {
+    APARTMENT(1),
+    HOUSE(2),
+    COMMERCIAL(3),
+    CONDO(4);
+
+    private static final PropertyType[] BY_CODE = new PropertyType[5];
+
+    static {
+        for (PropertyType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final short code;
+
+    PropertyType(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static PropertyType fromCode(short code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown property type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
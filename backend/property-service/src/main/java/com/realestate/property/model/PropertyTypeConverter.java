@@ -0,0 +1,18 @@
+package com.realestate.property.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PropertyTypeConverter implements AttributeConverter<PropertyType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(PropertyType type) {
+        return type == null ? null : type.getCode();
+    }
+
+    @Override
+    public PropertyType convertToEntityAttribute(Short code) {
+        return code == null ? null : PropertyType.fromCode(code);
+    }
+}
@@ -0,0 +1,19 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.ArchivedProperty;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedPropertyRepository extends JpaRepository<ArchivedProperty, Long>, JpaSpecificationExecutor<ArchivedProperty> {
+
+    /**
+     * Archived listings keep their images' objects; matched by storage key or, for images
+     * archived before keys were copied, by URL.
+     */
+    @Query("SELECT i.storageKey, i.url FROM ArchivedProperty p JOIN p.images i WHERE i.storageKey IN ?1 OR i.url IN ?2")
+    List<Object[]> findImageReferences(Collection<String> storageKeys, Collection<String> urls);
+}
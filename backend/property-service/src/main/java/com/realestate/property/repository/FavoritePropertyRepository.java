@@ -4,26 +4,56 @@ import com.realestate.property.model.FavoriteProperty;
 import com.realestate.property.model.Property;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FavoritePropertyRepository extends JpaRepository<FavoriteProperty, Long> {
 
+    // The card rendition of the main image, falling back to the original
+    String CARD_SELECT = "SELECT f.id, f.createdAt, p.id, p.title, p.type, p.status, p.price, p.bedrooms, "
+            + "p.bathrooms, p.area, p.locationId, COALESCE("
+            + "(SELECT MIN(v.url) FROM Image i JOIN i.variants v WHERE i.property = p AND i.isMain = true "
+            + "AND v.variant = com.realestate.property.model.ImageVariant.CARD), "
+            + "(SELECT MIN(i.url) FROM Image i WHERE i.property = p AND i.isMain = true)) "
+            + "FROM FavoriteProperty f JOIN f.property p ";
+    // Property ids are unique across shards, favorite ids only within one
+    String CARD_ORDER = "ORDER BY f.createdAt DESC, f.property.id DESC";
+
     /**
      * Find all favorites for a specific user
      */
     List<FavoriteProperty> findByUserEmail(String userEmail);
 
     /**
-     * Find all favorites for a specific user with pagination
+     * Find all favorites for a specific user with pagination, with their properties
      */
+    @EntityGraph(attributePaths = "property")
     Page<FavoriteProperty> findByUserEmail(String userEmail, Pageable pageable);
 
+    /**
+     * A user's most recent favorites as card rows, see {@link #findCardsBefore}
+     */
+    @Query(CARD_SELECT + "WHERE f.userEmail = ?1 " + CARD_ORDER)
+    List<Object[]> findFirstCards(String userEmail, Pageable limit);
+
+    /**
+     * Card rows of a user's favorites saved before the given one, as (favorite id, favorited at,
+     * property id, title, type, status, price, bedrooms, bathrooms, area, location id, thumbnail
+     * url) in keyset order. Served from idx_favorite_properties_user_created_property.
+     */
+    @Query(CARD_SELECT + "WHERE f.userEmail = ?1 AND (f.createdAt < ?2 OR (f.createdAt = ?2 AND f.property.id < ?3)) "
+            + CARD_ORDER)
+    List<Object[]> findCardsBefore(String userEmail, LocalDateTime createdAt, Long propertyId, Pageable limit);
+
     /**
      * Find a specific favorite by property and user email
      */
@@ -54,4 +84,17 @@ public interface FavoritePropertyRepository extends JpaRepository<FavoriteProper
      */
     @Query("SELECT p.id FROM FavoriteProperty f JOIN f.property p WHERE f.userEmail = ?1")
     List<Long> findFavoritedPropertyIdsByUserEmail(String userEmail);
-}
\ No newline at end of file
+
+    /**
+     * Favorite counts for a batch of properties as (propertyId, count) pairs
+     */
+    @Query("SELECT f.property.id, COUNT(f) FROM FavoriteProperty f WHERE f.property.id IN ?1 GROUP BY f.property.id")
+    List<Object[]> countByPropertyIds(Collection<Long> propertyIds);
+
+    /**
+     * Bulk delete favorites of the given properties
+     */
+    @Modifying
+    @Query("DELETE FROM FavoriteProperty f WHERE f.property.id IN ?1")
+    int deleteByPropertyIds(Collection<Long> propertyIds);
+}
@@ -0,0 +1,40 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.ImageBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    /**
+     * Creates the entry with no references unless it exists. Never fails on a concurrent insert,
+     * so it is safe inside a caller's transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (storage_key, content_hash, file_size, ref_count, created_at, updated_at) "
+            + "VALUES (:storageKey, :contentHash, :fileSize, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("storageKey") String storageKey, @Param("contentHash") String contentHash,
+                       @Param("fileSize") long fileSize);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ImageBlob b WHERE b.storageKey = :storageKey")
+    Optional<ImageBlob> findByIdForUpdate(@Param("storageKey") String storageKey);
+
+    @Query("SELECT DISTINCT b.contentHash FROM ImageBlob b WHERE b.contentHash IN :contentHashes")
+    List<String> findExistingContentHashes(@Param("contentHashes") Collection<String> contentHashes);
+
+    @Query("SELECT b FROM ImageBlob b WHERE b.storageKey > :startAfter AND b.updatedAt < :cutoff ORDER BY b.storageKey")
+    List<ImageBlob> findUnchangedSince(@Param("startAfter") String startAfter, @Param("cutoff") LocalDateTime cutoff,
+                                       Pageable pageable);
+}
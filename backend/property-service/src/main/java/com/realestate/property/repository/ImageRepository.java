@@ -1,10 +1,49 @@
 package com.realestate.property.repository;
 
 import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariantStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByPropertyId(Long propertyId);
+
+    boolean existsByStorageKey(String storageKey);
+
+    /**
+     * The given images with their variants, in one query and in no particular order.
+     */
+    @Query("SELECT DISTINCT i FROM Image i LEFT JOIN FETCH i.variants WHERE i.id IN ?1")
+    List<Image> findWithVariantsByIdIn(Collection<Long> ids);
+
+    Optional<Image> findFirstByStorageKeyAndVariantStatus(String storageKey, ImageVariantStatus status);
+
+    /**
+     * Images after the given id that need variants: PENDING ones created before the cutoff and
+     * FAILED ones whose retry is due. Properties are fetched with them to read the shard key.
+     */
+    @Query("SELECT i FROM Image i JOIN FETCH i.property WHERE i.id > ?1 AND ("
+            + "(i.variantStatus = com.realestate.property.model.ImageVariantStatus.PENDING AND i.createdAt < ?2) OR "
+            + "(i.variantStatus = com.realestate.property.model.ImageVariantStatus.FAILED AND i.variantRetryAt <= ?3)) "
+            + "ORDER BY i.id")
+    List<Image> findVariantBackfillAfter(Long id, LocalDateTime pendingCutoff, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Storage key and URL of every row matching either list; rows written before storage keys
+     * were recorded only match by URL.
+     */
+    @Query("SELECT i.storageKey, i.url FROM Image i WHERE i.storageKey IN ?1 OR i.url IN ?2")
+    List<Object[]> findReferences(Collection<String> storageKeys, Collection<String> urls);
+
+    @Query("SELECT DISTINCT v.storageKey FROM Image i JOIN i.variants v WHERE v.storageKey IN ?1")
+    List<String> findReferencedVariantKeys(Collection<String> storageKeys);
+
+    @Query("SELECT i FROM Image i WHERE i.id > ?1 ORDER BY i.id")
+    List<Image> findPageAfter(Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.ImageTombstone;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImageTombstoneRepository extends JpaRepository<ImageTombstone, Long> {
+
+    /**
+     * Oldest tombstones not locked by another instance's drain.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM ImageTombstone t WHERE t.attempts < :maxAttempts ORDER BY t.id")
+    List<ImageTombstone> findBatchForUpdate(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Query("SELECT DISTINCT t.storageKey FROM ImageTombstone t WHERE t.storageKey IN :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+    @Modifying
+    @Query("DELETE FROM ImageTombstone t WHERE t.contentHash = :contentHash")
+    int deleteByContentHash(@Param("contentHash") String contentHash);
+}
@@ -0,0 +1,14 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.ListingSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ListingSignatureRepository extends JpaRepository<ListingSignature, Long> {
+
+    @Query("SELECT DISTINCT b.propertyId FROM ListingSignatureBucket b WHERE b.bucket IN ?1 AND b.propertyId <> ?2")
+    List<Long> findCandidateIds(Collection<Long> buckets, Long propertyId);
+}
@@ -0,0 +1,10 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface LocationRepository extends JpaRepository<Location, Integer> {
+    Optional<Location> findByCityAndState(String city, String state);
+}
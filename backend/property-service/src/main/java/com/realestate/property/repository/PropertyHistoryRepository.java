@@ -0,0 +1,10 @@
+package com.realestate.property.repository;
+
+import com.realestate.property.model.PropertyHistory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PropertyHistoryRepository extends JpaRepository<PropertyHistory, Long> {
+    Page<PropertyHistory> findByPropertyIdOrderByTsDescIdDesc(Long propertyId, Pageable pageable);
+}
@@ -2,17 +2,36 @@
 package com.realestate.property.repository;
 
 import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> {
-    List<Property> findByStatus(String status);
-    List<Property> findByTypeAndPriceLessThanEqual(String type, BigDecimal maxPrice);
-    List<Property> findByCityAndState(String city, String state);
+    List<Property> findByStatus(PropertyStatus status);
+    List<Property> findByTypeAndPriceLessThanEqual(PropertyType type, BigDecimal maxPrice);
+    List<Property> findByLocationId(Integer locationId);
     List<Property> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     List<Property> findByBedroomsGreaterThanEqual(Integer minBedrooms);
     List<Property> findByAreaGreaterThanEqual(Double minArea);
-}
\ No newline at end of file
+
+    @Query("SELECT p.id FROM Property p WHERE p.status IN ?1 AND p.updatedAt < ?2 ORDER BY p.id")
+    List<Long> findIdsByStatusInAndUpdatedAtBefore(Collection<PropertyStatus> statuses, LocalDateTime cutoff, Pageable pageable);
+
+    // Rows of id, title, description, address
+    @Query("SELECT p.id, p.title, p.description, p.address FROM Property p WHERE p.id > ?1 ORDER BY p.id")
+    List<Object[]> findTextPageAfter(Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Property p WHERE p.id > ?1 ORDER BY p.id")
+    List<Property> findPageAfter(Long id, Pageable pageable);
+
+    @Query("SELECT DISTINCT p FROM Property p LEFT JOIN FETCH p.images WHERE p.id IN ?1")
+    List<Property> findAllWithImagesByIdIn(Collection<Long> ids);
+}
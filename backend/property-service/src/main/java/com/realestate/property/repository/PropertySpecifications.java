@@ -1,27 +1,59 @@
 package com.realestate.property.repository;
 
 import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.model.Location;
 import com.realestate.property.model.Property;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class PropertySpecifications {
 
-    public static Specification<Property> withCriteria(PropertySearchCriteria criteria) {
+    private static final Set<String> LOCATION_SORT_KEYS = Set.of("city", "state");
+
+    /**
+     * Listings only hold a location id, so the {@code city} and {@code state} sort keys of the API
+     * are mapped onto the names of the joined dictionary entry. Works for either tier.
+     */
+    public static Pageable withLocationSort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.stream().noneMatch(order -> LOCATION_SORT_KEYS.contains(order.getProperty()))) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(sort.stream()
+                .map(order -> LOCATION_SORT_KEYS.contains(order.getProperty())
+                        ? order.withProperty("location." + order.getProperty())
+                        : order)
+                .toList()));
+    }
+
+    /**
+     * Builds the search predicate. The specification only refers to attributes shared by
+     * {@link Property} and {@link com.realestate.property.model.ArchivedProperty}, so it can be
+     * applied to either tier.
+     */
+    public static <T> Specification<T> withCriteria(PropertySearchCriteria criteria) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Status filter
-            if (criteria.getStatus() != null && !criteria.getStatus().isEmpty()) {
+            if (criteria.getStatus() != null) {
                 predicates.add(cb.equal(root.get("status"), criteria.getStatus()));
             }
 
             // Type filter
-            if (criteria.getType() != null && !criteria.getType().isEmpty()) {
+            if (criteria.getType() != null) {
                 predicates.add(cb.equal(root.get("type"), criteria.getType()));
             }
 
@@ -57,15 +89,15 @@ public class PropertySpecifications {
                 predicates.add(cb.lessThanOrEqualTo(root.get("area"), criteria.getMaxArea()));
             }
 
-            // Location filters
+            // Location filters (matched against the small locations dictionary, then by location_id)
             if (criteria.getCity() != null && !criteria.getCity().isEmpty()) {
-                predicates.add(cb.like(cb.lower(root.get("city")),
-                        "%" + criteria.getCity().toLowerCase() + "%"));
+                predicates.add(root.get("locationId").in(locationIdsMatching(query, cb,
+                        "%" + criteria.getCity().toLowerCase() + "%", "city")));
             }
 
             if (criteria.getState() != null && !criteria.getState().isEmpty()) {
-                predicates.add(cb.like(cb.lower(root.get("state")),
-                        "%" + criteria.getState().toLowerCase() + "%"));
+                predicates.add(root.get("locationId").in(locationIdsMatching(query, cb,
+                        "%" + criteria.getState().toLowerCase() + "%", "state")));
             }
 
             if (criteria.getZipCode() != null && !criteria.getZipCode().isEmpty()) {
@@ -78,8 +110,7 @@ public class PropertySpecifications {
                 predicates.add(cb.or(
                         cb.like(cb.lower(root.get("title")), keyword),
                         cb.like(cb.lower(root.get("description")), keyword),
-                        cb.like(cb.lower(root.get("city")), keyword),
-                        cb.like(cb.lower(root.get("state")), keyword),
+                        root.get("locationId").in(locationIdsMatching(query, cb, keyword, "city", "state")),
                         cb.like(cb.lower(root.get("zipCode")), keyword)
                 ));
             }
@@ -115,4 +146,15 @@ public class PropertySpecifications {
             return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    private static Subquery<Integer> locationIdsMatching(CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                         String pattern, String... attributes) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<Location> location = subquery.from(Location.class);
+        Predicate[] matches = new Predicate[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            matches[i] = cb.like(cb.lower(location.get(attributes[i])), pattern);
+        }
+        return subquery.select(location.get("id")).where(cb.or(matches));
+    }
 }
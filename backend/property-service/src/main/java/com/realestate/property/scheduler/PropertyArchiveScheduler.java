@@ -0,0 +1,31 @@
+package com.realestate.property.scheduler;
+
+import com.realestate.property.service.PropertyArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.tiering.enabled", havingValue = "true")
+public class PropertyArchiveScheduler {
+
+    private final PropertyArchiveService propertyArchiveService;
+
+    /**
+     * Moves stale SOLD/RENTED listings to the archive tier (every night at 3 AM by default)
+     */
+    @Scheduled(cron = "${app.tiering.cron:0 0 3 * * ?}")
+    public void archiveStaleProperties() {
+        log.info("Starting scheduled property archiving");
+        try {
+            int archived = propertyArchiveService.archiveEligibleProperties();
+            log.info("Completed scheduled property archiving, {} properties moved", archived);
+        } catch (Exception e) {
+            log.error("Error in scheduled property archiving", e);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.DuplicateClusterDTO;
+import com.realestate.property.dto.DuplicateListingDTO;
+import com.realestate.property.dto.DuplicateReportDTO;
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.exception.PropertyNotFoundException;
+import com.realestate.property.model.ListingSignature;
+import com.realestate.property.model.Property;
+import com.realestate.property.repository.ListingSignatureRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.util.MinHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds listings of the same home by comparing MinHash signatures of their title, description
+ * and address instead of comparing every pair of listings.
+ * <p>
+ * Signatures and their LSH buckets live on shard 0, so listings on every shard are compared. A
+ * listing is re-signed on a background thread after each committed create or update, and its
+ * candidates are looked up by bucket and confirmed by signature similarity. The nightly report
+ * scans every shard in parallel, brings the index up to date, including listings archived
+ * without an event, and links candidate pairs from shared buckets into clusters.
+ */
+@Slf4j
+@Component
+public class DuplicateListingDetector implements DisposableBean {
+
+    private static final int INDEX_SHARD = 0;
+    private static final int FETCH_CHUNK = 1000;
+
+    private static final String UPDATE_SIGNATURE_SQL =
+            "UPDATE listing_signatures SET signature = ?, updated_at = ? WHERE property_id = ?";
+
+    private static final String INSERT_SIGNATURE_SQL =
+            "INSERT INTO listing_signatures (signature, updated_at, property_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_SIGNATURE_SQL = "DELETE FROM listing_signatures WHERE property_id = ?";
+
+    private static final String DELETE_BUCKETS_SQL = "DELETE FROM listing_signature_buckets WHERE property_id = ?";
+
+    private static final String INSERT_BUCKET_SQL =
+            "INSERT INTO listing_signature_buckets (bucket, property_id) VALUES (?, ?)";
+
+    private static final String SELECT_RANGE_SQL =
+            "SELECT property_id, signature FROM listing_signatures WHERE property_id > ? AND property_id <= ?";
+
+    // Buckets above the size cap come from boilerplate text shared by unrelated listings
+    private static final String SELECT_SHARED_BUCKETS_SQL =
+            "SELECT b.bucket, b.property_id FROM listing_signature_buckets b JOIN (" +
+            "SELECT bucket FROM listing_signature_buckets GROUP BY bucket HAVING COUNT(*) BETWEEN 2 AND ?" +
+            ") shared ON shared.bucket = b.bucket ORDER BY b.bucket";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PropertyRepository propertyRepository;
+    private final ListingSignatureRepository signatureRepository;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final ThreadPoolExecutor indexer;
+    private final Counter detected;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile DuplicateReportDTO latestReport;
+
+    @Value("${app.duplicates.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.duplicates.similarity:0.8}")
+    private double minSimilarity;
+
+    @Value("${app.duplicates.scan-batch-size:1000}")
+    private int scanBatchSize;
+
+    @Value("${app.duplicates.max-bucket-size:100}")
+    private int maxBucketSize;
+
+    public DuplicateListingDetector(JdbcTemplate jdbcTemplate,
+                                    PropertyRepository propertyRepository,
+                                    ListingSignatureRepository signatureRepository,
+                                    ShardRouter shardRouter,
+                                    ShardTemplate shardTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.duplicates.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.propertyRepository = propertyRepository;
+        this.signatureRepository = signatureRepository;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.indexer = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "duplicate-listing-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.indexer.allowCoreThreadTimeOut(true);
+        this.detected = Counter.builder("property.duplicates.detected").register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long propertyId = event.propertyId();
+        boolean deleted = "DELETED".equals(event.action());
+        try {
+            indexer.execute(() -> {
+                try {
+                    if (deleted) {
+                        shardTemplate.inNewTransaction(INDEX_SHARD, () -> {
+                            deleteSignatures(List.of(propertyId));
+                            return null;
+                        });
+                    } else {
+                        index(propertyId);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to check listing {} for duplicates: {}", propertyId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The nightly report re-signs whatever was skipped here
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Listings whose text is at least {@code app.duplicates.similarity} similar to the given one,
+     * most similar first.
+     */
+    public List<DuplicateListingDTO> findDuplicates(Long propertyId) {
+        int[] signature = shardTemplate.inNewTransaction(INDEX_SHARD, () -> signatureRepository.findById(propertyId)
+                .map(stored -> MinHash.decode(stored.getSignature()))
+                .orElse(null));
+        if (signature == null) {
+            // Not indexed yet
+            Property property = shardTemplate.inNewTransaction(shardRouter.shardForId(propertyId), () ->
+                    propertyRepository.findById(propertyId)
+                            .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId)));
+            signature = signatureOf(property);
+            if (signature == null) {
+                return List.of();
+            }
+        }
+        int[] probe = signature;
+        return shardTemplate.inNewTransaction(INDEX_SHARD, () -> findSimilar(propertyId, probe));
+    }
+
+    public Optional<DuplicateReportDTO> getLatestReport() {
+        return Optional.ofNullable(latestReport);
+    }
+
+    @Scheduled(cron = "${app.duplicates.report-cron:0 0 5 * * ?}")
+    public void scheduledReport() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            buildReport();
+        } catch (RuntimeException e) {
+            log.error("Duplicate listing report failed", e);
+        }
+    }
+
+    /**
+     * Re-signs the whole catalogue, one task per shard, and clusters the listings that share a
+     * bucket and pass the similarity check.
+     */
+    public synchronized DuplicateReportDTO buildReport() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long scanned = shardTemplate.scatter(shardRouter.allShards(), shard -> scanShard(shard, startedAt))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        List<DuplicateClusterDTO> clusters = shardTemplate.inNewTransaction(INDEX_SHARD, this::findClusters);
+
+        DuplicateReportDTO report = new DuplicateReportDTO(startedAt, scanned, clusters);
+        latestReport = report;
+        log.info("Duplicate listing report: {} listings scanned, {} clusters", scanned, clusters.size());
+        return report;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void index(Long propertyId) {
+        int[] signature = shardTemplate.inNewTransaction(shardRouter.shardForId(propertyId), () ->
+                propertyRepository.findById(propertyId).map(this::signatureOf).orElse(null));
+
+        List<DuplicateListingDTO> duplicates = shardTemplate.inNewTransaction(INDEX_SHARD, () -> {
+            if (signature == null) {
+                deleteSignatures(List.of(propertyId));
+                return List.of();
+            }
+            boolean unchanged = signatureRepository.findById(propertyId)
+                    .map(stored -> Arrays.equals(MinHash.decode(stored.getSignature()), signature))
+                    .orElse(false);
+            if (unchanged) {
+                // Only price, status or other fields changed; already checked
+                return List.of();
+            }
+            writeSignatures(Map.of(propertyId, signature), LocalDateTime.now());
+            return findSimilar(propertyId, signature);
+        });
+
+        if (!duplicates.isEmpty()) {
+            detected.increment();
+            log.info("Listing {} looks like a duplicate of {}", propertyId, duplicates.stream()
+                    .map(DuplicateListingDTO::getPropertyId)
+                    .toList());
+        }
+    }
+
+    private List<DuplicateListingDTO> findSimilar(Long propertyId, int[] signature) {
+        List<Long> buckets = Arrays.stream(MinHash.buckets(signature)).boxed().toList();
+        List<Long> candidates = signatureRepository.findCandidateIds(buckets, propertyId);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        return signatureRepository.findAllById(candidates).stream()
+                .map(candidate -> new DuplicateListingDTO(candidate.getPropertyId(),
+                        MinHash.similarity(signature, MinHash.decode(candidate.getSignature()))))
+                .filter(duplicate -> duplicate.getSimilarity() >= minSimilarity)
+                .sorted(Comparator.comparingDouble(DuplicateListingDTO::getSimilarity).reversed())
+                .toList();
+    }
+
+    /**
+     * Pages through the shard's listings in id order and syncs the index one id range at a
+     * time; signatures in a range without a listing belong to listings that are gone.
+     */
+    private long scanShard(int shard, LocalDateTime now) {
+        long cursor = firstIdOf(shard) - 1;
+        long scanned = 0;
+        while (true) {
+            List<Object[]> rows = propertyRepository.findTextPageAfter(cursor, PageRequest.of(0, scanBatchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            // Shingling and hashing are CPU bound; spread a page over the cores
+            Map<Long, int[]> signatures = rows.parallelStream().collect(HashMap::new,
+                    (map, row) -> map.put((Long) row[0],
+                            MinHash.signature((String) row[1], (String) row[2], (String) row[3])),
+                    Map::putAll);
+            long from = cursor;
+            long to = (Long) rows.get(rows.size() - 1)[0];
+            shardTemplate.inNewTransaction(INDEX_SHARD, () -> {
+                syncRange(from, to, signatures, now);
+                return null;
+            });
+            scanned += rows.size();
+            cursor = to;
+            if (rows.size() < scanBatchSize) {
+                break;
+            }
+        }
+        long tailFrom = cursor;
+        shardTemplate.inNewTransaction(INDEX_SHARD, () -> {
+            syncRange(tailFrom, lastIdOf(shard), Map.of(), now);
+            return null;
+        });
+        return scanned;
+    }
+
+    // Ids carry their shard in the high bits, so each shard owns one contiguous range
+    private long firstIdOf(int shard) {
+        return (long) shard << ShardRouter.ID_SHARD_SHIFT;
+    }
+
+    private long lastIdOf(int shard) {
+        return shard == shardRouter.getShardCount() - 1 ? Long.MAX_VALUE : firstIdOf(shard + 1) - 1;
+    }
+
+    private void syncRange(long afterId, long toId, Map<Long, int[]> signatures, LocalDateTime now) {
+        Map<Long, int[]> stored = new HashMap<>();
+        jdbcTemplate.query(SELECT_RANGE_SQL, (RowCallbackHandler) rs ->
+                stored.put(rs.getLong(1), MinHash.decode(rs.getBytes(2))), afterId, toId);
+
+        Map<Long, int[]> changed = new HashMap<>();
+        signatures.forEach((id, signature) -> {
+            if (signature != null && !Arrays.equals(signature, stored.get(id))) {
+                changed.put(id, signature);
+            }
+        });
+        List<Long> gone = stored.keySet().stream()
+                .filter(id -> signatures.get(id) == null)
+                .toList();
+        writeSignatures(changed, now);
+        deleteSignatures(gone);
+    }
+
+    private void writeSignatures(Map<Long, int[]> signatures, LocalDateTime now) {
+        if (signatures.isEmpty()) {
+            return;
+        }
+        // Same order on every writer, so the indexer and the report cannot deadlock
+        List<Long> ids = signatures.keySet().stream().sorted().toList();
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        ParameterizedPreparedStatementSetter<Long> setter = (ps, id) -> {
+            ps.setBytes(1, MinHash.encode(signatures.get(id)));
+            ps.setTimestamp(2, updatedAt);
+            ps.setLong(3, id);
+        };
+        // Update, then insert what was missing; a row another writer inserted in between is
+        // updated once more. Portable where ON CONFLICT ... DO UPDATE is not
+        List<Long> missing = unaffected(ids, jdbcTemplate.batchUpdate(UPDATE_SIGNATURE_SQL, ids, ids.size(), setter));
+        if (!missing.isEmpty()) {
+            List<Long> raced = unaffected(missing,
+                    jdbcTemplate.batchUpdate(INSERT_SIGNATURE_SQL, missing, missing.size(), setter));
+            if (!raced.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SIGNATURE_SQL, raced, raced.size(), setter);
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_BUCKETS_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+
+        List<long[]> buckets = new ArrayList<>(ids.size() * MinHash.BANDS);
+        for (Long id : ids) {
+            for (long bucket : MinHash.buckets(signatures.get(id))) {
+                buckets.add(new long[]{bucket, id});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BUCKET_SQL, buckets, buckets.size(), (ps, row) -> {
+            ps.setLong(1, row[0]);
+            ps.setLong(2, row[1]);
+        });
+    }
+
+    // The ids whose statement changed no row; the batch size is the list size, so one batch
+    private static List<Long> unaffected(List<Long> ids, int[][] counts) {
+        List<Long> unaffected = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[0][i] == 0) {
+                unaffected.add(ids.get(i));
+            }
+        }
+        return unaffected;
+    }
+
+    private void deleteSignatures(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_BUCKETS_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        jdbcTemplate.batchUpdate(DELETE_SIGNATURE_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    private List<DuplicateClusterDTO> findClusters() {
+        BucketPairs bucketPairs = new BucketPairs();
+        jdbcTemplate.query(SELECT_SHARED_BUCKETS_SQL, bucketPairs, maxBucketSize);
+        bucketPairs.finishBucket();
+        Set<Pair> pairs = bucketPairs.pairs;
+        if (pairs.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> candidateIds = new HashSet<>();
+        pairs.forEach(pair -> {
+            candidateIds.add(pair.first());
+            candidateIds.add(pair.second());
+        });
+        Map<Long, int[]> signatures = new HashMap<>(candidateIds.size() * 2);
+        List<Long> ids = new ArrayList<>(candidateIds);
+        for (int i = 0; i < ids.size(); i += FETCH_CHUNK) {
+            for (ListingSignature stored : signatureRepository.findAllById(ids.subList(i, Math.min(ids.size(), i + FETCH_CHUNK)))) {
+                signatures.put(stored.getPropertyId(), MinHash.decode(stored.getSignature()));
+            }
+        }
+
+        Map<Long, Long> parents = new HashMap<>();
+        Map<Long, Double> weakestLink = new HashMap<>();
+        pairs.parallelStream()
+                .map(pair -> Map.entry(pair, MinHash.similarity(signatures.get(pair.first()), signatures.get(pair.second()))))
+                .filter(entry -> entry.getValue() >= minSimilarity)
+                .toList()
+                .forEach(entry -> {
+                    Long root = union(parents, entry.getKey().first(), entry.getKey().second());
+                    weakestLink.merge(root, entry.getValue(), Math::min);
+                });
+
+        Map<Long, List<Long>> members = new HashMap<>();
+        Map<Long, Double> similarityByRoot = new HashMap<>();
+        for (Long id : parents.keySet()) {
+            Long root = find(parents, id);
+            members.computeIfAbsent(root, key -> new ArrayList<>()).add(id);
+        }
+        // Unions move roots, so gather each cluster's weakest link under its final root
+        weakestLink.forEach((root, similarity) -> similarityByRoot.merge(find(parents, root), similarity, Math::min));
+
+        return members.entrySet().stream()
+                .map(entry -> {
+                    List<Long> propertyIds = entry.getValue().stream().sorted().toList();
+                    return new DuplicateClusterDTO(propertyIds, similarityByRoot.get(entry.getKey()));
+                })
+                .sorted(Comparator.comparingInt((DuplicateClusterDTO cluster) -> cluster.getPropertyIds().size())
+                        .reversed()
+                        .thenComparing(cluster -> cluster.getPropertyIds().get(0)))
+                .toList();
+    }
+
+    private static Long union(Map<Long, Long> parents, Long a, Long b) {
+        Long rootA = find(parents, a);
+        Long rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+        return rootA;
+    }
+
+    private static Long find(Map<Long, Long> parents, Long id) {
+        Long current = parents.computeIfAbsent(id, key -> key);
+        while (!current.equals(parents.get(current))) {
+            Long grandparent = parents.get(parents.get(current));
+            parents.put(current, grandparent);
+            current = grandparent;
+        }
+        return current;
+    }
+
+    private int[] signatureOf(Property property) {
+        return MinHash.signature(property.getTitle(), property.getDescription(), property.getAddress());
+    }
+
+    @Override
+    public void destroy() {
+        indexer.shutdown();
+    }
+
+    private record Pair(long first, long second) {
+    }
+
+    /**
+     * Turns rows of (bucket, listing) ordered by bucket into the listing pairs of each bucket.
+     */
+    private static final class BucketPairs implements RowCallbackHandler {
+        private final Set<Pair> pairs = new HashSet<>();
+        private final List<Long> members = new ArrayList<>();
+        private long bucket;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowBucket = rs.getLong(1);
+            if (!members.isEmpty() && rowBucket != bucket) {
+                finishBucket();
+            }
+            bucket = rowBucket;
+            members.add(rs.getLong(2));
+        }
+
+        void finishBucket() {
+            for (int i = 0; i < members.size(); i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    long a = members.get(i);
+                    long b = members.get(j);
+                    pairs.add(new Pair(Math.min(a, b), Math.max(a, b)));
+                }
+            }
+            members.clear();
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.realestate.property.service;
 
+import com.realestate.property.dto.FavoriteCardPageDTO;
 import com.realestate.property.dto.FavoritePropertyDTO;
 import com.realestate.property.dto.PropertyDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface FavoritePropertyService {
@@ -36,6 +39,16 @@ public interface FavoritePropertyService {
      */
     Page<PropertyDTO> getFavoriteProperties(String userEmail, Pageable pageable);
 
+    /**
+     * Get a user's favorites as cards, most recently saved first, a page at a time
+     *
+     * @param userEmail The email of the user
+     * @param cursor The next cursor of the previous page, or null for the first page
+     * @param size The number of cards per page
+     * @return The cards and the cursor of the following page
+     */
+    FavoriteCardPageDTO getFavoriteCards(String userEmail, String cursor, int size);
+
     /**
      * Check if a property is favorited by a user
      *
@@ -53,6 +66,14 @@ public interface FavoritePropertyService {
      */
     long getFavoriteCount(Long propertyId);
 
+    /**
+     * Get favorite counts for several properties, with one query per shard holding any of them
+     *
+     * @param propertyIds The IDs of the properties
+     * @return The number of users who favorited each property, zero for properties nobody favorited
+     */
+    Map<Long, Long> getFavoriteCounts(Collection<Long> propertyIds);
+
     /**
      * Get all property IDs favorited by a user
      *
@@ -1,34 +1,68 @@
 package com.realestate.property.service;
 
+import com.realestate.property.dto.FavoriteCardDTO;
+import com.realestate.property.dto.FavoriteCardPageDTO;
 import com.realestate.property.dto.FavoritePropertyDTO;
 import com.realestate.property.dto.PropertyDTO;
 import com.realestate.property.exception.PropertyNotFoundException;
 import com.realestate.property.mapper.PropertyMapper;
 import com.realestate.property.model.FavoriteProperty;
 import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
 import com.realestate.property.repository.FavoritePropertyRepository;
 import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.sharding.ShardRouted;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.util.PageMergeUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FavoritePropertyServiceImpl implements FavoritePropertyService {
 
+    private static final int MAX_CARD_PAGE_SIZE = 100;
+
+    // Keyset order of card rows: favorited at, then property id, both descending. Favorite ids
+    // restart on every shard, so only the property id breaks ties between shards
+    private static final Comparator<Object[]> CARD_ORDER = Comparator
+            .comparing((Object[] row) -> (LocalDateTime) row[1])
+            .thenComparing(row -> (Long) row[2])
+            .reversed();
+
     private final FavoritePropertyRepository favoriteRepository;
     private final PropertyRepository propertyRepository;
     private final PropertyMapper propertyMapper;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final LocationDictionary locationDictionary;
 
     @Override
     @Transactional
+    @ShardRouted(id = "#propertyId")
     public FavoritePropertyDTO.Simple addToFavorites(Long propertyId, String userEmail) {
         log.info("Adding property id: {} to favorites for user: {}", propertyId, userEmail);
 
@@ -65,6 +99,7 @@ public class FavoritePropertyServiceImpl implements FavoritePropertyService {
 
     @Override
     @Transactional
+    @ShardRouted(id = "#propertyId")
     public void removeFromFavorites(Long propertyId, String userEmail) {
         log.info("Removing property id: {} from favorites for user: {}", propertyId, userEmail);
 
@@ -81,12 +116,99 @@ public class FavoritePropertyServiceImpl implements FavoritePropertyService {
     public Page<PropertyDTO> getFavoriteProperties(String userEmail, Pageable pageable) {
         log.info("Getting favorite properties for user: {}", userEmail);
 
-        return favoriteRepository.findByUserEmail(userEmail, pageable)
-                .map(favorite -> propertyMapper.toDTO(favorite.getProperty()));
+        List<Integer> shards = shardRouter.allShards();
+        if (shards.size() == 1) {
+            return shardTemplate.scatter(shards, shard ->
+                    toPropertyDTOs(favoriteRepository.findByUserEmail(userEmail, pageable))).get(0)
+                    .map(FavoritePropertyDTO::getProperty);
+        }
+
+        // A user's favorites live next to the favorited properties, so collect them from every shard
+        Pageable window = PageMergeUtils.windowFor(pageable);
+        List<Page<FavoritePropertyDTO>> pages = shardTemplate.scatter(shards, shard ->
+                toPropertyDTOs(favoriteRepository.findByUserEmail(userEmail, window)));
+        return PageMergeUtils.merge(pages.stream().map(Page::getContent).toList(),
+                        pages.stream().mapToLong(Page::getTotalElements).sum(), pageable, FavoritePropertyDTO.class)
+                .map(FavoritePropertyDTO::getProperty);
+    }
+
+    private Page<FavoritePropertyDTO> toPropertyDTOs(Page<FavoriteProperty> favorites) {
+        locationDictionary.preload(favorites.map(favorite -> favorite.getProperty().getLocationId()).getContent());
+        return favorites.map(favorite -> FavoritePropertyDTO.builder()
+                .id(favorite.getId())
+                .property(propertyMapper.toDTO(favorite.getProperty()))
+                .userEmail(favorite.getUserEmail())
+                .createdAt(favorite.getCreatedAt())
+                .build());
+    }
+
+    // No transaction of its own: each shard's query runs in its own, instead of the first
+    // shard's connection being held while the others are read
+    @Override
+    public FavoriteCardPageDTO getFavoriteCards(String userEmail, String cursor, int size) {
+        if (size < 1 || size > MAX_CARD_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CARD_PAGE_SIZE);
+        }
+        CardCursor after = cursor == null || cursor.isBlank() ? null : CardCursor.decode(cursor);
+
+        // One row more than asked for tells whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Object[]> rows = new ArrayList<>();
+        shardTemplate.scatter(shardRouter.allShards(), shard -> after == null
+                        ? favoriteRepository.findFirstCards(userEmail, limit)
+                        : favoriteRepository.findCardsBefore(userEmail, after.createdAt(), after.propertyId(), limit))
+                .forEach(rows::addAll);
+        rows.sort(CARD_ORDER);
+
+        boolean hasNext = rows.size() > size;
+        List<Object[]> page = hasNext ? rows.subList(0, size) : rows;
+        Object[] last = page.isEmpty() ? null : page.get(page.size() - 1);
+        locationDictionary.preload(page.stream().map(row -> (Integer) row[10]).toList());
+        return new FavoriteCardPageDTO(page.stream().map(this::toCard).toList(),
+                hasNext ? new CardCursor((LocalDateTime) last[1], (Long) last[2]).encode() : null);
+    }
+
+    private FavoriteCardDTO toCard(Object[] row) {
+        LocationDictionary.Entry location = locationDictionary.lookup((Integer) row[10]);
+        return FavoriteCardDTO.builder()
+                .favoritedAt((LocalDateTime) row[1])
+                .propertyId((Long) row[2])
+                .title((String) row[3])
+                .type((PropertyType) row[4])
+                .status((PropertyStatus) row[5])
+                .price((BigDecimal) row[6])
+                .bedrooms((Integer) row[7])
+                .bathrooms((Integer) row[8])
+                .area((Double) row[9])
+                .city(location == null ? null : location.city())
+                .state(location == null ? null : location.state())
+                .thumbnailUrl((String) row[11])
+                .build();
+    }
+
+    /**
+     * Position after the last card of a page, handed to clients as an opaque string.
+     */
+    private record CardCursor(LocalDateTime createdAt, Long propertyId) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + propertyId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CardCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new CardCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
+    @ShardRouted(id = "#propertyId")
     public boolean isFavorite(Long propertyId, String userEmail) {
         log.debug("Checking if property id: {} is favorited by user: {}", propertyId, userEmail);
 
@@ -98,6 +220,7 @@ public class FavoritePropertyServiceImpl implements FavoritePropertyService {
 
     @Override
     @Transactional(readOnly = true)
+    @ShardRouted(id = "#propertyId")
     public long getFavoriteCount(Long propertyId) {
         log.debug("Getting favorite count for property id: {}", propertyId);
 
@@ -107,12 +230,33 @@ public class FavoritePropertyServiceImpl implements FavoritePropertyService {
         return favoriteRepository.countByProperty(property);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getFavoriteCounts(Collection<Long> propertyIds) {
+        log.debug("Getting favorite counts for {} properties", propertyIds.size());
+
+        Map<Integer, List<Long>> idsByShard = propertyIds.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(shardRouter::shardForId, TreeMap::new, Collectors.toList()));
+        List<Integer> shards = new ArrayList<>(idsByShard.keySet());
+
+        Map<Long, Long> counts = new HashMap<>();
+        propertyIds.forEach(id -> counts.put(id, 0L));
+        shardTemplate.scatter(shards, shard -> favoriteRepository.countByPropertyIds(idsByShard.get(shard)))
+                .forEach(rows -> rows.forEach(row -> counts.put((Long) row[0], (Long) row[1])));
+        return counts;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Set<Long> getFavoritedPropertyIds(String userEmail) {
         log.debug("Getting favorited property IDs for user: {}", userEmail);
 
-        return new HashSet<>(favoriteRepository.findFavoritedPropertyIdsByUserEmail(userEmail));
+        Set<Long> ids = new HashSet<>();
+        shardTemplate.scatter(shardRouter.allShards(),
+                        shard -> favoriteRepository.findFavoritedPropertyIdsByUserEmail(userEmail))
+                .forEach(ids::addAll);
+        return ids;
     }
 
     @Override
@@ -120,6 +264,9 @@ public class FavoritePropertyServiceImpl implements FavoritePropertyService {
     public long getTotalFavorites(String userEmail) {
         log.debug("Getting total favorites count for user: {}", userEmail);
 
-        return favoriteRepository.countByUserEmail(userEmail);
+        return shardTemplate.scatter(shardRouter.allShards(), shard -> favoriteRepository.countByUserEmail(userEmail))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
     }
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.realestate.property.service;
+
+import com.realestate.property.event.ImagesReleasedEvent;
+import com.realestate.property.event.ImagesReleasedEvent.ReleasedImage;
+import com.realestate.property.model.ImageBlob;
+import com.realestate.property.model.ImageTombstone;
+import com.realestate.property.model.ImageVariant;
+import com.realestate.property.repository.ImageBlobRepository;
+import com.realestate.property.repository.ImageTombstoneRepository;
+import com.realestate.property.sharding.ShardContext;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.util.ImageServiceUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reference counts for content-addressed originals. Image rows on every shard that share the same
+ * bytes share one object; the object and its variants are deleted when the last row goes.
+ * <p>
+ * Counts live in {@code image_blobs} on shard 0, like the location dictionary. Rows are locked
+ * while a count changes. Unreferenced objects are not deleted here but tombstoned in the same
+ * transaction, and {@link ImageReconciler} deletes them later in batches. An upload of the same
+ * bytes removes the tombstones of its original before taking a reference, so it either keeps the
+ * object alive or finds it gone and stores it again. A crash between the image row and the count
+ * can only leave a count too high, which leaks an object until the reconciler finds it.
+ * <p>
+ * Callers inside a transaction use {@link #acquireInTransaction}, which takes the reference in
+ * that transaction whenever it runs on shard 0, so no second connection is borrowed from the same
+ * pool and a rollback undoes the count with the row.
+ */
+@Slf4j
+@Component
+public class ImageBlobRegistry {
+
+    private static final int REGISTRY_SHARD = 0;
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageTombstoneRepository imageTombstoneRepository;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final ImageStorage imageStorage;
+    private final Counter reused;
+    private final Counter stored;
+    private final Counter tombstoned;
+
+    public ImageBlobRegistry(ImageBlobRepository imageBlobRepository,
+                             ImageTombstoneRepository imageTombstoneRepository,
+                             ShardRouter shardRouter,
+                             ShardTemplate shardTemplate,
+                             ImageStorage imageStorage,
+                             MeterRegistry meterRegistry) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageTombstoneRepository = imageTombstoneRepository;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.imageStorage = imageStorage;
+        this.reused = Counter.builder("property.images.blobs.acquired").tag("result", "reused").register(meterRegistry);
+        this.stored = Counter.builder("property.images.blobs.acquired").tag("result", "new").register(meterRegistry);
+        this.tombstoned = Counter.builder("property.images.tombstones.created").register(meterRegistry);
+    }
+
+    /**
+     * Adds a reference to the object, creating its entry on first use. Returns whether the
+     * object is already in storage, in which case the caller skips the transfer.
+     * <p>
+     * The reference is committed immediately; a caller that fails to store the object or its row
+     * must {@link #release} it.
+     */
+    public boolean acquire(String storageKey, String contentHash, long fileSize) {
+        try {
+            shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> increment(storageKey, contentHash, fileSize));
+        } catch (DataIntegrityViolationException e) {
+            // Another upload created the entry concurrently; the row exists now
+            shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> increment(storageKey, contentHash, fileSize));
+        }
+        return isStored(storageKey);
+    }
+
+    /**
+     * {@link #acquire} for callers with an active transaction. On shard 0 the reference is taken
+     * in that transaction and its entry stays locked until it ends, so identical concurrent
+     * uploads queue behind each other. From another shard it is committed on shard 0 right away
+     * and released again if the caller rolls back.
+     */
+    public boolean acquireInTransaction(String storageKey, String contentHash, long fileSize) {
+        boolean joined = !shardRouter.isSharded() || Objects.equals(ShardContext.current(), REGISTRY_SHARD);
+        shardTemplate.runOnShard(REGISTRY_SHARD, () -> {
+            imageBlobRepository.insertIfAbsent(storageKey, contentHash, fileSize);
+            return increment(storageKey, contentHash, fileSize);
+        });
+        if (!joined) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        onImagesReleased(new ImagesReleasedEvent(List.of(new ReleasedImage(storageKey, List.of()))));
+                    }
+                }
+            });
+        }
+        return isStored(storageKey);
+    }
+
+    private boolean isStored(String storageKey) {
+        boolean present = imageStorage.head(storageKey).isPresent();
+        (present ? reused : stored).increment();
+        return present;
+    }
+
+    private ImageBlob increment(String storageKey, String contentHash, long fileSize) {
+        ImageBlob blob = imageBlobRepository.findByIdForUpdate(storageKey)
+                .orElseGet(() -> new ImageBlob(storageKey, contentHash, fileSize));
+        // Waits for a drain that already holds these tombstones, after which the object is gone
+        imageTombstoneRepository.deleteByContentHash(contentHash);
+        blob.setRefCount(blob.getRefCount() + 1);
+        return imageBlobRepository.saveAndFlush(blob);
+    }
+
+    @TransactionalEventListener
+    public void onImagesReleased(ImagesReleasedEvent event) {
+        try {
+            release(event.images());
+        } catch (RuntimeException e) {
+            // Counts stay as they were; the objects are only leaked, never lost
+            log.warn("Failed to release {} images: {}", event.images().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops one reference per image and tombstones objects no longer referenced. Originals stored
+     * before content addressing have no entry and belong to their single row, so they and their
+     * variants are tombstoned right away.
+     */
+    public void release(List<ReleasedImage> images) {
+        shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> {
+            Set<String> unreferenced = new LinkedHashSet<>();
+            List<ReleasedImage> ordered = new ArrayList<>(images);
+            // Lock in key order so concurrent gallery deletes cannot deadlock
+            ordered.sort(Comparator.comparing(ReleasedImage::storageKey));
+            for (ReleasedImage image : ordered) {
+                ImageBlob blob = imageBlobRepository.findByIdForUpdate(image.storageKey()).orElse(null);
+                if (blob != null && blob.getRefCount() > 1) {
+                    blob.setRefCount(blob.getRefCount() - 1);
+                    imageBlobRepository.save(blob);
+                    continue;
+                }
+                if (blob != null) {
+                    imageBlobRepository.delete(blob);
+                    unreferenced.addAll(variantKeysOf(image.storageKey()));
+                }
+                unreferenced.add(image.storageKey());
+                unreferenced.addAll(image.variantKeys());
+            }
+            imageBlobRepository.flush();
+            tombstone(unreferenced);
+            return null;
+        });
+    }
+
+    /**
+     * Tombstones variant objects written for an image that no longer exists, unless another row
+     * still references the original and therefore the same variants.
+     */
+    public void deleteVariantsIfUnreferenced(String storageKey, List<String> variantKeys) {
+        if (variantKeys.isEmpty()) {
+            return;
+        }
+        shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> {
+            boolean referenced = imageBlobRepository.findByIdForUpdate(storageKey)
+                    .map(blob -> blob.getRefCount() > 0)
+                    .orElse(false);
+            if (!referenced) {
+                tombstone(variantKeys);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Tombstones objects no row references, such as abandoned staging uploads, instead of
+     * deleting them on the request path.
+     */
+    public void discard(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> {
+                Set<String> pending = new HashSet<>(imageTombstoneRepository.findExistingKeys(keys));
+                tombstone(keys.stream().filter(key -> !pending.contains(key)).toList());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Removes an entry whose count is too high because no row references it any more, and
+     * tombstones its objects. Does nothing if the entry changed after {@code cutoff}, since a
+     * recent upload may be about to insert its row.
+     */
+    public boolean dropIfUnchangedSince(String storageKey, LocalDateTime cutoff) {
+        return shardTemplate.inNewTransaction(REGISTRY_SHARD, () -> {
+            ImageBlob blob = imageBlobRepository.findByIdForUpdate(storageKey).orElse(null);
+            if (blob == null || blob.getUpdatedAt() == null || !blob.getUpdatedAt().isBefore(cutoff)) {
+                return false;
+            }
+            imageBlobRepository.delete(blob);
+            imageBlobRepository.flush();
+            List<String> keys = new ArrayList<>(variantKeysOf(storageKey));
+            keys.add(storageKey);
+            tombstone(keys);
+            return true;
+        });
+    }
+
+    private void tombstone(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        imageTombstoneRepository.saveAll(keys.stream()
+                .map(key -> new ImageTombstone(key, ImageServiceUtils.contentHashOf(key)))
+                .toList());
+        tombstoned.increment(keys.size());
+    }
+
+    private static List<String> variantKeysOf(String storageKey) {
+        List<String> keys = new ArrayList<>(ImageVariant.values().length);
+        for (ImageVariant variant : ImageVariant.values()) {
+            keys.add(ImageServiceUtils.generateVariantStorageKey(storageKey, variant.key()));
+        }
+        return keys;
+    }
+}
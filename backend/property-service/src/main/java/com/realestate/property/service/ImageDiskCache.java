@@ -0,0 +1,401 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.ImageObjectInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Size-bounded local disk cache of image objects, keyed by storage key. Objects are immutable
+ * per key (a replaced image gets a new key), so entries never need revalidation.
+ * <p>
+ * <ul>
+ *   <li>Hits are copied from the file with {@link FileChannel#transferTo}, without going through
+ *   a heap buffer of the object's size.</li>
+ *   <li>Admission is frequency aware: a key is only cached once it has been requested
+ *   {@code admission-threshold} times (counted in a small aging count-min sketch), and while the
+ *   cache is full only if it is requested more often than the least recently used entry.
+ *   One-off downloads therefore never push out the photos everybody looks at.</li>
+ *   <li>Concurrent misses for the same key share a single download.</li>
+ *   <li>Eviction runs on the scheduler, trimming least recently used entries down to the low
+ *   watermark. Entries are kept in access order, so the victim is always the head of the map.</li>
+ * </ul>
+ * Cache files left in the directory by a previous run are deleted at startup; the cache is purely
+ * an accelerator. Only files named like cache entries are touched, so the directory may be shared.
+ */
+@Slf4j
+@Component
+public class ImageDiskCache {
+
+    /**
+     * Writes the complete object to the given file.
+     */
+    @FunctionalInterface
+    public interface ObjectDownloader {
+        void download(String storageKey, Path target) throws IOException;
+    }
+
+    // Size is that of the file as counted in currentBytes
+    private record Entry(Path path, ImageObjectInfo info, long size) {
+    }
+
+    // Cache files are named by the SHA-256 of the storage key, downloads in progress end in .part
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{64}(\\.part)?");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long lowWatermarkBytes;
+    private final int admissionThreshold;
+
+    // Access ordered, least recently used first; guarded by itself
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch(1 << 16);
+    private final AtomicLong currentBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesServedFromDisk;
+    private final Counter evictions;
+    private final Counter rejectedAdmissions;
+
+    public ImageDiskCache(@Value("${app.images.disk-cache.enabled:false}") boolean enabled,
+                          @Value("${app.images.disk-cache.directory:${java.io.tmpdir}/property-image-cache}") String directory,
+                          @Value("${app.images.disk-cache.max-size-mb:1024}") long maxSizeMb,
+                          @Value("${app.images.disk-cache.admission-threshold:2}") int admissionThreshold,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.lowWatermarkBytes = maxBytes * 9 / 10;
+        this.admissionThreshold = admissionThreshold;
+
+        this.hits = Counter.builder("property.images.disk_cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("property.images.disk_cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bytesServedFromDisk = Counter.builder("property.images.disk_cache.bytes_served")
+                .baseUnit("bytes").register(meterRegistry);
+        this.evictions = Counter.builder("property.images.disk_cache.evictions").register(meterRegistry);
+        this.rejectedAdmissions = Counter.builder("property.images.disk_cache.rejected_admissions").register(meterRegistry);
+        Gauge.builder("property.images.disk_cache.size", currentBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("property.images.disk_cache.entries", this, ImageDiskCache::entryCount).register(meterRegistry);
+        Gauge.builder("property.images.disk_cache.hit_ratio", this, ImageDiskCache::hitRatio).register(meterRegistry);
+
+        if (enabled) {
+            Files.createDirectories(this.directory);
+            deleteLeftoverFiles();
+            log.info("Image disk cache enabled at {} ({} MB)", this.directory, maxSizeMb);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Metadata of a cached object, so a hit can be answered without asking the object store.
+     */
+    public Optional<ImageObjectInfo> getInfo(String storageKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry entry = entry(storageKey);
+        return entry == null ? Optional.empty() : Optional.of(entry.info());
+    }
+
+    /**
+     * Copies bytes {@code start..end} of the object to {@code out} from disk, downloading it into
+     * the cache first if it qualifies for admission. Returns false, having written nothing, when the
+     * object is neither cached nor admitted; the caller then streams it from storage.
+     */
+    public boolean stream(ImageObjectInfo info, long start, long end, OutputStream out,
+                          ObjectDownloader downloader) throws IOException {
+        if (!enabled) {
+            return false;
+        }
+        String key = info.getStorageKey();
+        int frequency = sketch.increment(key);
+
+        Entry entry = entry(key);
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            if (!admit(frequency, info.getContentLength())) {
+                return false;
+            }
+            try {
+                entry = load(info, downloader);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to cache image {}, serving from storage: {}", key, e.getMessage());
+                return false;
+            }
+            if (entry == null) {
+                return false;
+            }
+        }
+
+        try {
+            transfer(entry.path(), start, end, out);
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            return false;
+        }
+        bytesServedFromDisk.increment(end - start + 1);
+        return true;
+    }
+
+    public void invalidate(String storageKey) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(storageKey);
+        }
+        if (entry != null) {
+            delete(entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.disk-cache.eviction-interval-ms:10000}")
+    public void evict() {
+        if (!enabled || currentBytes.get() <= maxBytes || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Entry> victims = new ArrayList<>();
+            synchronized (entries) {
+                long remaining = currentBytes.get();
+                Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+                while (remaining > lowWatermarkBytes && leastRecentlyUsed.hasNext()) {
+                    Entry victim = leastRecentlyUsed.next();
+                    leastRecentlyUsed.remove();
+                    victims.add(victim);
+                    remaining -= victim.size();
+                }
+            }
+            for (Entry victim : victims) {
+                delete(victim);
+                evictions.increment();
+            }
+            log.debug("Image disk cache trimmed to {} bytes", currentBytes.get());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean admit(int frequency, long size) {
+        if (frequency < admissionThreshold || size > maxBytes / 10) {
+            return false;
+        }
+        if (currentBytes.get() + size <= maxBytes) {
+            return true;
+        }
+        // Full: only displace the LRU entry for a key that is requested more often
+        Entry victim;
+        synchronized (entries) {
+            victim = entries.isEmpty() ? null : entries.values().iterator().next();
+        }
+        if (victim != null && sketch.frequency(victim.info().getStorageKey()) >= frequency) {
+            rejectedAdmissions.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private Entry load(ImageObjectInfo info, ObjectDownloader downloader) throws IOException {
+        String key = info.getStorageKey();
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+
+        Path target = directory.resolve(fileNameFor(key));
+        Path temp = directory.resolve(target.getFileName() + ".part");
+        try {
+            // A miss that looked the key up before a racing load finished and removed its future
+            Entry cached = entry(key);
+            if (cached != null) {
+                future.complete(cached);
+                return cached;
+            }
+            downloader.download(key, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Entry entry = new Entry(target, info, Files.size(target));
+            Entry replaced;
+            synchronized (entries) {
+                replaced = entries.put(key, entry);
+            }
+            // A replaced entry's file was overwritten in place
+            currentBytes.addAndGet(replaced == null ? entry.size() : entry.size() - replaced.size());
+            future.complete(entry);
+            if (currentBytes.get() > maxBytes) {
+                CompletableFuture.runAsync(this::evict);
+            }
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private static void transfer(Path path, long start, long end, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    private void delete(Entry entry) {
+        try {
+            // Readers that already opened the file keep reading from the unlinked inode
+            if (Files.deleteIfExists(entry.path())) {
+                currentBytes.addAndGet(-entry.size());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete cached image {}: {}", entry.path(), e.getMessage());
+        }
+    }
+
+    private Entry entry(String storageKey) {
+        synchronized (entries) {
+            return entries.get(storageKey);
+        }
+    }
+
+    private int entryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void deleteLeftoverFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> Files.isRegularFile(file) && CACHE_FILE.matcher(file.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static String fileNameFor(String storageKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(storageKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Count-min sketch of request frequencies with four rows of counters saturating at 15. Counters are halved
+     * every {@code 10 * width} increments so popularity ages out.
+     */
+    static final class FrequencySketch {
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[][] rows;
+        private final int mask;
+        private final int resetThreshold;
+        private int additions;
+
+        FrequencySketch(int width) {
+            this.rows = new int[SEEDS.length][width];
+            this.mask = width - 1;
+            this.resetThreshold = width * 10;
+        }
+
+        synchronized int increment(String key) {
+            int hash = key.hashCode();
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < MAX_COUNT) {
+                    rows[i][index]++;
+                }
+                estimate = Math.min(estimate, rows[i][index]);
+            }
+            if (++additions >= resetThreshold) {
+                for (int[] row : rows) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+            return estimate;
+        }
+
+        synchronized int frequency(String key) {
+            int hash = key.hashCode();
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                estimate = Math.min(estimate, rows[i][index(hash, i)]);
+            }
+            return estimate;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x45D9F3B;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
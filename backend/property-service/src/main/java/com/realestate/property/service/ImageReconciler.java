@@ -0,0 +1,364 @@
+package com.realestate.property.service;
+
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageBlob;
+import com.realestate.property.model.ImageTombstone;
+import com.realestate.property.repository.ArchivedPropertyRepository;
+import com.realestate.property.repository.ImageBlobRepository;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.repository.ImageTombstoneRepository;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.storage.StorageException;
+import com.realestate.property.storage.StoredObjectSummary;
+import com.realestate.property.util.ImageServiceUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes image objects nothing references any more.
+ * <p>
+ * Request paths only write {@link ImageTombstone}s; {@link #drainTombstones} deletes their objects
+ * in multi-object batches, paced to a configured rate so a large gallery or property delete
+ * cannot flood the store. Tombstones whose original was uploaded again in the meantime are
+ * dropped without deleting anything.
+ * <p>
+ * {@link #reconcile} catches what the request paths miss: it pages through the store and
+ * tombstones objects no row, archived row or blob entry references, and pages through
+ * {@code image_blobs} to drop entries no row references. Only objects and entries unchanged for
+ * the grace period are considered, so uploads in flight are never touched. Rows whose object is
+ * missing are counted and logged but left alone.
+ */
+@Slf4j
+@Component
+public class ImageReconciler {
+
+    private static final int REGISTRY_SHARD = 0;
+    private static final List<String> SCANNED_PREFIXES =
+            List.of("images/", "properties/", ImageServiceUtils.STAGING_PREFIX);
+
+    private final ImageTombstoneRepository imageTombstoneRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageRepository imageRepository;
+    private final ArchivedPropertyRepository archivedPropertyRepository;
+    private final ImageBlobRegistry imageBlobRegistry;
+    private final ImageStorage imageStorage;
+    private final ImageDiskCache imageDiskCache;
+    private final ImageUrlSigner imageUrlSigner;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final Counter deleted;
+    private final Counter failures;
+    private final Counter orphanedObjects;
+    private final Counter orphanedBlobs;
+    private final Counter missingObjects;
+
+    @Value("${app.images.reconciler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.images.reconciler.scan-enabled:true}")
+    private boolean scanEnabled;
+
+    @Value("${app.images.reconciler.verify-rows:false}")
+    private boolean verifyRows;
+
+    @Value("${app.images.reconciler.deletes-per-second:200}")
+    private int deletesPerSecond;
+
+    @Value("${app.images.reconciler.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.images.reconciler.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.images.reconciler.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    public ImageReconciler(ImageTombstoneRepository imageTombstoneRepository,
+                           ImageBlobRepository imageBlobRepository,
+                           ImageRepository imageRepository,
+                           ArchivedPropertyRepository archivedPropertyRepository,
+                           ImageBlobRegistry imageBlobRegistry,
+                           ImageStorage imageStorage,
+                           ImageDiskCache imageDiskCache,
+                           ImageUrlSigner imageUrlSigner,
+                           ShardRouter shardRouter,
+                           ShardTemplate shardTemplate,
+                           MeterRegistry meterRegistry) {
+        this.imageTombstoneRepository = imageTombstoneRepository;
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageRepository = imageRepository;
+        this.archivedPropertyRepository = archivedPropertyRepository;
+        this.imageBlobRegistry = imageBlobRegistry;
+        this.imageStorage = imageStorage;
+        this.imageDiskCache = imageDiskCache;
+        this.imageUrlSigner = imageUrlSigner;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.deleted = Counter.builder("property.images.objects.deleted").register(meterRegistry);
+        this.failures = Counter.builder("property.images.reconciler.failures").register(meterRegistry);
+        this.orphanedObjects = Counter.builder("property.images.reconciler.orphans").tag("kind", "object").register(meterRegistry);
+        this.orphanedBlobs = Counter.builder("property.images.reconciler.orphans").tag("kind", "blob").register(meterRegistry);
+        this.missingObjects = Counter.builder("property.images.reconciler.missing").register(meterRegistry);
+    }
+
+    /**
+     * Deletes tombstoned objects until none are left or the store fails.
+     */
+    @Scheduled(fixedDelayString = "${app.images.reconciler.drain-interval-ms:30000}")
+    public void drainTombstones() {
+        if (!enabled) {
+            return;
+        }
+        int total = 0;
+        while (true) {
+            long started = System.nanoTime();
+            DrainedBatch batch = shardTemplate.inNewTransaction(REGISTRY_SHARD, this::drainBatch);
+            total += batch.deleted();
+            if (batch.failed() || batch.tombstones() < batchSize || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            pace(batch.deleted(), started);
+        }
+        if (total > 0) {
+            log.info("Deleted {} unreferenced image objects", total);
+        }
+    }
+
+    /**
+     * Runs in one transaction on shard 0. The tombstones stay locked while their objects are
+     * deleted, which holds off an upload of the same bytes until they are gone.
+     */
+    private DrainedBatch drainBatch() {
+        List<ImageTombstone> tombstones = imageTombstoneRepository.findBatchForUpdate(maxAttempts,
+                PageRequest.of(0, batchSize));
+        if (tombstones.isEmpty()) {
+            return new DrainedBatch(0, 0, false);
+        }
+        Set<String> hashes = new HashSet<>();
+        tombstones.stream().map(ImageTombstone::getContentHash).filter(Objects::nonNull).forEach(hashes::add);
+        Set<String> revived = hashes.isEmpty()
+                ? Set.of() : new HashSet<>(imageBlobRepository.findExistingContentHashes(hashes));
+        Set<String> keys = new LinkedHashSet<>();
+        for (ImageTombstone tombstone : tombstones) {
+            if (tombstone.getContentHash() == null || !revived.contains(tombstone.getContentHash())) {
+                keys.add(tombstone.getStorageKey());
+            }
+        }
+
+        try {
+            imageStorage.deleteAll(keys);
+        } catch (StorageException e) {
+            // Counted against the tombstones when this transaction commits
+            tombstones.forEach(tombstone -> tombstone.setAttempts(tombstone.getAttempts() + 1));
+            failures.increment();
+            log.warn("Failed to delete {} tombstoned objects: {}", keys.size(), e.getMessage());
+            return new DrainedBatch(tombstones.size(), 0, true);
+        }
+        imageTombstoneRepository.deleteAllInBatch(tombstones);
+        keys.forEach(key -> {
+            imageDiskCache.invalidate(key);
+            imageUrlSigner.invalidate(key);
+        });
+        deleted.increment(keys.size());
+        return new DrainedBatch(tombstones.size(), keys.size(), false);
+    }
+
+    @Scheduled(cron = "${app.images.reconciler.scan-cron:0 30 4 * * ?}")
+    public void scheduledReconcile() {
+        if (!enabled || !scanEnabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Image reconciliation failed", e);
+        }
+    }
+
+    public void reconcile() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(orphanGraceHours));
+        int objects = 0;
+        for (String prefix : SCANNED_PREFIXES) {
+            objects += reconcileObjects(prefix, cutoff);
+        }
+        int blobs = reconcileBlobs(LocalDateTime.now().minusHours(orphanGraceHours));
+        int missing = verifyRows ? verifyRows() : 0;
+        log.info("Image reconciliation tombstoned {} orphaned objects, dropped {} orphaned blob entries, "
+                + "found {} rows without objects", objects, blobs, missing);
+    }
+
+    private int reconcileObjects(String prefix, Instant cutoff) {
+        int orphans = 0;
+        String startAfter = null;
+        while (true) {
+            List<StoredObjectSummary> page = imageStorage.list(prefix, startAfter, batchSize);
+            if (page.isEmpty()) {
+                return orphans;
+            }
+            List<String> candidates = page.stream()
+                    .filter(object -> object.lastModified().isBefore(cutoff))
+                    .map(StoredObjectSummary::key)
+                    .toList();
+            if (!candidates.isEmpty()) {
+                List<String> unreferenced = unreferenced(candidates);
+                imageBlobRegistry.discard(unreferenced);
+                orphans += unreferenced.size();
+                orphanedObjects.increment(unreferenced.size());
+            }
+            if (page.size() < batchSize) {
+                return orphans;
+            }
+            startAfter = page.get(page.size() - 1).key();
+        }
+    }
+
+    /**
+     * Keys no image row, variant, archived image or blob entry references. Staging objects are
+     * never referenced; past the grace period their upload has failed.
+     */
+    private List<String> unreferenced(List<String> keys) {
+        List<String> stored = keys.stream()
+                .filter(key -> !key.startsWith(ImageServiceUtils.STAGING_PREFIX))
+                .toList();
+        Set<String> referenced = new HashSet<>();
+        if (!stored.isEmpty()) {
+            // Variants of a live original are kept even when only archived rows use them
+            Set<String> hashes = new HashSet<>();
+            stored.stream().map(ImageServiceUtils::contentHashOf).filter(Objects::nonNull).forEach(hashes::add);
+            Set<String> liveHashes = hashes.isEmpty() ? Set.of() : shardTemplate.runOnShard(REGISTRY_SHARD,
+                    () -> new HashSet<>(imageBlobRepository.findExistingContentHashes(hashes)));
+            stored.stream()
+                    .filter(key -> {
+                        String hash = ImageServiceUtils.contentHashOf(key);
+                        return hash != null && liveHashes.contains(hash);
+                    })
+                    .forEach(referenced::add);
+            referenced.addAll(referencedByRows(stored));
+        }
+        return keys.stream().filter(key -> !referenced.contains(key)).toList();
+    }
+
+    /**
+     * Keys referenced by image rows, their variants or archived images on any shard.
+     */
+    private Set<String> referencedByRows(Collection<String> keys) {
+        Map<String, String> keysByUrl = new HashMap<>();
+        keys.forEach(key -> keysByUrl.put(imageStorage.urlFor(key), key));
+        Set<String> referenced = new HashSet<>();
+        for (List<String> shardKeys : shardTemplate.scatter(shardRouter.allShards(), shard -> {
+            List<String> found = new ArrayList<>(imageRepository.findReferencedVariantKeys(keys));
+            List<Object[]> rows = new ArrayList<>(imageRepository.findReferences(keys, keysByUrl.keySet()));
+            rows.addAll(archivedPropertyRepository.findImageReferences(keys, keysByUrl.keySet()));
+            for (Object[] row : rows) {
+                found.add((String) row[0]);
+                found.add(keysByUrl.get((String) row[1]));
+            }
+            return found;
+        })) {
+            shardKeys.stream().filter(Objects::nonNull).forEach(referenced::add);
+        }
+        return referenced;
+    }
+
+    /**
+     * Drops blob entries left with a count by a crash between the entry and the row.
+     */
+    private int reconcileBlobs(LocalDateTime cutoff) {
+        int dropped = 0;
+        String startAfter = "";
+        while (true) {
+            String after = startAfter;
+            List<String> page = shardTemplate.runOnShard(REGISTRY_SHARD, () -> imageBlobRepository
+                    .findUnchangedSince(after, cutoff, PageRequest.of(0, batchSize)).stream()
+                    .map(ImageBlob::getStorageKey)
+                    .toList());
+            if (page.isEmpty()) {
+                return dropped;
+            }
+            Set<String> referenced = referencedByRows(page);
+            for (String key : page) {
+                if (!referenced.contains(key) && imageBlobRegistry.dropIfUnchangedSince(key, cutoff)) {
+                    dropped++;
+                    orphanedBlobs.increment();
+                }
+            }
+            if (page.size() < batchSize) {
+                return dropped;
+            }
+            startAfter = page.get(page.size() - 1);
+        }
+    }
+
+    /**
+     * Checks that every row's original exists, at the delete rate since each check is a request.
+     */
+    private int verifyRows() {
+        int missing = 0;
+        for (int shard : shardRouter.allShards()) {
+            long afterId = 0;
+            while (true) {
+                long after = afterId;
+                List<Image> page = shardTemplate.runOnShard(shard,
+                        () -> imageRepository.findPageAfter(after, PageRequest.of(0, batchSize)));
+                if (page.isEmpty()) {
+                    break;
+                }
+                long started = System.nanoTime();
+                for (Image image : page) {
+                    String key = ImageServiceUtils.storageKeyOf(image);
+                    if (imageStorage.head(key).isEmpty()) {
+                        missing++;
+                        missingObjects.increment();
+                        log.warn("Image {} of property {} has no object under {}",
+                                image.getId(), image.getProperty().getId(), key);
+                    }
+                }
+                pace(page.size(), started);
+                if (page.size() < batchSize) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Sleeps off whatever is left of the time budget for {@code operations} at the configured rate.
+     */
+    private void pace(int operations, long startedNanos) {
+        long budget = TimeUnit.SECONDS.toNanos(operations) / Math.max(deletesPerSecond, 1);
+        long remaining = budget - (System.nanoTime() - startedNanos);
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record DrainedBatch(int tombstones, int deleted, boolean failed) {
+    }
+}
@@ -1,19 +1,74 @@
 // ImageService.java
 package com.realestate.property.service;
 
+import com.realestate.property.dto.CompleteUploadRequest;
+import com.realestate.property.dto.GalleryLayoutDTO;
 import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.ImageObjectInfo;
+import com.realestate.property.dto.ImageUploadResultDTO;
+import com.realestate.property.dto.PresignedUploadDTO;
+import com.realestate.property.dto.PresignedUploadRequest;
+import com.realestate.property.dto.PresignedUrlDTO;
 import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ImageService {
     ImageDTO uploadImage(Long propertyId, MultipartFile file);
+
+    /**
+     * Stores an image read straight from the request body. The type is sniffed from the first
+     * bytes, and the bytes are hashed and piped to storage through a fixed-size buffer.
+     *
+     * @param declaredContentType content type sent by the client, checked against the sniffed one; may be null
+     * @param contentLength exact number of bytes the stream holds
+     */
+    ImageDTO uploadImageStream(Long propertyId, String declaredContentType, long contentLength, InputStream content)
+            throws IOException;
+
     List<ImageDTO> getPropertyImages(Long propertyId);
     void deleteImage(Long imageId);
     ImageDTO getImage(Long imageId);
-    List<ImageDTO> uploadMultipleImages(Long propertyId, List<MultipartFile> files);
+
+    /**
+     * Validates all files, transfers the valid ones concurrently and stores their rows in one
+     * batch. Returns one result per file, in request order.
+     */
+    List<ImageUploadResultDTO> uploadMultipleImages(Long propertyId, List<MultipartFile> files);
+
     void deleteAllPropertyImages(Long propertyId);
     ImageDTO updateImage(Long imageId, MultipartFile file);
     ImageDTO setMainImage(Long propertyId, Long imageId);
     List<ImageDTO> reorderImages(Long propertyId, List<Long> imageIds);
-    byte[] downloadImage(Long imageId);
+
+    /**
+     * Applies a full gallery layout, order and main image, with one query to validate it and one
+     * UPDATE to store it.
+     */
+    GalleryLayoutDTO updateGalleryLayout(Long propertyId, GalleryLayoutDTO layout);
+    ImageObjectInfo getImageObjectInfo(Long imageId);
+
+    /**
+     * Issues a presigned PUT URL for a client to upload an image directly to storage.
+     */
+    PresignedUploadDTO createUploadUrl(Long propertyId, PresignedUploadRequest request);
+
+    /**
+     * Records the image a client uploaded through {@link #createUploadUrl}.
+     */
+    ImageDTO completeUpload(Long propertyId, CompleteUploadRequest request);
+
+    /**
+     * Presigned GET URL of the image, or of one of its variants once generated.
+     */
+    PresignedUrlDTO getDownloadUrl(Long propertyId, Long imageId, String variant);
+
+    /**
+     * Copies bytes {@code start..end} (inclusive) of the image object to {@code out} through a
+     * fixed-size buffer.
+     */
+    void streamImage(ImageObjectInfo image, long start, long end, OutputStream out) throws IOException;
 }
\ No newline at end of file
@@ -1,28 +1,73 @@
 package com.realestate.property.service;
 
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.*;
+import com.realestate.property.dto.CompleteUploadRequest;
+import com.realestate.property.dto.GalleryLayoutDTO;
 import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.ImageObjectInfo;
+import com.realestate.property.dto.ImageUploadResultDTO;
+import com.realestate.property.dto.PresignedUploadDTO;
+import com.realestate.property.dto.PresignedUploadRequest;
+import com.realestate.property.dto.PresignedUrlDTO;
+import com.realestate.property.event.ImageStoredEvent;
+import com.realestate.property.event.ImagesReleasedEvent;
 import com.realestate.property.exception.ImageNotFoundException;
 import com.realestate.property.exception.ImageUploadException;
+import com.realestate.property.exception.InvalidFileTypeException;
 import com.realestate.property.exception.PropertyNotFoundException;
 import com.realestate.property.mapper.ImageMapper;
 import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariant;
+import com.realestate.property.model.ImageVariantInfo;
+import com.realestate.property.model.ImageVariantStatus;
 import com.realestate.property.model.Property;
 import com.realestate.property.repository.ImageRepository;
 import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.sharding.ShardRouted;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.storage.StorageException;
+import com.realestate.property.storage.StoredObjectMetadata;
 import com.realestate.property.util.ImageServiceUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,16 +75,41 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
 
-    private final AmazonS3 amazonS3;
+    private final ImageStorage imageStorage;
     private final ImageRepository imageRepository;
     private final PropertyRepository propertyRepository;
     private final ImageMapper imageMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageDiskCache imageDiskCache;
+    private final ImageBlobRegistry imageBlobRegistry;
+    private final ImageUrlSigner imageUrlSigner;
+    private final ImageTransferExecutor imageTransferExecutor;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final JdbcTemplate jdbcTemplate;
 
-    @Value("${aws.s3.bucket.name}")
-    private String bucketName;
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private static final String SELECT_IMAGE_IDS_SQL = "SELECT id FROM property_images WHERE property_id = ?";
+
+    private static final String SET_MAIN_IMAGE_SQL =
+            "UPDATE property_images SET is_main = (id = ?), updated_at = CURRENT_TIMESTAMP " +
+            "WHERE property_id = ? AND is_main IS DISTINCT FROM (id = ?) " +
+            "AND EXISTS (SELECT 1 FROM property_images m WHERE m.id = ? AND m.property_id = ?)";
+
+    private static final String COUNT_GALLERY_IMAGE_SQL =
+            "SELECT COUNT(*) FROM property_images WHERE id = ? AND property_id = ?";
+
+    private static final String NEXT_DISPLAY_ORDER_SQL =
+            "SELECT COALESCE(MAX(display_order) + 1, 0) FROM property_images WHERE property_id = ?";
+
+    private static final String INSERT_IMAGE_SQL =
+            "INSERT INTO property_images (name, type, url, storage_key, content_hash, is_main, display_order, " +
+            "file_size, variant_status, property_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     @Transactional
+    @ShardRouted(id = "#propertyId")
     public ImageDTO uploadImage(Long propertyId, MultipartFile file) {
         try {
             // Validate property exists
@@ -49,42 +119,23 @@ public class ImageServiceImpl implements ImageService {
             // Validate image
             ImageServiceUtils.validateImage(file);
 
-            // Generate unique file name
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-
-            // Generate S3 key
-            String s3Key = ImageServiceUtils.generateS3Key(propertyId, fileName);
-
-            // Upload to S3
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            metadata.setContentLength(file.getSize());
-
+            // Upload to storage unless the same bytes are already there
+            StoredContent content;
             try {
-                amazonS3.putObject(new PutObjectRequest(
-                        bucketName,
-                        s3Key,
-                        file.getInputStream(),
-                        metadata
-                ));
-            } catch (AmazonS3Exception e) {
-                log.error("Failed to upload file to S3: {}", e.getMessage());
+                content = storeContent(file);
+            } catch (StorageException e) {
+                log.error("Failed to upload file to storage: {}", e.getMessage());
                 throw new ImageUploadException("Failed to upload image to storage: " + e.getMessage());
             }
 
-            // Generate S3 URL
-            String fileUrl = amazonS3.getUrl(bucketName, s3Key).toString();
-
             // Save image metadata to database
-            Image image = new Image();
-            image.setName(fileName);
-            image.setType(file.getContentType());
-            image.setUrl(fileUrl);
-            image.setProperty(property);
+            Image image = newImage(property, content.storageKey(), content.contentHash(),
+                    file.getContentType(), file.getSize());
 
             Image savedImage = imageRepository.save(image);
+
+            // Variants are generated after commit, off the request thread
+            eventPublisher.publishEvent(new ImageStoredEvent(savedImage.getId(), propertyId, content.storageKey()));
             return imageMapper.toDTO(savedImage);
 
         } catch (IOException e) {
@@ -93,8 +144,68 @@ public class ImageServiceImpl implements ImageService {
         }
     }
 
+    @Override
+    public ImageDTO uploadImageStream(Long propertyId, String declaredContentType, long contentLength,
+                                      InputStream content) throws IOException {
+        int shard = shardRouter.shardForId(propertyId);
+        // No transaction while the bytes move, as for batch uploads
+        Property property = shardTemplate.inNewTransaction(shard, () -> propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId)));
+
+        byte[] header = content.readNBytes(ImageServiceUtils.SNIFF_LENGTH);
+        String contentType = ImageServiceUtils.sniffContentType(header);
+        if (contentType == null || (declaredContentType != null && !declaredContentType.equals(contentType))) {
+            throw new InvalidFileTypeException("Invalid file type. Only JPEG, PNG and GIF are allowed");
+        }
+        ImageServiceUtils.validateDeclaredImage(contentType, contentLength);
+
+        // The final key depends on the hash, so the bytes land under a staging key first
+        MessageDigest digest = ImageServiceUtils.newSha256();
+        String stagingKey = ImageServiceUtils.generateStagingKey();
+        try (InputStream body = new DigestInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(header), content), digest)) {
+            imageStorage.put(stagingKey, body, contentLength, contentType);
+            if (content.read() != -1) {
+                throw new IllegalArgumentException("File is larger than its declared size of " + contentLength + " bytes");
+            }
+        } catch (IOException | RuntimeException e) {
+            discardQuietly(stagingKey);
+            if (e instanceof StorageException) {
+                throw new ImageUploadException("Failed to upload image to storage: " + e.getMessage());
+            }
+            throw e;
+        }
+
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        String storageKey = ImageServiceUtils.generateContentStorageKey(contentHash, contentType);
+        try {
+            if (imageBlobRegistry.acquire(storageKey, contentHash, contentLength)) {
+                discardQuietly(stagingKey);
+            } else {
+                imageStorage.move(stagingKey, storageKey);
+            }
+        } catch (RuntimeException e) {
+            discardQuietly(stagingKey);
+            releaseQuietly(List.of(storageKey));
+            throw new ImageUploadException("Failed to upload image to storage: " + e.getMessage());
+        }
+
+        try {
+            return shardTemplate.inNewTransaction(shard, () -> {
+                Image savedImage = imageRepository.save(
+                        newImage(property, storageKey, contentHash, contentType, contentLength));
+                eventPublisher.publishEvent(new ImageStoredEvent(savedImage.getId(), propertyId, storageKey));
+                return imageMapper.toDTO(savedImage);
+            });
+        } catch (RuntimeException e) {
+            releaseQuietly(List.of(storageKey));
+            throw e;
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @ShardRouted(id = "#propertyId")
     public List<ImageDTO> getPropertyImages(Long propertyId) {
         if (!propertyRepository.existsById(propertyId)) {
             throw new PropertyNotFoundException("Property not found with id: " + propertyId);
@@ -108,28 +219,21 @@ public class ImageServiceImpl implements ImageService {
 
     @Override
     @Transactional
+    @ShardRouted(id = "#imageId")
     public void deleteImage(Long imageId) {
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
 
-        try {
-            // Extract S3 key from URL
-            String fileUrl = image.getUrl();
-            String s3Key = fileUrl.substring(fileUrl.indexOf(bucketName) + bucketName.length() + 1);
-
-            // Delete from S3
-            amazonS3.deleteObject(bucketName, s3Key);
+        imageRepository.delete(image);
 
-            // Delete from database
-            imageRepository.delete(image);
-        } catch (AmazonS3Exception e) {
-            log.error("Failed to delete image from S3: {}", e.getMessage());
-            throw new ImageUploadException("Failed to delete image from storage: " + e.getMessage());
-        }
+        // Objects are shared between identical uploads, so they are only released after commit
+        // and deleted once no other row references them
+        eventPublisher.publishEvent(new ImagesReleasedEvent(List.of(ImageServiceUtils.releasedImageOf(image))));
     }
 
     @Override
     @Transactional(readOnly = true)
+    @ShardRouted(id = "#imageId")
     public ImageDTO getImage(Long imageId) {
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
@@ -137,62 +241,155 @@ public class ImageServiceImpl implements ImageService {
     }
 
     @Override
-    @Transactional
-    public List<ImageDTO> uploadMultipleImages(Long propertyId, List<MultipartFile> files) {
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
+    public List<ImageUploadResultDTO> uploadMultipleImages(Long propertyId, List<MultipartFile> files) {
+        int shard = shardRouter.shardForId(propertyId);
+        // Transfers run outside any transaction so no connection is held while bytes move
+        Property property = shardTemplate.inNewTransaction(shard, () -> propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId)));
+
+        ImageUploadResultDTO[] results = new ImageUploadResultDTO[files.size()];
+        List<PendingTransfer> transfers = new ArrayList<>(files.size());
+
+        // Validate everything before the first byte is sent
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            try {
+                ImageServiceUtils.validateImage(file);
+            } catch (ImageUploadException e) {
+                results[i] = ImageUploadResultDTO.failed(file.getOriginalFilename(), e.getMessage());
+                continue;
+            }
+            transfers.add(new PendingTransfer(i, file,
+                    CompletableFuture.supplyAsync(() -> transfer(file), imageTransferExecutor)));
+        }
 
-        List<ImageDTO> uploadedImages = new ArrayList<>();
-        List<String> failedUploads = new ArrayList<>();
+        List<PendingTransfer> stored = new ArrayList<>(transfers.size());
+        for (PendingTransfer transfer : transfers) {
+            try {
+                transfer.content();
+                stored.add(transfer);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Error uploading image: {}", transfer.file().getOriginalFilename(), cause);
+                results[transfer.index()] = ImageUploadResultDTO.failed(transfer.file().getOriginalFilename(),
+                        "Failed to upload image to storage: " + cause.getMessage());
+            }
+        }
 
-        for (MultipartFile file : files) {
+        if (!stored.isEmpty()) {
+            List<Image> images;
             try {
-                ImageDTO imageDTO = uploadImage(propertyId, file);
-                uploadedImages.add(imageDTO);
-            } catch (Exception e) {
-                log.error("Error uploading image: {}", file.getOriginalFilename(), e);
-                failedUploads.add(file.getOriginalFilename());
+                images = shardTemplate.inNewTransaction(shard, () -> insertImages(property, stored));
+            } catch (RuntimeException e) {
+                // Without rows nothing holds the references taken for the objects
+                releaseQuietly(stored.stream().map(PendingTransfer::content).map(StoredContent::storageKey).toList());
+                throw e;
+            }
+            for (int i = 0; i < stored.size(); i++) {
+                PendingTransfer transfer = stored.get(i);
+                results[transfer.index()] = ImageUploadResultDTO.succeeded(transfer.file().getOriginalFilename(),
+                        imageMapper.toDTO(images.get(i)));
             }
         }
 
-        if (!failedUploads.isEmpty()) {
-            log.warn("Some images failed to upload: {}", failedUploads);
+        long failed = Arrays.stream(results).filter(result -> !result.isSuccess()).count();
+        if (failed > 0) {
+            log.warn("{} of {} images failed to upload for property {}", failed, files.size(), propertyId);
         }
+        return Arrays.asList(results);
+    }
 
-        return uploadedImages;
+    private record PendingTransfer(int index, MultipartFile file, CompletableFuture<StoredContent> future) {
+        StoredContent content() {
+            return future.join();
+        }
+    }
+
+    private StoredContent transfer(MultipartFile file) {
+        try {
+            return storeContent(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Inserts the rows of a multi-image upload in one JDBC batch, appended to the gallery in the
+     * order the files were sent. Hibernate cannot batch inserts with IDENTITY ids, so this
+     * bypasses it and reads the generated ids back from the batch.
+     */
+    private List<Image> insertImages(Property property, List<PendingTransfer> transfers) {
+        LocalDateTime now = LocalDateTime.now();
+        int nextDisplayOrder = jdbcTemplate.queryForObject(NEXT_DISPLAY_ORDER_SQL, Integer.class, property.getId());
+        List<Image> images = new ArrayList<>(transfers.size());
+        for (PendingTransfer transfer : transfers) {
+            StoredContent content = transfer.content();
+            Image image = newImage(property, content.storageKey(), content.contentHash(),
+                    transfer.file().getContentType(), transfer.file().getSize());
+            image.setDisplayOrder(nextDisplayOrder++);
+            image.setCreatedAt(now);
+            image.setUpdatedAt(now);
+            images.add(image);
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_IMAGE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Image image = images.get(i);
+                        ps.setString(1, image.getName());
+                        ps.setString(2, image.getType());
+                        ps.setString(3, image.getUrl());
+                        ps.setString(4, image.getStorageKey());
+                        ps.setString(5, image.getContentHash());
+                        ps.setBoolean(6, false);
+                        ps.setInt(7, image.getDisplayOrder());
+                        ps.setLong(8, image.getFileSize());
+                        ps.setString(9, image.getVariantStatus().name());
+                        ps.setLong(10, property.getId());
+                        ps.setTimestamp(11, Timestamp.valueOf(now));
+                        ps.setTimestamp(12, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return images.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < images.size(); i++) {
+            Image image = images.get(i);
+            image.setId(((Number) keys.get(i).get("id")).longValue());
+            // Published inside the insert transaction so variants are generated after it commits
+            eventPublisher.publishEvent(new ImageStoredEvent(image.getId(), property.getId(), image.getStorageKey()));
+        }
+        return images;
     }
 
     @Override
     @Transactional
+    @ShardRouted(id = "#propertyId")
     public void deleteAllPropertyImages(Long propertyId) {
         if (!propertyRepository.existsById(propertyId)) {
             throw new PropertyNotFoundException("Property not found with id: " + propertyId);
         }
 
         List<Image> images = imageRepository.findByPropertyId(propertyId);
-        List<String> failedDeletes = new ArrayList<>();
-
-        for (Image image : images) {
-            try {
-                String fileUrl = image.getUrl();
-                String s3Key = fileUrl.substring(fileUrl.indexOf(bucketName) + bucketName.length() + 1);
-                amazonS3.deleteObject(bucketName, s3Key);
-            } catch (Exception e) {
-                log.error("Error deleting image from S3: {}", image.getUrl(), e);
-                failedDeletes.add(image.getName());
-            }
-        }
 
         // Delete all images from database
         imageRepository.deleteAll(images);
 
-        if (!failedDeletes.isEmpty()) {
-            log.warn("Some images failed to delete from S3: {}", failedDeletes);
+        // Released together after commit, so unreferenced objects go in one batch delete
+        if (!images.isEmpty()) {
+            eventPublisher.publishEvent(new ImagesReleasedEvent(images.stream().map(ImageServiceUtils::releasedImageOf).toList()));
         }
     }
 
     @Override
     @Transactional
+    @ShardRouted(id = "#imageId")
     public ImageDTO updateImage(Long imageId, MultipartFile file) {
         Image existingImage = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
@@ -201,122 +398,332 @@ public class ImageServiceImpl implements ImageService {
             // Validate new image
             ImageServiceUtils.validateImage(file);
 
-            // Delete existing image from S3
-            String oldFileUrl = existingImage.getUrl();
-            String oldS3Key = oldFileUrl.substring(oldFileUrl.indexOf(bucketName) + bucketName.length() + 1);
-            amazonS3.deleteObject(bucketName, oldS3Key);
-
-            // Upload new image
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-
-            String s3Key = ImageServiceUtils.generateS3Key(existingImage.getProperty().getId(), fileName);
-
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            metadata.setContentLength(file.getSize());
-
-            amazonS3.putObject(new PutObjectRequest(
-                    bucketName,
-                    s3Key,
-                    file.getInputStream(),
-                    metadata
-            ));
-
-            String fileUrl = amazonS3.getUrl(bucketName, s3Key).toString();
+            // Upload new image; the old one is released once the row points at the new one
+            StoredContent content = storeContent(file);
+            ImagesReleasedEvent.ReleasedImage previous = ImageServiceUtils.releasedImageOf(existingImage);
 
             // Update image metadata
-            existingImage.setName(fileName);
+            existingImage.setName(content.storageKey().substring(content.storageKey().lastIndexOf('/') + 1));
             existingImage.setType(file.getContentType());
-            existingImage.setUrl(fileUrl);
+            existingImage.setUrl(imageStorage.urlFor(content.storageKey()));
+            existingImage.setStorageKey(content.storageKey());
+            existingImage.setContentHash(content.contentHash());
+            existingImage.setFileSize(file.getSize());
+            existingImage.getVariants().clear();
+            existingImage.setVariantStatus(ImageVariantStatus.PENDING);
 
             Image updatedImage = imageRepository.save(existingImage);
+            eventPublisher.publishEvent(new ImagesReleasedEvent(List.of(previous)));
+            eventPublisher.publishEvent(new ImageStoredEvent(updatedImage.getId(),
+                    existingImage.getProperty().getId(), content.storageKey()));
             return imageMapper.toDTO(updatedImage);
 
         } catch (IOException e) {
             log.error("Error updating image: ", e);
             throw new ImageUploadException("Failed to update image: " + e.getMessage());
-        } catch (AmazonS3Exception e) {
-            log.error("S3 error during image update: ", e);
+        } catch (StorageException e) {
+            log.error("Storage error during image update: ", e);
             throw new ImageUploadException("Failed to update image in storage: " + e.getMessage());
         }
     }
 
     @Override
     @Transactional
+    @ShardRouted(id = "#propertyId")
     public ImageDTO setMainImage(Long propertyId, Long imageId) {
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
+        // One statement flips the flag on the rows whose value changes, if the image is the property's
+        int updated = jdbcTemplate.update(SET_MAIN_IMAGE_SQL, imageId, propertyId, imageId, imageId, propertyId);
+        if (updated == 0 && jdbcTemplate.queryForObject(COUNT_GALLERY_IMAGE_SQL, Integer.class, imageId, propertyId) == 0) {
+            // Nothing changed because it already was the main image, or because it is not the property's
+            throw galleryMismatch(propertyId, List.of(imageId));
+        }
+        return imageMapper.toDTO(imageRepository.findWithVariantsByIdIn(List.of(imageId)).get(0));
+    }
 
-        Image mainImage = imageRepository.findById(imageId)
-                .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
+    @Override
+    @Transactional
+    @ShardRouted(id = "#propertyId")
+    public List<ImageDTO> reorderImages(Long propertyId, List<Long> imageIds) {
+        updateLayout(propertyId, imageIds, null, true);
 
-        if (!mainImage.getProperty().getId().equals(propertyId)) {
-            throw new IllegalArgumentException("Image does not belong to the specified property");
+        // Read back for the response, which clients render; rows come in no particular order
+        Map<Long, Image> images = imageRepository.findWithVariantsByIdIn(imageIds).stream()
+                .collect(Collectors.toMap(Image::getId, image -> image));
+        return imageIds.stream()
+                .map(images::get)
+                .map(imageMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    @ShardRouted(id = "#propertyId")
+    public GalleryLayoutDTO updateGalleryLayout(Long propertyId, GalleryLayoutDTO layout) {
+        List<Long> imageIds = layout.getImageIds();
+        if (layout.getMainImageId() != null && !imageIds.contains(layout.getMainImageId())) {
+            throw new IllegalArgumentException("Main image must be one of the listed images");
         }
+        updateLayout(propertyId, imageIds, layout.getMainImageId(), false);
+        return layout;
+    }
 
-        // Reset all images' main flag for this property
-        List<Image> propertyImages = imageRepository.findByPropertyId(propertyId);
-        propertyImages.forEach(img -> img.setIsMain(false));
-        imageRepository.saveAll(propertyImages);
+    /**
+     * Sets the display order of the listed images, and the main flag when {@code mainImageId} is
+     * given, in a single UPDATE that also validates the list: it only matches the listed images
+     * of the property, and with {@code listedOnly} false nothing at all if the property has images
+     * that are not listed. Matching fewer rows than listed rolls the transaction back with the
+     * reason. Positions are inlined as literals; only IDs are bound.
+     */
+    private void updateLayout(Long propertyId, List<Long> imageIds, Long mainImageId, boolean listedOnly) {
+        if (new HashSet<>(imageIds).size() != imageIds.size()) {
+            throw new IllegalArgumentException("Image IDs must not repeat");
+        }
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        String idList = String.join(", ", Collections.nCopies(imageIds.size(), "?"));
+        StringBuilder sql = new StringBuilder("UPDATE property_images SET display_order = CASE id");
+        List<Object> args = new ArrayList<>(imageIds.size() * 4 + 3);
+        for (int i = 0; i < imageIds.size(); i++) {
+            sql.append(" WHEN ? THEN ").append(i);
+            args.add(imageIds.get(i));
+        }
+        sql.append(" ELSE display_order END");
+        if (mainImageId != null) {
+            sql.append(", is_main = (id = ?)");
+            args.add(mainImageId);
+        }
+        sql.append(", updated_at = CURRENT_TIMESTAMP WHERE property_id = ? AND id IN (").append(idList).append(')');
+        args.add(propertyId);
+        args.addAll(imageIds);
+        if (!listedOnly) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM property_images g WHERE g.property_id = ? AND g.id NOT IN (")
+                    .append(idList).append("))");
+            args.add(propertyId);
+            args.addAll(imageIds);
+        }
+        if (jdbcTemplate.update(sql.toString(), args.toArray()) != imageIds.size()) {
+            throw galleryMismatch(propertyId, imageIds);
+        }
+    }
 
-        // Set the new main image
-        mainImage.setIsMain(true);
-        Image savedImage = imageRepository.save(mainImage);
+    /**
+     * Tells why a gallery update matched fewer rows than listed. Only the error path pays for
+     * these lookups.
+     */
+    private RuntimeException galleryMismatch(Long propertyId, List<Long> imageIds) {
+        if (!propertyRepository.existsById(propertyId)) {
+            return new PropertyNotFoundException("Property not found with id: " + propertyId);
+        }
+        if (imageRepository.findAllById(imageIds).size() != imageIds.size()) {
+            return imageIds.size() == 1
+                    ? new ImageNotFoundException("Image not found with id: " + imageIds.get(0))
+                    : new ImageNotFoundException("One or more images not found");
+        }
+        Set<Long> gallery = new HashSet<>(jdbcTemplate.queryForList(SELECT_IMAGE_IDS_SQL, Long.class, propertyId));
+        if (!gallery.containsAll(imageIds)) {
+            return new IllegalArgumentException("Image does not belong to the specified property");
+        }
+        return new IllegalArgumentException("The layout must list every image of the property");
+    }
 
-        return imageMapper.toDTO(savedImage);
+    @Override
+    @Transactional(readOnly = true)
+    @ShardRouted(id = "#imageId")
+    public ImageObjectInfo getImageObjectInfo(Long imageId) {
+        Image image = imageRepository.findById(imageId)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
+
+        String storageKey = ImageServiceUtils.storageKeyOf(image);
+        Optional<ImageObjectInfo> cached = imageDiskCache.getInfo(storageKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        try {
+            StoredObjectMetadata metadata = imageStorage.head(storageKey)
+                    .orElseThrow(() -> new ImageNotFoundException("Image data not found for image id: " + imageId));
+            return new ImageObjectInfo(storageKey, image.getName(),
+                    metadata.contentType() != null ? metadata.contentType() : image.getType(),
+                    metadata.contentLength(), metadata.eTag(), metadata.lastModified());
+        } catch (StorageException e) {
+            log.error("Storage error reading image metadata: ", e);
+            throw new ImageUploadException("Failed to download image from storage: " + e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardRouted(id = "#propertyId")
+    public PresignedUploadDTO createUploadUrl(Long propertyId, PresignedUploadRequest request) {
+        if (!propertyRepository.existsById(propertyId)) {
+            throw new PropertyNotFoundException("Property not found with id: " + propertyId);
+        }
+        ImageServiceUtils.validateDeclaredImage(request.getContentType(), request.getContentLength());
+
+        String storageKey = ImageServiceUtils.generateDirectUploadKey(propertyId, request.getContentType());
+        PresignedUrlDTO url = imageUrlSigner.uploadUrl(storageKey, request.getContentLength());
+        return new PresignedUploadDTO(storageKey, url.getUrl(), "PUT", request.getContentType(), url.getExpiresAt());
     }
 
     @Override
     @Transactional
-    public List<ImageDTO> reorderImages(Long propertyId, List<Long> imageIds) {
+    @ShardRouted(id = "#propertyId")
+    public ImageDTO completeUpload(Long propertyId, CompleteUploadRequest request) {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
 
-        List<Image> images = imageRepository.findAllById(imageIds);
-
-        if (images.size() != imageIds.size()) {
-            throw new ImageNotFoundException("One or more images not found");
+        String storageKey = request.getStorageKey();
+        if (!ImageServiceUtils.isDirectUploadKey(propertyId, storageKey)) {
+            throw new IllegalArgumentException("Storage key was not issued for this property: " + storageKey);
         }
-
-        // Validate all images belong to the property
-        for (Image image : images) {
-            if (!image.getProperty().getId().equals(propertyId)) {
-                throw new IllegalArgumentException("Image does not belong to the specified property");
-            }
+        if (imageRepository.existsByStorageKey(storageKey)) {
+            throw new IllegalArgumentException("Upload already completed: " + storageKey);
         }
 
-        // Update order
-        for (int i = 0; i < imageIds.size(); i++) {
-            Image image = images.get(i);
-            image.setDisplayOrder(i);
-            imageRepository.save(image);
+        StoredObjectMetadata metadata = imageStorage.head(storageKey)
+                .orElseThrow(() -> new ImageNotFoundException("No uploaded object found for key: " + storageKey));
+        try {
+            ImageServiceUtils.validateDeclaredImage(metadata.contentType(), metadata.contentLength());
+            // The client chose the bytes; only the first few are fetched to check them
+            byte[] header = new byte[0];
+            if (metadata.contentLength() > 0) {
+                try (InputStream in = imageStorage.get(storageKey, 0,
+                        Math.min(metadata.contentLength(), ImageServiceUtils.SNIFF_LENGTH) - 1)) {
+                    header = in.readAllBytes();
+                }
+            }
+            if (!metadata.contentType().equals(ImageServiceUtils.sniffContentType(header))) {
+                throw new InvalidFileTypeException("File content does not match its declared type " + metadata.contentType());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nothing will ever reference the object
+            discardQuietly(storageKey);
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ImageUploadException("Failed to read uploaded image: " + e.getMessage());
         }
 
-        return images.stream()
-                .map(imageMapper::toDTO)
-                .collect(Collectors.toList());
+        Image image = newImage(property, storageKey, null, metadata.contentType(), metadata.contentLength());
+        Image savedImage = imageRepository.save(image);
+        eventPublisher.publishEvent(new ImageStoredEvent(savedImage.getId(), propertyId, storageKey));
+        return imageMapper.toDTO(savedImage);
     }
 
     @Override
-    public byte[] downloadImage(Long imageId) {
+    @Transactional(readOnly = true)
+    @ShardRouted(id = "#imageId")
+    public PresignedUrlDTO getDownloadUrl(Long propertyId, Long imageId, String variant) {
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + imageId));
+        if (!image.getProperty().getId().equals(propertyId)) {
+            throw new IllegalArgumentException("Image does not belong to the specified property");
+        }
 
-        String fileUrl = image.getUrl();
-        String s3Key = fileUrl.substring(fileUrl.indexOf(bucketName) + bucketName.length() + 1);
+        String storageKey = ImageServiceUtils.storageKeyOf(image);
+        if (variant != null) {
+            ImageVariant requested = ImageVariant.valueOf(variant.toUpperCase(Locale.ROOT));
+            // Falls back to the original until the variant has been generated
+            storageKey = image.getVariants().stream()
+                    .filter(info -> info.getVariant() == requested)
+                    .map(ImageVariantInfo::getStorageKey)
+                    .findFirst()
+                    .orElse(storageKey);
+        }
+        return imageUrlSigner.downloadUrl(storageKey);
+    }
+
+    @Override
+    public void streamImage(ImageObjectInfo image, long start, long end, OutputStream out) throws IOException {
+        if (imageDiskCache.stream(image, start, end, out, this::downloadObject)) {
+            return;
+        }
+
+        // Closing the stream before the end makes the backend drop the transfer, so a client
+        // going away does not drain the rest of the object
+        try (InputStream in = imageStorage.get(image.getStorageKey(), start, end)) {
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
 
+    private void downloadObject(String storageKey, Path target) throws IOException {
+        try (InputStream in = imageStorage.get(storageKey)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Image newImage(Property property, String storageKey, String contentHash,
+                           String contentType, long fileSize) {
+        Image image = new Image();
+        image.setName(storageKey.substring(storageKey.lastIndexOf('/') + 1));
+        image.setType(contentType);
+        image.setUrl(imageStorage.urlFor(storageKey));
+        image.setStorageKey(storageKey);
+        image.setContentHash(contentHash);
+        image.setFileSize(fileSize);
+        image.setVariantStatus(ImageVariantStatus.PENDING);
+        image.setProperty(property);
+        return image;
+    }
+
+    private void discardQuietly(String storageKey) {
         try {
-            S3Object s3Object = amazonS3.getObject(bucketName, s3Key);
-            S3ObjectInputStream inputStream = s3Object.getObjectContent();
-            return inputStream.readAllBytes();
-        } catch (IOException e) {
-            log.error("Error reading image data: ", e);
-            throw new ImageUploadException("Failed to read image data: " + e.getMessage());
-        } catch (AmazonS3Exception e) {
-            log.error("S3 error downloading image: ", e);
-            throw new ImageUploadException("Failed to download image from storage: " + e.getMessage());
+            imageBlobRegistry.discard(List.of(storageKey));
+        } catch (RuntimeException e) {
+            // The reconciler's scan finds the object eventually
+            log.warn("Failed to discard unreferenced upload {}: {}", storageKey, e.getMessage());
+        }
+    }
+
+    private record StoredContent(String storageKey, String contentHash) {
+    }
+
+    /**
+     * Hashes the upload, takes a reference on its content-addressed object and transfers the
+     * bytes only when no earlier upload has stored them. The hash is computed by streaming the
+     * locally buffered multipart file, which costs a disk read rather than a network transfer.
+     * <p>
+     * Inside a transaction the reference belongs to it and is undone if it rolls back, see
+     * {@link ImageBlobRegistry#acquireInTransaction}; otherwise the caller releases it when the
+     * row cannot be stored.
+     */
+    private StoredContent storeContent(MultipartFile file) throws IOException {
+        String contentHash;
+        try (InputStream in = file.getInputStream()) {
+            contentHash = ImageServiceUtils.sha256Hex(in);
+        }
+        String storageKey = ImageServiceUtils.generateContentStorageKey(contentHash, file.getContentType());
+
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean present = inTransaction
+                ? imageBlobRegistry.acquireInTransaction(storageKey, contentHash, file.getSize())
+                : imageBlobRegistry.acquire(storageKey, contentHash, file.getSize());
+        if (!present) {
+            try (InputStream in = file.getInputStream()) {
+                imageStorage.put(storageKey, in, file.getSize(), file.getContentType());
+            } catch (IOException | RuntimeException e) {
+                if (!inTransaction) {
+                    releaseQuietly(List.of(storageKey));
+                }
+                throw e;
+            }
+        } else {
+            log.debug("Image content {} already stored, skipping transfer", contentHash);
+        }
+        return new StoredContent(storageKey, contentHash);
+    }
+
+    private void releaseQuietly(List<String> storageKeys) {
+        try {
+            imageBlobRegistry.release(storageKeys.stream()
+                    .map(storageKey -> new ImagesReleasedEvent.ReleasedImage(storageKey, List.of()))
+                    .toList());
+        } catch (RuntimeException e) {
+            log.warn("Failed to release {} stored images: {}", storageKeys.size(), e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
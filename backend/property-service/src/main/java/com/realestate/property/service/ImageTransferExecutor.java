@@ -0,0 +1,45 @@
+package com.realestate.property.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool for moving image bytes to storage in parallel. Transfers are I/O bound, so the
+ * pool is sized by how many concurrent uploads the object store should see rather than by cores.
+ * When the queue is full the submitting request thread runs the transfer itself, which throttles
+ * large batches instead of failing them.
+ */
+@Component
+public class ImageTransferExecutor implements Executor, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageTransferExecutor(@Value("${app.images.upload.transfer-threads:8}") int threads,
+                                 @Value("${app.images.upload.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-transfer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
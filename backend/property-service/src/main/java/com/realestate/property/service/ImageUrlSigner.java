@@ -0,0 +1,87 @@
+package com.realestate.property.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.realestate.property.dto.PresignedUrlDTO;
+import com.realestate.property.storage.ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Issues short-lived presigned URLs so image bytes go straight between clients and storage.
+ * <p>
+ * Download URLs are cached per object and handed out again until shortly before they expire,
+ * which saves the signing work and lets browsers and CDNs reuse what they already fetched for an
+ * identical URL. Upload URLs are unique per upload and never cached.
+ */
+@Component
+public class ImageUrlSigner {
+
+    private final ImageStorage imageStorage;
+    private final Duration uploadTtl;
+    private final Duration downloadTtl;
+    private final Duration expiryMargin;
+    private final Cache<String, PresignedUrlDTO> downloadUrls;
+
+    public ImageUrlSigner(ImageStorage imageStorage,
+                          @Value("${app.images.presign.upload-ttl-seconds:600}") long uploadTtlSeconds,
+                          @Value("${app.images.presign.download-ttl-seconds:900}") long downloadTtlSeconds,
+                          @Value("${app.images.presign.expiry-margin-seconds:60}") long expiryMarginSeconds,
+                          @Value("${app.images.presign.cache-size:10000}") long cacheSize) {
+        this.imageStorage = imageStorage;
+        this.uploadTtl = Duration.ofSeconds(uploadTtlSeconds);
+        this.downloadTtl = Duration.ofSeconds(downloadTtlSeconds);
+        // A URL handed out must stay valid long enough for the client to use it
+        this.expiryMargin = Duration.ofSeconds(Math.min(expiryMarginSeconds, downloadTtlSeconds / 2));
+        this.downloadUrls = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, PresignedUrlDTO>() {
+                    @Override
+                    public long expireAfterCreate(String key, PresignedUrlDTO value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt())
+                                .minus(expiryMargin).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, PresignedUrlDTO value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, PresignedUrlDTO value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public PresignedUrlDTO downloadUrl(String storageKey) {
+        return downloadUrls.get(storageKey, key -> {
+            Instant expiresAt = expiresAt(downloadTtl);
+            return new PresignedUrlDTO(imageStorage.presignGet(key, downloadTtl), expiresAt);
+        });
+    }
+
+    /**
+     * Signs an upload of exactly {@code contentLength} bytes; storage refuses any other body.
+     */
+    public PresignedUrlDTO uploadUrl(String storageKey, long contentLength) {
+        Instant expiresAt = expiresAt(uploadTtl);
+        return new PresignedUrlDTO(imageStorage.presignPut(storageKey, contentLength, uploadTtl), expiresAt);
+    }
+
+    public void invalidate(String storageKey) {
+        downloadUrls.invalidate(storageKey);
+    }
+
+    // Taken before signing so the reported time is never later than the real one
+    private static Instant expiresAt(Duration ttl) {
+        return Instant.now().plus(ttl);
+    }
+}
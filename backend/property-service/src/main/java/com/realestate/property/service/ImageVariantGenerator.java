@@ -0,0 +1,308 @@
+package com.realestate.property.service;
+
+import com.realestate.property.event.ImageStoredEvent;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariant;
+import com.realestate.property.model.ImageVariantInfo;
+import com.realestate.property.model.ImageVariantStatus;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.util.ImageResizeUtils;
+import com.realestate.property.util.ImageServiceUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the {@link ImageVariant} renditions of uploaded images off the request thread.
+ * <p>
+ * Work runs on a fixed pool sized to the number of cores with a bounded queue. When the queue is
+ * full the job is not queued and the image simply stays {@code PENDING}; the periodic backfill
+ * resubmits pending images as capacity frees up, so uploads never block on resizing.
+ * <p>
+ * A failed generation is retried by the backfill with exponential backoff, starting at
+ * {@code retry-base-delay-ms} and doubling up to {@code retry-max-delay-ms}, until
+ * {@code max-attempts} failures; after that the image keeps serving its original.
+ */
+@Slf4j
+@Component
+public class ImageVariantGenerator implements DisposableBean {
+
+    // Each variant is made from the previous, larger one
+    private static final List<ImageVariant> LARGEST_FIRST = Arrays.stream(ImageVariant.values())
+            .sorted(Comparator.comparingInt(ImageVariant::getMaxDimension).reversed())
+            .toList();
+
+    private final ImageStorage imageStorage;
+    private final ImageBlobRegistry imageBlobRegistry;
+    private final ImageRepository imageRepository;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Value("${app.images.variants.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.images.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Larger originals are subsampled while decoding; 4 bytes per pixel once decoded
+    @Value("${app.images.variants.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    @Value("${app.images.variants.backfill-delay-ms:60000}")
+    private long backfillDelayMs;
+
+    @Value("${app.images.variants.backfill-page-size:100}")
+    private int backfillPageSize;
+
+    @Value("${app.images.variants.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.images.variants.retry-base-delay-ms:60000}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.images.variants.retry-max-delay-ms:3600000}")
+    private long retryMaxDelayMs;
+
+    public ImageVariantGenerator(ImageStorage imageStorage,
+                                 ImageBlobRegistry imageBlobRegistry,
+                                 ImageRepository imageRepository,
+                                 ShardRouter shardRouter,
+                                 ShardTemplate shardTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 CacheManager cacheManager,
+                                 @Value("${app.images.variants.workers:0}") int workers,
+                                 @Value("${app.images.variants.queue-capacity:200}") int queueCapacity) {
+        this.imageStorage = imageStorage;
+        this.imageBlobRegistry = imageBlobRegistry;
+        this.imageRepository = imageRepository;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+
+        // Resizing is CPU bound, so the pool defaults to one worker per core
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @TransactionalEventListener
+    public void onImageStored(ImageStoredEvent event) {
+        if (enabled) {
+            submit(event.imageId(), event.propertyId(), event.storageKey());
+        }
+    }
+
+    /**
+     * Resubmits images whose generation was shed under load or interrupted by a restart, and
+     * failed ones whose retry is due. Candidates are read a page at a time in id order, with
+     * their properties, until the queue is full.
+     */
+    @Scheduled(fixedDelayString = "${app.images.variants.backfill-interval-ms:30000}")
+    public void backfillPendingImages() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(Duration.ofMillis(backfillDelayMs));
+        for (int shard : shardRouter.allShards()) {
+            long afterId = 0;
+            while (true) {
+                int capacity = executor.getQueue().remainingCapacity();
+                if (capacity == 0) {
+                    return;
+                }
+                int pageSize = Math.min(capacity, backfillPageSize);
+                long after = afterId;
+                List<ImageStoredEvent> page = shardTemplate.runOnShard(shard, () -> transactionTemplate.execute(status ->
+                        imageRepository.findVariantBackfillAfter(after, cutoff, now, PageRequest.of(0, pageSize)).stream()
+                                .map(image -> new ImageStoredEvent(image.getId(), image.getProperty().getId(),
+                                        ImageServiceUtils.storageKeyOf(image)))
+                                .toList()));
+                page.forEach(image -> submit(image.imageId(), image.propertyId(), image.storageKey()));
+                if (page.size() < pageSize) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).imageId();
+            }
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void submit(Long imageId, Long propertyId, String storageKey) {
+        if (!inFlight.add(imageId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageId, propertyId, storageKey);
+                } finally {
+                    inFlight.remove(imageId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageId);
+            rejected.incrementAndGet();
+            log.debug("Variant queue full, image {} left pending for backfill", imageId);
+        }
+    }
+
+    private void generate(Long imageId, Long propertyId, String storageKey) {
+        if (copyVariantsOfDuplicate(imageId, propertyId, storageKey)) {
+            return;
+        }
+        List<ImageVariantInfo> variants = new ArrayList<>();
+        try {
+            BufferedImage original;
+            try (InputStream in = imageStorage.get(storageKey)) {
+                original = ImageResizeUtils.read(in, maxSourcePixels);
+            }
+            if (original == null) {
+                throw new IOException("Unsupported image format: " + storageKey);
+            }
+
+            BufferedImage source = original;
+            for (ImageVariant variant : LARGEST_FIRST) {
+                BufferedImage resized = ImageResizeUtils.resize(source, variant.getMaxDimension());
+                byte[] bytes = ImageResizeUtils.encodeJpeg(resized, jpegQuality);
+                String variantKey = ImageServiceUtils.generateVariantStorageKey(storageKey, variant.key());
+
+                imageStorage.put(variantKey, new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+
+                variants.add(new ImageVariantInfo(variant, variantKey, imageStorage.urlFor(variantKey),
+                        resized.getWidth(), resized.getHeight(), (long) bytes.length));
+                source = resized;
+            }
+            original.flush();
+
+            boolean stored = saveVariants(imageId, propertyId, storageKey, variants, ImageVariantStatus.READY);
+            if (!stored) {
+                // The image was deleted or replaced while we were working
+                deleteQuietly(storageKey, variants);
+            }
+            log.debug("Generated {} variants for image {}", variants.size(), imageId);
+        } catch (Exception e) {
+            log.warn("Failed to generate variants for image {}: {}", imageId, e.getMessage());
+            deleteQuietly(storageKey, variants);
+            saveVariants(imageId, propertyId, storageKey, List.of(), ImageVariantStatus.FAILED);
+        }
+    }
+
+    private boolean saveVariants(Long imageId, Long propertyId, String storageKey,
+                         List<ImageVariantInfo> variants, ImageVariantStatus status) {
+        boolean saved = Boolean.TRUE.equals(shardTemplate.runOnShard(shardRouter.shardForId(propertyId), () ->
+                transactionTemplate.execute(tx -> {
+                    Image image = imageRepository.findById(imageId).orElse(null);
+                    if (image == null
+                            || !ImageServiceUtils.storageKeyOf(image).equals(storageKey)) {
+                        return false;
+                    }
+                    image.getVariants().clear();
+                    image.getVariants().addAll(variants);
+                    image.setVariantStatus(status);
+                    if (status == ImageVariantStatus.FAILED) {
+                        int attempts = (image.getVariantAttempts() == null ? 0 : image.getVariantAttempts()) + 1;
+                        image.setVariantAttempts(attempts);
+                        image.setVariantRetryAt(attempts < maxAttempts ? nextRetryAt(attempts) : null);
+                    } else {
+                        image.setVariantAttempts(0);
+                        image.setVariantRetryAt(null);
+                    }
+                    imageRepository.save(image);
+                    return true;
+                })));
+        if (saved) {
+            // Cached listings embed their images
+            Cache cache = cacheManager.getCache("properties");
+            if (cache != null) {
+                cache.evict(propertyId);
+            }
+        }
+        return saved;
+    }
+
+    private LocalDateTime nextRetryAt(int attempts) {
+        long delay = retryBaseDelayMs << Math.min(attempts - 1, 20);
+        return LocalDateTime.now().plus(Duration.ofMillis(Math.min(Math.max(delay, 0), retryMaxDelayMs)));
+    }
+
+    /**
+     * Identical uploads share their original and therefore their variants; when another row on
+     * this shard already has them there is nothing to resize.
+     */
+    private boolean copyVariantsOfDuplicate(Long imageId, Long propertyId, String storageKey) {
+        List<ImageVariantInfo> existing = shardTemplate.runOnShard(shardRouter.shardForId(propertyId), () ->
+                transactionTemplate.execute(tx -> imageRepository
+                        .findFirstByStorageKeyAndVariantStatus(storageKey, ImageVariantStatus.READY)
+                        .map(duplicate -> duplicate.getVariants().stream()
+                                .map(variant -> new ImageVariantInfo(variant.getVariant(), variant.getStorageKey(),
+                                        variant.getUrl(), variant.getWidth(), variant.getHeight(), variant.getFileSize()))
+                                .toList())
+                        .orElse(List.of())));
+        if (existing.isEmpty()) {
+            return false;
+        }
+        saveVariants(imageId, propertyId, storageKey, existing, ImageVariantStatus.READY);
+        log.debug("Reused {} variants for image {}", existing.size(), imageId);
+        return true;
+    }
+
+    private void deleteQuietly(String storageKey, List<ImageVariantInfo> variants) {
+        try {
+            // Variant keys are shared by every row with the same original
+            imageBlobRegistry.deleteVariantsIfUnreferenced(storageKey,
+                    variants.stream().map(ImageVariantInfo::getStorageKey).toList());
+        } catch (Exception e) {
+            log.warn("Failed to delete orphaned variants of {}: {}", storageKey, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,426 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.ListingChangeDTO;
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.util.RingBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live feed of listing changes over server-sent events.
+ * <p>
+ * Committed changes are appended to a ring buffer, which costs the writing request one short
+ * lock. A single dispatcher thread follows the ring and hands each change to the subscribers
+ * whose filter it matches; subscribers are indexed by their exact filter, so a change only
+ * looks up the few filters that can match it instead of testing every connection. Each
+ * subscriber queues unsent changes by listing, so a newer change to a listing replaces an
+ * unsent older one, and a small sender pool writes them out one subscriber at a time.
+ * Subscribers that still fall {@code max-pending} listings behind are disconnected and resume
+ * from the ring when they reconnect. An idle subscriber holds no thread, only its emitter.
+ * <p>
+ * Event ids are sequence numbers of this instance's ring. A client reconnecting with a
+ * {@code Last-Event-ID} the ring no longer holds, or one issued by another instance, gets a
+ * {@code reset} event and should reload its listings.
+ */
+@Slf4j
+@Component
+public class ListingFeed implements DisposableBean {
+
+    private static final int DISPATCH_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LocationDictionary locationDictionary;
+    private final RingBuffer<Change> ring;
+    private final Map<FilterKey, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final boolean enabled;
+    private final int maxSubscribers;
+    private final ThreadPoolExecutor senders;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    @Value("${app.feed.max-pending:500}")
+    private int maxPending;
+
+    @Value("${app.feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    public ListingFeed(LocationDictionary locationDictionary,
+                       @Value("${app.feed.enabled:true}") boolean enabled,
+                       @Value("${app.feed.buffer-size:16384}") int bufferSize,
+                       @Value("${app.feed.sender-threads:4}") int senderThreads,
+                       @Value("${app.feed.max-subscribers:10000}") int maxSubscribers) {
+        this.locationDictionary = locationDictionary;
+        this.enabled = enabled;
+        this.maxSubscribers = maxSubscribers;
+        // Starting from the clock keeps ids increasing across restarts, so ids from before a
+        // restart are recognised as too old rather than mistaken for current ones
+        this.ring = new RingBuffer<>(bufferSize, System.currentTimeMillis());
+        AtomicInteger threadCount = new AtomicInteger();
+        // A subscriber has at most one send queued, so the queue never needs to exceed the subscribers
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)), runnable -> {
+                    Thread thread = new Thread(runnable, "listing-feed-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.senders.allowCoreThreadTimeOut(true);
+        this.dispatcher = new Thread(this::dispatch, "listing-feed-dispatcher");
+        this.dispatcher.setDaemon(true);
+        // A disabled feed never has anything to dispatch
+        if (enabled) {
+            this.dispatcher.start();
+        }
+    }
+
+    /**
+     * Opens a feed of changes matching the filter; null criteria match all. Returns empty when
+     * this instance already serves the maximum number of subscribers.
+     */
+    public Optional<SseEmitter> subscribe(String city, PropertyType type, PropertyStatus status, Long lastEventId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(FilterKey.of(city, type, status), emitter, lastEventId);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        // Registered by the dispatcher, so replay and live changes cannot overlap or leave a gap
+        joining.add(subscriber);
+        LockSupport.unpark(dispatcher);
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String city = locationDictionary.cityOf(event.locationId());
+        boolean deleted = "DELETED".equals(event.action());
+        ListingChangeDTO dto = new ListingChangeDTO(event.propertyId(), event.action(), city, event.type(),
+                event.newStatus(), deleted ? event.oldPrice() : event.newPrice(), event.timestamp());
+        ring.append(sequence -> new Change(sequence, cityKey(city), event.type(), event.newStatus(),
+                event.oldStatus(), dto));
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * Keeps connections open through proxies that close idle ones, and detects clients that left.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::heartbeat));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void dispatch() {
+        long cursor = ring.nextSequence();
+        while (running) {
+            try {
+                Subscriber subscriber;
+                while ((subscriber = joining.poll()) != null) {
+                    join(subscriber, cursor);
+                }
+
+                List<Change> changes = ring.readFrom(cursor, DISPATCH_BATCH);
+                if (changes.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                if (changes.get(0).sequence() > cursor) {
+                    // Only if writes outpace the dispatcher by a whole ring; affected clients can
+                    // tell from the gap in event ids
+                    log.warn("Listing feed skipped {} changes that were overwritten before dispatch",
+                            changes.get(0).sequence() - cursor);
+                }
+                for (Change change : changes) {
+                    fanOut(change);
+                }
+                cursor = changes.get(changes.size() - 1).sequence() + 1;
+            } catch (RuntimeException e) {
+                log.error("Listing feed dispatch failed", e);
+            }
+        }
+    }
+
+    private void fanOut(Change change) {
+        for (FilterKey key : change.filterKeys()) {
+            Set<Subscriber> matching = subscribers.get(key);
+            if (matching != null) {
+                matching.forEach(subscriber -> subscriber.offer(change));
+            }
+        }
+    }
+
+    /**
+     * Replays what the subscriber missed, up to the dispatcher's cursor, then registers it for
+     * live changes from the cursor on.
+     */
+    private void join(Subscriber subscriber, long cursor) {
+        Long lastEventId = subscriber.lastEventId;
+        if (lastEventId != null && lastEventId != cursor - 1) {
+            long from = lastEventId + 1;
+            if (from < ring.oldestSequence() || from > cursor) {
+                subscriber.reset(cursor - 1);
+            } else {
+                for (Change change : ring.readFrom(from, (int) (cursor - from))) {
+                    if (subscriber.key.matches(change)) {
+                        subscriber.offer(change);
+                    }
+                }
+            }
+        }
+
+        subscribers.compute(subscriber.key, (key, set) -> {
+            Set<Subscriber> registered = set != null ? set : ConcurrentHashMap.newKeySet();
+            registered.add(subscriber);
+            return registered;
+        });
+        if (subscriber.closed.get()) {
+            // Closed while joining, before there was anything to unregister
+            unregister(subscriber);
+        }
+    }
+
+    // Drops the filter's entry with its last subscriber, so client-chosen filters cannot accumulate
+    private void unregister(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.key, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static String cityKey(String city) {
+        return city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private record Change(long sequence, String city, PropertyType type, PropertyStatus status,
+                          PropertyStatus previousStatus, ListingChangeDTO payload) {
+
+        Long propertyId() {
+            return payload.getPropertyId();
+        }
+
+        /**
+         * Every filter this change matches. A listing leaving a status is reported to that
+         * status's subscribers as well, so their lists can drop it.
+         */
+        Set<FilterKey> filterKeys() {
+            Set<PropertyStatus> statuses = new LinkedHashSet<>(3);
+            statuses.add(null);
+            statuses.add(status);
+            statuses.add(previousStatus);
+            Set<FilterKey> keys = new LinkedHashSet<>(12);
+            for (String cityKey : city == null ? new String[]{null} : new String[]{null, city}) {
+                for (PropertyType typeKey : type == null ? new PropertyType[]{null} : new PropertyType[]{null, type}) {
+                    for (PropertyStatus statusKey : statuses) {
+                        keys.add(new FilterKey(cityKey, typeKey, statusKey));
+                    }
+                }
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * A subscriber's filter: null criteria match all.
+     */
+    private record FilterKey(String city, PropertyType type, PropertyStatus status) {
+
+        static FilterKey of(String city, PropertyType type, PropertyStatus status) {
+            return new FilterKey(cityKey(city), type, status);
+        }
+
+        boolean matches(Change change) {
+            return (city == null || city.equals(change.city()))
+                    && (type == null || type == change.type())
+                    && (status == null || status == change.status() || status == change.previousStatus());
+        }
+    }
+
+    private final class Subscriber {
+        private final FilterKey key;
+        private final SseEmitter emitter;
+        private final Long lastEventId;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // Guarded by this; ordered by sequence, since a replaced change moves to the end
+        private final LinkedHashMap<Long, Change> pending = new LinkedHashMap<>();
+        private Long resetSequence;
+        private boolean heartbeatDue;
+        private boolean sending;
+
+        private Subscriber(FilterKey key, SseEmitter emitter, Long lastEventId) {
+            this.key = key;
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+
+        void offer(Change change) {
+            boolean overflow;
+            boolean send;
+            synchronized (this) {
+                pending.remove(change.propertyId());
+                pending.put(change.propertyId(), change);
+                overflow = pending.size() > maxPending;
+                send = schedule();
+            }
+            if (overflow) {
+                dropped.incrementAndGet();
+                log.debug("Disconnecting slow listing feed subscriber {}", key);
+                disconnect();
+            } else if (send) {
+                submit();
+            }
+        }
+
+        void reset(long sequence) {
+            boolean send;
+            synchronized (this) {
+                resetSequence = sequence;
+                send = schedule();
+            }
+            if (send) {
+                submit();
+            }
+        }
+
+        void heartbeat() {
+            boolean send;
+            synchronized (this) {
+                heartbeatDue = true;
+                send = schedule();
+            }
+            if (send) {
+                submit();
+            }
+        }
+
+        // Caller holds the lock; true if the caller has to start the sender
+        private boolean schedule() {
+            if (sending) {
+                return false;
+            }
+            sending = true;
+            return true;
+        }
+
+        private void submit() {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                disconnect();
+            }
+        }
+
+        private void drain() {
+            while (!closed.get()) {
+                List<Change> changes;
+                Long reset;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (pending.isEmpty() && resetSequence == null && !heartbeatDue) {
+                        sending = false;
+                        return;
+                    }
+                    changes = new ArrayList<>(pending.values());
+                    pending.clear();
+                    reset = resetSequence;
+                    resetSequence = null;
+                    heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                }
+
+                try {
+                    if (reset != null) {
+                        emitter.send(SseEmitter.event().id(String.valueOf(reset)).name("reset").data(reset));
+                    }
+                    for (Change change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.sequence()))
+                                .name("change")
+                                .data(change.payload(), MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat && changes.isEmpty() && reset == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away or the emitter already completed
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void disconnect() {
+            if (close()) {
+                emitter.complete();
+            }
+        }
+
+        /**
+         * Unregisters the subscriber; true for the call that actually closed it.
+         */
+        private boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            unregister(this);
+            subscriberCount.decrementAndGet();
+            return true;
+        }
+    }
+}
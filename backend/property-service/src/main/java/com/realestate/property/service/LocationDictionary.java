@@ -0,0 +1,170 @@
+package com.realestate.property.service;
+
+import com.realestate.property.model.Location;
+import com.realestate.property.repository.LocationRepository;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.Named;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory, interned view of the {@code locations} table. Listings store only a
+ * {@code location_id}; every DTO built for the same city/state shares the same two strings.
+ * <p>
+ * The table is owned by shard 0. New entries are allocated there in their own transaction (so a
+ * rolled back listing never leaves a cached id without a row) and copied with the same id to the
+ * other shards, which lets each shard resolve city/state searches locally.
+ * <p>
+ * The whole table is loaded at startup, and the mappers only ever read the cache. Entries another
+ * instance allocated since are {@link #preload preloaded} by the services, a page at a time, before
+ * they map listings.
+ */
+@Slf4j
+@Component
+public class LocationDictionary {
+
+    private static final int DICTIONARY_SHARD = 0;
+
+    private static final String REPLICATE_SQL =
+            "INSERT INTO locations (id, city, state) SELECT ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM locations WHERE id = ?)";
+
+    public record Entry(int id, String city, String state) {
+    }
+
+    private final LocationRepository locationRepository;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Integer, Entry> entriesById = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entriesByName = new ConcurrentHashMap<>();
+
+    public LocationDictionary(LocationRepository locationRepository, ShardRouter shardRouter,
+                              ShardTemplate shardTemplate, JdbcTemplate jdbcTemplate) {
+        this.locationRepository = locationRepository;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads the whole table once the schema and seed data are in place.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        shardTemplate.inNewTransaction(DICTIONARY_SHARD, () -> {
+            locationRepository.findAll().forEach(this::intern);
+            return null;
+        });
+        log.info("Loaded {} locations into the dictionary", entriesById.size());
+    }
+
+    @Named("cityOf")
+    public String cityOf(Integer locationId) {
+        Entry entry = lookup(locationId);
+        return entry == null ? null : entry.city();
+    }
+
+    @Named("stateOf")
+    public String stateOf(Integer locationId) {
+        Entry entry = lookup(locationId);
+        return entry == null ? null : entry.state();
+    }
+
+    /**
+     * The cached entry, null if the id was neither loaded at startup nor {@link #preload preloaded}.
+     */
+    public Entry lookup(Integer locationId) {
+        if (locationId == null) {
+            return null;
+        }
+        Entry entry = entriesById.get(locationId);
+        if (entry == null) {
+            log.warn("Location id {} is not in the dictionary", locationId);
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the given ids that are not cached yet, with one query on the current shard's copy
+     * of the table, in the caller's transaction.
+     */
+    public void preload(Collection<Integer> locationIds) {
+        List<Integer> missing = locationIds.stream()
+                .filter(id -> id != null && !entriesById.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            locationRepository.findAllById(missing).forEach(this::intern);
+        }
+    }
+
+    /**
+     * Dictionary id of the pair, allocating a new one on first use; null without a city or state.
+     */
+    public Integer locationIdOf(String city, String state) {
+        if (city == null || state == null) {
+            return null;
+        }
+        return resolve(city, state).id();
+    }
+
+    /**
+     * Returns the dictionary entry for the pair, allocating a new id on first use.
+     */
+    public Entry resolve(String city, String state) {
+        Entry entry = entriesByName.get(key(city, state));
+        if (entry != null) {
+            return entry;
+        }
+
+        try {
+            entry = shardTemplate.inNewTransaction(DICTIONARY_SHARD, () -> intern(findOrCreate(city, state)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the same pair concurrently
+            entry = shardTemplate.inNewTransaction(DICTIONARY_SHARD, () ->
+                    intern(locationRepository.findByCityAndState(city, state).orElseThrow(() -> e)));
+        }
+        replicate(entry);
+        return entry;
+    }
+
+    private Location findOrCreate(String city, String state) {
+        return locationRepository.findByCityAndState(city, state)
+                .orElseGet(() -> locationRepository.saveAndFlush(new Location(city, state)));
+    }
+
+    private void replicate(Entry entry) {
+        for (Integer shard : shardRouter.allShards()) {
+            if (shard != DICTIONARY_SHARD) {
+                shardTemplate.inNewTransaction(shard, () ->
+                        jdbcTemplate.update(REPLICATE_SQL, entry.id(), entry.city(), entry.state(), entry.id()));
+            }
+        }
+    }
+
+    private Entry intern(Location location) {
+        Entry entry = new Entry(location.getId(), location.getCity(), location.getState());
+        Entry existing = entriesById.putIfAbsent(entry.id(), entry);
+        if (existing != null) {
+            return existing;
+        }
+        entriesByName.put(key(entry.city(), entry.state()), entry);
+        return entry;
+    }
+
+    private static String key(String city, String state) {
+        return city + '\u0000' + state;
+    }
+}
@@ -0,0 +1,36 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.PropertySearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+public interface PropertyArchiveService {
+
+    /**
+     * Moves listings that have been SOLD or RENTED for longer than the retention period
+     * from the hot {@code properties} table into the archive tier.
+     *
+     * @return the number of listings archived
+     */
+    int archiveEligibleProperties();
+
+    /**
+     * Looks up a listing in the archive tier.
+     *
+     * @param id the property ID
+     * @return the archived listing, if any
+     */
+    Optional<PropertyDTO> findArchivedProperty(Long id);
+
+    /**
+     * Searches the archive tier only.
+     *
+     * @param criteria the search criteria
+     * @param pageable pagination information
+     * @return a page of archived listings matching the criteria
+     */
+    Page<PropertyDTO> searchArchivedProperties(PropertySearchCriteria criteria, Pageable pageable);
+}
@@ -0,0 +1,182 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.mapper.ArchivedPropertyMapper;
+import com.realestate.property.model.ArchivedImage;
+import com.realestate.property.model.ArchivedProperty;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.repository.ArchivedPropertyRepository;
+import com.realestate.property.repository.FavoritePropertyRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.repository.PropertySpecifications;
+import com.realestate.property.sharding.ShardRouted;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertyArchiveServiceImpl implements PropertyArchiveService {
+
+    private static final List<PropertyStatus> ARCHIVABLE_STATUSES = List.of(PropertyStatus.SOLD, PropertyStatus.RENTED);
+
+    // Archived rows keep the hot row's id, which saveAll() would first look up with a SELECT per row
+    private static final String INSERT_ARCHIVED_SQL = "INSERT INTO archived_properties (id, title, description, "
+            + "type, status, price, bedrooms, bathrooms, area, address, location_id, zip_code, favorite_count, "
+            + "created_at, updated_at, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ARCHIVED_IMAGE_SQL = "INSERT INTO archived_property_images (property_id, "
+            + "image_id, name, type, url, storage_key, is_main, display_order, file_size, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PropertyRepository propertyRepository;
+    private final ArchivedPropertyRepository archivedPropertyRepository;
+    private final FavoritePropertyRepository favoriteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchivedPropertyMapper archivedPropertyMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final LocationDictionary locationDictionary;
+
+    @Value("${app.tiering.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${app.tiering.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.tiering.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Override
+    public int archiveEligibleProperties() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+
+        int total = 0;
+        for (int shard : shardRouter.allShards()) {
+            total += shardTemplate.runOnShard(shard, () -> archiveShard(cutoff));
+        }
+        return total;
+    }
+
+    private int archiveShard(LocalDateTime cutoff) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            // Each batch commits on its own so a long run never holds locks on the hot table for long
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved != null ? moved : 0;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Archived {} SOLD/RENTED properties last updated before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = propertyRepository.findIdsByStatusInAndUpdatedAtBefore(
+                ARCHIVABLE_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> favoriteCounts = new HashMap<>();
+        for (Object[] row : favoriteRepository.countByPropertyIds(ids)) {
+            favoriteCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<Property> properties = propertyRepository.findAllWithImagesByIdIn(ids);
+        LocalDateTime archivedAt = LocalDateTime.now();
+        List<ArchivedProperty> archived = properties.stream()
+                .map(property -> {
+                    ArchivedProperty copy = archivedPropertyMapper.toArchive(property);
+                    copy.setFavoriteCount(favoriteCounts.getOrDefault(property.getId(), 0L));
+                    copy.setArchivedAt(archivedAt);
+                    return copy;
+                })
+                .toList();
+        insertArchived(archived);
+
+        // Favorites reference the hot row; the archive keeps their count only
+        favoriteRepository.deleteByPropertyIds(ids);
+        propertyRepository.deleteAll(properties);
+
+        Cache cache = cacheManager.getCache("properties");
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+        return ids.size();
+    }
+
+    private void insertArchived(List<ArchivedProperty> archived) {
+        List<Object[]> rows = new ArrayList<>(archived.size());
+        List<Object[]> imageRows = new ArrayList<>();
+        for (ArchivedProperty property : archived) {
+            rows.add(new Object[]{property.getId(), property.getTitle(), property.getDescription(),
+                    property.getType() != null ? property.getType().getCode() : null,
+                    property.getStatus() != null ? property.getStatus().getCode() : null,
+                    property.getPrice(), property.getBedrooms(), property.getBathrooms(), property.getArea(),
+                    property.getAddress(), property.getLocationId(), property.getZipCode(),
+                    property.getFavoriteCount(), property.getCreatedAt(), property.getUpdatedAt(),
+                    property.getArchivedAt()});
+            for (ArchivedImage image : property.getImages()) {
+                imageRows.add(new Object[]{property.getId(), image.getId(), image.getName(), image.getType(),
+                        image.getUrl(), image.getStorageKey(), image.getIsMain(), image.getDisplayOrder(),
+                        image.getFileSize(), image.getCreatedAt()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVED_SQL, rows);
+        if (!imageRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ARCHIVED_IMAGE_SQL, imageRows);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardRouted(id = "#id")
+    public Optional<PropertyDTO> findArchivedProperty(Long id) {
+        return archivedPropertyRepository.findById(id)
+                .map(archived -> {
+                    locationDictionary.preload(Collections.singletonList(archived.getLocationId()));
+                    return archivedPropertyMapper.toDTO(archived);
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PropertyDTO> searchArchivedProperties(PropertySearchCriteria criteria, Pageable pageable) {
+        Page<ArchivedProperty> archived = archivedPropertyRepository.findAll(
+                PropertySpecifications.<ArchivedProperty>withCriteria(criteria),
+                PropertySpecifications.withLocationSort(pageable));
+        locationDictionary.preload(archived.map(ArchivedProperty::getLocationId).getContent());
+        return archived.map(archivedPropertyMapper::toDTO);
+    }
+}
@@ -0,0 +1,217 @@
+package com.realestate.property.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.realestate.property.dto.PropertyDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms the {@code properties} cache with the top results of a list or search page, since the
+ * next request is usually the detail page of one of them.
+ * <p>
+ * Prefetches run on a small pool of minimum-priority threads with a bounded queue and are
+ * limited to {@code app.prefetch.max-per-second}; anything over either limit is skipped rather
+ * than delayed, as a late prefetch is worthless. Listings already cached are skipped. A prefetch
+ * runs as the user whose page triggered it, so the entry carries that user's favorite flag just
+ * as if they had opened the listing themselves.
+ * <p>
+ * Each warmed listing is remembered for {@code app.prefetch.hit-window-seconds}, so a detail
+ * request within that window counts as a hit and one that never comes counts as wasted, per endpoint:
+ * {@code property.prefetch.hits / property.prefetch.requests{result=warmed}} is the hit ratio
+ * to tune that endpoint's {@code top-n} against.
+ */
+@Slf4j
+@Component
+public class PropertyDetailPrefetcher implements DisposableBean {
+
+    private static final String CACHE_NAME = "properties";
+
+    public enum Endpoint {
+        LIST, SEARCH
+    }
+
+    private final PropertyService propertyService;
+    private final CacheManager cacheManager;
+    private final ThreadPoolExecutor executor;
+    private final com.github.benmanes.caffeine.cache.Cache<Long, Endpoint> warmed;
+    private final Map<Endpoint, Integer> topN = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, EndpointMeters> meters = new EnumMap<>(Endpoint.class);
+    private final long nanosPerPermit;
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+
+    @Value("${app.prefetch.enabled:false}")
+    private boolean enabled;
+
+    public PropertyDetailPrefetcher(PropertyService propertyService,
+                                    CacheManager cacheManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.prefetch.threads:2}") int threads,
+                                    @Value("${app.prefetch.queue-capacity:100}") int queueCapacity,
+                                    @Value("${app.prefetch.max-per-second:50}") int maxPerSecond,
+                                    @Value("${app.prefetch.hit-window-seconds:300}") long hitWindowSeconds,
+                                    @Value("${app.prefetch.list.top-n:3}") int listTopN,
+                                    @Value("${app.prefetch.search.top-n:3}") int searchTopN) {
+        this.propertyService = propertyService;
+        this.cacheManager = cacheManager;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxPerSecond);
+        topN.put(Endpoint.LIST, listTopN);
+        topN.put(Endpoint.SEARCH, searchTopN);
+        for (Endpoint endpoint : Endpoint.values()) {
+            meters.put(endpoint, new EndpointMeters(meterRegistry, endpoint.name().toLowerCase(Locale.ROOT)));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "property-prefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Prefetching must never compete with requests for CPU
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.warmed = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(hitWindowSeconds))
+                .maximumSize(10_000)
+                // Hits remove their entry, so whatever expires or is evicted was never asked for
+                .<Long, Endpoint>evictionListener((id, endpoint, cause) -> {
+                    if (endpoint != null) {
+                        meters.get(endpoint).wasted.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Schedules the endpoint's top results to be loaded into the detail cache. Returns at once.
+     */
+    public void prefetch(Endpoint endpoint, List<PropertyDTO> results) {
+        int limit = topN.get(endpoint);
+        if (!enabled || limit <= 0) {
+            return;
+        }
+        EndpointMeters endpointMeters = meters.get(endpoint);
+        for (PropertyDTO result : results.subList(0, Math.min(limit, results.size()))) {
+            Long id = result.getId();
+            if (id == null || isCached(id)) {
+                endpointMeters.alreadyCached.increment();
+                continue;
+            }
+            if (!tryAcquirePermit()) {
+                endpointMeters.rateLimited.increment();
+                continue;
+            }
+            try {
+                executor.execute(new DelegatingSecurityContextRunnable(() -> warm(endpoint, id)));
+            } catch (RejectedExecutionException e) {
+                endpointMeters.dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Called for every detail request, so prefetched listings that were asked for count as hits.
+     */
+    public void recordDetailRequest(Long id) {
+        if (!enabled) {
+            return;
+        }
+        Endpoint endpoint = warmed.asMap().remove(id);
+        if (endpoint != null) {
+            meters.get(endpoint).hits.increment();
+        }
+    }
+
+    private void warm(Endpoint endpoint, Long id) {
+        // Queued behind another prefetch or a request for the same listing
+        if (isCached(id)) {
+            meters.get(endpoint).alreadyCached.increment();
+            return;
+        }
+        try {
+            // Through the proxy, so the result is cached exactly like a request's
+            propertyService.getProperty(id);
+            warmed.put(id, endpoint);
+            meters.get(endpoint).warmed.increment();
+        } catch (RuntimeException e) {
+            log.debug("Prefetch of property {} failed: {}", id, e.getMessage());
+        }
+    }
+
+    private boolean isCached(Long id) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return false;
+        }
+        if (cache instanceof CaffeineCache caffeineCache) {
+            // Peek without touching recency or the hit statistics
+            return caffeineCache.getNativeCache().asMap().containsKey(id);
+        }
+        return cache.get(id) != null;
+    }
+
+    // Non-blocking: permits are spaced nanosPerPermit apart with up to a second of burst
+    private boolean tryAcquirePermit() {
+        long now = System.nanoTime();
+        while (true) {
+            long next = nextPermitNanos.get();
+            long start = Math.max(next, now - TimeUnit.SECONDS.toNanos(1));
+            if (start > now) {
+                return false;
+            }
+            if (nextPermitNanos.compareAndSet(next, start + nanosPerPermit)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class EndpointMeters {
+        private final Counter warmed;
+        private final Counter alreadyCached;
+        private final Counter rateLimited;
+        private final Counter dropped;
+        private final Counter hits;
+        private final Counter wasted;
+
+        private EndpointMeters(MeterRegistry meterRegistry, String endpoint) {
+            this.warmed = request(meterRegistry, endpoint, "warmed");
+            this.alreadyCached = request(meterRegistry, endpoint, "cached");
+            this.rateLimited = request(meterRegistry, endpoint, "rate_limited");
+            this.dropped = request(meterRegistry, endpoint, "dropped");
+            this.hits = Counter.builder("property.prefetch.hits").tag("endpoint", endpoint).register(meterRegistry);
+            this.wasted = Counter.builder("property.prefetch.wasted").tag("endpoint", endpoint).register(meterRegistry);
+        }
+
+        private static Counter request(MeterRegistry meterRegistry, String endpoint, String result) {
+            return Counter.builder("property.prefetch.requests")
+                    .tag("endpoint", endpoint)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.realestate.property.service;
+
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Collects price and status transitions after their transaction commits and appends them to
+ * {@code property_history} in JDBC batches on a background thread, so the update path only pays
+ * for a non-blocking queue offer.
+ * <p>
+ * A batch that fails to write is kept and retried first on every following flush, which leaves
+ * the queue alone until it goes through. After {@code app.history.max-attempts} it is given up
+ * on and logged entry by entry at error level, so the rows can be replayed by hand.
+ */
+@Slf4j
+@Component
+public class PropertyHistoryRecorder implements DisposableBean {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO property_history (property_id, ts, price, status, event_type) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final BlockingQueue<PropertyChangedEvent> queue;
+    // Changed by the writer thread only (and at shutdown)
+    private final Deque<FailedBatch> failed = new ConcurrentLinkedDeque<>();
+    private final ExecutorService writer;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private record FailedBatch(int shard, List<PropertyChangedEvent> events, int attempts) {
+    }
+
+    public PropertyHistoryRecorder(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ShardRouter shardRouter,
+                                   ShardTemplate shardTemplate,
+                                   @Value("${app.history.batch-size:500}") int batchSize,
+                                   @Value("${app.history.queue-capacity:50000}") int queueCapacity,
+                                   @Value("${app.history.max-attempts:10}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "property-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        boolean created = "CREATED".equals(event.action());
+        if (!created && !event.priceChanged() && !event.statusChanged()) {
+            return;
+        }
+
+        if (!queue.offer(event)) {
+            // Never block the request thread; the writer is far behind or the database is down
+            long total = dropped.incrementAndGet();
+            log.warn("Property history queue full, dropped change for property {} ({} dropped so far)",
+                    event.propertyId(), total);
+            return;
+        }
+
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flushFromWriter);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.history.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if ((!queue.isEmpty() || !failed.isEmpty()) && flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flushFromWriter);
+        }
+    }
+
+    private void flushFromWriter() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to write property history batch", e);
+        } finally {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Retries failed batches, then drains the queue into batched inserts. Only ever called from
+     * the single writer thread (or at shutdown), so batches are written in order.
+     */
+    void flush() {
+        if (!retryFailed()) {
+            return;
+        }
+
+        List<PropertyChangedEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            Map<Integer, List<PropertyChangedEvent>> byShard = batch.stream()
+                    .collect(Collectors.groupingBy(event -> shardRouter.shardForId(event.propertyId())));
+            for (Map.Entry<Integer, List<PropertyChangedEvent>> entry : byShard.entrySet()) {
+                if (!write(entry.getKey(), entry.getValue())) {
+                    failed.addLast(new FailedBatch(entry.getKey(), new ArrayList<>(entry.getValue()), 1));
+                }
+            }
+            batch.clear();
+            if (!failed.isEmpty()) {
+                // The database is likely down; the rest waits in the queue
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes every failed batch again, giving up on those out of attempts.
+     *
+     * @return whether none is left to retry
+     */
+    private boolean retryFailed() {
+        for (int i = failed.size(); i > 0; i--) {
+            FailedBatch batch = failed.pollFirst();
+            if (write(batch.shard(), batch.events())) {
+                log.info("Wrote {} property history entries after {} failed attempt(s)",
+                        batch.events().size(), batch.attempts());
+            } else if (batch.attempts() + 1 >= maxAttempts) {
+                deadLetter(batch);
+            } else {
+                failed.addLast(new FailedBatch(batch.shard(), batch.events(), batch.attempts() + 1));
+            }
+        }
+        return failed.isEmpty();
+    }
+
+    private boolean write(int shard, List<PropertyChangedEvent> events) {
+        try {
+            shardTemplate.runOnShard(shard, () -> transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+                        ps.setLong(1, event.propertyId());
+                        ps.setTimestamp(2, Timestamp.valueOf(event.timestamp()));
+                        ps.setBigDecimal(3, event.newPrice());
+                        if (event.newStatus() != null) {
+                            ps.setShort(4, event.newStatus().getCode());
+                        } else {
+                            ps.setNull(4, Types.SMALLINT);
+                        }
+                        ps.setString(5, event.action());
+                    })));
+            log.debug("Wrote {} property history entries on shard {}", events.size(), shard);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} property history entries on shard {}: {}", events.size(), shard, e.getMessage());
+            return false;
+        }
+    }
+
+    private void deadLetter(FailedBatch batch) {
+        long total = deadLettered.addAndGet(batch.events().size());
+        log.error("Giving up on {} property history entries for shard {} after {} attempts ({} so far)",
+                batch.events().size(), batch.shard(), maxAttempts, total);
+        for (PropertyChangedEvent event : batch.events()) {
+            log.error("Unwritten property history: property={} ts={} price={} status={} event={}",
+                    event.propertyId(), event.timestamp(), event.newPrice(), event.newStatus(), event.action());
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Entries given up on after {@code app.history.max-attempts} failed writes
+     */
+    public long getDeadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to write remaining property history on shutdown", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyHistoryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface PropertyHistoryService {
+
+    /**
+     * Retrieves the price and status history of a listing, newest first.
+     *
+     * @param propertyId the property ID
+     * @param pageable pagination information
+     * @return a page of history entries
+     */
+    Page<PropertyHistoryDTO> getPropertyHistory(Long propertyId, Pageable pageable);
+
+    /**
+     * Streams every history entry recorded in {@code [from, to)} ordered by property and time,
+     * optionally restricted to a property id range. Rows are handed to the consumer as they are
+     * read, so the result set is never held in memory.
+     *
+     * @param from inclusive lower bound of the entry timestamp
+     * @param to exclusive upper bound of the entry timestamp
+     * @param fromPropertyId inclusive lower bound of the property id, or null
+     * @param toPropertyId inclusive upper bound of the property id, or null
+     * @param consumer receives each entry
+     */
+    void streamHistory(LocalDateTime from, LocalDateTime to, Long fromPropertyId, Long toPropertyId,
+                       Consumer<PropertyHistoryDTO> consumer);
+}
@@ -0,0 +1,81 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyHistoryDTO;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.repository.PropertyHistoryRepository;
+import com.realestate.property.sharding.ShardRouted;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertyHistoryServiceImpl implements PropertyHistoryService {
+
+    // Served by idx_property_history_property_ts, so the database streams rows in index order
+    private static final String RANGE_SQL =
+            "SELECT property_id, ts, price, status, event_type FROM property_history " +
+            "WHERE property_id BETWEEN ? AND ? AND ts >= ? AND ts < ? ORDER BY property_id, ts";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final PropertyHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardRouted(id = "#propertyId")
+    public Page<PropertyHistoryDTO> getPropertyHistory(Long propertyId, Pageable pageable) {
+        log.info("Fetching history for property id: {}", propertyId);
+        return historyRepository.findByPropertyIdOrderByTsDescIdDesc(propertyId, pageable)
+                .map(entry -> new PropertyHistoryDTO(entry.getPropertyId(), entry.getTs(), entry.getPrice(),
+                        entry.getStatus(), entry.getEventType()));
+    }
+
+    @Override
+    public void streamHistory(LocalDateTime from, LocalDateTime to, Long fromPropertyId, Long toPropertyId,
+                              Consumer<PropertyHistoryDTO> consumer) {
+        log.info("Streaming property history from {} to {}", from, to);
+
+        // A cursor-based fetch needs an open read-only transaction (autocommit off on PostgreSQL)
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Each listing lives on exactly one shard, so per-listing ordering holds across shards
+        for (int shard : shardRouter.allShards()) {
+            shardTemplate.runOnShard(shard, () -> readOnly.execute(status -> {
+                streamingTemplate.query(RANGE_SQL, rs -> {
+                            consumer.accept(new PropertyHistoryDTO(
+                                    rs.getLong(1),
+                                    rs.getTimestamp(2).toLocalDateTime(),
+                                    rs.getBigDecimal(3),
+                                    rs.getObject(4) != null ? PropertyStatus.fromCode(rs.getShort(4)) : null,
+                                    rs.getString(5)));
+                        },
+                        fromPropertyId != null ? fromPropertyId : 0L,
+                        toPropertyId != null ? toPropertyId : Long.MAX_VALUE,
+                        Timestamp.valueOf(from),
+                        Timestamp.valueOf(to));
+                return null;
+            }));
+        }
+    }
+}
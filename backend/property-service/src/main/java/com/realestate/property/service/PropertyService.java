@@ -60,6 +60,17 @@ public interface PropertyService {
      */
     Page<PropertyDTO> getAllProperties(@NotNull Pageable pageable);
 
+    /**
+     * Retrieves the next listings of the whole catalogue in id order, for services that walk all
+     * of it. Each page costs the same however far into the catalogue it is.
+     *
+     * @param afterId the last id of the previous page, 0 for the first page
+     * @param limit maximum number of listings to return
+     * @return up to {@code limit} listings with an id above {@code afterId}; fewer means the end
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    List<PropertyDTO> getCataloguePage(long afterId, int limit);
+
     /**
      * Deletes a property by its ID.
      *
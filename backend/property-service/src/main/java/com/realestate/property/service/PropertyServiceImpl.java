@@ -2,11 +2,20 @@ package com.realestate.property.service;
 
 import com.realestate.property.dto.PropertyDTO;
 import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.event.ImagesReleasedEvent;
+import com.realestate.property.event.PropertyChangedEvent;
 import com.realestate.property.exception.PropertyNotFoundException;
 import com.realestate.property.mapper.PropertyMapper;
 import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.repository.FavoritePropertyRepository;
 import com.realestate.property.repository.PropertyRepository;
 import com.realestate.property.repository.PropertySpecifications;
+import com.realestate.property.sharding.ShardRouted;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.util.ImageServiceUtils;
+import com.realestate.property.util.PageMergeUtils;
 import com.realestate.property.validator.PropertyValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,24 +34,36 @@ import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PropertyServiceImpl implements PropertyService {
+    private static final int MAX_CATALOGUE_PAGE_SIZE = 1000;
+
     private final PropertyRepository propertyRepository;
     private final PropertyMapper propertyMapper;
     private final PropertyValidator propertyValidator;
     private final ApplicationEventPublisher eventPublisher;
     private final FavoritePropertyServiceImpl favoriteService;
+    private final FavoritePropertyRepository favoriteRepository;
+    private final PropertyArchiveService propertyArchiveService;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final LocationDictionary locationDictionary;
 
     @Override
     @Transactional
     @CacheEvict(value = "properties", allEntries = true)
+    @ShardRouted(state = "#propertyDTO.state")
     public PropertyDTO createProperty(PropertyDTO propertyDTO) {
         log.info("Creating new property: {}", propertyDTO.getTitle());
 
@@ -55,14 +76,20 @@ public class PropertyServiceImpl implements PropertyService {
 
         // Convert DTO to entity and save
         Property property = propertyMapper.toEntity(propertyDTO);
+        property.setLocationId(locationDictionary.locationIdOf(propertyDTO.getCity(), propertyDTO.getState()));
         Property savedProperty = propertyRepository.save(property);
 
+        eventPublisher.publishEvent(new PropertyChangedEvent(savedProperty.getId(), "CREATED",
+                null, savedProperty.getPrice(), null, savedProperty.getStatus(), savedProperty.getCreatedAt(),
+                savedProperty.getType(), savedProperty.getLocationId()));
+
         return propertyMapper.toDTO(savedProperty);
     }
 
     @Override
     @Transactional
     @CacheEvict(value = "properties", allEntries = true)
+    @ShardRouted(id = "#id")
     public PropertyDTO updateProperty(Long id, PropertyDTO propertyDTO) {
         log.info("Updating property with id: {}", id);
 
@@ -76,18 +103,32 @@ public class PropertyServiceImpl implements PropertyService {
         Property property = propertyRepository.findById(id)
                 .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + id));
 
+        // Listings are placed by state, so a state change must not move the listing to another shard
+        locationDictionary.preload(Collections.singletonList(property.getLocationId()));
+        String currentState = locationDictionary.stateOf(property.getLocationId());
+        if (shardRouter.shardForState(currentState) != shardRouter.shardForState(propertyDTO.getState())) {
+            throw new IllegalArgumentException("Moving a property to a state served by another shard is not supported");
+        }
+
         // Store old values for comparison if needed
-        String oldStatus = property.getStatus();
+        PropertyStatus oldStatus = property.getStatus();
+        BigDecimal oldPrice = property.getPrice();
 
         // Update properties
         propertyMapper.updatePropertyFromDTO(propertyDTO, property);
+        if (propertyDTO.getCity() != null && propertyDTO.getState() != null) {
+            property.setLocationId(locationDictionary.locationIdOf(propertyDTO.getCity(), propertyDTO.getState()));
+        }
         Property updatedProperty = propertyRepository.save(property);
 
         // Publish update event with specific details if needed
         String eventAction = "UPDATED";
-        if (!oldStatus.equals(property.getStatus())) {
+        if (oldStatus != property.getStatus()) {
             eventAction = "STATUS_CHANGED_" + property.getStatus();
         }
+        eventPublisher.publishEvent(new PropertyChangedEvent(id, eventAction,
+                oldPrice, updatedProperty.getPrice(), oldStatus, updatedProperty.getStatus(), LocalDateTime.now(),
+                updatedProperty.getType(), updatedProperty.getLocationId()));
 
         return propertyMapper.toDTO(updatedProperty);
     }
@@ -95,33 +136,28 @@ public class PropertyServiceImpl implements PropertyService {
     @Override
     @Transactional(readOnly = true)
     @Cacheable(value = "properties", key = "#id")
+    @ShardRouted(id = "#id")
     public PropertyDTO getProperty(Long id) {
         log.info("Fetching property with id: {}", id);
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + id));
+        Property property = propertyRepository.findById(id).orElse(null);
+        if (property == null) {
+            // Fall back to the archive tier for long-sold/rented listings
+            return propertyArchiveService.findArchivedProperty(id)
+                    .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + id));
+        }
 
+        locationDictionary.preload(Collections.singletonList(property.getLocationId()));
         PropertyDTO dto = propertyMapper.toDTO(property);
 
-        // Get the current authenticated user if available
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() &&
-                    !"anonymousUser".equals(authentication.getPrincipal())) {
-                String userEmail = authentication.getName();
-
-                // Set favorite status
-                dto.setFavorite(favoriteService.isFavorite(id, userEmail));
-            }
-
-            // Set favorite count regardless of authentication
-            dto.setFavoriteCount(favoriteService.getFavoriteCount(id));
-        } catch (Exception e) {
-            log.warn("Error getting favorite info for property id: {}", id, e);
-            // Don't fail the whole request if favorite info can't be retrieved
-            dto.setFavorite(false);
-            dto.setFavoriteCount(0);
+        // Set favorite status for the current authenticated user, if any
+        String userEmail = currentUserEmail();
+        if (userEmail != null) {
+            dto.setFavorite(favoriteService.isFavorite(id, userEmail));
         }
 
+        // Set favorite count regardless of authentication
+        dto.setFavoriteCount(favoriteService.getFavoriteCount(id));
+
         return dto;
     }
 
@@ -131,46 +167,63 @@ public class PropertyServiceImpl implements PropertyService {
         log.info("Fetching all properties with pagination: page={}, size={}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<Property> propertyPage = propertyRepository.findAll(pageable);
-
-        // Convert to DTOs
-        Page<PropertyDTO> dtoPage = propertyPage.map(propertyMapper::toDTO);
-
-        // Enrich with favorite info if authenticated
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() &&
-                    !"anonymousUser".equals(authentication.getPrincipal())) {
-                String userEmail = authentication.getName();
-                Set<Long> favoriteIds = favoriteService.getFavoritedPropertyIds(userEmail);
-
-                // Update favorite status
-                dtoPage.getContent().forEach(dto -> {
-                    dto.setFavorite(favoriteIds.contains(dto.getId()));
-                    dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId()));
-                });
-            } else {
-                // Just set favorite counts
-                dtoPage.getContent().forEach(dto ->
-                        dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId())));
-            }
-        } catch (Exception e) {
-            log.warn("Error getting favorite info for properties", e);
-        }
+        // Convert to DTOs (each shard maps its own rows while its session is open)
+        Page<PropertyDTO> dtoPage = queryShards(shardRouter.allShards(),
+                page -> toDTOs(propertyRepository.findAll(PropertySpecifications.withLocationSort(page))), pageable);
+
+        // Enrich with favorite info
+        setFavoriteInfo(dtoPage.getContent());
 
         return dtoPage;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<PropertyDTO> getCataloguePage(long afterId, int limit) {
+        if (limit < 1 || limit > MAX_CATALOGUE_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CATALOGUE_PAGE_SIZE);
+        }
+
+        // Every shard returns its next rows from the id index; the lowest ids of all are the page
+        List<List<PropertyDTO>> parts = shardTemplate.scatter(shardRouter.allShards(), shard -> {
+            List<Property> properties = propertyRepository.findPageAfter(afterId, PageRequest.ofSize(limit));
+            locationDictionary.preload(properties.stream().map(Property::getLocationId).toList());
+            return properties.stream().map(propertyMapper::toDTO).toList();
+        });
+        List<PropertyDTO> page = parts.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(PropertyDTO::getId))
+                .limit(limit)
+                .toList();
+
+        setFavoriteInfo(page);
+        return page;
+    }
+
     @Override
     @Transactional
     @CacheEvict(value = "properties", key = "#id")
+    @ShardRouted(id = "#id")
     public void deleteProperty(Long id) {
         log.info("Deleting property with id: {}", id);
         Property property = propertyRepository.findById(id)
                 .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + id));
 
-        // Delete the property
+        // Image rows go with the property; their objects are released once this commits
+        List<ImagesReleasedEvent.ReleasedImage> images = property.getImages().stream()
+                .map(ImageServiceUtils::releasedImageOf)
+                .toList();
+
+        // Delete the property and its favorites, which would otherwise block it
+        favoriteRepository.deleteByPropertyIds(List.of(id));
         propertyRepository.delete(property);
+        if (!images.isEmpty()) {
+            eventPublisher.publishEvent(new ImagesReleasedEvent(images));
+        }
+
+        eventPublisher.publishEvent(new PropertyChangedEvent(id, "DELETED",
+                property.getPrice(), null, property.getStatus(), null, LocalDateTime.now(),
+                property.getType(), property.getLocationId()));
     }
 
     @Override
@@ -182,34 +235,45 @@ public class PropertyServiceImpl implements PropertyService {
         validateSearchCriteria(criteria);
 
         Specification<Property> spec = PropertySpecifications.withCriteria(criteria);
-        Page<PropertyDTO> dtoPage = propertyRepository.findAll(spec, pageable)
-                .map(propertyMapper::toDTO);
-
-        // Enrich with favorite info if authenticated
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() &&
-                    !"anonymousUser".equals(authentication.getPrincipal())) {
-                String userEmail = authentication.getName();
-                Set<Long> favoriteIds = favoriteService.getFavoritedPropertyIds(userEmail);
-
-                // Update favorite status
-                dtoPage.getContent().forEach(dto -> {
-                    dto.setFavorite(favoriteIds.contains(dto.getId()));
-                    dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId()));
-                });
-            } else {
-                // Just set favorite counts
-                dtoPage.getContent().forEach(dto ->
-                        dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId())));
-            }
-        } catch (Exception e) {
-            log.warn("Error getting favorite info for properties", e);
-        }
+        // Only the shards that can hold the requested state are queried
+        Page<PropertyDTO> dtoPage = queryShards(shardRouter.shardsForStateCriterion(criteria.getState()),
+                page -> Boolean.TRUE.equals(criteria.getIncludeArchived())
+                        ? searchAcrossTiers(spec, criteria, page)
+                        : toDTOs(propertyRepository.findAll(spec, PropertySpecifications.withLocationSort(page))),
+                pageable);
+
+        // Enrich with favorite info (archived listings carry their own snapshot count)
+        setFavoriteInfo(dtoPage.getContent().stream().filter(dto -> !dto.isArchived()).toList());
 
         return dtoPage;
     }
 
+    /**
+     * Runs a paged query on every given shard in parallel and merges the sorted results.
+     */
+    private Page<PropertyDTO> queryShards(List<Integer> shards, Function<Pageable, Page<PropertyDTO>> query,
+                                          Pageable pageable) {
+        if (shards.size() == 1) {
+            return shardTemplate.scatter(shards, shard -> query.apply(pageable)).get(0);
+        }
+
+        Pageable window = PageMergeUtils.windowFor(pageable);
+        List<Page<PropertyDTO>> pages = shardTemplate.scatter(shards, shard -> query.apply(window));
+        return PageMergeUtils.merge(pages.stream().map(Page::getContent).toList(),
+                pages.stream().mapToLong(Page::getTotalElements).sum(), pageable, PropertyDTO.class);
+    }
+
+    private Page<PropertyDTO> searchAcrossTiers(Specification<Property> spec, PropertySearchCriteria criteria,
+                                                Pageable pageable) {
+        Pageable window = PageMergeUtils.windowFor(pageable);
+        Page<PropertyDTO> hot = toDTOs(
+                propertyRepository.findAll(spec, PropertySpecifications.withLocationSort(window)));
+        Page<PropertyDTO> cold = propertyArchiveService.searchArchivedProperties(criteria, window);
+
+        return PageMergeUtils.merge(List.of(hot.getContent(), cold.getContent()),
+                hot.getTotalElements() + cold.getTotalElements(), pageable, PropertyDTO.class);
+    }
+
     private void validateSearchCriteria(PropertySearchCriteria criteria) {
         // Add validation logic for search criteria
         if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
@@ -235,6 +299,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional(readOnly = true)
+    @ShardRouted(id = "#id")
     public List<PropertyDTO> getSimilarProperties(Long id, int limit) {
         log.info("Finding similar properties for property with id: {}", id);
 
@@ -255,8 +320,12 @@ public class PropertyServiceImpl implements PropertyService {
         criteria.setMaxPrice(priceMax);
 
         // Same location (city and state)
-        criteria.setCity(sourceProperty.getCity());
-        criteria.setState(sourceProperty.getState());
+        locationDictionary.preload(Collections.singletonList(sourceProperty.getLocationId()));
+        LocationDictionary.Entry location = locationDictionary.lookup(sourceProperty.getLocationId());
+        if (location != null) {
+            criteria.setCity(location.city());
+            criteria.setState(location.state());
+        }
 
         // Similar bedrooms (±1)
         criteria.setMinBedrooms(Math.max(1, sourceProperty.getBedrooms() - 1));
@@ -292,7 +361,9 @@ public class PropertyServiceImpl implements PropertyService {
             criteria.setMaxPrice(priceMax);
 
             // Same state only
-            criteria.setState(sourceProperty.getState());
+            if (location != null) {
+                criteria.setState(location.state());
+            }
 
             // Apply relaxed criteria
             spec = PropertySpecifications.withCriteria(criteria);
@@ -323,32 +394,49 @@ public class PropertyServiceImpl implements PropertyService {
         }
 
         // Convert to DTOs and enrich with favorite info
+        locationDictionary.preload(similarProperties.stream().map(Property::getLocationId).toList());
         List<PropertyDTO> dtoList = similarProperties.stream()
                 .map(propertyMapper::toDTO)
                 .collect(Collectors.toList());
+        setFavoriteInfo(dtoList);
 
-        // Enrich with favorite info if authenticated
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() &&
-                    !"anonymousUser".equals(authentication.getPrincipal())) {
-                String userEmail = authentication.getName();
-                Set<Long> favoriteIds = favoriteService.getFavoritedPropertyIds(userEmail);
-
-                // Update favorite status
-                dtoList.forEach(dto -> {
-                    dto.setFavorite(favoriteIds.contains(dto.getId()));
-                    dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId()));
-                });
-            } else {
-                // Just set favorite counts
-                dtoList.forEach(dto ->
-                        dto.setFavoriteCount(favoriteService.getFavoriteCount(dto.getId())));
-            }
-        } catch (Exception e) {
-            log.warn("Error getting favorite info for similar properties", e);
+        return dtoList;
+    }
+
+    /**
+     * Maps a page of listings, caching the locations they refer to that are not cached yet first.
+     */
+    private Page<PropertyDTO> toDTOs(Page<Property> properties) {
+        locationDictionary.preload(properties.map(Property::getLocationId).getContent());
+        return properties.map(propertyMapper::toDTO);
+    }
+
+    /**
+     * Sets the favorite count of every listing, and whether the current user favorited it, with
+     * one query per shard rather than one per listing.
+     */
+    private void setFavoriteInfo(List<PropertyDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return;
         }
+        Map<Long, Long> counts = favoriteService.getFavoriteCounts(dtos.stream().map(PropertyDTO::getId).toList());
+        String userEmail = currentUserEmail();
+        Set<Long> favoriteIds = userEmail != null ? favoriteService.getFavoritedPropertyIds(userEmail) : Set.of();
+        dtos.forEach(dto -> {
+            dto.setFavorite(favoriteIds.contains(dto.getId()));
+            dto.setFavoriteCount(counts.getOrDefault(dto.getId(), 0L));
+        });
+    }
 
-        return dtoList;
+    /**
+     * Email of the current authenticated user, null for anonymous requests
+     */
+    private static String currentUserEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() &&
+                !"anonymousUser".equals(authentication.getPrincipal())) {
+            return authentication.getName();
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
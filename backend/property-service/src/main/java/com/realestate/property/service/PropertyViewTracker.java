@@ -0,0 +1,249 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.TrendingPropertyDTO;
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.util.DecayedHeavyHitters;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts listing views and keeps the trending listings per city and type.
+ * <p>
+ * A view only increments a {@link LongAdder}, whose cells are striped across threads, so popular
+ * listings never contend on a lock or a row. The periodic flush drains the adders, adds the
+ * deltas to {@code properties.view_count} in one JDBC batch per shard, and feeds them into
+ * decayed heavy-hitters sketches for each city and type, each city, each type and overall. The
+ * trending lists are rebuilt from the sketches on every flush and served from memory.
+ * <p>
+ * Counts are per instance; behind a load balancer each instance sees a fair sample of traffic,
+ * so its trending lists match the global ones closely.
+ */
+@Slf4j
+@Component
+public class PropertyViewTracker {
+
+    private static final String INCREMENT_SQL = "UPDATE properties SET view_count = view_count + ? WHERE id = ?";
+
+    // Decayed views below which a listing is no longer worth tracking
+    private static final double MIN_SCORE = 0.01;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final ConcurrentHashMap<Long, PendingViews> pending = new ConcurrentHashMap<>();
+    private final Queue<Long> deleted = new ConcurrentLinkedQueue<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Only touched by the flush, which is synchronized
+    private final Map<Segment, DecayedHeavyHitters<Listing>> sketches = new HashMap<>();
+    // Deltas of shards whose write failed; already in the sketches, so only written again
+    private final Map<Listing, Long> unwritten = new HashMap<>();
+    private volatile Map<Segment, List<TrendingPropertyDTO>> trending = Map.of();
+
+    @Value("${app.views.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.views.max-tracked:100000}")
+    private int maxTracked;
+
+    @Value("${app.views.trending.capacity:64}")
+    private int sketchCapacity;
+
+    @Value("${app.views.trending.size:20}")
+    private int trendingSize;
+
+    @Value("${app.views.trending.half-life-minutes:60}")
+    private long halfLifeMinutes;
+
+    public PropertyViewTracker(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ShardRouter shardRouter,
+                               ShardTemplate shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+    }
+
+    public void recordView(PropertyDTO property) {
+        if (!enabled || property.getId() == null || property.isArchived()) {
+            return;
+        }
+        PendingViews views = pending.get(property.getId());
+        if (views == null) {
+            if (pending.size() >= maxTracked) {
+                // Only reachable if flushes stop; keeps memory bounded meanwhile
+                dropped.incrementAndGet();
+                return;
+            }
+            views = pending.computeIfAbsent(property.getId(),
+                    id -> new PendingViews(new Listing(id, property.getCity(), property.getType())));
+        }
+        views.count.increment();
+    }
+
+    /**
+     * Trending listings, most viewed first. A null city or type matches all.
+     */
+    public List<TrendingPropertyDTO> getTrending(String city, PropertyType type, int limit) {
+        List<TrendingPropertyDTO> listings = trending.getOrDefault(Segment.of(city, type), List.of());
+        return listings.size() > limit ? listings.subList(0, limit) : listings;
+    }
+
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if ("DELETED".equals(event.action())) {
+            deleted.add(event.propertyId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        Map<Listing, Long> deltas = new HashMap<>();
+        Iterator<Map.Entry<Long, PendingViews>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            PendingViews views = entries.next().getValue();
+            // Per-cell getAndSet, so increments racing the drain land in this flush or the next
+            long delta = views.count.sumThenReset();
+            if (delta > 0) {
+                deltas.put(views.listing, delta);
+                views.idle = false;
+            } else if (views.idle) {
+                // Idle for two flushes; a view racing this removal is lost, which a counter of
+                // views can afford
+                entries.remove();
+            } else {
+                views.idle = true;
+            }
+        }
+
+        deltas.forEach((listing, delta) -> {
+            for (Segment segment : Segment.of(listing)) {
+                sketches.computeIfAbsent(segment, s -> new DecayedHeavyHitters<>(sketchCapacity,
+                                Duration.ofMinutes(halfLifeMinutes).toMillis(), now))
+                        .add(listing, delta, now);
+            }
+        });
+        Long id;
+        while ((id = deleted.poll()) != null) {
+            Long deletedId = id;
+            sketches.values().forEach(sketch -> sketch.removeIf(listing -> listing.id().equals(deletedId)));
+        }
+        rebuildTrending(now);
+
+        unwritten.forEach((listing, delta) -> deltas.merge(listing, delta, Long::sum));
+        unwritten.clear();
+        if (!deltas.isEmpty()) {
+            writeViewCounts(deltas);
+        }
+    }
+
+    private void rebuildTrending(long now) {
+        Map<Segment, List<TrendingPropertyDTO>> rebuilt = new HashMap<>(sketches.size() * 2);
+        Iterator<Map.Entry<Segment, DecayedHeavyHitters<Listing>>> iterator = sketches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Segment, DecayedHeavyHitters<Listing>> entry = iterator.next();
+            DecayedHeavyHitters<Listing> sketch = entry.getValue();
+            sketch.prune(MIN_SCORE, now);
+            if (sketch.isEmpty()) {
+                iterator.remove();
+                continue;
+            }
+            rebuilt.put(entry.getKey(), sketch.top(trendingSize, now).stream()
+                    .map(scored -> new TrendingPropertyDTO(scored.key().id(), scored.key().city(),
+                            scored.key().type(), scored.score()))
+                    .toList());
+        }
+        trending = rebuilt;
+    }
+
+    private void writeViewCounts(Map<Listing, Long> deltas) {
+        Map<Integer, List<Map.Entry<Listing, Long>>> byShard = deltas.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> shardRouter.shardForId(entry.getKey().id())));
+        byShard.forEach((shard, rows) -> {
+            // Same order on every instance, so concurrent flushes cannot deadlock
+            rows.sort(Comparator.comparing(entry -> entry.getKey().id()));
+            try {
+                shardTemplate.runOnShard(shard, () -> transactionTemplate.execute(status ->
+                        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+                            ps.setLong(1, row.getValue());
+                            ps.setLong(2, row.getKey().id());
+                        })));
+            } catch (RuntimeException e) {
+                // Written again on the next flush
+                log.warn("Failed to write {} view counts on shard {}: {}", rows.size(), shard, e.getMessage());
+                rows.forEach(row -> unwritten.merge(row.getKey(), row.getValue(), Long::sum));
+            }
+        });
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private record Listing(Long id, String city, PropertyType type) {
+    }
+
+    /**
+     * A trending list: null city or type stands for all.
+     */
+    private record Segment(String city, PropertyType type) {
+
+        static Segment of(String city, PropertyType type) {
+            return new Segment(city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT), type);
+        }
+
+        static List<Segment> of(Listing listing) {
+            List<Segment> segments = new ArrayList<>(4);
+            segments.add(new Segment(null, null));
+            if (listing.type() != null) {
+                segments.add(new Segment(null, listing.type()));
+            }
+            Segment city = of(listing.city(), null);
+            if (city.city() != null) {
+                segments.add(city);
+                if (listing.type() != null) {
+                    segments.add(new Segment(city.city(), listing.type()));
+                }
+            }
+            return segments;
+        }
+    }
+
+    private static final class PendingViews {
+        private final Listing listing;
+        private final LongAdder count = new LongAdder();
+        private boolean idle;
+
+        private PendingViews(Listing listing) {
+            this.listing = listing;
+        }
+    }
+}
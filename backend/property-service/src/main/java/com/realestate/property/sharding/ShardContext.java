@@ -0,0 +1,25 @@
+package com.realestate.property.sharding;
+
+/**
+ * Holds the shard the current thread is talking to. Read by {@link ShardRoutingDataSource}
+ * when a physical connection is first needed.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.realestate.property.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Moves the identity sequences of sharded tables into the shard's id range so that
+ * {@link ShardRouter#shardForId(Long)} can locate any row from its id.
+ */
+@Slf4j
+public class ShardIdRangeAligner {
+
+    public static final List<String> SHARDED_ID_TABLES = List.of("properties", "property_images");
+
+    public void align(DataSource shardDataSource, int shard, List<String> tables) {
+        if (shard == 0) {
+            // Shard 0 owns the range starting at 1, which is where identity columns start anyway
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardDataSource);
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT));
+
+        long rangeStart = ShardRouter.idRangeStart(shard);
+        long rangeEnd = ShardRouter.idRangeStart(shard + 1);
+        for (String table : tables) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM " + table + " WHERE id >= ? AND id < ?", Long.class, rangeStart, rangeEnd);
+            long next = maxId != null ? maxId + 1 : rangeStart;
+
+            if (product.contains("postgres")) {
+                jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), ?, false)",
+                        Long.class, table, next);
+            } else if (product.contains("h2")) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            } else {
+                throw new IllegalStateException("Cannot align id range for database " + product);
+            }
+            log.info("Shard {} table {} allocates ids from {}", shard, table, next);
+        }
+    }
+}
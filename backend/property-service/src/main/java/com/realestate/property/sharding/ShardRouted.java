@@ -0,0 +1,26 @@
+package com.realestate.property.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes a service method to the shard owning the given key. Exactly one of
+ * {@link #id()} or {@link #state()} should be set; both are SpEL expressions
+ * evaluated against the method arguments (e.g. {@code "#propertyId"}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardRouted {
+
+    /**
+     * Expression yielding a property or image id.
+     */
+    String id() default "";
+
+    /**
+     * Expression yielding the state of a new listing.
+     */
+    String state() default "";
+}
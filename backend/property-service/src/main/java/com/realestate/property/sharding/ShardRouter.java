@@ -0,0 +1,135 @@
+package com.realestate.property.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Maps listings to shards.
+ * <p>
+ * Listings are placed by {@code Property.state} using the configured state mapping; states
+ * without an explicit mapping live on the default shard. Every shard allocates ids from its own
+ * range ({@code shard << ID_SHARD_SHIFT}), so the owning shard of any property or image id
+ * can be derived from the id alone. Shard 0 covers ids below 2^40, which keeps all
+ * pre-sharding ids valid.
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    public static final int ID_SHARD_SHIFT = 40;
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final int defaultShard;
+    private final Map<String, Integer> stateMapping = new HashMap<>();
+
+    public ShardRouter(@Value("${app.sharding.enabled:false}") boolean enabled,
+                       @Value("${app.sharding.shard-urls:}") List<String> shardUrls,
+                       @Value("${app.sharding.state-mapping:}") String stateMapping,
+                       @Value("${app.sharding.default-shard:0}") int defaultShard) {
+        this.enabled = enabled;
+        this.shardCount = enabled ? 1 + (int) shardUrls.stream().filter(StringUtils::hasText).count() : 1;
+        this.defaultShard = enabled ? defaultShard : 0;
+
+        if (enabled && StringUtils.hasText(stateMapping)) {
+            for (String entry : stateMapping.split(",")) {
+                String[] parts = entry.split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid shard state mapping entry: " + entry);
+                }
+                int shard = Integer.parseInt(parts[1].trim());
+                if (shard < 0 || shard >= shardCount) {
+                    throw new IllegalArgumentException("State " + parts[0] + " mapped to unknown shard " + shard);
+                }
+                this.stateMapping.put(normalize(parts[0]), shard);
+            }
+        }
+        if (this.defaultShard < 0 || this.defaultShard >= shardCount) {
+            throw new IllegalArgumentException("Default shard " + defaultShard + " is out of range");
+        }
+        if (enabled) {
+            log.info("Sharding enabled with {} shards, state mapping {}", shardCount, this.stateMapping);
+        }
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Owning shard of a new listing in the given state.
+     */
+    public int shardForState(String state) {
+        if (!StringUtils.hasText(state)) {
+            return defaultShard;
+        }
+        return stateMapping.getOrDefault(normalize(state), defaultShard);
+    }
+
+    /**
+     * Owning shard of an existing property or image id.
+     */
+    public int shardForId(Long id) {
+        if (id == null || id < 0) {
+            throw new IllegalArgumentException("Invalid id: " + id);
+        }
+        int shard = (int) (id >>> ID_SHARD_SHIFT);
+        if (shard >= shardCount) {
+            // Unknown range: treat as shard 0 so lookups fail with a normal "not found"
+            return 0;
+        }
+        return shard;
+    }
+
+    /**
+     * Shards that can hold listings matching a state search criterion. The search uses a
+     * case-insensitive substring match, so every mapped state containing the term is considered,
+     * plus the default shard which holds all unmapped states.
+     */
+    public List<Integer> shardsForStateCriterion(String stateCriterion) {
+        if (!isSharded() || !StringUtils.hasText(stateCriterion)) {
+            return allShards();
+        }
+        String term = normalize(stateCriterion);
+        TreeSet<Integer> shards = new TreeSet<>();
+        shards.add(defaultShard);
+        stateMapping.forEach((state, shard) -> {
+            if (state.contains(term)) {
+                shards.add(shard);
+            }
+        });
+        return new ArrayList<>(shards);
+    }
+
+    public List<Integer> allShards() {
+        List<Integer> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(i);
+        }
+        return shards;
+    }
+
+    /**
+     * First id allocated by the given shard.
+     */
+    public static long idRangeStart(int shard) {
+        return ((long) shard << ID_SHARD_SHIFT) + 1;
+    }
+
+    private static String normalize(String state) {
+        return state.trim().toLowerCase(Locale.ROOT);
+    }
+}
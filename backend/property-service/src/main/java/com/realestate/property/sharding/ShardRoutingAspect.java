@@ -0,0 +1,55 @@
+package com.realestate.property.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Binds the owning shard before a {@link ShardRouted} method runs. Ordered ahead of the
+ * transaction interceptor so the method's transaction starts on the right shard, but behind
+ * Spring's ExposeInvocationInterceptor, which binding the annotation argument relies on.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+
+    @Around("@annotation(shardRouted)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardRouted shardRouted) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return joinPoint.proceed();
+        }
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null,
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs(), PARAMETER_NAMES);
+
+        int shard;
+        if (StringUtils.hasText(shardRouted.id())) {
+            Long id = PARSER.parseExpression(shardRouted.id()).getValue(context, Long.class);
+            shard = shardRouter.shardForId(id);
+        } else {
+            String state = PARSER.parseExpression(shardRouted.state()).getValue(context, String.class);
+            shard = shardRouter.shardForState(state);
+        }
+
+        return shardTemplate.onShard(shard, joinPoint::proceed);
+    }
+}
@@ -0,0 +1,187 @@
+package com.realestate.property.sharding;
+
+import com.realestate.property.datasource.RequestSqlStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs work against a specific shard, or against several shards in parallel.
+ * <p>
+ * With a single shard every method simply invokes the callback on the calling thread.
+ */
+@Slf4j
+@Component
+public class ShardTemplate implements DisposableBean {
+
+    @FunctionalInterface
+    public interface ShardCallback<T> {
+        T doOnShard() throws Throwable;
+    }
+
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService scatterExecutor;
+
+    public ShardTemplate(ShardRouter shardRouter,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.sharding.scatter-parallelism:8}") int scatterParallelism) {
+        this.shardRouter = shardRouter;
+        this.transactionManager = transactionManager;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scatterExecutor = shardRouter.isSharded()
+                ? Executors.newFixedThreadPool(scatterParallelism, runnable -> {
+                    Thread thread = new Thread(runnable, "shard-scatter-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Runs the callback with the given shard bound to the current thread. If a transaction is
+     * already active on a different shard, the callback gets its own transaction so it never
+     * reuses a connection that belongs to another shard.
+     */
+    public <T> T onShard(int shard, ShardCallback<T> callback) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return callback.doOnShard();
+        }
+
+        Integer previous = ShardContext.current();
+        if (previous != null && previous == shard) {
+            return callback.doOnShard();
+        }
+
+        ShardContext.set(shard);
+        try {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                return callback.doOnShard();
+            }
+            TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+            newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            newTransaction.setReadOnly(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            try {
+                return newTransaction.execute(status -> unchecked(callback));
+            } catch (CheckedCallbackException e) {
+                throw e.getCause();
+            }
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Same as {@link #onShard(int, ShardCallback)} for callbacks that throw no checked exceptions.
+     */
+    public <T> T runOnShard(int shard, Supplier<T> action) {
+        try {
+            return onShard(shard, action::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs the action in a new read-write transaction on the given shard, independent of any
+     * transaction on the calling thread. Used for reference data that must not roll back with
+     * the caller.
+     */
+    public <T> T inNewTransaction(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.current();
+        if (shardRouter.isSharded()) {
+            ShardContext.set(shard);
+        }
+        try {
+            TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+            newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            return newTransaction.execute(status -> action.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Runs a read-only task on each shard in parallel and returns the results in shard order.
+     */
+    public <T> List<T> scatter(List<Integer> shards, Function<Integer, T> task) {
+        if (!shardRouter.isSharded() || shards.size() == 1) {
+            List<T> results = new ArrayList<>(shards.size());
+            for (Integer shard : shards) {
+                results.add(runOnShard(shard, () -> task.apply(shard)));
+            }
+            return results;
+        }
+
+        // Statements on the workers count towards the calling request
+        RequestSqlStats sqlStats = RequestSqlStats.current();
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> {
+                    ShardContext.set(shard);
+                    RequestSqlStats.attach(sqlStats);
+                    try {
+                        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                        readOnly.setReadOnly(true);
+                        return readOnly.execute(status -> task.apply(shard));
+                    } finally {
+                        RequestSqlStats.end();
+                        ShardContext.set(null);
+                    }
+                }, scatterExecutor))
+                .toList();
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static <T> T unchecked(ShardCallback<T> callback) {
+        try {
+            return callback.doOnShard();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CheckedCallbackException(e);
+        }
+    }
+
+    private static class CheckedCallbackException extends RuntimeException {
+        CheckedCallbackException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.realestate.property.storage;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Object store holding image bytes. Keys are opaque, slash-separated paths such as
+ * {@code properties/42/3f1c....jpg}; callers store them on {@code Image} and never derive them
+ * from URLs.
+ * <p>
+ * Select the implementation with {@code app.storage.type} ({@code s3} or {@code local}).
+ */
+public interface ImageStorage {
+
+    /**
+     * Stores the object under the key, replacing any existing object. The stream is read to the
+     * end but not closed.
+     */
+    void put(String key, InputStream content, long contentLength, String contentType);
+
+    Optional<StoredObjectMetadata> head(String key);
+
+    /**
+     * Opens the whole object. The caller must close the stream.
+     *
+     * @throws StorageObjectNotFoundException if there is no object under the key
+     */
+    InputStream get(String key);
+
+    /**
+     * Opens bytes {@code start..end} (inclusive) of the object. The caller must close the stream.
+     *
+     * @throws StorageObjectNotFoundException if there is no object under the key
+     */
+    InputStream get(String key, long start, long end);
+
+    /**
+     * Moves an object to a new key, replacing any object there, without passing the bytes
+     * through this service.
+     *
+     * @throws StorageObjectNotFoundException if there is no object under the source key
+     */
+    void move(String sourceKey, String targetKey);
+
+    void delete(String key);
+
+    /**
+     * Deletes all keys, in as few round trips as the backend allows. Missing keys are ignored.
+     */
+    void deleteAll(Collection<String> keys);
+
+    /**
+     * Lists objects whose keys start with the prefix, in key order, starting after
+     * {@code startAfter} (null for the beginning). Returns at most {@code maxKeys} entries; a
+     * shorter page means the listing is complete.
+     */
+    List<StoredObjectSummary> list(String prefix, String startAfter, int maxKeys);
+
+    /**
+     * Returns a URL that allows reading the key without further credentials until the TTL expires.
+     */
+    String presignGet(String key, Duration ttl);
+
+    /**
+     * Returns a URL that allows storing exactly {@code contentLength} bytes under the key without
+     * further credentials until the TTL expires. The length is part of the signature, so a body
+     * of any other size is refused.
+     */
+    String presignPut(String key, long contentLength, Duration ttl);
+
+    /**
+     * Public URL under which the object is served.
+     */
+    String urlFor(String key);
+}
@@ -0,0 +1,351 @@
+package com.realestate.property.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stores objects as files under a root directory, for development and single-node installs.
+ * <p>
+ * Writes go to a temporary file in the target directory and are moved into place atomically, so
+ * readers never see a partially written object. Objects are served by
+ * {@link LocalStorageController}; presigned URLs point there and carry an HMAC over the key,
+ * method and expiry, and for uploads the length of the body. No object may be larger than
+ * {@code app.storage.local.max-object-size-mb}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalFileSystemImageStorage implements ImageStorage {
+
+    static final String OBJECTS_PATH = "/api/storage/objects/";
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final Path root;
+    private final String publicBaseUrl;
+    private final SecretKeySpec signingKey;
+    private final long maxObjectSize;
+
+    public LocalFileSystemImageStorage(@Value("${app.storage.local.root:${java.io.tmpdir}/property-images}") String root,
+                                       @Value("${app.storage.local.public-base-url:http://localhost:8081}") String publicBaseUrl,
+                                       @Value("${app.storage.local.signing-secret:}") String signingSecret,
+                                       @Value("${app.storage.local.max-object-size-mb:5}") long maxObjectSizeMb) throws IOException {
+        this.root = Files.createDirectories(Paths.get(root)).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        if (signingSecret.isBlank()) {
+            throw new IllegalStateException("app.storage.local.signing-secret must not be blank");
+        }
+        this.signingKey = new SecretKeySpec(signingSecret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM);
+        this.maxObjectSize = maxObjectSizeMb * 1024 * 1024;
+        log.info("Storing images under {}", this.root);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        Path target = resolve(key);
+        if (contentLength > maxObjectSize) {
+            throw new IllegalArgumentException("Object " + key + " exceeds " + maxObjectSize + " bytes");
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(content);
+                long written = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(source, written, Long.MAX_VALUE)) > 0) {
+                    written += transferred;
+                }
+                if (contentLength >= 0 && written != contentLength) {
+                    throw new StorageException("Expected " + contentLength + " bytes for " + key + " but got " + written);
+                }
+                channel.force(false);
+            }
+            move(temp, target);
+            temp = null;
+        } catch (IOException e) {
+            throw new StorageException("Failed to store object " + key + ": " + e.getMessage(), e);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Same directory, so this only happens on unusual filesystems
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> head(String key) {
+        Path file = resolve(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            Instant lastModified = attributes.lastModifiedTime().toInstant();
+            // Objects are only ever replaced wholesale, so size and mtime identify a version
+            String eTag = Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified.toEpochMilli());
+            return Optional.of(new StoredObjectMetadata(attributes.size(), contentTypeOf(key), eTag, lastModified));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new StorageException("Failed to read metadata of " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) {
+        return Channels.newInputStream(open(key));
+    }
+
+    @Override
+    public InputStream get(String key, long start, long end) {
+        FileChannel channel = open(key);
+        try {
+            channel.position(start);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new StorageException("Failed to read " + key + ": " + e.getMessage(), e);
+        }
+        return Channels.newInputStream(new BoundedChannel(channel, end - start + 1));
+    }
+
+    private FileChannel open(String key) {
+        try {
+            return FileChannel.open(resolve(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new StorageObjectNotFoundException(key);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) {
+        Path source = resolve(sourceKey);
+        Path target = resolve(targetKey);
+        try {
+            Files.createDirectories(target.getParent());
+            move(source, target);
+        } catch (NoSuchFileException e) {
+            throw new StorageObjectNotFoundException(sourceKey);
+        } catch (IOException e) {
+            throw new StorageException("Failed to move " + sourceKey + " to " + targetKey + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new StorageException("Failed to delete " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+    /**
+     * Walks the directory tree on every call, which is fine at the scale this backend is meant for.
+     */
+    @Override
+    public List<StoredObjectSummary> list(String prefix, String startAfter, int maxKeys) {
+        // Start from the deepest directory the prefix names
+        int slash = prefix.lastIndexOf('/');
+        Path start = slash < 0 ? root : root.resolve(prefix.substring(0, slash)).normalize();
+        if (!start.startsWith(root) || !Files.isDirectory(start)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(start)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .filter(key -> key.startsWith(prefix) && !key.endsWith(TEMP_SUFFIX))
+                    .filter(key -> startAfter == null || key.compareTo(startAfter) > 0)
+                    .sorted()
+                    .limit(maxKeys)
+                    .map(key -> head(key).map(metadata ->
+                            new StoredObjectSummary(key, metadata.contentLength(), metadata.lastModified())))
+                    .flatMap(Optional::stream)
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            throw new StorageException("Failed to list objects under " + prefix + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return urlFor(key) + "?method=GET&expires=" + expires
+                + "&signature=" + sign("GET\n" + key + "\n" + expires);
+    }
+
+    @Override
+    public String presignPut(String key, long contentLength, Duration ttl) {
+        if (contentLength < 0 || contentLength > maxObjectSize) {
+            throw new IllegalArgumentException("Upload length must be between 0 and " + maxObjectSize + " bytes");
+        }
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return urlFor(key) + "?method=PUT&expires=" + expires + "&length=" + contentLength
+                + "&signature=" + sign(uploadPayload(key, expires, contentLength));
+    }
+
+    @Override
+    public String urlFor(String key) {
+        resolve(key);
+        return publicBaseUrl + OBJECTS_PATH + key;
+    }
+
+    /**
+     * Largest object this backend accepts, in bytes.
+     */
+    public long getMaxObjectSize() {
+        return maxObjectSize;
+    }
+
+    /**
+     * Checks an upload presigned by {@link #presignPut}, including the length it was signed for.
+     */
+    public boolean verifyUpload(String key, long expires, long contentLength, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(uploadPayload(key, expires, contentLength)).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String uploadPayload(String key, long expires, long contentLength) {
+        return "PUT\n" + key + "\n" + expires + "\n" + contentLength;
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private Path resolve(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.endsWith(TEMP_SUFFIX)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    private static String contentTypeOf(String key) {
+        String contentType = URLConnection.guessContentTypeFromName(key);
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close file channel: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops reading after {@code remaining} bytes, for range reads.
+     */
+    private static final class BoundedChannel implements ReadableByteChannel {
+        private final FileChannel channel;
+        private long remaining;
+
+        BoundedChannel(FileChannel channel, long remaining) {
+            this.channel = channel;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read(ByteBuffer buffer) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = buffer.limit();
+            if (buffer.remaining() > remaining) {
+                buffer.limit(buffer.position() + (int) remaining);
+            }
+            try {
+                int read = channel.read(buffer);
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                buffer.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
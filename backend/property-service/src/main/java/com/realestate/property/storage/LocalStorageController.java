@@ -0,0 +1,81 @@
+package com.realestate.property.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serves objects of the local filesystem backend, standing in for the bucket endpoint. Reads are
+ * public like the S3 object URLs; writes need a presigned URL and a body of exactly the length it
+ * was signed for, which is checked before any of the body is read.
+ */
+@RestController
+@RequestMapping(LocalFileSystemImageStorage.OBJECTS_PATH)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalStorageController {
+
+    private final LocalFileSystemImageStorage storage;
+
+    @GetMapping("**")
+    public ResponseEntity<StreamingResponseBody> getObject(HttpServletRequest request) {
+        String key = keyOf(request);
+        return storage.head(key)
+                .map(metadata -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(metadata.contentType()))
+                        .contentLength(metadata.contentLength())
+                        .eTag("\"" + metadata.eTag() + "\"")
+                        .<StreamingResponseBody>body(out -> {
+                            try (InputStream in = storage.get(key)) {
+                                in.transferTo(out);
+                            }
+                        }))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("**")
+    public ResponseEntity<Void> putObject(HttpServletRequest request,
+                                          @RequestParam long expires,
+                                          @RequestParam long length,
+                                          @RequestParam String signature,
+                                          @RequestHeader(value = HttpHeaders.CONTENT_TYPE,
+                                                  defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String contentType)
+            throws IOException {
+        String key = keyOf(request);
+        if (!storage.verifyUpload(key, expires, length, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // Like S3, no chunked uploads: the declared length is what gets checked and then enforced
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        if (contentLength > length || contentLength > storage.getMaxObjectSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        if (contentLength != length) {
+            return ResponseEntity.badRequest().build();
+        }
+        storage.put(key, request.getInputStream(), contentLength, contentType);
+        return ResponseEntity.ok().build();
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.substring(LocalFileSystemImageStorage.OBJECTS_PATH.length());
+    }
+}
@@ -0,0 +1,303 @@
+package com.realestate.property.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3ImageStorage implements ImageStorage {
+
+    // DeleteObjects accepts at most 1000 keys per request
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+
+    // S3 rejects parts smaller than 5 MB, except the last one
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final String bucketName;
+    private final long multipartThreshold;
+    private final long partSize;
+
+    public S3ImageStorage(AmazonS3 amazonS3,
+                          @Value("${aws.s3.bucket.name}") String bucketName,
+                          @Value("${app.storage.s3.multipart-threshold-mb:16}") long multipartThresholdMb,
+                          @Value("${app.storage.s3.part-size-mb:8}") long partSizeMb) {
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.multipartThreshold = multipartThresholdMb * 1024 * 1024;
+        this.partSize = Math.max(partSizeMb * 1024 * 1024, MIN_PART_SIZE);
+    }
+
+    /**
+     * Objects above {@code app.storage.s3.multipart-threshold-mb} are sent as a multipart upload,
+     * so a failed part is retried on its own and memory stays at one part per transfer.
+     */
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        if (contentLength > multipartThreshold) {
+            putMultipart(key, content, contentLength, contentType);
+            return;
+        }
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setContentLength(contentLength);
+        try {
+            amazonS3.putObject(new PutObjectRequest(bucketName, key, content, metadata));
+        } catch (AmazonClientException e) {
+            // Includes a stream shorter than the declared length
+            throw new StorageException("Failed to store object " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void putMultipart(String key, InputStream content, long contentLength, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        String uploadId;
+        try {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, key, metadata)).getUploadId();
+        } catch (AmazonS3Exception e) {
+            throw new StorageException("Failed to start multipart upload of " + key + ": " + e.getMessage(), e);
+        }
+
+        try {
+            List<PartETag> parts = new ArrayList<>();
+            byte[] buffer = new byte[(int) Math.min(partSize, contentLength)];
+            long remaining = contentLength;
+            for (int partNumber = 1; remaining > 0; partNumber++) {
+                int size = (int) Math.min(buffer.length, remaining);
+                int read = content.readNBytes(buffer, 0, size);
+                if (read < size) {
+                    throw new StorageException("Expected " + contentLength + " bytes for " + key
+                            + " but the stream ended early");
+                }
+                UploadPartResult result = amazonS3.uploadPart(new UploadPartRequest()
+                        .withBucketName(bucketName)
+                        .withKey(key)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withInputStream(new ByteArrayInputStream(buffer, 0, size))
+                        .withPartSize(size)
+                        .withLastPart(remaining == size));
+                parts.add(result.getPartETag());
+                remaining -= size;
+            }
+            amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, parts));
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(key, uploadId);
+            if (e instanceof StorageException storageException) {
+                throw storageException;
+            }
+            throw new StorageException("Failed multipart upload of " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        } catch (AmazonS3Exception e) {
+            // The bucket lifecycle rule for incomplete uploads cleans up the parts eventually
+            log.warn("Failed to abort multipart upload of {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> head(String key) {
+        try {
+            ObjectMetadata metadata = amazonS3.getObjectMetadata(bucketName, key);
+            return Optional.of(new StoredObjectMetadata(metadata.getContentLength(), metadata.getContentType(),
+                    metadata.getETag(),
+                    metadata.getLastModified() != null ? metadata.getLastModified().toInstant() : null));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new StorageException("Failed to read metadata of " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) {
+        return open(new GetObjectRequest(bucketName, key));
+    }
+
+    @Override
+    public InputStream get(String key, long start, long end) {
+        return open(new GetObjectRequest(bucketName, key).withRange(start, end));
+    }
+
+    private InputStream open(GetObjectRequest request) {
+        S3Object object;
+        try {
+            object = amazonS3.getObject(request);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                throw new StorageObjectNotFoundException(request.getKey());
+            }
+            throw new StorageException("Failed to read " + request.getKey() + ": " + e.getMessage(), e);
+        }
+        return new AbortingInputStream(object);
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) {
+        try {
+            // Server-side copy; objects above 5 GB would need a multipart copy, images never are
+            amazonS3.copyObject(bucketName, sourceKey, bucketName, targetKey);
+            amazonS3.deleteObject(bucketName, sourceKey);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                throw new StorageObjectNotFoundException(sourceKey);
+            }
+            throw new StorageException("Failed to move " + sourceKey + " to " + targetKey + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            amazonS3.deleteObject(bucketName, key);
+        } catch (AmazonS3Exception e) {
+            throw new StorageException("Failed to delete " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        List<String> batch = new ArrayList<>(Math.min(keys.size(), MAX_KEYS_PER_DELETE));
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() == MAX_KEYS_PER_DELETE) {
+                deleteBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteBatch(batch);
+        }
+    }
+
+    private void deleteBatch(List<String> keys) {
+        try {
+            amazonS3.deleteObjects(new DeleteObjectsRequest(bucketName)
+                    .withKeys(keys.toArray(new String[0]))
+                    .withQuiet(true));
+        } catch (AmazonS3Exception e) {
+            throw new StorageException("Failed to delete " + keys.size() + " objects: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<StoredObjectSummary> list(String prefix, String startAfter, int maxKeys) {
+        List<StoredObjectSummary> objects = new ArrayList<>(maxKeys);
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withStartAfter(startAfter);
+        try {
+            ListObjectsV2Result result;
+            do {
+                result = amazonS3.listObjectsV2(request.withMaxKeys(maxKeys - objects.size()));
+                for (S3ObjectSummary summary : result.getObjectSummaries()) {
+                    objects.add(new StoredObjectSummary(summary.getKey(), summary.getSize(),
+                            summary.getLastModified().toInstant()));
+                }
+                request.setContinuationToken(result.getNextContinuationToken());
+            } while (result.isTruncated() && objects.size() < maxKeys);
+        } catch (AmazonClientException e) {
+            throw new StorageException("Failed to list objects under " + prefix + ": " + e.getMessage(), e);
+        }
+        return objects;
+    }
+
+    @Override
+    public String presignGet(String key, Duration ttl) {
+        Date expiration = new Date(System.currentTimeMillis() + ttl.toMillis());
+        return amazonS3.generatePresignedUrl(bucketName, key, expiration, HttpMethod.GET).toString();
+    }
+
+    @Override
+    public String presignPut(String key, long contentLength, Duration ttl) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, key, HttpMethod.PUT)
+                .withExpiration(new Date(System.currentTimeMillis() + ttl.toMillis()));
+        // A signed header, so S3 rejects an upload of any other length
+        request.putCustomRequestHeader(Headers.CONTENT_LENGTH, Long.toString(contentLength));
+        return amazonS3.generatePresignedUrl(request).toString();
+    }
+
+    @Override
+    public String urlFor(String key) {
+        return amazonS3.getUrl(bucketName, key).toString();
+    }
+
+    /**
+     * Closing an S3 stream before the end would otherwise drain the rest of the object so the
+     * connection can be reused. When a client goes away mid-download we drop the connection instead.
+     */
+    private static final class AbortingInputStream extends FilterInputStream {
+        private final S3Object object;
+        private boolean eof;
+
+        AbortingInputStream(S3Object object) {
+            super(object.getObjectContent());
+            this.object = object;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            eof |= b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            eof |= read == -1;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!eof) {
+                ((S3ObjectInputStream) in).abort();
+            }
+            object.close();
+        }
+    }
+}
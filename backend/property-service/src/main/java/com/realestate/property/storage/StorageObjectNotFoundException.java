@@ -0,0 +1,7 @@
+package com.realestate.property.storage;
+
+public class StorageObjectNotFoundException extends StorageException {
+    public StorageObjectNotFoundException(String key) {
+        super("No object stored under key: " + key);
+    }
+}
@@ -0,0 +1,9 @@
+package com.realestate.property.storage;
+
+import java.time.Instant;
+
+/**
+ * @param eTag strong entity tag without quotes
+ */
+public record StoredObjectMetadata(long contentLength, String contentType, String eTag, Instant lastModified) {
+}
@@ -0,0 +1,9 @@
+package com.realestate.property.storage;
+
+import java.time.Instant;
+
+/**
+ * One entry of an {@link ImageStorage#list} page.
+ */
+public record StoredObjectSummary(String key, long size, Instant lastModified) {
+}
@@ -0,0 +1,107 @@
+package com.realestate.property.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Space-Saving heavy-hitters sketch over exponentially decayed counts. At most {@code capacity}
+ * keys are tracked; a new key evicts the smallest counter and starts from its count, so any key
+ * whose decayed count exceeds {@code total / capacity} is guaranteed to be present.
+ * <p>
+ * Decay uses a forward landmark: a hit at time {@code t} adds {@code 2^((t - landmark) / halfLife)},
+ * so older hits never have to be touched, and reads divide by the same factor at read time.
+ * Weights are rescaled when the factor grows large. Not thread-safe.
+ */
+public class DecayedHeavyHitters<K> {
+
+    // Rescale before weights lose precision; 2^40 leaves plenty of headroom in a double
+    private static final double MAX_EXPONENT = 40;
+
+    private final int capacity;
+    private final double halfLifeMillis;
+    private final Map<K, Counter> counters;
+    private long landmarkMillis;
+
+    public DecayedHeavyHitters(int capacity, long halfLifeMillis, long nowMillis) {
+        if (capacity < 1 || halfLifeMillis < 1) {
+            throw new IllegalArgumentException("Capacity and half-life must be positive");
+        }
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLifeMillis;
+        this.counters = new HashMap<>(capacity * 2);
+        this.landmarkMillis = nowMillis;
+    }
+
+    public void add(K key, long count, long nowMillis) {
+        double exponent = (nowMillis - landmarkMillis) / halfLifeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(nowMillis);
+            exponent = 0;
+        }
+        double weight = count * Math.pow(2, exponent);
+
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.weight += weight;
+        } else if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight));
+        } else {
+            Map.Entry<K, Counter> min = counters.entrySet().stream()
+                    .min(Comparator.comparingDouble(entry -> entry.getValue().weight))
+                    .orElseThrow();
+            counters.remove(min.getKey());
+            counters.put(key, new Counter(min.getValue().weight + weight));
+        }
+    }
+
+    /**
+     * Up to {@code limit} keys with the highest decayed counts as of {@code nowMillis}, highest
+     * first. Counts of keys that evicted another may overestimate, but never underestimate.
+     */
+    public List<Scored<K>> top(int limit, long nowMillis) {
+        double scale = Math.pow(2, -(nowMillis - landmarkMillis) / halfLifeMillis);
+        List<Scored<K>> top = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> top.add(new Scored<>(key, counter.weight * scale)));
+        top.sort(Comparator.comparingDouble((Scored<K> scored) -> scored.score()).reversed());
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    public void removeIf(Predicate<K> predicate) {
+        counters.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Drops keys whose decayed count has fallen below {@code minScore}.
+     */
+    public void prune(double minScore, long nowMillis) {
+        double minWeight = minScore * Math.pow(2, (nowMillis - landmarkMillis) / halfLifeMillis);
+        counters.values().removeIf(counter -> counter.weight < minWeight);
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    private void rescale(long nowMillis) {
+        double factor = Math.pow(2, -(nowMillis - landmarkMillis) / halfLifeMillis);
+        for (Counter counter : counters.values()) {
+            counter.weight *= factor;
+        }
+        landmarkMillis = nowMillis;
+    }
+
+    public record Scored<K>(K key, double score) {
+    }
+
+    private static final class Counter {
+        private double weight;
+
+        private Counter(double weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package com.realestate.property.util;
 
+import com.realestate.property.event.ImagesReleasedEvent;
 import com.realestate.property.exception.ImageUploadException;
+import com.realestate.property.exception.InvalidFileTypeException;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariantInfo;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ImageServiceUtils {
     private static final Set<String> ALLOWED_CONTENT_TYPES = new HashSet<>(Arrays.asList(
@@ -16,6 +30,27 @@ public class ImageServiceUtils {
 
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    public static final String STAGING_PREFIX = "uploads/staging/";
+
+    // An original or one of its variants: images/ab/{hash}.png, images/ab/variants/card/{hash}.jpg
+    private static final Pattern CONTENT_KEY =
+            Pattern.compile("images/[0-9a-f]{2}/(?:variants/[a-z]+/)?([0-9a-f]{64})\\.[a-z]+");
+
+    private static final Pattern DIRECT_UPLOAD_KEY =
+            Pattern.compile("properties/\\d+/[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}\\.(jpg|png|gif)");
+
+    /**
+     * Leading bytes needed by {@link #sniffContentType}.
+     */
+    public static final int SNIFF_LENGTH = 8;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_MAGIC = {'G', 'I', 'F', '8', '7', 'a'};
+    private static final byte[] GIF89_MAGIC = {'G', 'I', 'F', '8', '9', 'a'};
+
     public static void validateImage(MultipartFile file) {
         // Check if file is empty
         if (file.isEmpty()) {
@@ -32,9 +67,165 @@ public class ImageServiceUtils {
         if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType)) {
             throw new ImageUploadException("Invalid file type. Only JPEG, PNG and GIF are allowed");
         }
+
+        // Check the content really is what it claims to be
+        byte[] header;
+        try (InputStream in = file.getInputStream()) {
+            header = in.readNBytes(SNIFF_LENGTH);
+        } catch (IOException e) {
+            throw new ImageUploadException("Failed to read uploaded file: " + e.getMessage());
+        }
+        if (!contentType.equals(sniffContentType(header))) {
+            throw new ImageUploadException("File content does not match its declared type " + contentType);
+        }
+    }
+
+    /**
+     * Detects JPEG, PNG and GIF from their magic bytes. Returns {@code null} for anything else,
+     * whatever the client declared.
+     */
+    public static String sniffContentType(byte[] header) {
+        if (startsWith(header, JPEG_MAGIC)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, PNG_MAGIC)) {
+            return "image/png";
+        }
+        if (startsWith(header, GIF87_MAGIC) || startsWith(header, GIF89_MAGIC)) {
+            return "image/gif";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks what a client declares before it uploads directly to storage.
+     */
+    public static void validateDeclaredImage(String contentType, long contentLength) {
+        if (contentLength > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of 5MB");
+        }
+        if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            throw new InvalidFileTypeException("Invalid file type. Only JPEG, PNG and GIF are allowed");
+        }
+    }
+
+    /**
+     * Key for an upload a client sends straight to storage. The service never sees those bytes,
+     * so they cannot be content-addressed; the object belongs to its single row.
+     */
+    public static String generateDirectUploadKey(Long propertyId, String contentType) {
+        return String.format("properties/%d/%s%s", propertyId, UUID.randomUUID(), extensionOf(contentType));
+    }
+
+    public static boolean isDirectUploadKey(Long propertyId, String storageKey) {
+        return DIRECT_UPLOAD_KEY.matcher(storageKey).matches()
+                && storageKey.startsWith("properties/" + propertyId + "/");
+    }
+
+    /**
+     * Content-addressed key of an original: identical bytes always map to the same object. The
+     * extension comes from the validated content type so that re-uploads under another file name
+     * still match.
+     */
+    public static String generateContentStorageKey(String contentHash, String contentType) {
+        return String.format("images/%s/%s%s", contentHash.substring(0, 2), contentHash, extensionOf(contentType));
+    }
+
+    /**
+     * Hash of the content-addressed original a key belongs to, whether the key is the original
+     * or one of its variants; null for any other key.
+     */
+    public static String contentHashOf(String storageKey) {
+        Matcher matcher = CONTENT_KEY.matcher(storageKey);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Key of a variant, next to its original: {@code images/ab/abcd.png} becomes
+     * {@code images/ab/variants/card/abcd.jpg}. Variants of a shared original are shared too.
+     */
+    public static String generateVariantStorageKey(String storageKey, String variant) {
+        int slash = storageKey.lastIndexOf('/');
+        String directory = storageKey.substring(0, slash + 1);
+        String fileName = storageKey.substring(slash + 1);
+        int extension = fileName.lastIndexOf('.');
+        String baseName = extension > 0 ? fileName.substring(0, extension) : fileName;
+        return String.format("%svariants/%s/%s.jpg", directory, variant, baseName);
+    }
+
+    /**
+     * Hex SHA-256 of the stream, read in fixed-size chunks.
+     */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Temporary key a streamed upload is written to until its hash, and so its final key, is
+     * known.
+     */
+    public static String generateStagingKey() {
+        return STAGING_PREFIX + UUID.randomUUID();
+    }
+
+    private static String extensionOf(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            default -> "";
+        };
+    }
+
+    /**
+     * Storage key of the original image. Rows written before keys were stored fall back to the
+     * path of the object URL, which always starts at {@code properties/}.
+     */
+    public static String storageKeyOf(Image image) {
+        if (image.getStorageKey() != null) {
+            return image.getStorageKey();
+        }
+        String path = URI.create(image.getUrl()).getPath();
+        int start = path.indexOf("properties/");
+        if (start < 0) {
+            throw new IllegalStateException("Cannot derive storage key of image " + image.getId() + " from " + image.getUrl());
+        }
+        return path.substring(start);
     }
 
-    public static String generateS3Key(Long propertyId, String fileName) {
-        return String.format("properties/%d/%s", propertyId, fileName);
+    /**
+     * The objects a row gives up when it is deleted or replaced.
+     */
+    public static ImagesReleasedEvent.ReleasedImage releasedImageOf(Image image) {
+        List<String> variantKeys = image.getVariants().stream()
+                .map(ImageVariantInfo::getStorageKey)
+                .toList();
+        return new ImagesReleasedEvent.ReleasedImage(storageKeyOf(image), variantKeys);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.realestate.property.util;
+
+import java.nio.ByteBuffer;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * MinHash signatures of listing text and their locality-sensitive hashing buckets.
+ * <p>
+ * Each field is normalised and cut into overlapping character shingles, so small edits such as
+ * "3-bed" against "3 bed" only change a few shingles. The probability that two signatures agree
+ * at a position equals the Jaccard similarity of their shingle sets. Signatures are split into
+ * {@value #BANDS} bands of {@value #ROWS} rows; two listings share a bucket if any band matches
+ * exactly, which happens with probability {@code 1 - (1 - s^ROWS)^BANDS}: about 95% at a
+ * similarity of 0.8 and under 2% at 0.4.
+ */
+public class MinHash {
+
+    public static final int BANDS = 16;
+    public static final int ROWS = 8;
+    public static final int SIGNATURE_SIZE = BANDS * ROWS;
+
+    private static final int SHINGLE_LENGTH = 5;
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Addresses are typed both ways; shingle the short form
+    private static final Map<String, String> ADDRESS_ABBREVIATIONS = Map.ofEntries(
+            Map.entry("street", "st"), Map.entry("avenue", "ave"), Map.entry("road", "rd"),
+            Map.entry("drive", "dr"), Map.entry("boulevard", "blvd"), Map.entry("lane", "ln"),
+            Map.entry("court", "ct"), Map.entry("place", "pl"), Map.entry("apartment", "apt"),
+            Map.entry("suite", "ste"), Map.entry("north", "n"), Map.entry("south", "s"),
+            Map.entry("east", "e"), Map.entry("west", "w"));
+
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        // Fixed seeds: stored signatures must stay comparable across restarts and instances
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    /**
+     * Signature of a listing's text, or null if none of the fields has any text.
+     */
+    public static int[] signature(String title, String description, String address) {
+        long[] shingles = concat(
+                shingles(normalize(title, false), 1),
+                shingles(normalize(description, false), 2),
+                shingles(normalize(address, true), 3));
+        if (shingles.length == 0) {
+            return null;
+        }
+
+        long[] minimums = new long[SIGNATURE_SIZE];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long hash = mix(shingle ^ SEEDS[i]);
+                if (hash < minimums[i]) {
+                    minimums[i] = hash;
+                }
+            }
+        }
+        int[] signature = new int[SIGNATURE_SIZE];
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            signature[i] = (int) (minimums[i] >>> 32);
+        }
+        return signature;
+    }
+
+    /**
+     * One bucket per band. The band number is mixed in, so buckets of different bands never
+     * collide and can share one index.
+     */
+    public static long[] buckets(int[] signature) {
+        long[] buckets = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = mix(band + 1L);
+            for (int row = 0; row < ROWS; row++) {
+                hash = mix(hash ^ (signature[band * ROWS + row] & 0xFFFFFFFFL));
+            }
+            buckets[band] = hash;
+        }
+        return buckets;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the listings' shingle sets.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    public static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] decode(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    private static String normalize(String text, boolean address) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String[] words = NON_ALPHANUMERIC.split(folded.toLowerCase(Locale.ROOT));
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            normalized.append(address ? ADDRESS_ABBREVIATIONS.getOrDefault(word, word) : word);
+        }
+        return normalized.toString();
+    }
+
+    // Distinct hashes of the text's shingles; the field number keeps fields apart
+    private static long[] shingles(String text, int field) {
+        if (text.isEmpty()) {
+            return new long[0];
+        }
+        int count = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        long[] shingles = new long[count];
+        for (int start = 0; start < count; start++) {
+            long hash = field;
+            int end = Math.min(text.length(), start + SHINGLE_LENGTH);
+            for (int i = start; i < end; i++) {
+                hash = hash * 31 + text.charAt(i);
+            }
+            shingles[start] = mix(hash);
+        }
+        return Arrays.stream(shingles).distinct().toArray();
+    }
+
+    private static long[] concat(long[]... arrays) {
+        return Arrays.stream(arrays).flatMapToLong(Arrays::stream).toArray();
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,120 @@
+package com.realestate.property.util;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Helpers for serving one logical page out of several independently sorted sources
+ * (e.g. hot and archived listings).
+ */
+public class PageMergeUtils {
+
+    // Sorts come from request parameters; past this many distinct ones comparators are not kept
+    private static final int MAX_CACHED_COMPARATORS = 256;
+
+    private static final Map<ComparatorKey, Comparator<?>> COMPARATORS = new ConcurrentHashMap<>();
+
+    private record ComparatorKey(Class<?> type, Sort sort) {
+    }
+
+    /**
+     * Each source must be asked for the first {@code (page + 1) * size} rows so that the
+     * requested page can be cut out of the merged result.
+     */
+    public static Pageable windowFor(Pageable pageable) {
+        long window = (long) (pageable.getPageNumber() + 1) * pageable.getPageSize();
+        return PageRequest.of(0, (int) Math.min(window, Integer.MAX_VALUE), pageable.getSort());
+    }
+
+    /**
+     * Merges the sorted windows returned by every source and slices out the requested page.
+     */
+    public static <T> Page<T> merge(List<? extends List<? extends T>> sortedParts, long total, Pageable pageable,
+                                    Class<T> type) {
+        List<T> merged = new ArrayList<>();
+        sortedParts.forEach(merged::addAll);
+        // TimSort detects the pre-sorted runs, so this is effectively a k-way merge
+        merged.sort(comparator(type, pageable.getSort()));
+
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    /**
+     * Comparator that orders beans of the given type the same way the database would for the
+     * sort, nulls last. Getters are resolved once per type and sort; an unknown property is an
+     * {@link IllegalArgumentException}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> comparator(Class<T> type, Sort sort) {
+        ComparatorKey key = new ComparatorKey(type, sort);
+        Comparator<T> comparator = (Comparator<T>) COMPARATORS.get(key);
+        if (comparator == null) {
+            comparator = buildComparator(type, sort);
+            if (COMPARATORS.size() < MAX_CACHED_COMPARATORS) {
+                COMPARATORS.putIfAbsent(key, comparator);
+            }
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> buildComparator(Class<T> type, Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Function<Object, Object> getter = getter(type, order.getProperty());
+            Comparator<T> byProperty = Comparator.comparing(bean -> (Comparable) getter.apply(bean),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        return comparator;
+    }
+
+    /**
+     * Reads a possibly nested ({@code a.b}) property, null if any step along the path is null.
+     */
+    private static Function<Object, Object> getter(Class<?> type, String path) {
+        Function<Object, Object> getter = bean -> bean;
+        Class<?> current = type;
+        for (String name : path.split("\\.")) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(current, name);
+            if (descriptor == null || descriptor.getReadMethod() == null) {
+                throw new IllegalArgumentException("Cannot sort " + type.getSimpleName() + " by " + path);
+            }
+            Method read = descriptor.getReadMethod();
+            Function<Object, Object> previous = getter;
+            getter = bean -> {
+                Object owner = previous.apply(bean);
+                return owner == null ? null : invoke(read, owner);
+            };
+            current = descriptor.getPropertyType();
+        }
+        if (!current.isPrimitive() && !Comparable.class.isAssignableFrom(current)) {
+            throw new IllegalArgumentException("Cannot sort " + type.getSimpleName() + " by " + path);
+        }
+        return getter;
+    }
+
+    private static Object invoke(Method read, Object bean) {
+        try {
+            return read.invoke(bean);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + read.getName() + " of " + bean.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.realestate.property.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Fixed-size buffer of the most recent values, each stamped with a sequence number that keeps
+ * increasing across wrap-arounds. Once full, every append overwrites the oldest value. Thread-safe.
+ */
+public class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final long firstSequence;
+    private long nextSequence;
+
+    public RingBuffer(int capacity, long firstSequence) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new Object[capacity];
+        this.firstSequence = firstSequence;
+        this.nextSequence = firstSequence;
+    }
+
+    /**
+     * Appends the value built for the next sequence number and returns that number.
+     */
+    public synchronized long append(LongFunction<T> factory) {
+        long sequence = nextSequence++;
+        slots[index(sequence)] = factory.apply(sequence);
+        return sequence;
+    }
+
+    /**
+     * Up to {@code max} values from {@code sequence} onwards, oldest first. Starts at the oldest
+     * retained value if {@code sequence} has already been overwritten.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> readFrom(long sequence, int max) {
+        long from = Math.max(sequence, oldestSequence());
+        long to = Math.min(nextSequence, from + max);
+        List<T> values = new ArrayList<>((int) Math.max(0, to - from));
+        for (long current = from; current < to; current++) {
+            values.add((T) slots[index(current)]);
+        }
+        return values;
+    }
+
+    public synchronized long oldestSequence() {
+        return Math.max(firstSequence, nextSequence - slots.length);
+    }
+
+    /**
+     * Sequence number the next append will get.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) slots.length);
+    }
+}
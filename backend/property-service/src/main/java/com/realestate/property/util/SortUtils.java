@@ -0,0 +1,34 @@
+package com.realestate.property.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsing of the {@code sort} request parameters of the paginated endpoints.
+ */
+public class SortUtils {
+
+    /**
+     * Parses {@code sort} request parameters, either {@code property,direction} pairs or a single
+     * property and direction split by Spring into two values.
+     */
+    public static Sort parseSort(String[] sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+
+        if (sort[0].contains(",")) {
+            for (String sortOrder : sort) {
+                String[] _sort = sortOrder.split(",");
+                orders.add(new Sort.Order(getSortDirection(_sort[1]), _sort[0]));
+            }
+        } else {
+            orders.add(new Sort.Order(getSortDirection(sort[1]), sort[0]));
+        }
+        return Sort.by(orders);
+    }
+
+    private static Sort.Direction getSortDirection(String direction) {
+        return direction.equals("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+}
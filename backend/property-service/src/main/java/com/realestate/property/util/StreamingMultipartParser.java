@@ -0,0 +1,240 @@
+package com.realestate.property.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental {@code multipart/form-data} reader. Parts are handed out one at a time as streams
+ * over a single fixed-size buffer, so a part of any size passes through without being spooled to
+ * memory or disk. Each part must be consumed (or is skipped) before the next one is read.
+ */
+public class StreamingMultipartParser {
+
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+    private PartInputStream current;
+    private boolean finished;
+
+    public StreamingMultipartParser(InputStream in, String boundary, int bufferSize) {
+        this.in = in;
+        // The opening boundary has no preceding line break; pretending the body starts with one
+        // lets every boundary be found with the same delimiter
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.buffer = new byte[Math.max(bufferSize, delimiter.length * 2 + 2)];
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.tail = 2;
+        // The preamble is a part without headers that nobody reads
+        this.current = new PartInputStream();
+    }
+
+    /**
+     * Extracts the boundary parameter of a {@code multipart/form-data} content type.
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            throw new IllegalArgumentException("Expected a multipart/form-data request");
+        }
+        String boundary = parameters(contentType).get("boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("Missing or invalid multipart boundary");
+        }
+        return boundary;
+    }
+
+    /**
+     * Advances to the next part, skipping whatever is left of the current one. Returns
+     * {@code null} after the closing boundary.
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        current.skipRemaining();
+
+        // A boundary is followed by "--" on the last part, otherwise by a line break
+        if (readByte() == '-' && readByte() == '-') {
+            finished = true;
+            return null;
+        }
+        skipToLineEnd();
+
+        Map<String, String> headers = readHeaders();
+        current = new PartInputStream();
+        return new Part(headers, current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        StringBuilder line = new StringBuilder();
+        int total = 0;
+        while (true) {
+            int b = readByte();
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers exceed " + MAX_HEADER_BYTES + " bytes");
+            }
+            if (b == '\r') {
+                continue;
+            }
+            if (b != '\n') {
+                line.append((char) b);
+                continue;
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            int colon = line.indexOf(":");
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+            }
+            line.setLength(0);
+        }
+    }
+
+    private void skipToLineEnd() throws IOException {
+        int b;
+        do {
+            b = readByte();
+        } while (b != '\n');
+    }
+
+    private int readByte() throws IOException {
+        if (head == tail && !fill()) {
+            throw new IOException("Unexpected end of multipart body");
+        }
+        return buffer[head++] & 0xff;
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads more behind them.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = in.read(buffer, tail, buffer.length - tail);
+        if (read == -1) {
+            eof = true;
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    static Map<String, String> parameters(String headerValue) {
+        Map<String, String> parameters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String parameter : headerValue.split(";")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                String value = parameter.substring(equals + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                parameters.put(parameter.substring(0, equals).trim(), value);
+            }
+        }
+        return parameters;
+    }
+
+    public record Part(Map<String, String> headers, InputStream body) {
+
+        public String name() {
+            return dispositionParameter("name");
+        }
+
+        /**
+         * Null for plain form fields.
+         */
+        public String fileName() {
+            return dispositionParameter("filename");
+        }
+
+        public String contentType() {
+            return headers.get("Content-Type");
+        }
+
+        private String dispositionParameter(String name) {
+            String disposition = headers.get("Content-Disposition");
+            return disposition == null ? null : parameters(disposition).get(name);
+        }
+    }
+
+    /**
+     * Body of one part: everything up to the next delimiter. Bytes that could be the start of a
+     * delimiter are held back until enough data has arrived to tell.
+     */
+    private final class PartInputStream extends InputStream {
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                int delimiterAt = indexOfDelimiter();
+                if (delimiterAt == head) {
+                    head += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                int available = delimiterAt >= 0 ? delimiterAt - head : tail - head - (delimiter.length - 1);
+                if (available > 0) {
+                    int count = Math.min(length, available);
+                    System.arraycopy(buffer, head, target, offset, count);
+                    head += count;
+                    return count;
+                }
+                if (!fill()) {
+                    throw new IOException("Unexpected end of multipart body");
+                }
+            }
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] scratch = new byte[1024];
+            while (read(scratch, 0, scratch.length) != -1) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+-- Measures table and index size of the string layout versus the coded layout on a generated
+-- catalogue of one million listings. Run against a scratch PostgreSQL database:
+--   psql -d scratch -f compact-codes-footprint.sql
+-- Everything is created in a temporary schema that is dropped at the end.
+
+CREATE SCHEMA footprint;
+SET search_path = footprint;
+
+CREATE TABLE cities AS
+SELECT n AS id, 'City ' || n AS city, (ARRAY['ON','QC','BC','AB','MB','SK','NS','NB','NL','PE'])[1 + n % 10] AS state
+FROM generate_series(1, 2000) n;
+
+CREATE TABLE properties_strings (
+    id          BIGSERIAL PRIMARY KEY,
+    type        VARCHAR(255),
+    status      VARCHAR(255),
+    price       NUMERIC(38, 2),
+    city        VARCHAR(255),
+    state       VARCHAR(255),
+    updated_at  TIMESTAMP
+);
+
+CREATE TABLE locations (
+    id      SERIAL PRIMARY KEY,
+    city    VARCHAR(100) NOT NULL,
+    state   VARCHAR(50)  NOT NULL,
+    UNIQUE (city, state)
+);
+
+CREATE TABLE properties_coded (
+    id          BIGSERIAL PRIMARY KEY,
+    type        SMALLINT,
+    status      SMALLINT,
+    price       NUMERIC(38, 2),
+    location_id INTEGER,
+    updated_at  TIMESTAMP
+);
+
+INSERT INTO properties_strings (type, status, price, city, state, updated_at)
+SELECT (ARRAY['APARTMENT','HOUSE','COMMERCIAL','CONDO'])[1 + n % 4],
+       (ARRAY['AVAILABLE','AVAILABLE','AVAILABLE','SOLD','RENTED'])[1 + (n / 7) % 5],
+       100000 + (n % 900) * 1000,
+       c.city, c.state,
+       now() - (n % 1000) * interval '1 day'
+FROM generate_series(1, 1000000) n
+JOIN cities c ON c.id = 1 + n % 2000;
+
+INSERT INTO locations (city, state) SELECT city, state FROM cities ORDER BY id;
+
+INSERT INTO properties_coded (type, status, price, location_id, updated_at)
+SELECT CASE type WHEN 'APARTMENT' THEN 1 WHEN 'HOUSE' THEN 2 WHEN 'COMMERCIAL' THEN 3 ELSE 4 END,
+       CASE status WHEN 'AVAILABLE' THEN 1 WHEN 'SOLD' THEN 2 ELSE 3 END,
+       price, l.id, updated_at
+FROM properties_strings p
+JOIN locations l ON l.city = p.city AND l.state = p.state
+ORDER BY p.id;
+
+-- The indexes the service relies on for filtering
+CREATE INDEX strings_status_updated_at ON properties_strings (status, updated_at);
+CREATE INDEX strings_type ON properties_strings (type);
+CREATE INDEX strings_city ON properties_strings (city);
+CREATE INDEX strings_state ON properties_strings (state);
+
+CREATE INDEX coded_status_updated_at ON properties_coded (status, updated_at);
+CREATE INDEX coded_type ON properties_coded (type);
+CREATE INDEX coded_location_id ON properties_coded (location_id);
+
+VACUUM ANALYZE properties_strings;
+VACUUM ANALYZE properties_coded;
+VACUUM ANALYZE locations;
+
+SELECT relname AS relation,
+       pg_size_pretty(pg_relation_size(c.oid)) AS size,
+       pg_relation_size(c.oid) AS bytes
+FROM pg_class c
+JOIN pg_namespace n ON n.oid = c.relnamespace
+WHERE n.nspname = 'footprint' AND c.relkind IN ('r', 'i')
+ORDER BY relname;
+
+SELECT 'strings' AS layout,
+       pg_size_pretty(pg_table_size('properties_strings')) AS heap,
+       pg_size_pretty(pg_indexes_size('properties_strings')) AS indexes
+UNION ALL
+SELECT 'coded',
+       pg_size_pretty(pg_table_size('properties_coded') + pg_table_size('locations')),
+       pg_size_pretty(pg_indexes_size('properties_coded') + pg_indexes_size('locations'));
+
+RESET search_path;
+DROP SCHEMA footprint CASCADE;
@@ -0,0 +1,63 @@
+-- One-off PostgreSQL migration for databases created before type/status were stored as codes
+-- and city/state were moved to the locations dictionary. Run once, before deploying the new
+-- property-service build (ddl-auto=update does not change column types).
+--
+-- Sharded deployments: location ids must be identical on every shard. Run this on shard 0
+-- first, copy its locations table to the other shards (pg_dump --data-only -t locations) and
+-- only then run it on each remaining shard.
+--
+-- type:   1=APARTMENT, 2=HOUSE, 3=COMMERCIAL, 4=CONDO. The TOWNHOUSE rows of the old seed data,
+--         a type the API never had, become HOUSE.
+-- status: 1=AVAILABLE, 2=SOLD, 3=RENTED
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS locations (
+    id      SERIAL PRIMARY KEY,
+    city    VARCHAR(100) NOT NULL,
+    state   VARCHAR(50)  NOT NULL,
+    CONSTRAINT uk_locations_city_state UNIQUE (city, state)
+);
+
+INSERT INTO locations (city, state)
+SELECT DISTINCT city, state FROM properties WHERE city IS NOT NULL AND state IS NOT NULL
+UNION
+SELECT DISTINCT city, state FROM archived_properties WHERE city IS NOT NULL AND state IS NOT NULL
+ON CONFLICT (city, state) DO NOTHING;
+
+-- Hot tier
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS location_id INTEGER;
+UPDATE properties p SET location_id = l.id FROM locations l WHERE l.city = p.city AND l.state = p.state;
+
+DROP INDEX IF EXISTS idx_properties_status_updated_at;
+ALTER TABLE properties
+    ALTER COLUMN type TYPE SMALLINT USING CASE type
+        WHEN 'APARTMENT' THEN 1 WHEN 'HOUSE' THEN 2 WHEN 'COMMERCIAL' THEN 3
+        WHEN 'CONDO' THEN 4 WHEN 'TOWNHOUSE' THEN 2 END,
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'AVAILABLE' THEN 1 WHEN 'SOLD' THEN 2 WHEN 'RENTED' THEN 3 END,
+    DROP COLUMN city,
+    DROP COLUMN state;
+CREATE INDEX idx_properties_status_updated_at ON properties (status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_properties_location_id ON properties (location_id);
+
+-- Cold tier
+ALTER TABLE archived_properties ADD COLUMN IF NOT EXISTS location_id INTEGER;
+UPDATE archived_properties p SET location_id = l.id FROM locations l WHERE l.city = p.city AND l.state = p.state;
+
+ALTER TABLE archived_properties
+    ALTER COLUMN type TYPE SMALLINT USING CASE type
+        WHEN 'APARTMENT' THEN 1 WHEN 'HOUSE' THEN 2 WHEN 'COMMERCIAL' THEN 3
+        WHEN 'CONDO' THEN 4 WHEN 'TOWNHOUSE' THEN 2 END,
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'AVAILABLE' THEN 1 WHEN 'SOLD' THEN 2 WHEN 'RENTED' THEN 3 END,
+    DROP COLUMN city,
+    DROP COLUMN state;
+
+-- History
+ALTER TABLE property_history
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'AVAILABLE' THEN 1 WHEN 'SOLD' THEN 2 WHEN 'RENTED' THEN 3 END;
+
+COMMIT;
+
@@ -0,0 +1,25 @@
+-- One-off PostgreSQL migration for databases where favorite_properties lost its foreign key to
+-- properties while archiving kept favorites of archived listings. Archiving now deletes them, so
+-- this removes the ones left behind and restores the key; it does nothing where the key is
+-- still there. Run on every shard.
+
+BEGIN;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_constraint c
+        WHERE c.conrelid = 'favorite_properties'::regclass
+          AND c.confrelid = 'properties'::regclass
+          AND c.contype = 'f'
+    ) THEN
+        DELETE FROM favorite_properties f
+        WHERE NOT EXISTS (SELECT 1 FROM properties p WHERE p.id = f.property_id);
+
+        ALTER TABLE favorite_properties
+            ADD CONSTRAINT fk_favorite_properties_property FOREIGN KEY (property_id) REFERENCES properties (id);
+    END IF;
+END $$;
+
+COMMIT;
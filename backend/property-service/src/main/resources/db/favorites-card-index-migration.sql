@@ -0,0 +1,10 @@
+-- One-off PostgreSQL migration that drops the index favorite cards were paged by before their
+-- keyset moved from the favorite id to the property id. ddl-auto=update creates
+-- idx_favorite_properties_user_created_property but never drops the old index. Run on every
+-- shard.
+
+BEGIN;
+
+DROP INDEX IF EXISTS idx_favorite_properties_user_created;
+
+COMMIT;
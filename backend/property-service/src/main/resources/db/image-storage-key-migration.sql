@@ -0,0 +1,15 @@
+-- One-off PostgreSQL migration that records the storage key of images uploaded before keys
+-- were stored on property_images. ddl-auto=update adds the column; this fills it in. Rows left
+-- NULL keep working through the URL fallback in ImageServiceUtils.storageKeyOf, so the
+-- migration can run after the deploy. Run on every shard.
+
+BEGIN;
+
+ALTER TABLE property_images ADD COLUMN IF NOT EXISTS storage_key VARCHAR(512);
+
+UPDATE property_images
+SET storage_key = substring(url FROM 'properties/.*$')
+WHERE storage_key IS NULL
+  AND url ~ '^https?://';
+
+COMMIT;
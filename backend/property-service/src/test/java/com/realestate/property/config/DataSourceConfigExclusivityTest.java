@@ -0,0 +1,33 @@
+package com.realestate.property.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataSourceConfigExclusivityTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ShardingDataSourceConfig.class, ReadReplicaDataSourceConfig.class);
+
+    @Test
+    void refusesToStartWithShardingAndReadRouting() {
+        contextRunner
+                .withPropertyValues("app.sharding.enabled=true", "app.sharding.shard-urls=jdbc:h2:mem:shard1",
+                        "app.datasource.read-routing.enabled=true",
+                        "app.datasource.read-routing.replica-urls=jdbc:h2:mem:replica1")
+                .run(context -> {
+                    Throwable failure = context.getStartupFailure();
+                    assertNotNull(failure);
+                    Throwable cause = failure;
+                    while (cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                    // Not a clash over the dataSource bean: the replica configuration is left out
+                    assertInstanceOf(IllegalStateException.class, cause);
+                    assertTrue(cause.getMessage().contains("app.datasource.read-routing.enabled"));
+                });
+    }
+}
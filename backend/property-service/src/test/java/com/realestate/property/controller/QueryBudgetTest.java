@@ -0,0 +1,157 @@
+package com.realestate.property.controller;
+
+import com.realestate.property.model.FavoriteProperty;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.FavoritePropertyRepository;
+import com.realestate.property.repository.PropertyRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the listing endpoints against the pages their {@code @QueryBudget}s are sized for, with
+ * budgets enforced, so a request over its budget fails. Every test files its listings under a
+ * city another instance allocated, so the dictionary preload is counted as well.
+ */
+@SpringBootTest(properties = {
+        "app.sql-instrumentation.enabled=true",
+        "app.sql-instrumentation.enforce-budgets=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final String USER = "buyer@example.com";
+    // More than a page, so the page count is queried too
+    private static final int LISTINGS = 25;
+    private static final int PAGE_SIZE = 20;
+    private static final int PHOTOS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private FavoritePropertyRepository favoriteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Property> listings = new ArrayList<>();
+    private String city;
+
+    @BeforeEach
+    void setUp() {
+        city = "City " + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO locations (city, state) VALUES (?, 'ON')", city);
+        Integer locationId = jdbcTemplate.queryForObject("SELECT id FROM locations WHERE city = ?", Integer.class, city);
+        for (int i = 0; i < LISTINGS; i++) {
+            Property property = propertyRepository.save(listing("House " + i, locationId));
+            listings.add(property);
+            FavoriteProperty favorite = new FavoriteProperty();
+            favorite.setProperty(property);
+            favorite.setUserEmail(USER);
+            favoriteRepository.save(favorite);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        favoriteRepository.deleteAll();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void getPropertyStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties/{id}", listings.get(0).getId()), "GET /api/properties/{id}");
+    }
+
+    @Test
+    void getAllPropertiesStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties").param("size", String.valueOf(PAGE_SIZE)), "GET /api/properties");
+    }
+
+    @Test
+    void getCataloguePageStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties/catalogue").param("limit", String.valueOf(PAGE_SIZE)),
+                "GET /api/properties/catalogue");
+    }
+
+    @Test
+    void searchPropertiesStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties/search").param("city", city).param("size", String.valueOf(PAGE_SIZE)),
+                "GET /api/properties/search");
+    }
+
+    @Test
+    void getFavoritePropertiesStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties/favorites").param("size", String.valueOf(PAGE_SIZE)),
+                "GET /api/properties/favorites");
+    }
+
+    @Test
+    void getFavoriteCardsStaysWithinItsBudget() throws Exception {
+        perform(get("/api/properties/favorites/cards").param("size", String.valueOf(PAGE_SIZE)),
+                "GET /api/properties/favorites/cards");
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, String endpoint) throws Exception {
+        mockMvc.perform(request.header("X-User-Email", USER)).andExpect(status().isOk());
+        // Counted at all, so the budget was actually checked
+        DistributionSummary statements = meterRegistry.get("property.sql.statements")
+                .tag("endpoint", endpoint)
+                .summary();
+        assertTrue(statements.max() > 0);
+    }
+
+    private static Property listing(String title, int locationId) {
+        Property property = new Property();
+        property.setTitle(title);
+        property.setDescription(title);
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setLocationId(locationId);
+        property.setZipCode("12345");
+        for (int i = 0; i < PHOTOS; i++) {
+            Image image = new Image();
+            image.setName("photo" + i + ".jpg");
+            image.setType("image/jpeg");
+            image.setUrl("http://localhost:8081/photo" + i + ".jpg");
+            image.setDisplayOrder(i);
+            image.setProperty(property);
+            property.getImages().add(image);
+        }
+        return property;
+    }
+}
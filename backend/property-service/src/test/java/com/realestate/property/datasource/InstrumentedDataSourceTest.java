@@ -0,0 +1,103 @@
+package com.realestate.property.datasource;
+
+import com.realestate.property.config.SqlInstrumentationInterceptor;
+import com.realestate.property.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class InstrumentedDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlInstrumentationInterceptor interceptor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new InstrumentedDataSource(h2, Duration.ofSeconds(10)));
+        jdbcTemplate.execute("CREATE TABLE listings (id BIGINT PRIMARY KEY, title VARCHAR(100))");
+        for (int i = 1; i <= 10; i++) {
+            jdbcTemplate.update("INSERT INTO listings VALUES (?, ?)", i, "Listing " + i);
+        }
+
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new SqlInstrumentationInterceptor(meterRegistry);
+        ReflectionTestUtils.setField(interceptor, "nPlusOneThreshold", 5);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ListingController(jdbcTemplate))
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @Test
+    void countsStatementsAndRowsPerEndpoint() throws Exception {
+        mockMvc.perform(get("/listings/titles/8")).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("property.sql.statements")
+                .tag("endpoint", "GET /listings/titles/{count}").summary();
+        assertEquals(1, statements.count());
+        assertEquals(9, statements.totalAmount());
+        assertEquals(16, meterRegistry.get("property.sql.rows").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("property.sql.suspected_n_plus_one").counter().count());
+    }
+
+    @Test
+    void failsRequestsOverTheirBudgetWhenEnforced() throws Exception {
+        ReflectionTestUtils.setField(interceptor, "enforceBudgets", true);
+        mockMvc.perform(get("/listings/titles/2")).andExpect(status().isOk());
+
+        ServletException e = assertThrows(ServletException.class,
+                () -> mockMvc.perform(get("/listings/titles/3")));
+        assertInstanceOf(QueryBudgetExceededException.class, e.getCause());
+        assertNull(RequestSqlStats.current());
+    }
+
+    @Test
+    void shapesIgnoreLiteralsAndInListLengths() {
+        assertEquals(RequestSqlStats.shapeOf("select * from p p1_0 where p1_0.id in (?, ?, ?) and city = 'Paris'"),
+                RequestSqlStats.shapeOf("select *  from p p1_0\nwhere p1_0.id in (?,?) and city = 'O''Brien'"));
+        assertEquals("select t1_0.id from t t1_0 where t1_0.price > ?",
+                RequestSqlStats.shapeOf("select t1_0.id from t t1_0 where t1_0.price > 12.5"));
+    }
+
+    @RestController
+    static class ListingController {
+        private final JdbcTemplate jdbcTemplate;
+
+        ListingController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        // One query for the ids, then one per listing: the N+1 this instrumentation looks for
+        @QueryBudget(3)
+        @GetMapping("/listings/titles/{count}")
+        List<String> titles(@PathVariable int count) {
+            return jdbcTemplate.queryForList("SELECT id FROM listings WHERE id <= ? ORDER BY id", Long.class, count)
+                    .stream()
+                    .map(id -> jdbcTemplate.queryForObject("SELECT title FROM listings WHERE id = " + id, String.class))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.realestate.property.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaHealthMonitor healthMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = embeddedDatabase("primary");
+        replica = embeddedDatabase("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        new JdbcTemplate(replica).execute("INSERT INTO replica_lag VALUES (0)");
+
+        healthMonitor = new ReplicaHealthMonitor(Map.of("replica-1", replica),
+                "SELECT seconds FROM replica_lag", Duration.ofSeconds(5), 1);
+        healthMonitor.checkReplicas();
+
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary,
+                Map.of("replica-1", replica), healthMonitor, new ReadYourWritesTracker(Duration.ofMinutes(1)));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        readTx = new TransactionTemplate(txManager);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(txManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", readMarker(readTx));
+        assertEquals("primary", readMarker(writeTx));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 30");
+        healthMonitor.checkReplicas();
+
+        assertEquals(List.of(), healthMonitor.getHealthyReplicas());
+        assertEquals("primary", readMarker(readTx));
+    }
+
+    @Test
+    void readsStickToPrimaryAfterUserWrite() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "agent@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        assertEquals("replica", readMarker(readTx));
+        writeTx.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = TRUE"));
+        assertEquals("primary", readMarker(readTx));
+
+        SecurityContextHolder.clearContext();
+        assertEquals("replica", readMarker(readTx));
+    }
+
+    private String readMarker(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static DataSource embeddedDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20), touched BOOLEAN DEFAULT FALSE)");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,44 @@
+package com.realestate.property.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Type and status are stored as stable small-integer codes that must round-trip through the column
+ * converters. The heap they save is measured by ListingFootprintBenchmark in the benchmarks module,
+ * table and index sizes by db/compact-codes-footprint.sql.
+ */
+class PropertyCodeConverterTest {
+
+    @Test
+    void typeCodesRoundTripThroughTheConverter() {
+        PropertyTypeConverter converter = new PropertyTypeConverter();
+        Set<Short> codes = new HashSet<>();
+        for (PropertyType type : PropertyType.values()) {
+            Short code = converter.convertToDatabaseColumn(type);
+            assertTrue(codes.add(code), "duplicate code " + code);
+            assertEquals(type, converter.convertToEntityAttribute(code));
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) 0));
+    }
+
+    @Test
+    void statusCodesRoundTripThroughTheConverter() {
+        PropertyStatusConverter converter = new PropertyStatusConverter();
+        Set<Short> codes = new HashSet<>();
+        for (PropertyStatus status : PropertyStatus.values()) {
+            Short code = converter.convertToDatabaseColumn(status);
+            assertTrue(codes.add(code), "duplicate code " + code);
+            assertEquals(status, converter.convertToEntityAttribute(code));
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+}
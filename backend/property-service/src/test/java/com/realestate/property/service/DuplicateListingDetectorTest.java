@@ -0,0 +1,121 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.DuplicateClusterDTO;
+import com.realestate.property.dto.DuplicateListingDTO;
+import com.realestate.property.dto.DuplicateReportDTO;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.ListingSignatureRepository;
+import com.realestate.property.repository.PropertyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The event-driven indexer is off in the test profile; the report builds the index itself
+@SpringBootTest
+@ActiveProfiles("test")
+class DuplicateListingDetectorTest {
+
+    private static final String DESCRIPTION = "Bright detached family home on a quiet tree lined street, " +
+            "with an open plan kitchen, a finished basement, a double garage and a large south facing garden " +
+            "backing onto the park. Walking distance to schools, shops and the train station.";
+
+    @Autowired
+    private DuplicateListingDetector detector;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ListingSignatureRepository signatureRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM listing_signature_buckets");
+        signatureRepository.deleteAll();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void clustersNearDuplicatesSharingBuckets() {
+        Property original = propertyRepository.save(listing("Detached home near the park", DESCRIPTION, "12 Maple Street"));
+        // Re-posted with the address abbreviated and one sentence reworded
+        Property repost = propertyRepository.save(listing("Detached home near the park",
+                DESCRIPTION.replace("Walking distance to", "A short walk to"), "12 Maple St"));
+        Property other = propertyRepository.save(listing("Downtown loft",
+                "Converted warehouse loft with exposed brick, concrete floors and a rooftop terrace.", "400 King Ave"));
+
+        DuplicateReportDTO report = detector.buildReport();
+
+        assertTrue(report.getListingsScanned() >= 3);
+        Optional<DuplicateClusterDTO> cluster = clusterOf(report, original.getId());
+        assertTrue(cluster.isPresent());
+        assertEquals(List.of(original.getId(), repost.getId()), cluster.get().getPropertyIds());
+        assertTrue(cluster.get().getMinSimilarity() >= 0.8);
+        assertTrue(clusterOf(report, other.getId()).isEmpty());
+
+        List<DuplicateListingDTO> duplicates = detector.findDuplicates(original.getId());
+        assertEquals(List.of(repost.getId()), duplicates.stream().map(DuplicateListingDTO::getPropertyId).toList());
+        assertTrue(detector.findDuplicates(other.getId()).isEmpty());
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeWithoutEvents() {
+        Property original = propertyRepository.save(listing("Detached home near the park", DESCRIPTION, "12 Maple Street"));
+        Property repost = propertyRepository.save(listing("Detached home near the park", DESCRIPTION, "12 Maple Street"));
+        Property removed = propertyRepository.save(listing("Detached home near the park", DESCRIPTION, "12 Maple Street"));
+        assertEquals(3, clusterOf(detector.buildReport(), original.getId()).orElseThrow().getPropertyIds().size());
+
+        // Rewritten and removed behind the index's back
+        repost.setTitle("Downtown loft");
+        repost.setDescription("Converted warehouse loft with exposed brick, concrete floors and a rooftop terrace.");
+        repost.setAddress("400 King Ave");
+        propertyRepository.save(repost);
+        propertyRepository.deleteById(removed.getId());
+
+        DuplicateReportDTO report = detector.buildReport();
+
+        assertTrue(clusterOf(report, original.getId()).isEmpty());
+        assertTrue(clusterOf(report, repost.getId()).isEmpty());
+        assertTrue(detector.findDuplicates(original.getId()).isEmpty());
+        assertFalse(signatureRepository.existsById(removed.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM listing_signature_buckets WHERE property_id = ?", Integer.class, removed.getId()));
+    }
+
+    private static Optional<DuplicateClusterDTO> clusterOf(DuplicateReportDTO report, Long propertyId) {
+        return report.getClusters().stream()
+                .filter(cluster -> cluster.getPropertyIds().contains(propertyId))
+                .findFirst();
+    }
+
+    private static Property listing(String title, String description, String address) {
+        Property property = new Property();
+        property.setTitle(title);
+        property.setDescription(description);
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress(address);
+        property.setZipCode("12345");
+        return property;
+    }
+}
@@ -0,0 +1,161 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.FavoriteCardDTO;
+import com.realestate.property.dto.FavoriteCardPageDTO;
+import com.realestate.property.model.FavoriteProperty;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.FavoritePropertyRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.sharding.ShardTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Two shards, so favorite cards are merged across shards whose favorite ids overlap
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.shard-urls=jdbc:h2:mem:favorites-shard1-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.sharding.state-mapping=QC=1"
+})
+@ActiveProfiles("test")
+class FavoritePropertyServiceImplTest {
+
+    private static final String BUYER = "buyer@example.com";
+
+    @Autowired
+    private FavoritePropertyService favoriteService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private FavoritePropertyRepository favoriteRepository;
+
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (int shard = 0; shard < 2; shard++) {
+            shardTemplate.inNewTransaction(shard, () -> {
+                favoriteRepository.deleteAll();
+                propertyRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void countsFavoritesOfSeveralPropertiesAtOnce() {
+        Property popular = propertyRepository.save(listing("Popular"));
+        Property liked = propertyRepository.save(listing("Liked"));
+        Property ignored = propertyRepository.save(listing("Ignored"));
+        favorite(popular, "a@example.com");
+        favorite(popular, "b@example.com");
+        favorite(liked, "a@example.com");
+
+        Map<Long, Long> counts = favoriteService.getFavoriteCounts(
+                List.of(popular.getId(), liked.getId(), ignored.getId(), popular.getId()));
+
+        assertEquals(Map.of(popular.getId(), 2L, liked.getId(), 1L, ignored.getId(), 0L), counts);
+        assertEquals(Map.of(), favoriteService.getFavoriteCounts(List.of()));
+    }
+
+    @Test
+    void pagesFavoriteCardsNewestFirstAcrossShards() {
+        LocalDateTime saved = LocalDateTime.of(2024, 3, 1, 9, 30);
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Alternating shards, so every page merges both
+            newestFirst.add(0, favoriteOnShard(i % 2, "House " + i, BUYER, saved.plusMinutes(i)));
+        }
+
+        FavoriteCardPageDTO first = favoriteService.getFavoriteCards(BUYER, null, 2);
+        FavoriteCardPageDTO second = favoriteService.getFavoriteCards(BUYER, first.getNextCursor(), 2);
+        FavoriteCardPageDTO last = favoriteService.getFavoriteCards(BUYER, second.getNextCursor(), 2);
+
+        assertEquals(newestFirst.subList(0, 2), propertyIds(first));
+        assertEquals(saved.plusMinutes(4), first.getContent().get(0).getFavoritedAt());
+        assertEquals(newestFirst.subList(2, 4), propertyIds(second));
+        assertEquals(newestFirst.subList(4, 5), propertyIds(last));
+        assertNull(last.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getFavoriteCards(BUYER, "not-a-cursor", 2));
+    }
+
+    @Test
+    void pagesThroughFavoritesSavedAtTheSameTimeOnBothShards() {
+        // Both shards number their favorites from the same id, so only property ids break the tie
+        LocalDateTime saved = LocalDateTime.of(2024, 3, 1, 9, 30);
+        List<Long> propertyIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            propertyIds.add(favoriteOnShard(i % 2, "House " + i, BUYER, saved));
+        }
+        favoriteOnShard(1, "Someone else's", "other@example.com", saved);
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            FavoriteCardPageDTO page = favoriteService.getFavoriteCards(BUYER, cursor, 2);
+            paged.addAll(propertyIds(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(propertyIds.stream().sorted(Comparator.reverseOrder()).toList(), paged);
+    }
+
+    // Saves a listing and its favorite on the given shard, favorited at the given time
+    private Long favoriteOnShard(int shard, String title, String userEmail, LocalDateTime savedAt) {
+        return shardTemplate.inNewTransaction(shard, () -> {
+            Property property = propertyRepository.save(listing(title));
+            FavoriteProperty favorite = favorite(property, userEmail);
+            // created_at is set on insert and never updated through the entity
+            jdbcTemplate.update("UPDATE favorite_properties SET created_at = ? WHERE id = ?", savedAt, favorite.getId());
+            return property.getId();
+        });
+    }
+
+    private static List<Long> propertyIds(FavoriteCardPageDTO page) {
+        return page.getContent().stream().map(FavoriteCardDTO::getPropertyId).toList();
+    }
+
+    private FavoriteProperty favorite(Property property, String userEmail) {
+        FavoriteProperty favorite = new FavoriteProperty();
+        favorite.setProperty(property);
+        favorite.setUserEmail(userEmail);
+        return favoriteRepository.save(favorite);
+    }
+
+    private static Property listing(String title) {
+        Property property = new Property();
+        property.setTitle(title);
+        property.setDescription(title);
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setZipCode("12345");
+        return property;
+    }
+}
@@ -0,0 +1,128 @@
+package com.realestate.property.service;
+
+import com.realestate.property.event.ImagesReleasedEvent.ReleasedImage;
+import com.realestate.property.model.ImageBlob;
+import com.realestate.property.model.ImageTombstone;
+import com.realestate.property.repository.ImageBlobRepository;
+import com.realestate.property.repository.ImageTombstoneRepository;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import com.realestate.property.storage.LocalFileSystemImageStorage;
+import com.realestate.property.util.ImageServiceUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageBlobRegistryTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+    private static final String HASH = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path root;
+
+    private final Map<String, ImageBlob> blobs = new HashMap<>();
+    private final List<String> tombstones = new ArrayList<>();
+    private LocalFileSystemImageStorage storage;
+    private ImageBlobRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageBlobRepository repository = mock(ImageBlobRepository.class);
+        when(repository.findByIdForUpdate(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(blobs.get(invocation.<String>getArgument(0))));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> save(invocation.getArgument(0)));
+        when(repository.save(any())).thenAnswer(invocation -> save(invocation.getArgument(0)));
+        doAnswer(invocation -> blobs.remove(invocation.<ImageBlob>getArgument(0).getStorageKey()))
+                .when(repository).delete(any());
+
+        ImageTombstoneRepository tombstoneRepository = mock(ImageTombstoneRepository.class);
+        when(tombstoneRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<List<ImageTombstone>>getArgument(0).forEach(tombstone -> tombstones.add(tombstone.getStorageKey()));
+            return invocation.getArgument(0);
+        });
+        when(tombstoneRepository.deleteByContentHash(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            tombstones.removeIf(key -> hash.equals(ImageServiceUtils.contentHashOf(key)));
+            return 0;
+        });
+
+        ShardTemplate shardTemplate = mock(ShardTemplate.class);
+        when(shardTemplate.inNewTransaction(anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        storage = new LocalFileSystemImageStorage(root.toString(), "http://localhost:8081", "secret", 5);
+        registry = new ImageBlobRegistry(repository, tombstoneRepository, new ShardRouter(false, List.of(), "", 0),
+                shardTemplate, storage, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void tombstonesSharedObjectWithItsLastReference() {
+        String key = ImageServiceUtils.generateContentStorageKey(HASH, "image/jpeg");
+        String variantKey = ImageServiceUtils.generateVariantStorageKey(key, "card");
+        assertFalse(registry.acquire(key, HASH, DATA.length));
+        put(key);
+        put(variantKey);
+        assertTrue(registry.acquire(key, HASH, DATA.length));
+        assertEquals(2, blobs.get(key).getRefCount());
+
+        registry.release(List.of(new ReleasedImage(key, List.of(variantKey))));
+        assertTrue(tombstones.isEmpty());
+
+        registry.release(List.of(new ReleasedImage(key, List.of())));
+        assertTrue(tombstones.containsAll(List.of(key, variantKey)));
+        assertTrue(blobs.isEmpty());
+        // Deletion is left to the reconciler
+        assertTrue(storage.head(key).isPresent());
+    }
+
+    @Test
+    void reuploadTakesBackTombstonedObjects() {
+        String key = ImageServiceUtils.generateContentStorageKey(HASH, "image/jpeg");
+        registry.acquire(key, HASH, DATA.length);
+        put(key);
+        registry.release(List.of(new ReleasedImage(key, List.of())));
+        assertTrue(tombstones.contains(key));
+
+        assertTrue(registry.acquire(key, HASH, DATA.length));
+        assertTrue(tombstones.isEmpty());
+    }
+
+    @Test
+    void tombstonesUntrackedImagesImmediately() {
+        String key = "properties/1/legacy.jpg";
+        String variantKey = "properties/1/variants/card/legacy.jpg";
+
+        registry.release(List.of(new ReleasedImage(key, List.of(variantKey))));
+        assertEquals(List.of(key, variantKey), tombstones);
+    }
+
+    private ImageBlob save(ImageBlob blob) {
+        blobs.put(blob.getStorageKey(), blob);
+        return blob;
+    }
+
+    private void put(String key) {
+        storage.put(key, new ByteArrayInputStream(DATA), DATA.length, "image/jpeg");
+    }
+}
@@ -0,0 +1,196 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.ImageObjectInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageDiskCacheTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void admitsOnlyRepeatedlyRequestedKeysAndServesRanges() throws Exception {
+        ImageDiskCache cache = newCache(1);
+        AtomicInteger downloads = new AtomicInteger();
+        ImageDiskCache.ObjectDownloader downloader = (key, target) -> {
+            downloads.incrementAndGet();
+            Files.write(target, DATA);
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(cache.stream(info("a"), 0, 9, out, downloader));
+        assertEquals(0, out.size());
+
+        assertTrue(cache.stream(info("a"), 0, 9, out, downloader));
+        assertArrayEquals(DATA, out.toByteArray());
+
+        out.reset();
+        assertTrue(cache.stream(info("a"), 3, 5, out, downloader));
+        assertEquals("345", out.toString());
+        assertEquals(1, downloads.get());
+        assertTrue(cache.getInfo("a").isPresent());
+    }
+
+    @Test
+    void concurrentMissesShareOneDownload() throws Exception {
+        ImageDiskCache cache = newCache(1);
+        cache.stream(info("b"), 0, 9, new ByteArrayOutputStream(), (key, target) -> { });
+
+        AtomicInteger downloads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ImageDiskCache.ObjectDownloader slowDownloader = (key, target) -> {
+            downloads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.write(target, DATA);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] requests = new Future<?>[4];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = pool.submit(() -> cache.stream(info("b"), 0, 9, new ByteArrayOutputStream(), slowDownloader));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<?> request : requests) {
+                assertEquals(Boolean.TRUE, request.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    void racingMissesCountEachCachedFileOnce() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImageDiskCache cache = new ImageDiskCache(true, directory.resolve("cache").toString(), 1, 1, meterRegistry);
+        ImageDiskCache.ObjectDownloader downloader = (key, target) -> Files.write(target, DATA);
+
+        // Misses that looked the key up before another one finished loading it must not load it again
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 500; round++) {
+                String key = "r" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?>[] requests = new Future<?>[8];
+                for (int i = 0; i < requests.length; i++) {
+                    requests[i] = pool.submit(() -> {
+                        start.await();
+                        return cache.stream(info(key), 0, 9, new ByteArrayOutputStream(), downloader);
+                    });
+                }
+                start.countDown();
+                for (Future<?> request : requests) {
+                    assertEquals(Boolean.TRUE, request.get(5, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long bytesOnDisk;
+        try (Stream<Path> files = Files.list(directory.resolve("cache"))) {
+            bytesOnDisk = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertEquals(500L * DATA.length, bytesOnDisk);
+        assertEquals(bytesOnDisk, meterRegistry.get("property.images.disk_cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidateRemovesEntry() throws Exception {
+        ImageDiskCache cache = newCache(1);
+        ImageDiskCache.ObjectDownloader downloader = (key, target) -> Files.write(target, DATA);
+        cache.stream(info("c"), 0, 9, new ByteArrayOutputStream(), downloader);
+        cache.stream(info("c"), 0, 9, new ByteArrayOutputStream(), downloader);
+        assertTrue(cache.getInfo("c").isPresent());
+
+        cache.invalidate("c");
+
+        assertFalse(cache.getInfo("c").isPresent());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesFirst() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(true, directory.resolve("cache").toString(), 1, 1,
+                new SimpleMeterRegistry());
+        byte[] object = new byte[100_000];
+        ImageDiskCache.ObjectDownloader downloader = (key, target) -> Files.write(target, object);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cache.stream(info("k" + i, object.length), 0, 0, new ByteArrayOutputStream(), downloader));
+        }
+        // k0 becomes the most recently used, leaving k1 and k2 at the head
+        assertTrue(cache.stream(info("k0", object.length), 0, 0, new ByteArrayOutputStream(), downloader));
+
+        // The cache is full: a new key only displaces the LRU entry once it is requested more often
+        assertFalse(cache.stream(info("k10", object.length), 0, 0, new ByteArrayOutputStream(), downloader));
+        assertTrue(cache.stream(info("k10", object.length), 0, 0, new ByteArrayOutputStream(), downloader));
+        cache.evict();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.getInfo("k2").isPresent() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(cache.getInfo("k1").isPresent());
+        assertFalse(cache.getInfo("k2").isPresent());
+        assertTrue(cache.getInfo("k0").isPresent());
+        assertTrue(cache.getInfo("k3").isPresent());
+        assertTrue(cache.getInfo("k10").isPresent());
+    }
+
+    @Test
+    void startupDeletesOnlyLeftoverCacheFiles() throws Exception {
+        Path cacheDirectory = Files.createDirectories(directory.resolve("cache"));
+        String entryName = "ab".repeat(32);
+        Files.write(cacheDirectory.resolve(entryName), DATA);
+        Files.write(cacheDirectory.resolve(entryName + ".part"), DATA);
+        Files.write(cacheDirectory.resolve("notes.txt"), DATA);
+        Files.createDirectories(cacheDirectory.resolve("other"));
+        Files.write(cacheDirectory.resolve("other").resolve(entryName), DATA);
+
+        newCache(1);
+
+        assertFalse(Files.exists(cacheDirectory.resolve(entryName)));
+        assertFalse(Files.exists(cacheDirectory.resolve(entryName + ".part")));
+        assertTrue(Files.exists(cacheDirectory.resolve("notes.txt")));
+        assertTrue(Files.exists(cacheDirectory.resolve("other").resolve(entryName)));
+    }
+
+    private ImageDiskCache newCache(long maxSizeMb) throws Exception {
+        return new ImageDiskCache(true, directory.resolve("cache").toString(), maxSizeMb, 2, new SimpleMeterRegistry());
+    }
+
+    private static ImageObjectInfo info(String key) {
+        return info(key, DATA.length);
+    }
+
+    private static ImageObjectInfo info(String key, long contentLength) {
+        return new ImageObjectInfo(key, key + ".jpg", "image/jpeg", contentLength, "etag", Instant.now());
+    }
+}
@@ -0,0 +1,149 @@
+package com.realestate.property.service;
+
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageBlob;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.ImageBlobRepository;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.repository.ImageTombstoneRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.util.ImageServiceUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Storage is a fresh temp directory per context. A negative grace period makes everything old
+// enough to reconcile; the scheduled runs are pushed out of the way.
+@SpringBootTest(properties = {
+        "app.images.reconciler.enabled=true",
+        "app.images.reconciler.verify-rows=true",
+        "app.images.reconciler.orphan-grace-hours=-1",
+        "app.images.reconciler.drain-interval-ms=3600000",
+        "app.images.reconciler.deletes-per-second=100000"
+})
+@ActiveProfiles("test")
+class ImageReconcilerTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    @Autowired
+    private ImageReconciler reconciler;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageTombstoneRepository imageTombstoneRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void deletesOrphansAndKeepsEverythingReferenced() {
+        Property property = propertyRepository.save(listing());
+
+        // Referenced through a row and its blob entry
+        String live = contentKey("aa");
+        store(live);
+        imageRepository.save(image(property, live, live));
+        blob(live);
+
+        // Written before storage keys were recorded, referenced by URL only
+        String legacy = "properties/" + property.getId() + "/legacy.jpg";
+        store(legacy);
+        imageRepository.save(image(property, null, legacy));
+
+        // A row whose object is gone is reported, not repaired
+        imageRepository.save(image(property, contentKey("dd"), contentKey("dd")));
+
+        // Nothing references these
+        String orphan = contentKey("bb");
+        store(orphan);
+        String staging = ImageServiceUtils.generateStagingKey();
+        store(staging);
+
+        // An upload that crashed after taking its reference but before inserting its row
+        String leaked = contentKey("cc");
+        store(leaked);
+        blob(leaked);
+
+        double missingBefore = meterRegistry.counter("property.images.reconciler.missing").count();
+        reconciler.reconcile();
+
+        assertTrue(imageTombstoneRepository.count() > 0);
+        assertFalse(imageBlobRepository.existsById(leaked));
+        assertTrue(imageBlobRepository.existsById(live));
+        assertEquals(1, meterRegistry.counter("property.images.reconciler.missing").count() - missingBefore);
+
+        reconciler.drainTombstones();
+
+        assertEquals(0, imageTombstoneRepository.count());
+        assertTrue(imageStorage.head(live).isPresent());
+        assertTrue(imageStorage.head(legacy).isPresent());
+        assertFalse(imageStorage.head(orphan).isPresent());
+        assertFalse(imageStorage.head(staging).isPresent());
+        assertFalse(imageStorage.head(leaked).isPresent());
+        assertEquals(3, imageRepository.count());
+    }
+
+    private static String contentKey(String prefix) {
+        return ImageServiceUtils.generateContentStorageKey(prefix + "0".repeat(62), "image/png");
+    }
+
+    private void store(String key) {
+        imageStorage.put(key, new ByteArrayInputStream(DATA), DATA.length, "image/png");
+    }
+
+    private void blob(String key) {
+        ImageBlob blob = new ImageBlob(key, ImageServiceUtils.contentHashOf(key), (long) DATA.length);
+        blob.setRefCount(1);
+        imageBlobRepository.save(blob);
+    }
+
+    private Image image(Property property, String storageKey, String key) {
+        Image image = new Image();
+        image.setName(key.substring(key.lastIndexOf('/') + 1));
+        image.setType("image/png");
+        image.setUrl(imageStorage.urlFor(key));
+        image.setStorageKey(storageKey);
+        image.setFileSize((long) DATA.length);
+        image.setProperty(property);
+        return image;
+    }
+
+    private static Property listing() {
+        Property property = new Property();
+        property.setTitle("House");
+        property.setDescription("House");
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setZipCode("12345");
+        return property;
+    }
+}
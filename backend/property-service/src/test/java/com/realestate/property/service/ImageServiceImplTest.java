@@ -0,0 +1,297 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.GalleryLayoutDTO;
+import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.ImageUploadResultDTO;
+import com.realestate.property.exception.ImageNotFoundException;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageTombstone;
+import com.realestate.property.model.ImageVariantStatus;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.ImageBlobRepository;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.repository.ImageTombstoneRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.util.ImageServiceUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ImageServiceImplTest {
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageTombstoneRepository imageTombstoneRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        imageRepository.deleteAll();
+        propertyRepository.deleteAll();
+        imageBlobRepository.deleteAll();
+        imageTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void uploadsSeveralImagesInOneBatchAfterTheExistingGallery() throws Exception {
+        Property property = propertyRepository.save(listing());
+        Image existing = new Image();
+        existing.setName("existing.jpg");
+        existing.setType("image/jpeg");
+        existing.setUrl("http://localhost:8081/existing.jpg");
+        existing.setDisplayOrder(4);
+        existing.setProperty(property);
+        imageRepository.save(existing);
+
+        List<ImageUploadResultDTO> results = imageService.uploadMultipleImages(property.getId(), List.of(
+                png("front.png", 0x336699),
+                new MockMultipartFile("files", "notes.png", "image/png", "not an image".getBytes()),
+                png("kitchen.png", 0x996633)));
+
+        // One result per file, in the order the files were sent
+        assertEquals(List.of("front.png", "notes.png", "kitchen.png"),
+                results.stream().map(ImageUploadResultDTO::getFileName).toList());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+
+        List<Image> uploaded = imageRepository.findByPropertyId(property.getId()).stream()
+                .filter(image -> image.getStorageKey() != null)
+                .sorted(Comparator.comparing(Image::getDisplayOrder))
+                .toList();
+        assertEquals(List.of(results.get(0).getImage().getId(), results.get(2).getImage().getId()),
+                uploaded.stream().map(Image::getId).toList());
+        assertEquals(List.of(5, 6), uploaded.stream().map(Image::getDisplayOrder).toList());
+        assertTrue(uploaded.stream().allMatch(image -> image.getVariantStatus() == ImageVariantStatus.PENDING));
+        assertEquals(2, imageBlobRepository.count());
+    }
+
+    @Test
+    void releasesEveryReferenceWhenTheRowsCannotBeInserted() throws Exception {
+        Property property = propertyRepository.save(listing());
+        // The listing goes away while its photos are being transferred
+        MockMultipartFile front = png("front.png", 0x123456);
+        MockMultipartFile kitchen = png("kitchen.png", 0x654321);
+        MultipartFile vanishing = new DeletingMultipartFile(front, () -> propertyRepository.deleteById(property.getId()));
+
+        assertThrows(RuntimeException.class, () -> imageService.uploadMultipleImages(property.getId(),
+                List.of(vanishing, kitchen)));
+
+        assertEquals(0, imageRepository.count());
+        assertEquals(0, imageBlobRepository.count());
+        // Both originals are queued for deletion
+        Set<String> tombstoned = imageTombstoneRepository.findAll().stream()
+                .map(ImageTombstone::getStorageKey)
+                .collect(Collectors.toSet());
+        assertTrue(tombstoned.contains(storageKeyOf(front)));
+        assertTrue(tombstoned.contains(storageKeyOf(kitchen)));
+    }
+
+    @Test
+    void singleUploadTakesItsReferenceInTheUploadTransaction() throws Exception {
+        Property property = propertyRepository.save(listing());
+        MockMultipartFile front = png("front.png", 0x224466);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            imageService.uploadImage(property.getId(), front);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, imageRepository.count());
+        assertTrue(imageBlobRepository.findById(storageKeyOf(front)).isEmpty());
+
+        imageService.uploadImage(property.getId(), front);
+        imageService.uploadImage(property.getId(), front);
+        assertEquals(2, imageBlobRepository.findById(storageKeyOf(front)).orElseThrow().getRefCount());
+    }
+
+    @Test
+    void reordersTheListedImagesAndAnswersInTheRequestedOrder() {
+        Property property = propertyRepository.save(listing());
+        Image first = image(property, "first.jpg", 0, true);
+        Image second = image(property, "second.jpg", 1, false);
+        Image third = image(property, "third.jpg", 2, false);
+
+        List<ImageDTO> reordered = imageService.reorderImages(property.getId(), List.of(third.getId(), first.getId()));
+
+        assertEquals(List.of(third.getId(), first.getId()), reordered.stream().map(ImageDTO::getId).toList());
+        assertEquals(List.of(0, 1), reordered.stream().map(ImageDTO::getDisplayOrder).toList());
+        // Images left out keep their position
+        assertEquals(Map.of(third.getId(), 0, first.getId(), 1, second.getId(), 1), displayOrders(property));
+    }
+
+    @Test
+    void switchesTheMainImage() {
+        Property property = propertyRepository.save(listing());
+        Image first = image(property, "first.jpg", 0, true);
+        Image second = image(property, "second.jpg", 1, false);
+
+        ImageDTO main = imageService.setMainImage(property.getId(), second.getId());
+        assertEquals(second.getId(), main.getId());
+        assertTrue(main.getIsMain());
+        assertEquals(Set.of(second.getId()), mainImageIds(property));
+
+        // Already the main image: nothing to update, still answered
+        assertTrue(imageService.setMainImage(property.getId(), second.getId()).getIsMain());
+        assertEquals(Set.of(second.getId()), mainImageIds(property));
+        assertFalse(imageRepository.findById(first.getId()).orElseThrow().getIsMain());
+    }
+
+    @Test
+    void appliesAWholeGalleryLayout() {
+        Property property = propertyRepository.save(listing());
+        Image first = image(property, "first.jpg", 0, true);
+        Image second = image(property, "second.jpg", 1, false);
+
+        imageService.updateGalleryLayout(property.getId(), layout(second.getId(), List.of(second.getId(), first.getId())));
+
+        assertEquals(Map.of(second.getId(), 0, first.getId(), 1), displayOrders(property));
+        assertEquals(Set.of(second.getId()), mainImageIds(property));
+    }
+
+    @Test
+    void rejectsImagesOfOtherPropertiesAndChangesNothing() {
+        Property property = propertyRepository.save(listing());
+        Image first = image(property, "first.jpg", 0, true);
+        Image second = image(property, "second.jpg", 1, false);
+        Property other = propertyRepository.save(listing());
+        Image foreign = image(other, "foreign.jpg", 0, true);
+        Long propertyId = property.getId();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> imageService.reorderImages(propertyId, List.of(second.getId(), foreign.getId(), first.getId())));
+        assertThrows(IllegalArgumentException.class, () -> imageService.setMainImage(propertyId, foreign.getId()));
+        assertThrows(IllegalArgumentException.class, () -> imageService.updateGalleryLayout(propertyId,
+                layout(foreign.getId(), List.of(second.getId(), first.getId(), foreign.getId()))));
+        // Every image must be listed
+        assertThrows(IllegalArgumentException.class,
+                () -> imageService.updateGalleryLayout(propertyId, layout(null, List.of(second.getId()))));
+        assertThrows(ImageNotFoundException.class,
+                () -> imageService.reorderImages(propertyId, List.of(second.getId(), Long.MAX_VALUE)));
+        assertThrows(ImageNotFoundException.class, () -> imageService.setMainImage(propertyId, Long.MAX_VALUE));
+
+        assertEquals(Map.of(first.getId(), 0, second.getId(), 1), displayOrders(property));
+        assertEquals(Set.of(first.getId()), mainImageIds(property));
+        assertEquals(Set.of(foreign.getId()), mainImageIds(other));
+    }
+
+    private Image image(Property property, String name, int displayOrder, boolean main) {
+        Image image = new Image();
+        image.setName(name);
+        image.setType("image/jpeg");
+        image.setUrl("http://localhost:8081/" + name);
+        image.setDisplayOrder(displayOrder);
+        image.setIsMain(main);
+        image.setProperty(property);
+        return imageRepository.save(image);
+    }
+
+    private Map<Long, Integer> displayOrders(Property property) {
+        return imageRepository.findByPropertyId(property.getId()).stream()
+                .collect(Collectors.toMap(Image::getId, Image::getDisplayOrder));
+    }
+
+    private Set<Long> mainImageIds(Property property) {
+        return imageRepository.findByPropertyId(property.getId()).stream()
+                .filter(Image::getIsMain)
+                .map(Image::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static GalleryLayoutDTO layout(Long mainImageId, List<Long> imageIds) {
+        GalleryLayoutDTO layout = new GalleryLayoutDTO();
+        layout.setImageIds(imageIds);
+        layout.setMainImageId(mainImageId);
+        return layout;
+    }
+
+    private static String storageKeyOf(MockMultipartFile file) throws IOException {
+        return ImageServiceUtils.generateContentStorageKey(
+                ImageServiceUtils.sha256Hex(file.getInputStream()), file.getContentType());
+    }
+
+    private static MockMultipartFile png(String name, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, rgb);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("files", name, "image/png", out.toByteArray());
+    }
+
+    private static Property listing() {
+        Property property = new Property();
+        property.setTitle("House");
+        property.setDescription("House");
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setZipCode("12345");
+        return property;
+    }
+
+    /**
+     * Runs an action when the upload opens the file to transfer it, after validating and hashing it.
+     */
+    private static final class DeletingMultipartFile extends MockMultipartFile {
+        private final Runnable onTransfer;
+        private final AtomicInteger opens = new AtomicInteger();
+
+        DeletingMultipartFile(MockMultipartFile file, Runnable onTransfer) throws IOException {
+            super(file.getName(), file.getOriginalFilename(), file.getContentType(), file.getBytes());
+            this.onTransfer = onTransfer;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (opens.incrementAndGet() == 3) {
+                onTransfer.run();
+            }
+            return super.getInputStream();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PresignedUrlDTO;
+import com.realestate.property.storage.ImageStorage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageUrlSignerTest {
+
+    @Test
+    void cachesDownloadUrlsUntilShortlyBeforeExpiry() throws Exception {
+        ImageStorage storage = mock(ImageStorage.class);
+        AtomicInteger signatures = new AtomicInteger();
+        when(storage.presignGet(anyString(), any()))
+                .thenAnswer(invocation -> "https://storage/" + invocation.getArgument(0) + "?sig=" + signatures.incrementAndGet());
+        when(storage.presignPut(anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> "https://storage/" + invocation.getArgument(0) + "?sig=" + signatures.incrementAndGet());
+
+        // Two second URLs with a one second margin are reused for one second
+        ImageUrlSigner signer = new ImageUrlSigner(storage, 600, 2, 60, 100);
+        PresignedUrlDTO first = signer.downloadUrl("images/ab/abcd.jpg");
+        assertEquals(first, signer.downloadUrl("images/ab/abcd.jpg"));
+        assertTrue(first.getExpiresAt().isAfter(Instant.now().plus(Duration.ofSeconds(1))));
+
+        Thread.sleep(1100);
+        assertNotEquals(first.getUrl(), signer.downloadUrl("images/ab/abcd.jpg").getUrl());
+
+        // Upload URLs are single use
+        assertNotEquals(signer.uploadUrl("properties/1/a.jpg", 10).getUrl(), signer.uploadUrl("properties/1/a.jpg", 10).getUrl());
+        assertEquals(4, signatures.get());
+    }
+}
@@ -0,0 +1,138 @@
+package com.realestate.property.service;
+
+import com.realestate.property.model.Image;
+import com.realestate.property.model.ImageVariantStatus;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.repository.PropertyRepository;
+import com.realestate.property.storage.ImageStorage;
+import com.realestate.property.util.ImageResizeUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// The scheduled backfill only runs once at startup; the tests call it directly
+@SpringBootTest(properties = {
+        "app.images.variants.enabled=true",
+        "app.images.variants.backfill-interval-ms=3600000",
+        "app.images.variants.backfill-delay-ms=0",
+        "app.images.variants.backfill-page-size=1",
+        "app.images.variants.max-attempts=2",
+        "app.images.variants.retry-base-delay-ms=600000"
+})
+@ActiveProfiles("test")
+class ImageVariantGeneratorTest {
+
+    @Autowired
+    private ImageVariantGenerator generator;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @AfterEach
+    void cleanUp() {
+        imageRepository.deleteAll();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void backfillPagesThroughPendingImages() throws Exception {
+        Property property = propertyRepository.save(listing());
+        byte[] jpeg = ImageResizeUtils.encodeJpeg(new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB), 0.8f);
+        Image first = image(property, "properties/1/first.jpg", jpeg, ImageVariantStatus.PENDING);
+        Image second = image(property, "properties/1/second.jpg", jpeg, ImageVariantStatus.PENDING);
+
+        generator.backfillPendingImages();
+
+        awaitImage(first.getId(), image -> image.getVariantStatus() == ImageVariantStatus.READY);
+        awaitImage(second.getId(), image -> image.getVariantStatus() == ImageVariantStatus.READY);
+    }
+
+    @Test
+    void retriesFailedImagesWithBackoffUntilAttemptsAreUsedUp() throws Exception {
+        Property property = propertyRepository.save(listing());
+        byte[] notAnImage = "not an image".getBytes(StandardCharsets.UTF_8);
+        Image broken = image(property, "properties/1/broken.jpg", notAnImage, ImageVariantStatus.PENDING);
+
+        generator.backfillPendingImages();
+
+        Image failed = awaitImage(broken.getId(), image -> image.getVariantStatus() == ImageVariantStatus.FAILED);
+        assertEquals(1, failed.getVariantAttempts());
+        assertTrue(failed.getVariantRetryAt().isAfter(LocalDateTime.now().plusMinutes(9)));
+
+        // Not due yet
+        generator.backfillPendingImages();
+        Thread.sleep(200);
+        assertEquals(1, imageRepository.findById(broken.getId()).orElseThrow().getVariantAttempts());
+
+        failed.setVariantRetryAt(LocalDateTime.now().minusSeconds(1));
+        imageRepository.save(failed);
+        generator.backfillPendingImages();
+
+        Image givenUp = awaitImage(broken.getId(), image -> image.getVariantAttempts() == 2);
+        assertEquals(ImageVariantStatus.FAILED, givenUp.getVariantStatus());
+        assertNull(givenUp.getVariantRetryAt());
+    }
+
+    private Image image(Property property, String storageKey, byte[] content, ImageVariantStatus status) {
+        imageStorage.put(storageKey, new ByteArrayInputStream(content), content.length, "image/jpeg");
+        Image image = new Image();
+        image.setName(storageKey);
+        image.setType("image/jpeg");
+        image.setUrl(imageStorage.urlFor(storageKey));
+        image.setStorageKey(storageKey);
+        image.setFileSize((long) content.length);
+        image.setVariantStatus(status);
+        image.setProperty(property);
+        return imageRepository.save(image);
+    }
+
+    private Image awaitImage(Long id, Predicate<Image> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Image image = imageRepository.findById(id).orElseThrow();
+            if (condition.test(image)) {
+                return image;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Image " + id + " did not reach the expected state");
+    }
+
+    private static Property listing() {
+        Property property = new Property();
+        property.setTitle("House");
+        property.setDescription("House");
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setZipCode("12345");
+        return property;
+    }
+}
@@ -0,0 +1,169 @@
+package com.realestate.property.service;
+
+import com.realestate.property.controller.PropertyFeedController;
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ListingFeedTest {
+
+    private static final Pattern RESET_ID = Pattern.compile("id:(\\d+)\nevent:reset");
+
+    private ListingFeed feed;
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.destroy();
+        }
+    }
+
+    @Test
+    void disabledFeedStartsNoDispatcher() {
+        feed = feed(false);
+
+        assertFalse(((Thread) ReflectionTestUtils.getField(feed, "dispatcher")).isAlive());
+        assertTrue(feed.subscribe(null, null, null, null).isEmpty());
+    }
+
+    @Test
+    void sendsOnlyTheLatestUnsentChangeOfEachListing() throws Exception {
+        feed = feed(true);
+        MockHttpServletResponse observer = subscribe(0L);
+        long start = resetSequence(observer);
+        change(1L, 100);
+        change(2L, 200);
+        change(1L, 110);
+        change(1L, 120);
+        awaitContent(observer, "id:" + (start + 4) + "\n");
+
+        // With the sender busy, the missed changes queue up for a subscriber resuming before them
+        CountDownLatch release = blockSenders();
+        MockHttpServletResponse resumed = subscribe(start);
+        // Joins after the resumed subscriber, so once its reset is queued the replay has been offered
+        subscribe(0L);
+        await(() -> senders().getQueue().size() == 2);
+        release.countDown();
+        awaitContent(resumed, "id:" + (start + 4) + "\n");
+
+        String content = resumed.getContentAsString();
+        assertEquals(2, content.split("event:change").length - 1);
+        assertTrue(content.contains("id:" + (start + 2) + "\n"));
+        assertTrue(content.contains("\"price\":120"));
+    }
+
+    @Test
+    void disconnectsSubscriberThatFallsTooFarBehind() throws Exception {
+        feed = feed(true);
+        MockHttpServletResponse observer = subscribe(0L);
+        long start = resetSequence(observer);
+        change(1L, 100);
+        change(2L, 200);
+        change(3L, 300);
+        awaitContent(observer, "id:" + (start + 3) + "\n");
+        ReflectionTestUtils.setField(feed, "maxPending", 2);
+
+        CountDownLatch release = blockSenders();
+        subscribe(start);
+        await(() -> feed.getDroppedCount() == 1);
+        release.countDown();
+
+        // Only the observer is left
+        assertEquals(1, feed.getSubscriberCount());
+    }
+
+    private ListingFeed feed(boolean enabled) {
+        LocationDictionary locationDictionary = mock(LocationDictionary.class);
+        when(locationDictionary.cityOf(any())).thenReturn("Toronto");
+        ListingFeed listingFeed = new ListingFeed(locationDictionary, enabled, 64, 1, 10);
+        ReflectionTestUtils.setField(listingFeed, "maxPending", 10);
+        ReflectionTestUtils.setField(listingFeed, "timeoutMillis", 60_000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PropertyFeedController(listingFeed)).build();
+        return listingFeed;
+    }
+
+    private MockHttpServletResponse subscribe(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/properties/feed")
+                .header("Last-Event-ID", String.valueOf(lastEventId));
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    // A subscriber resuming from an id the ring never held is told where the ring stands
+    private long resetSequence(MockHttpServletResponse response) throws Exception {
+        awaitContent(response, "event:reset");
+        Matcher matcher = RESET_ID.matcher(response.getContentAsString());
+        assertTrue(matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private void change(Long id, int price) {
+        feed.onPropertyChanged(new PropertyChangedEvent(id, "UPDATED", BigDecimal.valueOf(price + 1),
+                BigDecimal.valueOf(price), PropertyStatus.AVAILABLE, PropertyStatus.AVAILABLE,
+                LocalDateTime.now(), PropertyType.HOUSE, 1));
+    }
+
+    // Occupies the only sender thread until the latch is released
+    private CountDownLatch blockSenders() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        senders().execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        await(() -> senders().getActiveCount() == 1 && senders().getQueue().isEmpty());
+        return release;
+    }
+
+    private ThreadPoolExecutor senders() {
+        return (ThreadPoolExecutor) ReflectionTestUtils.getField(feed, "senders");
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String text) throws InterruptedException {
+        await(() -> {
+            try {
+                return response.getContentAsString().contains(text);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Listing feed did not reach the expected state");
+    }
+}
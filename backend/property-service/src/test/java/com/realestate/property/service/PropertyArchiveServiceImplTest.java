@@ -0,0 +1,136 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.FavoriteCardDTO;
+import com.realestate.property.dto.ImageDTO;
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.model.FavoriteProperty;
+import com.realestate.property.model.Image;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.ArchivedPropertyRepository;
+import com.realestate.property.repository.FavoritePropertyRepository;
+import com.realestate.property.repository.ImageRepository;
+import com.realestate.property.repository.PropertyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A negative retention makes every SOLD/RENTED listing eligible right away
+@SpringBootTest(properties = "app.tiering.retention-days=-1")
+@ActiveProfiles("test")
+class PropertyArchiveServiceImplTest {
+
+    private static final String USER = "buyer@example.com";
+
+    @Autowired
+    private PropertyArchiveService archiveService;
+
+    @Autowired
+    private FavoritePropertyService favoriteService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private FavoritePropertyRepository favoriteRepository;
+
+    @Autowired
+    private ArchivedPropertyRepository archivedPropertyRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @AfterEach
+    void cleanUp() {
+        favoriteRepository.deleteAll();
+        propertyRepository.deleteAll();
+        archivedPropertyRepository.deleteAll();
+    }
+
+    @Test
+    void movesListingsWithTheirImagesAndDeletesTheirFavorites() {
+        Property sold = propertyRepository.save(listing("Sold house", PropertyStatus.SOLD));
+        Property available = propertyRepository.save(listing("Available house", PropertyStatus.AVAILABLE));
+        Image front = image(sold, "front.jpg", 0, true);
+        Image kitchen = image(sold, "kitchen.jpg", 1, false);
+        favorite(sold, USER);
+        favorite(sold, "other@example.com");
+        favorite(available, USER);
+
+        assertEquals(1, archiveService.archiveEligibleProperties());
+
+        assertFalse(propertyRepository.existsById(sold.getId()));
+        assertEquals(1, favoriteRepository.count());
+        PropertyDTO archived = archiveService.findArchivedProperty(sold.getId()).orElseThrow();
+        assertEquals("Sold house", archived.getTitle());
+        assertEquals(PropertyType.HOUSE, archived.getType());
+        assertEquals(PropertyStatus.SOLD, archived.getStatus());
+        assertEquals(0, BigDecimal.valueOf(350000).compareTo(archived.getPrice()));
+        assertEquals(List.of(front.getId(), kitchen.getId()), archived.getImages().stream().map(ImageDTO::getId).toList());
+        assertEquals(List.of(true, false), archived.getImages().stream().map(ImageDTO::getIsMain).toList());
+        assertEquals(2L, archivedPropertyRepository.findById(sold.getId()).orElseThrow().getFavoriteCount());
+
+        Page<PropertyDTO> favorites = favoriteService.getFavoriteProperties(USER, PageRequest.of(0, 10));
+        assertEquals(List.of(available.getId()), favorites.map(PropertyDTO::getId).getContent());
+        assertEquals(1, favoriteService.getTotalFavorites(USER));
+        assertEquals(Set.of(available.getId()), favoriteService.getFavoritedPropertyIds(USER));
+        assertEquals(List.of(available.getId()), favoriteService.getFavoriteCards(USER, null, 10).getContent()
+                .stream().map(FavoriteCardDTO::getPropertyId).toList());
+    }
+
+    @Test
+    void leavesListingsThatAreStillOnTheMarket() {
+        Property available = propertyRepository.save(listing("Available house", PropertyStatus.AVAILABLE));
+
+        assertEquals(0, archiveService.archiveEligibleProperties());
+
+        assertTrue(propertyRepository.existsById(available.getId()));
+        assertEquals(0, archivedPropertyRepository.count());
+    }
+
+    private Image image(Property property, String name, int displayOrder, boolean main) {
+        Image image = new Image();
+        image.setName(name);
+        image.setType("image/jpeg");
+        image.setUrl("http://localhost:8081/" + name);
+        image.setDisplayOrder(displayOrder);
+        image.setIsMain(main);
+        image.setProperty(property);
+        return imageRepository.save(image);
+    }
+
+    private void favorite(Property property, String userEmail) {
+        FavoriteProperty favorite = new FavoriteProperty();
+        favorite.setProperty(property);
+        favorite.setUserEmail(userEmail);
+        favoriteRepository.save(favorite);
+    }
+
+    private static Property listing(String title, PropertyStatus status) {
+        Property property = new Property();
+        property.setTitle(title);
+        property.setDescription(title);
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(status);
+        property.setPrice(BigDecimal.valueOf(350000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(120.0);
+        property.setAddress("1 Main St");
+        property.setZipCode("12345");
+        return property;
+    }
+}
@@ -0,0 +1,145 @@
+package com.realestate.property.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.realestate.property.dto.PropertyDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PropertyDetailPrefetcherTest {
+
+    private final PropertyService propertyService = mock(PropertyService.class);
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager("properties");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // User each prefetch ran as, by listing
+    private final Map<Long, String> prefetchedAs = new ConcurrentHashMap<>();
+    private PropertyDetailPrefetcher prefetcher;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (prefetcher != null) {
+            prefetcher.destroy();
+        }
+    }
+
+    @Test
+    void skipsPrefetchesOverTheRateLimitAndCachedListings() throws Exception {
+        prefetcher = prefetcher(2, 300, 5);
+        cacheManager.getCache("properties").put(6L, listing(6L));
+
+        prefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.LIST, listings(6, 1, 2, 3, 4));
+
+        await(() -> requests("list", "warmed") == 3);
+        assertEquals(1, requests("list", "cached"));
+        assertEquals(1, requests("list", "rate_limited"));
+        verify(propertyService, never()).getProperty(6L);
+        // The burst is spent: permits come half a second apart again
+        prefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.LIST, listings(5));
+        assertEquals(2, requests("list", "rate_limited"));
+    }
+
+    @Test
+    void countsDetailRequestsWithinTheWindowAsHitsAndTheRestAsWasted() throws Exception {
+        prefetcher = prefetcher(50, 1, 3);
+
+        prefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.SEARCH, listings(1, 2));
+        await(() -> requests("search", "warmed") == 2);
+        prefetcher.recordDetailRequest(1L);
+        // A second look at the same listing is not another hit
+        prefetcher.recordDetailRequest(1L);
+
+        assertEquals(1, counter("property.prefetch.hits", "search"));
+        Thread.sleep(1_100);
+        ((Cache<?, ?>) ReflectionTestUtils.getField(prefetcher, "warmed")).cleanUp();
+        assertEquals(1, counter("property.prefetch.wasted", "search"));
+        assertEquals(0, counter("property.prefetch.wasted", "list"));
+    }
+
+    @Test
+    void prefetchesAsTheUserWhosePageTriggeredIt() throws Exception {
+        prefetcher = prefetcher(50, 300, 3);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "buyer@example.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        prefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.LIST, listings(1));
+        await(() -> requests("list", "warmed") == 1);
+        SecurityContextHolder.clearContext();
+        prefetcher.prefetch(PropertyDetailPrefetcher.Endpoint.LIST, listings(2));
+        await(() -> requests("list", "warmed") == 2);
+
+        assertEquals("buyer@example.com", prefetchedAs.get(1L));
+        assertEquals("", prefetchedAs.get(2L));
+        // The pool thread does not keep the context of the task it ran
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private PropertyDetailPrefetcher prefetcher(int maxPerSecond, long hitWindowSeconds, int topN) {
+        when(propertyService.getProperty(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            prefetchedAs.put(id, authentication == null ? "" : authentication.getName());
+            return listing(id);
+        });
+        PropertyDetailPrefetcher detailPrefetcher = new PropertyDetailPrefetcher(propertyService, cacheManager,
+                meterRegistry, 1, 10, maxPerSecond, hitWindowSeconds, topN, topN);
+        ReflectionTestUtils.setField(detailPrefetcher, "enabled", true);
+        // Idle for more than a second, so a second's worth of permits is available at once
+        ((AtomicLong) ReflectionTestUtils.getField(detailPrefetcher, "nextPermitNanos"))
+                .set(System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+        return detailPrefetcher;
+    }
+
+    private double requests(String endpoint, String result) {
+        return meterRegistry.get("property.prefetch.requests").tag("endpoint", endpoint).tag("result", result)
+                .counter().count();
+    }
+
+    private double counter(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).counter().count();
+    }
+
+    private static List<PropertyDTO> listings(long... ids) {
+        return LongStream.of(ids).mapToObj(PropertyDetailPrefetcherTest::listing).toList();
+    }
+
+    private static PropertyDTO listing(Long id) {
+        PropertyDTO property = new PropertyDTO();
+        property.setId(id);
+        return property;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Prefetcher did not reach the expected state");
+    }
+}
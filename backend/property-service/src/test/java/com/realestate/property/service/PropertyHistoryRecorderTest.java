@@ -0,0 +1,110 @@
+package com.realestate.property.service;
+
+import com.realestate.property.event.PropertyChangedEvent;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardTemplate;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PropertyHistoryRecorderTest {
+
+    private static final String CREATE_TABLE = "CREATE TABLE property_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "property_id BIGINT NOT NULL, ts TIMESTAMP NOT NULL, price NUMERIC(15, 2), status SMALLINT, "
+            + "event_type VARCHAR(40) NOT NULL)";
+
+    // Large enough for the tests never to set off a flush on the writer thread
+    private static final int BATCH_SIZE = 10;
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardTemplate shardTemplate;
+    private PropertyHistoryRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:history-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        ShardRouter shardRouter = new ShardRouter(false, List.of(), "", 0);
+        shardTemplate = new ShardTemplate(shardRouter, transactionManager, 1);
+        recorder = new PropertyHistoryRecorder(jdbcTemplate, transactionManager, shardRouter, shardTemplate, BATCH_SIZE, 100, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+        shardTemplate.destroy();
+    }
+
+    @Test
+    void writesQueuedChangesInBatches() {
+        jdbcTemplate.execute(CREATE_TABLE);
+        for (long id = 1; id <= 5; id++) {
+            recorder.onPropertyChanged(priceChange(id));
+        }
+        // Not a change worth recording
+        recorder.onPropertyChanged(new PropertyChangedEvent(6L, "UPDATED", BigDecimal.TEN, BigDecimal.TEN,
+                PropertyStatus.AVAILABLE, PropertyStatus.AVAILABLE, LocalDateTime.now(), PropertyType.HOUSE, null));
+
+        recorder.flush();
+
+        assertEquals(5, historyRows());
+    }
+
+    @Test
+    void keepsFailedBatchesAndWritesThemOnceTheDatabaseIsBack() {
+        for (long id = 1; id <= 3; id++) {
+            recorder.onPropertyChanged(priceChange(id));
+        }
+        // No table yet: the batch fails, and later changes stay queued while its retry fails too
+        recorder.flush();
+        recorder.onPropertyChanged(priceChange(4));
+        recorder.onPropertyChanged(priceChange(5));
+        recorder.flush();
+
+        jdbcTemplate.execute(CREATE_TABLE);
+        recorder.flush();
+
+        assertEquals(5, historyRows());
+        assertEquals(0, recorder.getDeadLetteredCount());
+    }
+
+    @Test
+    void givesUpOnABatchAfterMaxAttempts() {
+        recorder.onPropertyChanged(priceChange(1));
+        recorder.onPropertyChanged(priceChange(2));
+
+        recorder.flush();
+        recorder.flush();
+        recorder.flush();
+        assertEquals(2, recorder.getDeadLetteredCount());
+
+        // The queue moves on once the failed batch is out of the way
+        recorder.onPropertyChanged(priceChange(3));
+        jdbcTemplate.execute(CREATE_TABLE);
+        recorder.flush();
+        assertEquals(1, historyRows());
+    }
+
+    private int historyRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM property_history", Integer.class);
+    }
+
+    private static PropertyChangedEvent priceChange(long id) {
+        return new PropertyChangedEvent(id, "UPDATED", BigDecimal.valueOf(100000), BigDecimal.valueOf(95000),
+                PropertyStatus.AVAILABLE, PropertyStatus.AVAILABLE, LocalDateTime.now(), PropertyType.HOUSE, null);
+    }
+}
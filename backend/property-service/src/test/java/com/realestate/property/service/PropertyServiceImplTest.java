@@ -0,0 +1,124 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.PropertySearchCriteria;
+import com.realestate.property.model.Location;
+import com.realestate.property.model.Property;
+import com.realestate.property.model.PropertyStatus;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.repository.LocationRepository;
+import com.realestate.property.repository.PropertyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PropertyServiceImplTest {
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @AfterEach
+    void cleanUp() {
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void sortsByCityAndStateNamesRatherThanDictionaryIds() {
+        // Dictionary ids are allocated in this order, the reverse of the names
+        propertyService.createProperty(listing("Zurich Lane house", "Winnipeg", "MB"));
+        propertyService.createProperty(listing("Maple Street house", "Toronto", "ON"));
+        propertyService.createProperty(listing("Ocean Drive house", "Halifax", "NS"));
+
+        assertEquals(List.of("Halifax", "Toronto", "Winnipeg"), cities(propertyService.getAllProperties(
+                PageRequest.of(0, 10, Sort.by("city"))).getContent()));
+        assertEquals(List.of("Toronto", "Halifax", "Winnipeg"), cities(propertyService.searchProperties(
+                new PropertySearchCriteria(), PageRequest.of(0, 10, Sort.by(Sort.Order.desc("state")))).getContent()));
+    }
+
+    @Test
+    void mapsLocationsAllocatedElsewhereAfterStartup() {
+        // As if another instance had allocated the location after this one loaded the dictionary
+        Location location = locationRepository.save(new Location("Moncton", "NB"));
+        Property property = listingEntity(location.getId());
+        propertyRepository.save(property);
+
+        PropertyDTO dto = propertyService.getProperty(property.getId());
+
+        assertEquals("Moncton", dto.getCity());
+        assertEquals("NB", dto.getState());
+    }
+
+    @Test
+    void walksTheCatalogueInIdOrderAfterTheLastIdSeen() {
+        Location location = locationRepository.save(new Location("Kingston", "ON"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(propertyRepository.save(listingEntity(location.getId())).getId());
+        }
+
+        List<Long> walked = new ArrayList<>();
+        List<PropertyDTO> page;
+        long afterId = 0;
+        do {
+            page = propertyService.getCataloguePage(afterId, 2);
+            page.forEach(property -> walked.add(property.getId()));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        assertEquals(ids, walked);
+        assertEquals("Kingston", propertyService.getCataloguePage(0, 1).get(0).getCity());
+        assertThrows(IllegalArgumentException.class, () -> propertyService.getCataloguePage(0, 0));
+    }
+
+    private static List<String> cities(List<PropertyDTO> properties) {
+        return properties.stream().map(PropertyDTO::getCity).toList();
+    }
+
+    private static PropertyDTO listing(String title, String city, String state) {
+        PropertyDTO property = new PropertyDTO();
+        property.setTitle(title);
+        property.setDescription("A listing used to check how listings are sorted");
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(450000));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setArea(150.0);
+        property.setAddress("1 Main St");
+        property.setCity(city);
+        property.setState(state);
+        property.setZipCode("12345");
+        return property;
+    }
+
+    private static Property listingEntity(Integer locationId) {
+        Property property = new Property();
+        property.setTitle("Moncton house");
+        property.setType(PropertyType.HOUSE);
+        property.setStatus(PropertyStatus.AVAILABLE);
+        property.setPrice(BigDecimal.valueOf(300000));
+        property.setLocationId(locationId);
+        return property;
+    }
+}
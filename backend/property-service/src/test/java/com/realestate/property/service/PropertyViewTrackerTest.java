@@ -0,0 +1,122 @@
+package com.realestate.property.service;
+
+import com.realestate.property.dto.PropertyDTO;
+import com.realestate.property.dto.TrendingPropertyDTO;
+import com.realestate.property.model.PropertyType;
+import com.realestate.property.sharding.ShardRouter;
+import com.realestate.property.sharding.ShardRoutingDataSource;
+import com.realestate.property.sharding.ShardTemplate;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PropertyViewTrackerTest {
+
+    private static final String CREATE_TABLE = "CREATE TABLE properties (id BIGINT PRIMARY KEY, view_count BIGINT NOT NULL)";
+
+    private static final long TORONTO_HOUSE = 1;
+    private static final long MONTREAL_CONDO = ShardRouter.idRangeStart(1);
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private ShardTemplate shardTemplate;
+    private PropertyViewTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:views" + i + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            dataSources.add(dataSource);
+            shards.add(new JdbcTemplate(dataSource));
+        }
+        ShardRouter shardRouter = new ShardRouter(true, List.of("jdbc:h2:mem:a", "jdbc:h2:mem:b"), "QC=1", 0);
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(dataSources);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        shardTemplate = new ShardTemplate(shardRouter, transactionManager, 2);
+
+        tracker = new PropertyViewTracker(new JdbcTemplate(dataSource), transactionManager, shardRouter, shardTemplate);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        ReflectionTestUtils.setField(tracker, "maxTracked", 100);
+        ReflectionTestUtils.setField(tracker, "sketchCapacity", 8);
+        ReflectionTestUtils.setField(tracker, "trendingSize", 5);
+        ReflectionTestUtils.setField(tracker, "halfLifeMinutes", 60L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardTemplate.destroy();
+    }
+
+    @Test
+    void writesEachListingsViewsOnItsOwnShard() {
+        createTable(0, TORONTO_HOUSE);
+        createTable(1, MONTREAL_CONDO);
+        view(TORONTO_HOUSE, "Toronto", PropertyType.HOUSE, 3);
+        view(MONTREAL_CONDO, "Montreal", PropertyType.CONDO, 2);
+
+        tracker.flush();
+
+        assertEquals(3, viewCount(0, TORONTO_HOUSE));
+        assertEquals(2, viewCount(1, MONTREAL_CONDO));
+        assertEquals(List.of(TORONTO_HOUSE, MONTREAL_CONDO), trendingIds(null, null));
+        assertEquals(List.of(MONTREAL_CONDO), trendingIds("montreal", PropertyType.CONDO));
+    }
+
+    @Test
+    void putsViewsOfAFailedShardBackForTheNextFlush() {
+        createTable(0, TORONTO_HOUSE);
+        view(TORONTO_HOUSE, "Toronto", PropertyType.HOUSE, 3);
+        view(MONTREAL_CONDO, "Montreal", PropertyType.CONDO, 2);
+
+        // Shard 1 has no table yet, so only its batch fails
+        tracker.flush();
+        assertEquals(3, viewCount(0, TORONTO_HOUSE));
+
+        createTable(1, MONTREAL_CONDO);
+        view(MONTREAL_CONDO, "Montreal", PropertyType.CONDO, 1);
+        tracker.flush();
+
+        assertEquals(3, viewCount(0, TORONTO_HOUSE));
+        assertEquals(3, viewCount(1, MONTREAL_CONDO));
+        // The retried views were already counted towards trending
+        assertEquals(3, tracker.getTrending("montreal", null, 1).get(0).getScore(), 0.01);
+    }
+
+    private void view(long id, String city, PropertyType type, int times) {
+        PropertyDTO property = new PropertyDTO();
+        property.setId(id);
+        property.setCity(city);
+        property.setType(type);
+        for (int i = 0; i < times; i++) {
+            tracker.recordView(property);
+        }
+    }
+
+    private void createTable(int shard, long id) {
+        shards.get(shard).execute(CREATE_TABLE);
+        shards.get(shard).update("INSERT INTO properties (id, view_count) VALUES (?, 0)", id);
+    }
+
+    private long viewCount(int shard, long id) {
+        return shards.get(shard).queryForObject("SELECT view_count FROM properties WHERE id = ?", Long.class, id);
+    }
+
+    private List<Long> trendingIds(String city, PropertyType type) {
+        return tracker.getTrending(city, type, 10).stream().map(TrendingPropertyDTO::getPropertyId).toList();
+    }
+}
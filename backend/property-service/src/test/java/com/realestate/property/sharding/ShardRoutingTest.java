@@ -0,0 +1,180 @@
+package com.realestate.property.sharding;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRoutingTest {
+
+    private final List<DataSource> shards = new ArrayList<>();
+    private ShardRouter shardRouter;
+    private ShardTemplate shardTemplate;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:shard" + i + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            new JdbcTemplate(dataSource).execute("CREATE TABLE properties (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, state VARCHAR(10))");
+            shards.add(dataSource);
+        }
+
+        shardRouter = new ShardRouter(true, List.of("jdbc:h2:mem:a", "jdbc:h2:mem:b"), "ON=1, QC=1, BC=2", 0);
+        ShardIdRangeAligner aligner = new ShardIdRangeAligner();
+        for (int i = 0; i < shards.size(); i++) {
+            aligner.align(shards.get(i), i, List.of("properties"));
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        shardTemplate = new ShardTemplate(shardRouter, new DataSourceTransactionManager(dataSource), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardTemplate.destroy();
+    }
+
+    @Test
+    void writesGoToOwningShardAndIdsEncodeIt() throws Throwable {
+        long ontario = insert("ON");
+        long alberta = insert("AB");
+        long britishColumbia = insert("BC");
+
+        assertEquals(1, shardRouter.shardForId(ontario));
+        assertEquals(0, shardRouter.shardForId(alberta));
+        assertEquals(2, shardRouter.shardForId(britishColumbia));
+        assertEquals(ShardRouter.idRangeStart(1), ontario);
+
+        String state = shardTemplate.onShard(shardRouter.shardForId(ontario), () ->
+                jdbcTemplate.queryForObject("SELECT state FROM properties WHERE id = ?", String.class, ontario));
+        assertEquals("ON", state);
+    }
+
+    @Test
+    void scatterPrunesByStateAndGathersFromEveryShard() throws Throwable {
+        insert("ON");
+        insert("QC");
+        insert("BC");
+        insert("AB");
+
+        List<Long> counts = shardTemplate.scatter(shardRouter.allShards(),
+                shard -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM properties", Long.class));
+        assertEquals(List.of(1L, 2L, 1L), counts);
+
+        assertEquals(List.of(0, 1), shardRouter.shardsForStateCriterion("on"));
+        assertEquals(List.of(0, 2), shardRouter.shardsForStateCriterion("bc"));
+        assertEquals(List.of(0, 1, 2), shardRouter.shardsForStateCriterion(null));
+    }
+
+    @Test
+    void routesShardRoutedMethodsCalledThroughTheSpringProxy() throws Throwable {
+        long ontario = insert("ON");
+        long alberta = insert("AB");
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            CountingTransactionManager transactionManager = new CountingTransactionManager(jdbcTemplate.getDataSource());
+            context.registerBean(ShardRouter.class, () -> shardRouter);
+            context.registerBean(ShardTemplate.class, () -> shardTemplate);
+            context.registerBean(PlatformTransactionManager.class, () -> transactionManager);
+            context.registerBean(JdbcTemplate.class, () -> jdbcTemplate);
+            context.register(ProxyConfig.class);
+            context.refresh();
+
+            RoutedListings listings = context.getBean(RoutedListings.class);
+            assertTrue(AopUtils.isAopProxy(listings));
+            assertEquals("ON", listings.stateOf(ontario));
+            assertEquals("AB", listings.stateOf(alberta));
+            // The shard is bound before the method's transaction begins, so none is nested
+            assertEquals(2, transactionManager.begun.get());
+        }
+    }
+
+    private long insert(String state) throws Throwable {
+        return shardTemplate.onShard(shardRouter.shardForState(state), () -> {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO properties (state) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, state);
+                return ps;
+            }, keyHolder);
+            return keyHolder.getKey().longValue();
+        });
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @EnableTransactionManagement
+    static class ProxyConfig {
+
+        @Bean
+        ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter, ShardTemplate shardTemplate) {
+            return new ShardRoutingAspect(shardRouter, shardTemplate);
+        }
+
+        @Bean
+        RoutedListings routedListings(JdbcTemplate jdbcTemplate) {
+            return new RoutedListings(jdbcTemplate);
+        }
+    }
+
+    static class RoutedListings {
+        private final JdbcTemplate jdbcTemplate;
+
+        RoutedListings(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @ShardRouted(id = "#id")
+        @Transactional(readOnly = true)
+        public String stateOf(Long id) {
+            assertEquals(id >>> ShardRouter.ID_SHARD_SHIFT, (long) ShardContext.current());
+            return jdbcTemplate.queryForObject("SELECT state FROM properties WHERE id = ?", String.class, id);
+        }
+    }
+
+    static class CountingTransactionManager extends DataSourceTransactionManager {
+        private final AtomicInteger begun = new AtomicInteger();
+
+        CountingTransactionManager(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begun.incrementAndGet();
+            super.doBegin(transaction, definition);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.realestate.property.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalFileSystemImageStorageTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesReadsRangesAndDeletes() throws Exception {
+        LocalFileSystemImageStorage storage = newStorage();
+        storage.put("properties/1/a.jpg", new ByteArrayInputStream(DATA), DATA.length, "image/jpeg");
+        storage.put("properties/1/b.jpg", new ByteArrayInputStream(DATA), DATA.length, "image/jpeg");
+
+        StoredObjectMetadata metadata = storage.head("properties/1/a.jpg").orElseThrow();
+        assertEquals(DATA.length, metadata.contentLength());
+        assertEquals("image/jpeg", metadata.contentType());
+        try (InputStream in = storage.get("properties/1/a.jpg")) {
+            assertArrayEquals(DATA, in.readAllBytes());
+        }
+        try (InputStream in = storage.get("properties/1/a.jpg", 3, 5)) {
+            assertEquals("345", new String(in.readAllBytes()));
+        }
+        // No temporary files are left next to the objects
+        try (Stream<Path> files = Files.list(root.resolve("properties/1"))) {
+            assertEquals(2, files.count());
+        }
+
+        storage.deleteAll(List.of("properties/1/a.jpg", "properties/1/b.jpg", "properties/1/missing.jpg"));
+        assertTrue(storage.head("properties/1/a.jpg").isEmpty());
+        assertThrows(StorageObjectNotFoundException.class, () -> storage.get("properties/1/b.jpg"));
+    }
+
+    @Test
+    void rejectsTruncatedUploadsAndKeysOutsideTheRoot() {
+        LocalFileSystemImageStorage storage = newStorage();
+        assertThrows(StorageException.class, () ->
+                storage.put("properties/1/a.jpg", new ByteArrayInputStream(DATA), DATA.length + 1, "image/jpeg"));
+        assertTrue(storage.head("properties/1/a.jpg").isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> storage.get("../outside.jpg"));
+        assertThrows(IllegalArgumentException.class, () -> storage.delete("/etc/passwd"));
+    }
+
+    @Test
+    void listsKeysInOrderFromAStartKey() {
+        LocalFileSystemImageStorage storage = newStorage();
+        for (String key : List.of("images/ab/b.jpg", "images/ab/variants/card/a.jpg", "images/ab/a.jpg", "properties/1/c.jpg")) {
+            storage.put(key, new ByteArrayInputStream(DATA), DATA.length, "image/jpeg");
+        }
+
+        List<StoredObjectSummary> first = storage.list("images/", null, 2);
+        assertEquals(List.of("images/ab/a.jpg", "images/ab/b.jpg"), first.stream().map(StoredObjectSummary::key).toList());
+        assertEquals(DATA.length, first.get(0).size());
+        List<StoredObjectSummary> rest = storage.list("images/", "images/ab/b.jpg", 2);
+        assertEquals(List.of("images/ab/variants/card/a.jpg"), rest.stream().map(StoredObjectSummary::key).toList());
+        assertTrue(storage.list("uploads/staging/", null, 10).isEmpty());
+    }
+
+    @Test
+    void verifiesPresignedUploadsForTheirSignedLength() {
+        LocalFileSystemImageStorage storage = newStorage();
+        URI url = URI.create(storage.presignPut("properties/1/a.jpg", DATA.length, Duration.ofMinutes(5)));
+        assertTrue(url.getPath().endsWith("/api/storage/objects/properties/1/a.jpg"));
+
+        String[] params = url.getQuery().split("&");
+        long expires = Long.parseLong(params[1].substring("expires=".length()));
+        assertEquals("length=" + DATA.length, params[2]);
+        String signature = params[3].substring("signature=".length());
+        assertTrue(storage.verifyUpload("properties/1/a.jpg", expires, DATA.length, signature));
+        assertFalse(storage.verifyUpload("properties/1/b.jpg", expires, DATA.length, signature));
+        assertFalse(storage.verifyUpload("properties/1/a.jpg", expires, DATA.length * 1000L, signature));
+        assertFalse(storage.verifyUpload("properties/1/a.jpg", expires - 3600, DATA.length, signature));
+        // A download URL for the key is no upload permit
+        String download = URI.create(storage.presignGet("properties/1/a.jpg", Duration.ofMinutes(5))).getQuery();
+        assertFalse(storage.verifyUpload("properties/1/a.jpg", expires, DATA.length,
+                download.substring(download.indexOf("signature=") + "signature=".length())));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                storage.presignPut("properties/1/a.jpg", 1024 * 1024 + 1, Duration.ofMinutes(5)));
+        assertThrows(IllegalArgumentException.class, () -> storage.put("properties/1/a.jpg",
+                new ByteArrayInputStream(new byte[0]), 1024 * 1024 + 1, "image/jpeg"));
+    }
+
+    private LocalFileSystemImageStorage newStorage() {
+        try {
+            return new LocalFileSystemImageStorage(root.toString(), "http://localhost:8081/", "secret", 1);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
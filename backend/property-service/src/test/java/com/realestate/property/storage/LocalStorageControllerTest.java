@@ -0,0 +1,58 @@
+package com.realestate.property.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LocalStorageControllerTest {
+
+    private static final byte[] DATA = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String KEY = "properties/1/a.jpg";
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemImageStorage storage;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new LocalFileSystemImageStorage(root.toString(), "http://localhost:8081", "secret", 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(new LocalStorageController(storage)).build();
+    }
+
+    @Test
+    void storesAnUploadOfTheSignedLength() throws Exception {
+        URI url = URI.create(storage.presignPut(KEY, DATA.length, Duration.ofMinutes(5)));
+
+        mockMvc.perform(put(url).contentType("image/jpeg").content(DATA)).andExpect(status().isOk());
+
+        assertEquals(DATA.length, storage.head(KEY).orElseThrow().contentLength());
+    }
+
+    @Test
+    void refusesBodiesOtherThanTheSignedLengthWithoutStoringThem() throws Exception {
+        URI url = URI.create(storage.presignPut(KEY, DATA.length, Duration.ofMinutes(5)));
+
+        mockMvc.perform(put(url).content(new byte[DATA.length + 1])).andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(put(url).content(new byte[DATA.length - 1])).andExpect(status().isBadRequest());
+        mockMvc.perform(put(url)).andExpect(status().isLengthRequired());
+        // Raising the signed length breaks the signature
+        URI raised = URI.create(url.toString().replace("length=" + DATA.length, "length=" + 1024 * 1024));
+        mockMvc.perform(put(raised).content(new byte[1024 * 1024])).andExpect(status().isForbidden());
+
+        assertTrue(storage.head(KEY).isEmpty());
+    }
+}
@@ -0,0 +1,43 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecayedHeavyHittersTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void keepsHeavyHittersWhenEvicting() {
+        DecayedHeavyHitters<Long> sketch = new DecayedHeavyHitters<>(4, HOUR, 0);
+        for (long item = 0; item < 100; item++) {
+            sketch.add(item, 1, 0);
+            sketch.add(1_000L, 5, 0);
+        }
+        List<DecayedHeavyHitters.Scored<Long>> top = sketch.top(1, 0);
+        assertEquals(1_000L, top.get(0).key());
+        // Never underestimates
+        assertTrue(top.get(0).score() >= 500);
+    }
+
+    @Test
+    void recentViewsOutweighOlderOnes() {
+        DecayedHeavyHitters<String> sketch = new DecayedHeavyHitters<>(8, HOUR, 0);
+        sketch.add("old", 100, 0);
+        sketch.add("new", 30, 2 * HOUR);
+
+        List<DecayedHeavyHitters.Scored<String>> top = sketch.top(2, 2 * HOUR);
+        assertEquals("new", top.get(0).key());
+        assertEquals(25, top.get(1).score(), 1e-9);
+
+        // Far enough ahead to rescale the weights
+        sketch.add("new", 1, 100 * HOUR);
+        assertEquals(1, sketch.top(1, 100 * HOUR).get(0).score(), 1e-6);
+        sketch.prune(0.5, 100 * HOUR);
+        assertEquals(List.of("new"), sketch.top(8, 100 * HOUR).stream().map(DecayedHeavyHitters.Scored::key).toList());
+    }
+}
@@ -0,0 +1,71 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageResizeUtilsTest {
+
+    @Test
+    void resizeBoundsLongestSideAndKeepsAspectRatio() {
+        BufferedImage source = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage resized = ImageResizeUtils.resize(source, 480);
+
+        assertEquals(480, resized.getWidth());
+        assertEquals(360, resized.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, resized.getType());
+    }
+
+    @Test
+    void resizeNeverUpscales() throws Exception {
+        BufferedImage source = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage resized = ImageResizeUtils.resize(source, 1280);
+        byte[] jpeg = ImageResizeUtils.encodeJpeg(resized, 0.8f);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertNotNull(decoded);
+        assertEquals(100, decoded.getWidth());
+        assertEquals(50, decoded.getHeight());
+    }
+
+    @Test
+    void readSubsamplesImagesOverThePixelLimit() throws Exception {
+        byte[] png = png(400, 300);
+
+        BufferedImage full = ImageResizeUtils.read(new ByteArrayInputStream(png), 400 * 300);
+        // Every fourth pixel of every fourth row; every third would still be 134 x 100
+        BufferedImage subsampled = ImageResizeUtils.read(new ByteArrayInputStream(png), 10_000);
+
+        assertEquals(400, full.getWidth());
+        assertEquals(300, full.getHeight());
+        assertEquals(100, subsampled.getWidth());
+        assertEquals(75, subsampled.getHeight());
+        assertNull(ImageResizeUtils.read(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8)),
+                10_000));
+    }
+
+    @Test
+    void subsamplingStepKeepsHugeImagesWithinTheLimit() {
+        assertEquals(1, ImageResizeUtils.subsamplingStep(4000, 3000, 40_000_000));
+        // A 50,000 x 50,000 PNG compresses to a few megabytes but would decode to 10 GB
+        int step = ImageResizeUtils.subsamplingStep(50_000, 50_000, 40_000_000);
+        assertEquals(8, step);
+        assertEquals(6250L * 6250, ((50_000L + step - 1) / step) * ((50_000L + step - 1) / step));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
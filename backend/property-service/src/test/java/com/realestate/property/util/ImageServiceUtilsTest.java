@@ -0,0 +1,37 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageServiceUtilsTest {
+
+    private static final String HASH = "ab" + "0".repeat(62);
+
+    @Test
+    void sniffsImageTypeFromMagicBytes() {
+        assertEquals("image/jpeg", ImageServiceUtils.sniffContentType(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}));
+        assertEquals("image/png", ImageServiceUtils.sniffContentType(
+                new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}));
+        assertEquals("image/gif", ImageServiceUtils.sniffContentType("GIF87a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("image/gif", ImageServiceUtils.sniffContentType("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(ImageServiceUtils.sniffContentType("<svg>".getBytes(StandardCharsets.US_ASCII)));
+        // Shorter than any signature
+        assertNull(ImageServiceUtils.sniffContentType(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+    }
+
+    @Test
+    void variantsShareTheContentHashOfTheirOriginal() {
+        String original = ImageServiceUtils.generateContentStorageKey(HASH, "image/png");
+        String variant = ImageServiceUtils.generateVariantStorageKey(original, "card");
+
+        assertEquals("images/ab/" + HASH + ".png", original);
+        assertEquals("images/ab/variants/card/" + HASH + ".jpg", variant);
+        assertEquals(HASH, ImageServiceUtils.contentHashOf(original));
+        assertEquals(HASH, ImageServiceUtils.contentHashOf(variant));
+        assertNull(ImageServiceUtils.contentHashOf("properties/42/photo.jpg"));
+    }
+}
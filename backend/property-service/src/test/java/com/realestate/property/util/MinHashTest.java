@@ -0,0 +1,47 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTest {
+
+    private static final String DESCRIPTION = "Bright corner unit with an open kitchen, hardwood floors throughout, "
+            + "a private balcony overlooking the park and a reserved parking space in the building garage.";
+
+    @Test
+    void nearDuplicatesShareABucketAndDifferentListingsDoNot() {
+        int[] original = MinHash.signature("Modern 2-bed apartment downtown", DESCRIPTION, "12 Main Street, Apt 4");
+        int[] relisted = MinHash.signature("Modern 2 bed apartment, downtown!", DESCRIPTION + " Available now.",
+                "12 Main St Apt 4");
+        int[] other = MinHash.signature("Family house with garden",
+                "Detached house on a quiet street with a large garden, three bedrooms and a double garage.",
+                "88 Oak Avenue");
+
+        assertTrue(MinHash.similarity(original, relisted) >= 0.8);
+        assertTrue(MinHash.similarity(original, other) < 0.2);
+        assertTrue(sharesBucket(original, relisted));
+        assertFalse(sharesBucket(original, other));
+    }
+
+    @Test
+    void encodesSignaturesAndSkipsListingsWithoutText() {
+        int[] signature = MinHash.signature("Loft", null, " ");
+        assertArrayEquals(signature, MinHash.decode(MinHash.encode(signature)));
+        assertNull(MinHash.signature(null, "  ", ""));
+    }
+
+    private static boolean sharesBucket(int[] a, int[] b) {
+        long[] bucketsA = MinHash.buckets(a);
+        long[] bucketsB = MinHash.buckets(b);
+        for (int i = 0; i < bucketsA.length; i++) {
+            if (bucketsA[i] == bucketsB[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.realestate.property.util;
+
+import com.realestate.property.dto.PropertyDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageMergeUtilsTest {
+
+    @Test
+    void mergesSortedPartsAndSlicesTheRequestedPage() {
+        Pageable pageable = PageRequest.of(1, 3, Sort.by("price"));
+        List<PropertyDTO> hot = List.of(listing(1, 100), listing(2, 300), listing(3, 500), listing(4, 700));
+        List<PropertyDTO> archived = List.of(listing(5, 200), listing(6, 400), listing(7, 600));
+
+        Page<PropertyDTO> page = PageMergeUtils.merge(List.of(hot, archived), 7, pageable, PropertyDTO.class);
+
+        assertEquals(List.of(6L, 3L, 7L), ids(page));
+        assertEquals(7, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+    }
+
+    @Test
+    void ordersDescendingByEveryOrderWithNullsLast() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id")));
+        List<PropertyDTO> hot = List.of(listing(3, 500), listing(1, 200), listing(4, null));
+        List<PropertyDTO> archived = List.of(listing(2, 500), listing(5, 200));
+
+        Page<PropertyDTO> page = PageMergeUtils.merge(List.of(hot, archived), 5, pageable, PropertyDTO.class);
+
+        // Descending reverses the null placement too, as the unsorted comparator did
+        assertEquals(List.of(4L, 2L, 3L, 1L, 5L), ids(page));
+    }
+
+    @Test
+    void returnsAnEmptyPagePastTheEnd() {
+        Pageable pageable = PageRequest.of(3, 2, Sort.by("id"));
+
+        Page<PropertyDTO> page = PageMergeUtils.merge(List.of(List.of(listing(1, 1)), List.of(listing(2, 2))),
+                2, pageable, PropertyDTO.class);
+
+        assertEquals(List.of(), page.getContent());
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void buildsOneComparatorPerTypeAndSort() {
+        assertSame(PageMergeUtils.comparator(PropertyDTO.class, Sort.by("price", "id")),
+                PageMergeUtils.comparator(PropertyDTO.class, Sort.by("price", "id")));
+    }
+
+    @Test
+    void rejectsPropertiesThatCannotBeSorted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PageMergeUtils.comparator(PropertyDTO.class, Sort.by("colour")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageMergeUtils.comparator(PropertyDTO.class, Sort.by("images")));
+    }
+
+    @Test
+    void windowCoversEveryPageUpToTheRequestedOne() {
+        Pageable window = PageMergeUtils.windowFor(PageRequest.of(2, 20, Sort.by("price")));
+
+        assertEquals(0, window.getPageNumber());
+        assertEquals(60, window.getPageSize());
+        assertEquals(Sort.by("price"), window.getSort());
+    }
+
+    private static PropertyDTO listing(long id, Integer price) {
+        PropertyDTO property = new PropertyDTO();
+        property.setId(id);
+        property.setPrice(price != null ? BigDecimal.valueOf(price) : null);
+        return property;
+    }
+
+    private static List<Long> ids(Page<PropertyDTO> page) {
+        return page.getContent().stream().map(PropertyDTO::getId).toList();
+    }
+}
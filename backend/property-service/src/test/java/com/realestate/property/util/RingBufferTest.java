@@ -0,0 +1,26 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RingBufferTest {
+
+    @Test
+    void keepsTheMostRecentValuesAcrossWrapAround() {
+        RingBuffer<String> ring = new RingBuffer<>(3, 100);
+        for (int i = 0; i < 5; i++) {
+            long sequence = ring.append(seq -> "v" + seq);
+            assertEquals(100 + i, sequence);
+        }
+
+        assertEquals(102, ring.oldestSequence());
+        assertEquals(105, ring.nextSequence());
+        // Overwritten sequences start from the oldest retained value
+        assertEquals(List.of("v102", "v103", "v104"), ring.readFrom(100, 10));
+        assertEquals(List.of("v103"), ring.readFrom(103, 1));
+        assertEquals(List.of(), ring.readFrom(105, 10));
+    }
+}
@@ -0,0 +1,68 @@
+package com.realestate.property.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingMultipartParserTest {
+
+    private static final String BOUNDARY = "----formBoundary7MA4YWxk";
+
+    @Test
+    void readsPartsThroughSmallBufferAndShortReads() throws IOException {
+        byte[] file = new byte[10_000];
+        new Random(42).nextBytes(file);
+        // A near-miss of the delimiter inside the data must pass through untouched
+        byte[] nearMiss = ("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(nearMiss, 0, file, 5_000, nearMiss.length);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"size\"\r\n\r\n"
+                + file.length + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a b.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(file);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        // Every read returns at most 7 bytes, so boundaries straddle reads
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(body.toByteArray())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        StreamingMultipartParser parser = new StreamingMultipartParser(trickle, BOUNDARY, 128);
+
+        StreamingMultipartParser.Part size = parser.nextPart();
+        assertEquals("size", size.name());
+        assertNull(size.fileName());
+        assertEquals(String.valueOf(file.length), new String(size.body().readAllBytes(), StandardCharsets.US_ASCII));
+
+        StreamingMultipartParser.Part part = parser.nextPart();
+        assertEquals("file", part.name());
+        assertEquals("a b.jpg", part.fileName());
+        assertEquals("image/jpeg", part.contentType());
+        assertArrayEquals(file, part.body().readAllBytes());
+
+        assertNull(parser.nextPart());
+    }
+
+    @Test
+    void rejectsNonMultipartContentType() {
+        assertThrows(IllegalArgumentException.class, () -> StreamingMultipartParser.boundaryOf("application/json"));
+        assertEquals(BOUNDARY, StreamingMultipartParser.boundaryOf("multipart/form-data; boundary=" + BOUNDARY));
+    }
+}
@@ -44,10 +44,10 @@ const PropertyCard = ({
       return '/images/properties/property-placeholder.jpg';
     }
 
-    const mainImage = property.images.find((img) => img.isMain);
+    const image = property.images.find((img) => img.isMain) || property.images[0];
     return (
-      mainImage?.url ||
-      property.images[0]?.url ||
+      image?.variants?.card ||
+      image?.url ||
       '/images/properties/property-placeholder.jpg'
     );
   };
@@ -9,6 +9,8 @@ export interface ImageDTO {
   isMain: boolean;
   displayOrder: number;
   fileSize: number;
+  // Resized renditions keyed by variant name; missing until generated
+  variants?: Partial<Record<'thumbnail' | 'card' | 'detail', string>>;
   createdAt: string;
   updatedAt: string;
 }